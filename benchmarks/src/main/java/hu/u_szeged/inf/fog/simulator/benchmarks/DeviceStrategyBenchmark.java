@@ -0,0 +1,143 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.AlwaysOnMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
+import hu.u_szeged.inf.fog.simulator.application.Application;
+import hu.u_szeged.inf.fog.simulator.application.strategy.RuntimeAwareApplicationStrategy;
+import hu.u_szeged.inf.fog.simulator.iot.Device;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.iot.strategy.DistanceBasedDeviceStrategy;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.provider.Instance;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast an IoT device finds the application it should send its 
+ * data to when many computing appliances are scattered around it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DeviceStrategyBenchmark {
+
+    /**
+     * The number of computing appliances, each of them runs a single application.
+     */
+    @Param({"10", "100", "1000"})
+    public int applianceCount;
+
+    SimulationContext previous;
+
+    Device device;
+
+    /**
+     * Places the appliances and the device randomly inside of a 4x4 degree area. 
+     * The applications are not deployed, thus the benchmark only covers the 
+     * selection logic. The device is connected to the closest application in 
+     * advance, so the strategy does not cause any node change events.
+     */
+    @Setup(Level.Trial)
+    public void setupAppliances() {
+        final SimulationContext ctx = new SimulationContext(42);
+        previous = SimulationContext.bind(ctx);
+        final Random rnd = ctx.getRandom();
+        final VirtualAppliance va = new VirtualAppliance("va", 100, 0, false, 1_073_741_824L);
+        final Instance instance = new Instance("benchmark-instance", va, 
+                new AlterableResourceConstraints(2, 0.001, 4_294_967_296L), 0.0);
+        final HashMap<String, Integer> latencies = new HashMap<>();
+        final EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions =
+                PowerTransitionGenerator.generateTransitions(20, 200, 300, 10, 20);
+        for (int i = 0; i < applianceCount; i++) {
+            final IaaSService iaas;
+            try {
+                iaas = new IaaSService(FirstFitScheduler.class, AlwaysOnMachines.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            iaas.registerRepository(new Repository(1_073_741_824L, "node" + i, 1000, 1000, 1000, latencies, 
+                    transitions.get(PowerTransitionGenerator.PowerStateKind.storage),
+                    transitions.get(PowerTransitionGenerator.PowerStateKind.network)));
+            final ComputingAppliance ca = new ComputingAppliance(iaas, 
+                    new GeoLocation(45 + rnd.nextDouble() * 4, 17 + rnd.nextDouble() * 4), "", "");
+            final Application app = new Application("app" + i, 60_000, 250, 2500, true,
+                    new RuntimeAwareApplicationStrategy(0.9, 2.0), instance);
+            app.computingAppliance = ca;
+            ca.applications = new ArrayList<>();
+            ca.applications.add(app);
+        }
+        device = new Device() {
+            @Override
+            public void tick(long fires) {
+                // the device never generates data in this benchmark
+            }
+        };
+        device.geoLocation = new GeoLocation(47, 19);
+        device.deviceStrategy = new DistanceBasedDeviceStrategy();
+        device.deviceStrategy.device = device;
+        double min = Double.MAX_VALUE;
+        for (Application app : Application.getAllApplications()) {
+            final double distance = device.geoLocation.calculateDistance(app.computingAppliance.geoLocation);
+            if (distance < min) {
+                min = distance;
+                device.application = app;
+            }
+        }
+    }
+
+    /**
+     * Binds the thread back to the context it used before the benchmark.
+     */
+    @TearDown(Level.Trial)
+    public void restoreContext() {
+        SimulationContext.bind(previous);
+    }
+
+    /**
+     * Lets the strategy of the device choose the closest application.
+     *
+     * @return the chosen application
+     */
+    @Benchmark
+    public Application findApplication() {
+        device.deviceStrategy.findApplication();
+        return device.deviceStrategy.chosenApplication;
+    }
+
+    /**
+     * Collects the applications in the range of the device.
+     *
+     * @return the applications the device could connect to
+     */
+    @Benchmark
+    public ArrayList<Application> availableApplications() {
+        return device.deviceStrategy.getAvailableApplications();
+    }
+}
@@ -0,0 +1,123 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.u_szeged.inf.fog.simulator.prediction.Feature;
+import hu.u_szeged.inf.fog.simulator.prediction.FeatureManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the recording of feature values and the CSV export of the 
+ * collected dataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FeatureManagerBenchmark {
+
+    /**
+     * The number of features registered in the feature manager.
+     */
+    @Param({"10", "100"})
+    public int featureCount;
+
+    /**
+     * The number of values recorded for every feature.
+     */
+    @Param({"1000", "10000"})
+    public int valueCount;
+
+    String exportDir;
+
+    PrintStream stdout;
+
+    /**
+     * Registers the features and fills them with values. The log messages of 
+     * the exports are suppressed as they would only add console I/O to the 
+     * measurement.
+     */
+    @Setup(Level.Trial)
+    public void setupFeatures() throws IOException {
+        exportDir = Files.createTempDirectory("feature-export").toString() + "/";
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        FeatureManager.getInstance().getFeatures().clear();
+        final Random rnd = new Random(42);
+        for (int i = 0; i < featureCount; i++) {
+            FeatureManager.getInstance().addFeature(new Feature("feature" + i) {
+                @Override
+                public double compute() {
+                    return rnd.nextDouble();
+                }
+            });
+        }
+        for (int v = 0; v < valueCount; v++) {
+            recordValues();
+        }
+    }
+
+    /**
+     * Restores the console and removes the exported files.
+     */
+    @TearDown(Level.Trial)
+    public void cleanup() throws IOException {
+        System.setOut(stdout);
+        FeatureManager.getInstance().getFeatures().clear();
+        Files.deleteIfExists(Path.of(exportDir, "dataset.csv"));
+        Files.deleteIfExists(Path.of(exportDir));
+    }
+
+    /**
+     * Records a new value for all features, similarly to a single sampling 
+     * round of the simulation.
+     */
+    private void recordValues() {
+        for (Feature feature : FeatureManager.getInstance().getFeatures()) {
+            feature.computeValue();
+        }
+    }
+
+    /**
+     * Writes all recorded values to a CSV file.
+     */
+    @Benchmark
+    public void exportDataset() throws IOException {
+        FeatureManager.getInstance().exportDatasetToCsv(exportDir, "dataset.csv");
+    }
+
+    /**
+     * Looks up every feature by its name.
+     *
+     * @return the number of features found
+     */
+    @Benchmark
+    public int lookupFeatures() {
+        int found = 0;
+        for (int i = 0; i < featureCount; i++) {
+            if (FeatureManager.getInstance().getFeatureByName("feature" + i) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
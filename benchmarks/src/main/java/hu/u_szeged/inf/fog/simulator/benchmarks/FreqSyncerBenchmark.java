@@ -0,0 +1,76 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinConsumer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinProvider;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the maintenance of influence groups. Independent provider-consumer 
+ * pairs are bridged by short consumptions, so the groups repeatedly merge into 
+ * a single large one and then split as the bridges complete.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FreqSyncerBenchmark {
+
+    /**
+     * The number of initially independent influence groups.
+     */
+    @Param({"10", "100", "500"})
+    public int groupCount;
+
+    /**
+     * The number of bridges registered between each neighbouring pair of groups.
+     */
+    @Param({"4"})
+    public int bridgesPerGroup;
+
+    /**
+     * Runs the merge/split scenario until all consumptions complete.
+     *
+     * @return the simulated time at the end of the simulation
+     */
+    @Benchmark
+    public long mergeAndSplit() {
+        final SimulationContext ctx = new SimulationContext(42);
+        ctx.run(() -> {
+            final Random rnd = ctx.getRandom();
+            final ConsumptionEventAdapter ev = new ConsumptionEventAdapter();
+            final MaxMinProvider[] providers = new MaxMinProvider[groupCount];
+            final MaxMinConsumer[] consumers = new MaxMinConsumer[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                providers[i] = new MaxMinProvider(1);
+                consumers[i] = new MaxMinConsumer(1);
+                new ResourceConsumption(bridgesPerGroup * 1000, ResourceConsumption.unlimitedProcessing,
+                        consumers[i], providers[i], ev).registerConsumption();
+            }
+            for (int b = 0; b < bridgesPerGroup; b++) {
+                for (int i = 0; i < groupCount - 1; i++) {
+                    new ResourceConsumption(rnd.nextInt(500) + 10, ResourceConsumption.unlimitedProcessing,
+                            consumers[i + 1], providers[i], ev).registerConsumption();
+                }
+            }
+            Timed.simulateUntilLastEvent();
+        });
+        return ctx.getFireCount();
+    }
+}
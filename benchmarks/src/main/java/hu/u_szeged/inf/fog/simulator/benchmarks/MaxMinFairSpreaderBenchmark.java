@@ -0,0 +1,64 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinConsumer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinProvider;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the max-min fair resource sharing when a single provider serves 
+ * many consumers with different demands and limits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MaxMinFairSpreaderBenchmark {
+
+    /**
+     * The number of consumers sharing the provider.
+     */
+    @Param({"10", "100", "1000"})
+    public int consumerCount;
+
+    /**
+     * Registers one consumption per consumer and runs the simulation until all of 
+     * them complete. As consumptions finish one by one, the provider's capacity is 
+     * redistributed among the remaining ones after every completion.
+     *
+     * @return the simulated time at the end of the simulation
+     */
+    @Benchmark
+    public long shareProvider() {
+        final SimulationContext ctx = new SimulationContext(42);
+        ctx.run(() -> {
+            final Random rnd = ctx.getRandom();
+            final MaxMinProvider provider = new MaxMinProvider(consumerCount);
+            final ConsumptionEventAdapter ev = new ConsumptionEventAdapter();
+            for (int i = 0; i < consumerCount; i++) {
+                final MaxMinConsumer consumer = new MaxMinConsumer(rnd.nextInt(4) + 1);
+                final double limit = i % 3 == 0 ? ResourceConsumption.unlimitedProcessing : rnd.nextDouble() + 0.1;
+                new ResourceConsumption(rnd.nextInt(1000) + 100, limit, consumer, provider, ev)
+                        .registerConsumption();
+            }
+            Timed.simulateUntilLastEvent();
+        });
+        return ctx.getFireCount();
+    }
+}
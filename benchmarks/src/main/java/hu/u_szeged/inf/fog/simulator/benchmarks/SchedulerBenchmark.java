@@ -0,0 +1,120 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.AlwaysOnMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures VM placement with each VM scheduler of the IaaS. The physical 
+ * machines are already switched on when the measurement starts, so the 
+ * benchmark covers the scheduling decisions, the PM side VM requests and 
+ * the deployment of the VMs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SchedulerBenchmark {
+
+    /**
+     * The simple name of the VM scheduler class to use.
+     */
+    @Param({"FirstFitScheduler", "NonQueueingScheduler", "SmallestFirstScheduler", 
+        "RandomScheduler", "RoundRobinScheduler"})
+    public String scheduler;
+
+    /**
+     * The number of physical machines in the IaaS.
+     */
+    @Param({"16", "256"})
+    public int hostCount;
+
+    /**
+     * The number of cores per physical machine.
+     */
+    static final int coresPerHost = 8;
+
+    IaaSService iaas;
+
+    VirtualAppliance va;
+
+    ResourceConstraints vmSize;
+
+    /**
+     * Builds a fresh IaaS and waits until all of its machines are running.
+     */
+    @Setup(Level.Invocation)
+    @SuppressWarnings("unchecked")
+    public void setupIaaS() throws Exception {
+        Timed.resetTimed();
+        final EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions =
+                PowerTransitionGenerator.generateTransitions(20, 200, 300, 10, 20);
+        final HashMap<String, Integer> latencies = new HashMap<>();
+        final Class<? extends Scheduler> vmsch = (Class<? extends Scheduler>) Class
+                .forName(Scheduler.class.getPackage().getName() + "." + scheduler);
+        iaas = new IaaSService(vmsch, AlwaysOnMachines.class);
+        final ArrayList<PhysicalMachine> pms = new ArrayList<>();
+        for (int i = 0; i < hostCount; i++) {
+            final String name = "pm-disk-" + i;
+            latencies.put(name, 1);
+            pms.add(new PhysicalMachine(coresPerHost, 1, 8_589_934_592L, 
+                    new Repository(107_374_182_400L, name, 12_500, 12_500, 12_500, latencies,
+                            transitions.get(PowerTransitionGenerator.PowerStateKind.storage),
+                            transitions.get(PowerTransitionGenerator.PowerStateKind.network)),
+                    10, 10, transitions.get(PowerTransitionGenerator.PowerStateKind.host)));
+        }
+        latencies.put("central", 5);
+        final Repository central = new Repository(1_099_511_627_776L, "central", 125_000, 125_000, 125_000, 
+                latencies, transitions.get(PowerTransitionGenerator.PowerStateKind.storage),
+                transitions.get(PowerTransitionGenerator.PowerStateKind.network));
+        va = new VirtualAppliance("va", 100, 0, false, 1_073_741_824L);
+        central.registerObject(va);
+        iaas.registerRepository(central);
+        iaas.bulkHostRegistration(pms);
+        vmSize = new ConstantConstraints(1, 1, 536_870_912L);
+        Timed.simulateUntilLastEvent();
+    }
+
+    /**
+     * Requests one VM after the other until half of the cores are in use, then 
+     * runs the simulation until all VMs are deployed.
+     *
+     * @return the number of VMs known by the IaaS
+     */
+    @Benchmark
+    public int requestVMs() throws Exception {
+        final int vmCount = hostCount * coresPerHost / 2;
+        for (int i = 0; i < vmCount; i++) {
+            iaas.requestVM(va, vmSize, iaas.repositories.get(0), 1);
+        }
+        Timed.simulateUntilLastEvent();
+        return iaas.listVMs().size();
+    }
+}
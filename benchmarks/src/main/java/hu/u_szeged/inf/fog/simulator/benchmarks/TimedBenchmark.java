@@ -0,0 +1,115 @@
+package hu.u_szeged.inf.fog.simulator.benchmarks;
+
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the event throughput of the discrete event engine: recurring events
+ * with frequent frequency updates and one-off deferred events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TimedBenchmark {
+
+    /**
+     * The number of concurrently subscribed recurring events.
+     */
+    @Param({"100", "10000"})
+    public int timedCount;
+
+    /**
+     * The number of events each recurring event fires before it unsubscribes.
+     */
+    @Param({"50"})
+    public int firesPerTimed;
+
+    /**
+     * A recurring event that reschedules itself with a random frequency.
+     */
+    static class Rescheduler extends Timed {
+
+        private static final long serialVersionUID = 1L;
+
+        final Random rnd;
+
+        int remaining;
+
+        Rescheduler(Random rnd, int fires) {
+            this.rnd = rnd;
+            this.remaining = fires;
+            subscribe(rnd.nextInt(100) + 1);
+        }
+
+        @Override
+        public void tick(long fires) {
+            if (--remaining == 0) {
+                unsubscribe();
+            } else {
+                updateFrequency(rnd.nextInt(100) + 1);
+            }
+        }
+    }
+
+    /**
+     * Runs a simulation where all recurring events fire the given number of times.
+     *
+     * @return the simulated time at the end of the simulation
+     */
+    @Benchmark
+    public long recurringEvents() {
+        final SimulationContext ctx = new SimulationContext(42);
+        ctx.run(() -> {
+            final Random rnd = ctx.getRandom();
+            for (int i = 0; i < timedCount; i++) {
+                new Rescheduler(rnd, firesPerTimed);
+            }
+            Timed.simulateUntilLastEvent();
+        });
+        return ctx.getFireCount();
+    }
+
+    /**
+     * Runs a simulation made of deferred events only, some of them are cancelled 
+     * before they would be delivered.
+     *
+     * @return the simulated time at the end of the simulation
+     */
+    @Benchmark
+    public long deferredEvents() {
+        final SimulationContext ctx = new SimulationContext(42);
+        ctx.run(() -> {
+            final Random rnd = ctx.getRandom();
+            final int total = timedCount * firesPerTimed;
+            for (int i = 0; i < total; i++) {
+                final DeferredEvent de = new DeferredEvent(rnd.nextInt(10_000) + 1) {
+                    @Override
+                    protected void eventAction() {
+                        // delivery is what is measured
+                    }
+                };
+                if (i % 10 == 0) {
+                    de.cancel();
+                }
+            }
+            Timed.simulateUntilLastEvent();
+        });
+        return ctx.getFireCount();
+    }
+}
@@ -4,6 +4,7 @@ import hu.u_szeged.inf.fog.simulator.executor.dao.model.SimulatorJobDataObject;
 import hu.u_szeged.inf.fog.simulator.executor.model.SimulatorJob;
 import hu.u_szeged.inf.fog.simulator.executor.model.SimulatorJobStatus;
 import hu.u_szeged.inf.fog.simulator.executor.model.filetype.ResultFileType;
+import hu.u_szeged.inf.fog.simulator.executor.util.SimulatorJobFileUtil;
 import hu.u_szeged.inf.fog.simulator.util.result.SimulatorJobResult;
 import java.io.File;
 import java.util.HashMap;
@@ -70,7 +71,8 @@ public class SimulatorJobDao {
                         .applicationCode(job.getApplicationCode())
                         .isApplicationCodeCustom(job.getIsApplicationCodeCustom())
                         .simulatorJobStatus(job.getSimulatorJobStatus())
-                        .configFiles(retrieverGridFsDao.retrieveFiles(job.getConfigFiles())).build())
+                        .configFiles(retrieverGridFsDao.retrieveFiles(job.getConfigFiles(),
+                                SimulatorJobFileUtil.getJobDirectory(job.getId()))).build())
                 .orElse(null);
     }
 }
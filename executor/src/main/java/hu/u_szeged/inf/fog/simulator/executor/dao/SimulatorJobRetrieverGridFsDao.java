@@ -34,12 +34,13 @@ public class SimulatorJobRetrieverGridFsDao {
     @NonNull
     private final GridFsOperations gridFsOperations;
 
-    public MultiValueMap<ConfigFileType, File> retrieveFiles(@NonNull Map<String, ObjectId> inputs) {
+    public MultiValueMap<ConfigFileType, File> retrieveFiles(@NonNull Map<String, ObjectId> inputs,
+            @NonNull File directory) {
         final MultiValueMap<ConfigFileType, File> result = new LinkedMultiValueMap<>();
 
         for (Map.Entry<String, ObjectId> entry : inputs.entrySet()) {
             var type = ConfigFileType.fromValue(entry.getKey());
-            var file = retrieveFile(entry.getValue());
+            var file = retrieveFile(entry.getValue(), directory);
 
             result.add(type, file);
         }
@@ -47,10 +48,10 @@ public class SimulatorJobRetrieverGridFsDao {
         return result;
     }
 
-    protected File retrieveFile(ObjectId fileId) {
+    protected File retrieveFile(ObjectId fileId, File directory) {
         return Optional.of(Criteria.where("_id").is(fileId)).map(criteria -> new Query(criteria))
                 .map(query -> gridFsTemplate.findOne(query)).map(gridFSFile -> gridFsOperations.getResource(gridFSFile))
-                .map(gridFsResource -> saveFileIntoLocalFile(gridFsResource, gridFsResource.getFilename()))
+                .map(gridFsResource -> saveFileIntoLocalFile(gridFsResource, directory, gridFsResource.getFilename()))
                 .orElseThrow(() -> new IllegalStateException("Couldn't retrieve file from DB."));
     }
 }
@@ -0,0 +1,17 @@
+package hu.u_szeged.inf.fog.simulator.executor.model;
+
+import hu.u_szeged.inf.fog.simulator.executor.model.filetype.ResultFileType;
+import hu.u_szeged.inf.fog.simulator.util.result.SimulatorJobResult;
+import java.io.File;
+import java.util.HashMap;
+import lombok.Value;
+
+/**
+ * The results streamed back by the simulation process of a job.
+ */
+@Value
+public class SimulatorJobOutput {
+
+    private HashMap<ResultFileType, File> resultFiles;
+    private SimulatorJobResult simulatorJobResult;
+}
@@ -1,107 +1,106 @@
 package hu.u_szeged.inf.fog.simulator.executor.service;
 
-import hu.mta.sztaki.lpds.cloud.simulator.Timed;
-import hu.u_szeged.inf.fog.simulator.application.Application;
-import hu.u_szeged.inf.fog.simulator.demo.ScenarioBase;
 import hu.u_szeged.inf.fog.simulator.executor.dao.SimulatorJobDao;
 import hu.u_szeged.inf.fog.simulator.executor.model.SimulatorJob;
-import hu.u_szeged.inf.fog.simulator.executor.model.filetype.ResultFileType;
 import hu.u_szeged.inf.fog.simulator.executor.util.SimulatorJobFileUtil;
-import hu.u_szeged.inf.fog.simulator.iot.Device;
-import hu.u_szeged.inf.fog.simulator.iot.mobility.MobilityEvent;
-import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
-import hu.u_szeged.inf.fog.simulator.provider.Provider;
-import hu.u_szeged.inf.fog.simulator.util.SimLogger;
-import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
-import hu.u_szeged.inf.fog.simulator.util.xml.ApplianceXmlModel;
-import hu.u_szeged.inf.fog.simulator.util.xml.DeviceXmlModel;
-import hu.u_szeged.inf.fog.simulator.util.xml.InstanceXmlModel;
-
-import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.APPLIANCES_FILE;
-import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.DEVICES_FILE;
-import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.IAAS_FILE;
-import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.INSTANCES_FILE;
-
-import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-
+/**
+ * Claims the submitted jobs and simulates them on a pool of workers. Every simulation runs
+ * in its own JVM (see {@link SimulatorJobProcessRunner}), thus the jobs can run concurrently
+ * without sharing the static state of the simulator. Jobs are only claimed if there is an
+ * idle worker, so the remaining jobs can be claimed by other executor instances.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class SimulatorJobExecutorService {
 
-    @NonNull
     private final SimulatorJobDao simulatorJobDao;
+    private final SimulatorJobProcessRunner processRunner;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
 
-    @Scheduled(initialDelay = 0, fixedDelayString = "${dissect-cf.jobs.delay_in_milliseconds}")
-    public void runSimulationForTheNextAvailableJob() {
-        final var startTime = System.nanoTime();
-        System.setProperty("org.springframework.boot.logging.java.SimpleFormatter.format","%5$s %n");
-        Optional.ofNullable(simulatorJobDao.retrieveNextAvailableJob()).filter(SimulatorJob::isValid).stream()
-                .peek(this::simulationHousekeeping)
-                .peek(this::loadSimulationData)
-                .peek(job -> SimLogger.setLogging(1, true))
-                .peek(job -> Timed.simulateUntilLastEvent())
-                .peek(job -> this.saveSimulatorResults(job, startTime))
-                .findFirst();
+    @Autowired
+    public SimulatorJobExecutorService(@NonNull SimulatorJobDao simulatorJobDao,
+            @NonNull SimulatorJobProcessRunner processRunner,
+            @Value("${dissect-cf.jobs.workers:0}") int workerCount) {
+        this.simulatorJobDao = simulatorJobDao;
+        this.processRunner = processRunner;
+        var poolSize = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        var threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize,
+                runnable -> new Thread(runnable, "simulator-job-worker-" + threadCounter.incrementAndGet()));
+        this.idleWorkers = new Semaphore(poolSize);
     }
 
-    private void simulationHousekeeping(SimulatorJob simulatorjob) {
-        // TODO: other static fields?
-        Timed.resetTimed();
-        Application.allApplications.clear();
-        Device.allDevices.clear();
-        ComputingAppliance.allComputingAppliances.clear();
-
-        MobilityEvent.changePositionEventCounter = 0;
-        MobilityEvent.changeNodeEventCounter = 0;
-        MobilityEvent.connectToNodeEventCounter = 0;
-        MobilityEvent.disconnectFromNodeEventCounter = 0;
-
-        for (Provider provider : Provider.allProviders) {
-            provider.cost = 0;
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dissect-cf.jobs.delay_in_milliseconds}")
+    public void claimAvailableJobs() {
+        while (idleWorkers.tryAcquire()) {
+            SimulatorJob simulatorJob;
+            try {
+                simulatorJob = simulatorJobDao.retrieveNextAvailableJob();
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                throw e;
+            }
+            if (simulatorJob == null) {
+                idleWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    runSimulation(simulatorJob);
+                } finally {
+                    deleteJobDirectory(simulatorJob);
+                    idleWorkers.release();
+                }
+            });
         }
     }
 
-    private void loadSimulationData(@NonNull SimulatorJob simulatorJob) {
-        var simulatorJobConfigs = simulatorJob.getConfigFiles();
-        var iaasLoaders = Optional.ofNullable(simulatorJobConfigs.get(IAAS_FILE)).stream()
-                .flatMap(List::stream)
-                .map(file -> Map.entry(file.getName().replaceFirst(".xml", ""), file.getAbsolutePath()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
+    private void runSimulation(@NonNull SimulatorJob simulatorJob) {
+        if (!simulatorJob.isValid()) {
+            log.warn("Job {} is missing some of its config files", simulatorJob.getId());
+            simulatorJobDao.saveSimulatorJobError(simulatorJob.getId(), 1);
+            return;
+        }
         try {
-            DeviceXmlModel.loadDeviceXml(simulatorJobConfigs.getFirst(DEVICES_FILE).getPath(),simulatorJob.getDeviceCode(),Boolean.valueOf(simulatorJob.getIsDeviceCodeCustom()));
-            InstanceXmlModel.loadInstanceXml(simulatorJobConfigs.getFirst(INSTANCES_FILE).getPath());
-            ApplianceXmlModel.loadApplianceXml(simulatorJobConfigs.getFirst(APPLIANCES_FILE).getPath(), iaasLoaders, simulatorJob.getApplicationCode(),Boolean.valueOf(simulatorJob.getIsApplicationCodeCustom()));
+            var output = processRunner.run(simulatorJob);
+            simulatorJobDao.saveSimulatorJobResult(simulatorJob.getId(), output.getResultFiles(),
+                    output.getSimulatorJobResult());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            simulatorJobDao.saveSimulatorJobError(simulatorJob.getId(), 1);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("The simulation of job " + simulatorJob.getId() + " failed", e);
+            simulatorJobDao.saveSimulatorJobError(simulatorJob.getId(), 1);
         }
     }
 
-    private void saveSimulatorResults(@NonNull SimulatorJob simulatorJob, long startTime) {
+    /**
+     * Removes the files of a finished job, its results are already uploaded.
+     */
+    private static void deleteJobDirectory(@NonNull SimulatorJob simulatorJob) {
         try {
-            // TODO: later we should delete the locally stored files which were already uploaded to the database?
-            ScenarioBase.calculateIoTCost();
-            var result = ScenarioBase.logBatchProcessing(System.nanoTime() - startTime);
-            var resultFiles = new HashMap<ResultFileType, File>();
-            var timeline = TimelineVisualiser.generateTimeline(SimulatorJobFileUtil.WORKING_DIR_BASE_PATH);
-            resultFiles.put(ResultFileType.TIMELINE, timeline);
-            simulatorJobDao.saveSimulatorJobResult(simulatorJob.getId(), resultFiles, result);
+            SimulatorJobFileUtil.deleteJobDirectory(simulatorJob.getId());
         } catch (IOException e) {
-            simulatorJobDao.saveSimulatorJobError(simulatorJob.getId(), 1);
-            throw new IllegalStateException("Couldn't save simulator result onto the filesystem!", e);
+            log.warn("Couldn't delete the directory of job " + simulatorJob.getId(), e);
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
 }
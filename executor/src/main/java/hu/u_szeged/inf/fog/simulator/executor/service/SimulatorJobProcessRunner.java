@@ -0,0 +1,182 @@
+package hu.u_szeged.inf.fog.simulator.executor.service;
+
+import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.APPLIANCES_FILE;
+import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.DEVICES_FILE;
+import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.IAAS_FILE;
+import static hu.u_szeged.inf.fog.simulator.executor.model.filetype.ConfigFileType.INSTANCES_FILE;
+
+import hu.u_szeged.inf.fog.simulator.executor.model.SimulatorJob;
+import hu.u_szeged.inf.fog.simulator.executor.model.SimulatorJobOutput;
+import hu.u_szeged.inf.fog.simulator.executor.model.filetype.ResultFileType;
+import hu.u_szeged.inf.fog.simulator.executor.util.SimulatorJobFileUtil;
+import hu.u_szeged.inf.fog.simulator.util.result.SimulatorJobResult;
+import hu.u_szeged.inf.fog.simulator.util.result.SimulatorJobRunner;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the simulation of a job in a child JVM (see {@link SimulatorJobRunner}), thus the jobs
+ * cannot see the static state of each other. The output of the child is read line by line
+ * until its end: the result announcements are collected, malformed announcements are logged
+ * as warnings, everything else is forwarded to the debug log.
+ */
+@Slf4j
+@Component
+public class SimulatorJobProcessRunner {
+
+    private final String javaCommand;
+    private final String classpath;
+    private final List<String> jvmOptions;
+    private final long timeoutInMinutes;
+
+    public SimulatorJobProcessRunner(@Value("${dissect-cf.jobs.java_command:}") String javaCommand,
+            @Value("${dissect-cf.jobs.simulator_jar:}") String simulatorJar,
+            @Value("${dissect-cf.jobs.jvm_options:}") String jvmOptions,
+            @Value("${dissect-cf.jobs.timeout_in_minutes:60}") long timeoutInMinutes) {
+        this.javaCommand = javaCommand.isBlank()
+                ? Path.of(System.getProperty("java.home"), "bin", "java").toString() : javaCommand;
+        this.classpath = simulatorJar.isBlank()
+                ? System.getProperty("java.class.path") : new File(simulatorJar).getAbsolutePath();
+        this.jvmOptions = jvmOptions.isBlank() ? List.of() : Arrays.asList(jvmOptions.trim().split("\\s+"));
+        this.timeoutInMinutes = timeoutInMinutes;
+    }
+
+    public SimulatorJobOutput run(@NonNull SimulatorJob simulatorJob) throws IOException, InterruptedException {
+        var jobDirectory = SimulatorJobFileUtil.getJobDirectory(simulatorJob.getId());
+        jobDirectory.mkdirs();
+        var jobFile = writeJobFile(simulatorJob, jobDirectory);
+
+        var command = new ArrayList<String>();
+        command.add(javaCommand);
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", classpath, SimulatorJobRunner.class.getName(), jobFile.getAbsolutePath()));
+        var process = new ProcessBuilder(command).directory(jobDirectory).redirectErrorStream(true).start();
+
+        var resultFiles = new HashMap<ResultFileType, File>();
+        var summaryFile = new File[1];
+        var reader = new Thread(() -> readOutput(simulatorJob.getId(), process, resultFiles, summaryFile),
+                "simulator-job-output-" + simulatorJob.getId());
+        reader.start();
+
+        try {
+            if (timeoutInMinutes > 0) {
+                if (!process.waitFor(timeoutInMinutes, TimeUnit.MINUTES)) {
+                    throw new IllegalStateException("The simulation of job " + simulatorJob.getId()
+                            + " did not finish in " + timeoutInMinutes + " minutes!");
+                }
+            } else {
+                process.waitFor();
+            }
+            reader.join();
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("The simulation of job " + simulatorJob.getId()
+                    + " exited with code " + process.exitValue() + "!");
+        }
+        if (summaryFile[0] == null) {
+            throw new IllegalStateException("The simulation of job " + simulatorJob.getId()
+                    + " did not report its result!");
+        }
+        return new SimulatorJobOutput(resultFiles, readSummary(summaryFile[0]));
+    }
+
+    private File writeJobFile(SimulatorJob simulatorJob, File jobDirectory) throws IOException {
+        var configFiles = simulatorJob.getConfigFiles();
+        var job = new Properties();
+        job.setProperty(SimulatorJobRunner.RESULT_DIRECTORY, jobDirectory.getAbsolutePath());
+        job.setProperty(SimulatorJobRunner.DEVICES_FILE, configFiles.getFirst(DEVICES_FILE).getAbsolutePath());
+        job.setProperty(SimulatorJobRunner.INSTANCES_FILE, configFiles.getFirst(INSTANCES_FILE).getAbsolutePath());
+        job.setProperty(SimulatorJobRunner.APPLIANCES_FILE, configFiles.getFirst(APPLIANCES_FILE).getAbsolutePath());
+        Optional.ofNullable(configFiles.get(IAAS_FILE)).stream().flatMap(List::stream)
+                .forEach(file -> job.setProperty(
+                        SimulatorJobRunner.IAAS_FILE_PREFIX + file.getName().replaceFirst(".xml", ""),
+                        file.getAbsolutePath()));
+        setIfPresent(job, SimulatorJobRunner.DEVICE_CODE, simulatorJob.getDeviceCode());
+        setIfPresent(job, SimulatorJobRunner.IS_DEVICE_CODE_CUSTOM, simulatorJob.getIsDeviceCodeCustom());
+        setIfPresent(job, SimulatorJobRunner.APPLICATION_CODE, simulatorJob.getApplicationCode());
+        setIfPresent(job, SimulatorJobRunner.IS_APPLICATION_CODE_CUSTOM, simulatorJob.getIsApplicationCodeCustom());
+
+        var jobFile = new File(jobDirectory, "job.properties");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(jobFile), StandardCharsets.UTF_8)) {
+            job.store(writer, "Simulator job " + simulatorJob.getId());
+        }
+        return jobFile;
+    }
+
+    private static void setIfPresent(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Reads the output of the child until its end, thus the child never blocks on a full pipe.
+     * If the output cannot be read, the child is stopped.
+     */
+    private static void readOutput(String jobId, Process process, HashMap<ResultFileType, File> resultFiles,
+            File[] summaryFile) {
+        try (var reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(SimulatorJobRunner.RESULT_PREFIX)) {
+                    log.debug("[{}] {}", jobId, line);
+                    continue;
+                }
+                var announcement = SimulatorJobRunner.parseAnnouncement(line);
+                if (announcement == null) {
+                    log.warn("[{}] Malformed result announcement: {}", jobId, line);
+                } else if (SimulatorJobRunner.SUMMARY.equals(announcement[0])) {
+                    summaryFile[0] = new File(announcement[1]);
+                } else {
+                    var type = resultFileType(announcement[0]);
+                    if (type.isPresent()) {
+                        resultFiles.put(type.get(), new File(announcement[1]));
+                    } else {
+                        log.warn("[{}] Unknown result type: {}", jobId, line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Couldn't read the output of the simulation of job " + jobId + "!", e);
+            process.destroyForcibly();
+        }
+    }
+
+    private static Optional<ResultFileType> resultFileType(String name) {
+        return Arrays.stream(ResultFileType.values()).filter(type -> type.name().equals(name)).findFirst();
+    }
+
+    private static SimulatorJobResult readSummary(File summaryFile) throws IOException {
+        try (var in = new ObjectInputStream(new FileInputStream(summaryFile))) {
+            return (SimulatorJobResult) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Couldn't read the result of the simulation!", e);
+        }
+    }
+}
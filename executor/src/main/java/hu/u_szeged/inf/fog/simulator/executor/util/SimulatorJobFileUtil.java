@@ -7,6 +7,7 @@ import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import lombok.experimental.UtilityClass;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.util.FileSystemUtils;
 
 
 @UtilityClass
@@ -17,9 +18,12 @@ public class SimulatorJobFileUtil {
     public static final String WORKING_DIR_BASE_PATH = ScenarioBase.resultDirectory;
 
     public static File saveFileIntoLocalFile(InputStreamResource file, String filename) {
+        return saveFileIntoLocalFile(file, new File(WORKING_DIR_BASE_PATH), filename);
+    }
+
+    public static File saveFileIntoLocalFile(InputStreamResource file, File directory, String filename) {
         try (var inputStream = file.getInputStream()) {
-            var resultFilePath = String.join(SEPARATOR, WORKING_DIR_BASE_PATH, filename);
-            var resultFile = new File(resultFilePath);
+            var resultFile = new File(directory, filename);
 
             resultFile.getParentFile().mkdirs();
             Files.copy(inputStream, resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
@@ -33,4 +37,19 @@ public class SimulatorJobFileUtil {
     public static String getPathForFilename(String filename) {
         return String.join(SEPARATOR, WORKING_DIR_BASE_PATH, filename);
     }
+
+    /**
+     * Returns with the directory of a job, the config files and the results of jobs
+     * running at the same time must not overwrite each other.
+     */
+    public static File getJobDirectory(String jobId) {
+        return new File(String.join(SEPARATOR, WORKING_DIR_BASE_PATH, jobId));
+    }
+
+    /**
+     * Deletes the directory of a job with its config and result files.
+     */
+    public static void deleteJobDirectory(String jobId) throws IOException {
+        FileSystemUtils.deleteRecursively(getJobDirectory(jobId).toPath());
+    }
 }
@@ -1,7 +1,10 @@
+import json
 import socket
 import traceback
 import time
 
+import binary_protocol
+
 from socket_client import SocketClient
 from socket_message import SocketMessage
 
@@ -22,28 +25,57 @@ class Application:
         self._socket.connect()
         self._predictor = None
         self._min_prediction_time = None
+        self._binary = False
 
         self.loop()
 
     def loop(self):
         while self._socket.connected:
+            if self._binary:
+                if not self.handle_frame(*self._socket.wait_and_get_frame()):
+                    break
+                continue
+
             request = self._socket.wait_and_get()
             response = self.handle_message(request)
             if response == "STOP":
                 break
             self._socket.send(response)
+            if response is not None and response.event == "binary-protocol-response" and response.data["accepted"]:
+                self._binary = True
+
+    def handle_frame(self, frame_type, correlation_id, payload):
+        if frame_type == binary_protocol.TYPE_PREDICT_REQUEST:
+            results = []
+            for feature in binary_protocol.decode_request(payload):
+                results.append((feature["name"], self.predict(feature), None))
+            self._socket.send_frame(binary_protocol.TYPE_PREDICT_RESPONSE, correlation_id,
+                                    binary_protocol.encode_response(results))
+            return True
+
+        data = json.loads(payload.decode("utf-8"))
+        Log.warning(f"[FRAME-IN  ] E: {data['event']}")
+        response = self.handle_message(SocketMessage(data["event"], data["data"]))
+        if response == "STOP":
+            return False
+        self._socket.send_frame(binary_protocol.TYPE_JSON, correlation_id, bytes(response.serialize(), "utf-8"))
+        return True
+
+    def predict(self, feature):
+        prediction = None
+        try:
+            start = time.time()
+            prediction = self._predictor.compute(feature)
+            elapsed_time = time.time() - start
+            if self._min_prediction_time is not None and elapsed_time < self._min_prediction_time:
+                time.sleep(self._min_prediction_time - elapsed_time)
+        except:
+            traceback.print_exc()
+        return prediction
 
     def handle_message(self, message):
         if message.event == "predict-feature":
-            prediction = None
-            try:
-                start = time.time()
-                prediction = self._predictor.compute(message.data["feature"])
-                elapsed_time = time.time() - start
-                if self._min_prediction_time is not None and elapsed_time < self._min_prediction_time:
-                    time.sleep(self._min_prediction_time - elapsed_time)
-            except:
-                traceback.print_exc()
+            prediction = self.predict(message.data["feature"])
 
             response = SocketMessage("prediction-result", {"prediction": prediction})
 
@@ -57,6 +89,9 @@ class Application:
             return SocketMessage("simulation-settings-response", {"message": None})
         elif message.event == "get-name":
             return SocketMessage("get-name-response", {"name": APPLICATION_PREDICTOR})
+        elif message.event == "binary-protocol":
+            return SocketMessage("binary-protocol-response",
+                                 {"accepted": message.data.get("version") == binary_protocol.VERSION})
         elif message.event == "stop-connection":
             self._socket.close()
             return "STOP"
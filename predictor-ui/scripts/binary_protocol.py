@@ -0,0 +1,78 @@
+import struct
+
+# Keep in sync with BinaryFrame and PredictionCodec of the simulator
+VERSION = 1
+
+TYPE_JSON = 0
+TYPE_PREDICT_REQUEST = 1
+TYPE_PREDICT_RESPONSE = 2
+
+HEADER_LENGTH = 5
+MAX_LENGTH = 256 * 1024 * 1024
+
+_SERIES = ["original_data", "preprocessed_data", "test_data_beginning", "test_data_end",
+           "prediction_future", "prediction_test"]
+
+
+class _Reader:
+
+    def __init__(self, payload):
+        self._payload = payload
+        self._offset = 0
+
+    def unpack(self, fmt):
+        values = struct.unpack_from(fmt, self._payload, self._offset)
+        self._offset += struct.calcsize(fmt)
+        return values
+
+    def int(self):
+        return self.unpack(">i")[0]
+
+    def string(self):
+        length = self.int()
+        value = self._payload[self._offset:self._offset + length].decode("utf-8")
+        self._offset += length
+        return value
+
+
+def _pack_string(value):
+    encoded = value.encode("utf-8")
+    return struct.pack(">i", len(encoded)) + encoded
+
+
+def _pack_series(series):
+    if series is None:
+        return struct.pack(">i", -1)
+    timestamps, data = series["timestamp"], series["data"]
+    return struct.pack(f">i{len(timestamps)}i{len(data)}d", len(data), *timestamps, *data)
+
+
+def decode_request(payload):
+    """Returns the features of a prediction request in the form the predictor expects them."""
+    reader = _Reader(payload)
+    features = []
+    for _ in range(reader.int()):
+        name = reader.string()
+        count = reader.int()
+        features.append({"name": name, "values": list(reader.unpack(f">{count}d"))})
+    return features
+
+
+def encode_response(results):
+    """Encodes (feature name, prediction or None, error message) tuples in the order of the request."""
+    parts = [struct.pack(">i", len(results))]
+    for feature_name, prediction, error in results:
+        if prediction is None:
+            parts.append(struct.pack(">b", 1) + _pack_string(feature_name)
+                         + _pack_string(error or "Something went wrong while predicting."))
+            continue
+        parts.append(struct.pack(">b", 0) + _pack_string(feature_name))
+        parts.append(struct.pack(">id", prediction["prediction_number"], prediction.get("prediction_time", -1)))
+        for series in _SERIES:
+            parts.append(_pack_series(prediction.get(series)))
+        metrics = prediction.get("error_metrics")
+        if metrics is None:
+            parts.append(struct.pack(">b", 0))
+        else:
+            parts.append(struct.pack(">bddd", 1, metrics["RMSE"], metrics["MSE"], metrics["MAE"]))
+    return b"".join(parts)
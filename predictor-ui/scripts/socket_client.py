@@ -1,5 +1,8 @@
 from socket import socket
 import json
+import struct
+
+import binary_protocol
 
 from socket_message import SocketMessage
 from app_utils.consts import APPLICATION_FEATURE_HANDLER, APPLICATION_PREDICTOR
@@ -55,6 +58,34 @@ class SocketClient:
         Log.warning(f"[SOCKET-OUT] E: {message.event}")
         self._socket.send(SocketClient.create_message(message))
 
+    def wait_and_get_frame(self):
+        """Reads the next frame of the binary protocol as a (type, correlation id, payload) tuple."""
+        if self._connected is False:
+            return
+
+        length = struct.unpack(">i", self._recv_exact(4))[0]
+        if length < binary_protocol.HEADER_LENGTH or length > binary_protocol.MAX_LENGTH:
+            raise ValueError(f"Invalid frame length: {length}")
+        frame_type, correlation_id = struct.unpack(">bi", self._recv_exact(binary_protocol.HEADER_LENGTH))
+        payload = self._recv_exact(length - binary_protocol.HEADER_LENGTH)
+        return frame_type, correlation_id, payload
+
+    def send_frame(self, frame_type, correlation_id, payload):
+        if self._connected is False:
+            return
+
+        header = struct.pack(">ibi", binary_protocol.HEADER_LENGTH + len(payload), frame_type, correlation_id)
+        self._socket.sendall(header + payload)
+
+    def _recv_exact(self, size):
+        chunks = b''
+        while len(chunks) < size:
+            chunk = self._socket.recv(size - len(chunks))
+            if not chunk:
+                raise ConnectionError("The server has closed the connection")
+            chunks += chunk
+        return chunks
+
     @staticmethod
     def create_message(message):
         return bytes(message.serialize() + "\r\n", "utf-8")
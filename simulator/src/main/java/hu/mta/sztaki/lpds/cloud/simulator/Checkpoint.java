@@ -0,0 +1,182 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+
+/**
+ * A snapshot of a running simulation. It holds a simulation context (with its
+ * clock, its timed and deferred events, its random generator and its entity
+ * registries) together with some named root objects the simulation needs
+ * besides the ones reachable from the context (e.g., the IaaS services a
+ * scenario evaluates at its end).
+ *
+ * The snapshot is taken with Java serialization, thus everything reachable
+ * from the events and the roots must be serializable. When the checkpoint is
+ * loaded, a completely independent copy of the simulation is created in a new
+ * context. The copy can be continued with {@link SimulationContext#run(Runnable)}
+ * and it produces the same events as the original simulation would have after
+ * the time of the checkpoint. As a single checkpoint can be loaded several
+ * times, it allows several variants of a simulation to be started from the
+ * same (e.g., warmed up) state.
+ *
+ * <b>Note:</b> checkpoints should be taken between two simulateUntil...()
+ * calls and not from inside an event handler. Static state that is not part of
+ * the context (e.g., of the simulated entities) is not captured automatically,
+ * it must be put into the checkpoint as a root if needed.
+ */
+public class Checkpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The simulation captured.
+	 */
+	private final SimulationContext context;
+
+	/**
+	 * The additional objects captured, in the order they were added.
+	 */
+	private final LinkedHashMap<String, Serializable> roots = new LinkedHashMap<>();
+
+	/**
+	 * Prepares a checkpoint of a simulation.
+	 *
+	 * @param context the simulation to be captured
+	 */
+	public Checkpoint(final SimulationContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Prepares a checkpoint of the simulation the calling thread is bound to.
+	 */
+	public Checkpoint() {
+		this(SimulationContext.current());
+	}
+
+	/**
+	 * Adds an object to be captured with the simulation.
+	 *
+	 * @param name the name under which the object can be queried after loading
+	 * @param root the object to capture
+	 * @return this checkpoint, so several roots can be added in a row
+	 */
+	public Checkpoint put(final String name, final Serializable root) {
+		roots.put(name, root);
+		return this;
+	}
+
+	/**
+	 * Queries a captured object.
+	 *
+	 * @param name the name the object was added with
+	 * @param kind the expected class of the object
+	 * @return the object or null if there was no object added with the name
+	 */
+	public <T> T get(final String name, final Class<T> kind) {
+		return kind.cast(roots.get(name));
+	}
+
+	/**
+	 * Determines the simulation captured. For a loaded checkpoint this is a new
+	 * context independent from all other contexts.
+	 *
+	 * @return the context of the simulation
+	 */
+	public SimulationContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Writes the checkpoint to a stream.
+	 *
+	 * @param out the stream to write to, it is not closed
+	 * @throws IOException if some of the captured objects are not serializable
+	 *                     or the stream cannot be written
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(this);
+		oos.flush();
+	}
+
+	/**
+	 * Writes the checkpoint to a file.
+	 *
+	 * @param file the file to write, it is overwritten if it exists
+	 * @throws IOException if some of the captured objects are not serializable
+	 *                     or the file cannot be written
+	 */
+	public void save(final File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from a stream.
+	 *
+	 * @param in the stream to read from, it is not closed
+	 * @return the checkpoint read, with a new context
+	 * @throws IOException if the stream does not hold a checkpoint or some of
+	 *                     its classes are no longer available
+	 */
+	public static Checkpoint read(final InputStream in) throws IOException {
+		try {
+			final Object read = new ObjectInputStream(in).readObject();
+			if (!(read instanceof Checkpoint)) {
+				throw new InvalidObjectException("Not a simulation checkpoint: " + read.getClass().getName());
+			}
+			return (Checkpoint) read;
+		} catch (ClassNotFoundException e) {
+			throw new IOException("The checkpoint refers to an unknown class", e);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from a file.
+	 *
+	 * @param file the file to read
+	 * @return the checkpoint read, with a new context
+	 * @throws IOException if the file does not hold a checkpoint or some of its
+	 *                     classes are no longer available
+	 */
+	public static Checkpoint load(final File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+			return read(in);
+		}
+	}
+}
@@ -26,9 +26,9 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator;
 
-import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
-
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Offers the event handling mechanism for non-recurring but time dependent
@@ -39,6 +39,11 @@ import java.util.ArrayList;
  * approach allows that only one Timed event is registered for a bunch of
  * non-recurring events.
  * 
+ * The aggregating dispatchers are recycled once their time instance passed, and
+ * every deferred event remembers its slot in its dispatcher. Thus scheduling
+ * and cancelling deferred events do not need any searching and in the steady
+ * state they do not allocate anything beyond the deferred event itself.
+ * 
  * @author "Gabor Kecskemeti, Department of Computer Science, Liverpool John
  *         Moores University, (c) 2017"
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems,
@@ -46,17 +51,9 @@ import java.util.ArrayList;
  * @author "Gabor Kecskemeti, Distributed and Parallel Systems Group, University
  *         of Innsbruck (c) 2013"
  */
-public abstract class DeferredEvent {
+public abstract class DeferredEvent implements Serializable {
 
-	/**
-	 * All deferred events that are due in the future are listed here.
-	 * 
-	 * The map is indexed by expected event arrivals. The stored objects in the map
-	 * are MutablePairs where the left item of the pair is the length of the right
-	 * item (which is actually the list of events that should be delivered at the
-	 * particular time instance identified by the key of the map).
-	 */
-	private static final LongObjectHashMap<AggregatedEventDispatcher> dispatchers = new LongObjectHashMap<>();
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * handles the event aggregations, actual subscriptions to timed events and
@@ -70,13 +67,68 @@ public abstract class DeferredEvent {
 	 *         MTA SZTAKI (c) 2015"
 	 *
 	 */
-	private static class AggregatedEventDispatcher extends Timed {
-		private final ArrayList<DeferredEvent> simultaneouslyOccurringDEs = new ArrayList<>();
-		private final long myEv;
+	static class AggregatedEventDispatcher extends Timed {
+
+		private static final long serialVersionUID = 1L;
 
-		private AggregatedEventDispatcher(long event) {
-			subscribe(event - Timed.getFireCount());
-			myEv=event;
+		/**
+		 * The maximum number of unused dispatchers kept for later reuse in a
+		 * simulation context.
+		 */
+		private static final int maxRecycled = 1024;
+		/**
+		 * The events to be delivered in the order of their registration. Cancelled
+		 * events leave a null in their slot behind.
+		 */
+		private DeferredEvent[] simultaneouslyOccurringDEs = new DeferredEvent[4];
+		/**
+		 * The number of slots used in simultaneouslyOccurringDEs
+		 */
+		private int used = 0;
+		/**
+		 * The number of events that are neither cancelled nor delivered
+		 */
+		private int live = 0;
+		/**
+		 * True while the events are delivered
+		 */
+		private boolean dispatching = false;
+		/**
+		 * The time instance at which the events should be delivered
+		 */
+		private long myEv;
+
+		/**
+		 * Provides a dispatcher for a future time instance. Uses a previously
+		 * recycled one if there is any in the current context.
+		 * 
+		 * @param ctx   the context in which the events will be delivered
+		 * @param event the time instance at which the events should be delivered
+		 * @return the dispatcher, already registered for the time instance
+		 */
+		private static AggregatedEventDispatcher obtain(final SimulationContext ctx, final long event) {
+			final ArrayList<AggregatedEventDispatcher> pool = ctx.recycledDispatchers;
+			final AggregatedEventDispatcher aed = pool.isEmpty() ? new AggregatedEventDispatcher()
+					: pool.remove(pool.size() - 1);
+			aed.myEv = event;
+			aed.subscribe(event - ctx.fireCounter);
+			ctx.dispatchers.put(event, aed);
+			return aed;
+		}
+
+		/**
+		 * Registers a new deferred event for delivery
+		 * 
+		 * @param de the event to be delivered
+		 */
+		private void add(final DeferredEvent de) {
+			if (used == simultaneouslyOccurringDEs.length) {
+				simultaneouslyOccurringDEs = Arrays.copyOf(simultaneouslyOccurringDEs, used << 1);
+			}
+			de.dispatcher = this;
+			de.slot = used;
+			simultaneouslyOccurringDEs[used++] = de;
+			live++;
 		}
 
 		/**
@@ -88,34 +140,63 @@ public abstract class DeferredEvent {
 		 */
 		@Override
 		public void tick(long fires) {
-			for (DeferredEvent underDelivery : simultaneouslyOccurringDEs) {
-				underDelivery.eventAction();
-				underDelivery.received = true;
+			dispatching = true;
+			for (int i = 0; i < used; i++) {
+				final DeferredEvent underDelivery = simultaneouslyOccurringDEs[i];
+				if (underDelivery != null) {
+					underDelivery.eventAction();
+					underDelivery.received = true;
+				}
 			}
+			dispatching = false;
 			terminate();
 		}
 
 		@Override
 		protected void skip() {
 			super.skip();
-			for (DeferredEvent simultaneouslyOccurringDE : simultaneouslyOccurringDEs) {
-				simultaneouslyOccurringDE.cancelled = true;
+			for (int i = 0; i < used; i++) {
+				final DeferredEvent simultaneouslyOccurringDE = simultaneouslyOccurringDEs[i];
+				if (simultaneouslyOccurringDE != null) {
+					simultaneouslyOccurringDE.cancelled = true;
+				}
 			}
-			simultaneouslyOccurringDEs.clear();
 			terminate();
 		}
 		
+		/**
+		 * Cancels the delivery of a particular event, using the slot stored in the
+		 * event.
+		 * 
+		 * @param de the event to cancel
+		 */
 		private void remove(DeferredEvent de) {
-			simultaneouslyOccurringDEs.remove(de);
 			de.cancelled=true;
-			if(simultaneouslyOccurringDEs.isEmpty()) {
+			if (de.slot >= used || simultaneouslyOccurringDEs[de.slot] != de) {
+				// the dispatcher was dropped by a reset and got reused since
+				return;
+			}
+			simultaneouslyOccurringDEs[de.slot] = null;
+			if(--live == 0 && !dispatching) {
 				terminate();
 			}
 		}
 		
+		/**
+		 * Stops the dispatcher and puts it in the recycle pool of its context.
+		 */
 		private void terminate() {
-			dispatchers.remove(myEv);
+			final SimulationContext ctx = getContext();
+			if (ctx.dispatchers.get(myEv) == this) {
+				ctx.dispatchers.remove(myEv);
+			}
 			unsubscribe();
+			Arrays.fill(simultaneouslyOccurringDEs, 0, used, null);
+			used = 0;
+			live = 0;
+			if (ctx.recycledDispatchers.size() < maxRecycled) {
+				ctx.recycledDispatchers.add(this);
+			}
 		}
 				
 	}
@@ -132,6 +213,14 @@ public abstract class DeferredEvent {
 	 * The time instance at which this event should be delivered
 	 */
 	private final long eventArrival;
+	/**
+	 * The dispatcher that will deliver this event
+	 */
+	private AggregatedEventDispatcher dispatcher;
+	/**
+	 * The slot of this event in its dispatcher
+	 */
+	private int slot;
 
 	/**
 	 * Allows constructing objects that will receive an eventAction() call from
@@ -148,13 +237,13 @@ public abstract class DeferredEvent {
 			received = true;
 			return;
 		}
+		final SimulationContext context = SimulationContext.current();
 		eventArrival = Timed.calcTimeJump(delay);
-		AggregatedEventDispatcher aed=dispatchers.get(eventArrival);
+		AggregatedEventDispatcher aed=context.dispatchers.get(eventArrival);
 		if(aed==null) {
-			aed=new AggregatedEventDispatcher(eventArrival);
-			dispatchers.put(eventArrival,aed);
+			aed=AggregatedEventDispatcher.obtain(context, eventArrival);
 		}
-		aed.simultaneouslyOccurringDEs.add(this);
+		aed.add(this);
 	}
 
 	/**
@@ -169,7 +258,7 @@ public abstract class DeferredEvent {
 		if (received)
 			return;
 		if (!cancelled) {
-			dispatchers.get(eventArrival).remove(this);
+			dispatcher.remove(this);
 		}
 	}
 
@@ -192,13 +281,4 @@ public abstract class DeferredEvent {
 	 * handling mechanism of yours.
 	 */
 	protected abstract void eventAction();
-
-	/**
-	 * Allows the cleanup of all events registered with the aggregator.
-	 * 
-	 * WARNING: This is not supposed to be called by user code directly.
-	 */
-	static void reset() {
-		dispatchers.clear();
-	}
 }
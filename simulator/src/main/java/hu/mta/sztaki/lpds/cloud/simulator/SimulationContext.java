@@ -0,0 +1,338 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator;
+
+import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+/**
+ * Holds all the state a single simulation needs: the simulated clock, the
+ * queue of timed events, the aggregated deferred events, the random generator
+ * and the registries of the entities taking part in the simulation.
+ *
+ * Every thread is bound to a context. If a thread was never bound explicitly,
+ * it uses the default context, which is the one behind the static API of
+ * Timed, DeferredEvent and SeedSyncer. Timed objects and deferred events
+ * remember the context that was current when they were created, thus
+ * independent simulations can run in parallel on separate threads as long as
+ * each thread is bound to its own context (see {@link #run(Runnable)}).
+ *
+ * A context can be serialized together with all the events and entities of
+ * its simulation, see {@link Checkpoint}.
+ *
+ * <b>WARNING:</b> a context is not thread safe on its own, it should only be
+ * used by a single thread at a time.
+ */
+public class SimulationContext implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The context used by threads that were not bound to any other context. Its
+	 * random generator is the one offered by SeedSyncer.getCentralRnd().
+	 */
+	private static final SimulationContext defaultContext = new SimulationContext(SeedSyncer.centralRnd);
+
+	/**
+	 * The context the actual thread is bound to, null means the default context.
+	 */
+	private static final ThreadLocal<SimulationContext> boundContext = new ThreadLocal<>();
+
+	/**
+	 * The main container for all recurring events in this simulation
+	 */
+	final TimedEventQueue timedlist = new TimedEventQueue();
+
+	/**
+	 * The actual time in this simulation. This is maintained in ticks!
+	 */
+	long fireCounter = 0;
+
+	/**
+	 * All deferred events that are due in the future, indexed by their expected
+	 * arrival.
+	 */
+	final LongObjectHashMap<DeferredEvent.AggregatedEventDispatcher> dispatchers = new LongObjectHashMap<>();
+
+	/**
+	 * Deferred event dispatchers whose time instance has passed, kept for reuse.
+	 */
+	final ArrayList<DeferredEvent.AggregatedEventDispatcher> recycledDispatchers = new ArrayList<>();
+
+	/**
+	 * The random generator to be used by the components of this simulation.
+	 */
+	private final Random random;
+
+	/**
+	 * The seed the random generator is set back to when the context is reset.
+	 * Null for the default context, which always uses the seed of SeedSyncer.
+	 */
+	private final Long seed;
+
+	/**
+	 * The entity registries (e.g., all devices or all applications) of this
+	 * simulation, indexed by the kind of the entities they hold.
+	 */
+	private final HashMap<Class<?>, Registry<?>> registries = new HashMap<>();
+
+	/**
+	 * The list of the entities of a particular kind in a simulation. It counts
+	 * its modifications, thus the indexes built over a registry can detect if
+	 * the registry was changed behind their back.
+	 */
+	public static class Registry<T> extends ArrayList<T> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Determines how many times the registry was changed. Every addition,
+		 * removal or replacement of an entity changes the count.
+		 *
+		 * @return the modification count, it is not kept when the registry is
+		 *         serialized
+		 */
+		public int getModificationCount() {
+			return modCount;
+		}
+
+		@Override
+		public T set(final int index, final T element) {
+			modCount++;
+			return super.set(index, element);
+		}
+	}
+
+	/**
+	 * Auxiliary per simulation objects (e.g., indexes built over the
+	 * registries), indexed by their class. They are not serialized, as they are
+	 * recreated on demand.
+	 */
+	private transient HashMap<Class<?>, Object> attachments = new HashMap<>();
+
+	/**
+	 * The configuration of this simulation (e.g., the max-min solver used),
+	 * indexed by the class of the configured component. Unlike attachments,
+	 * settings are serialized with the context and they are kept when the
+	 * context is reset.
+	 */
+	private final HashMap<Class<?>, Serializable> settings = new HashMap<>();
+
+	/**
+	 * Creates a new context with a random generator seeded with the seed of
+	 * SeedSyncer.
+	 */
+	public SimulationContext() {
+		this(SeedSyncer.seed);
+	}
+
+	/**
+	 * Creates a new context with its own random generator.
+	 *
+	 * @param seed the seed of the random generator of the new context
+	 */
+	public SimulationContext(final long seed) {
+		this.random = new Random(seed);
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates a context around an already existing random generator.
+	 *
+	 * @param random the random generator to be used in the simulation
+	 */
+	private SimulationContext(final Random random) {
+		this.random = random;
+		this.seed = null;
+	}
+
+	/**
+	 * Determines the context the calling thread is bound to.
+	 *
+	 * @return the bound context or the default one if the thread is not bound
+	 */
+	public static SimulationContext current() {
+		final SimulationContext ctx = boundContext.get();
+		return ctx == null ? defaultContext : ctx;
+	}
+
+	/**
+	 * Allows access to the context behind the static API.
+	 *
+	 * @return the default context
+	 */
+	public static SimulationContext getDefault() {
+		return defaultContext;
+	}
+
+	/**
+	 * Binds the calling thread to a particular context. All Timed objects and
+	 * deferred events created by the thread from now on will belong to the
+	 * given context.
+	 *
+	 * @param ctx the context to bind to, null binds the thread back to the
+	 *            default context
+	 * @return the context the thread was bound to before
+	 */
+	public static SimulationContext bind(final SimulationContext ctx) {
+		final SimulationContext prev = current();
+		if (ctx == null || ctx == defaultContext) {
+			boundContext.remove();
+		} else {
+			boundContext.set(ctx);
+		}
+		return prev;
+	}
+
+	/**
+	 * Runs a piece of code (e.g., the setup and the run of a complete scenario)
+	 * with the calling thread bound to this context. After the code completes,
+	 * the thread is bound back to its previous context.
+	 *
+	 * @param simulation the code to run in this context
+	 */
+	public void run(final Runnable simulation) {
+		final SimulationContext prev = bind(this);
+		try {
+			simulation.run();
+		} finally {
+			bind(prev);
+		}
+	}
+
+	/**
+	 * Determines the simulated time of this context.
+	 *
+	 * @return the number of ticks that has passed since the beginning of the
+	 *         simulation
+	 */
+	public long getFireCount() {
+		return fireCounter;
+	}
+
+	/**
+	 * Offers the random generator to be used by the components of this
+	 * simulation.
+	 *
+	 * @return the random generator of the context
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Sets back the random generator to the seed of the context.
+	 */
+	public void resetRandom() {
+		random.setSeed(seed == null ? SeedSyncer.seed : seed);
+	}
+
+	/**
+	 * Returns the registry of a particular kind of entities in this simulation.
+	 * The registry is created on first access.
+	 *
+	 * @param kind the class of the entities listed in the registry
+	 * @return the modifiable list of the registered entities
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Registry<T> getRegistry(final Class<T> kind) {
+		return (Registry<T>) registries.computeIfAbsent(kind, k -> new Registry<T>());
+	}
+
+	/**
+	 * Returns an auxiliary object attached to this simulation. The object is
+	 * created with the given factory on first access and it is dropped when the
+	 * context is reset.
+	 *
+	 * @param kind    the class of the attached object
+	 * @param factory creates the object if it is not yet attached
+	 * @return the object attached to this context
+	 */
+	public <T> T getAttachment(final Class<T> kind, final Supplier<? extends T> factory) {
+		return kind.cast(attachments.computeIfAbsent(kind, k -> factory.get()));
+	}
+
+	/**
+	 * Returns a setting of this simulation.
+	 *
+	 * @param kind     the class of the setting
+	 * @param fallback creates the setting if it was not set before, the created
+	 *                 value is stored in the context
+	 * @return the setting of this context
+	 */
+	public <T extends Serializable> T getSetting(final Class<T> kind, final Supplier<? extends T> fallback) {
+		return kind.cast(settings.computeIfAbsent(kind, k -> fallback.get()));
+	}
+
+	/**
+	 * Changes a setting of this simulation.
+	 *
+	 * @param kind  the class of the setting
+	 * @param value the new value of the setting
+	 */
+	public <T extends Serializable> void setSetting(final Class<T> kind, final T value) {
+		settings.put(kind, kind.cast(value));
+	}
+
+	/**
+	 * Restores a serialized context, its attachments start empty.
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		attachments = new HashMap<>();
+	}
+
+	/**
+	 * Cancels all timed and deferred events and sets back the time to 0 in this
+	 * context.
+	 */
+	void resetTimed() {
+		timedlist.clear();
+		dispatchers.clear();
+		recycledDispatchers.clear();
+		fireCounter = 0;
+	}
+
+	/**
+	 * Completely cleans up the context so a new simulation can be started in it:
+	 * cancels all events, sets back the time to 0, empties the entity registries
+	 * and its attachments, and reseeds the random generator. The settings of the
+	 * context are kept.
+	 */
+	public void reset() {
+		resetTimed();
+		for (Registry<?> registry : registries.values()) {
+			registry.clear();
+		}
+		attachments.clear();
+		resetRandom();
+	}
+}
@@ -26,7 +26,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator;
 
-import java.util.PriorityQueue;
+import java.io.Serializable;
 
 /**
  * This is the base class for the simulation, every class that should receive
@@ -41,6 +41,10 @@ import java.util.PriorityQueue;
  * of a networknode then you should set it in bytes/tick. Thus if your tick=ms
  * you must set it in bytes/ms.
  * 
+ * Every timed object belongs to the simulation context that was current when
+ * it was created (see SimulationContext). The static functions of this class
+ * operate on the context the calling thread is bound to.
+ * 
  * @author "Gabor Kecskemeti, Department of Computer Science, Liverpool John
  *         Moores University, (c) 2017"
  * @author "Gabor Kecskemeti, Distributed and Parallel Systems Group, University
@@ -49,20 +53,25 @@ import java.util.PriorityQueue;
  *         MTA SZTAKI (c) 2012"
  * 
  */
-public abstract class Timed implements Comparable<Timed> {
+public abstract class Timed implements Comparable<Timed>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
-	 * The main container for all recurring events in the system
+	 * The simulation this object belongs to. The event queue and the clock of
+	 * this context are used for all the recurring events of this object.
 	 */
-	private static final PriorityQueue<Timed> timedlist = new PriorityQueue<>();
+	private final SimulationContext context = SimulationContext.current();
 	/**
 	 * If set to true, the event loop is processing this object at the moment.
 	 */
 	private boolean underProcessing = false;
 	/**
-	 * The actual time in the system. This is maintained in ticks!
+	 * The slot of this object in the event queue of its context, -1 if the
+	 * object is not queued. Maintained by TimedEventQueue, allows the removal of
+	 * the object from the queue without searching for it.
 	 */
-	private static long fireCounter = 0;
+	int queueIndex = -1;
 
 	/**
 	 * Determines if the actual timed object is going to receive recurring events
@@ -139,7 +148,7 @@ public abstract class Timed implements Comparable<Timed> {
 	private void realSubscribe(final long freq) {
 		activeSubscription = true;
 		updateEvent(freq);
-		timedlist.offer(this);
+		context.timedlist.offer(this);
 	}
 
 	/**
@@ -160,7 +169,7 @@ public abstract class Timed implements Comparable<Timed> {
 				// to remove from the list
 				return true;
 			}
-			timedlist.remove(this);
+			context.timedlist.remove(this);
 			return true;
 		}
 		return false;
@@ -181,8 +190,8 @@ public abstract class Timed implements Comparable<Timed> {
 			final long oldNE = nextEvent;
 			updateEvent(freq);
 			if (!underProcessing && oldNE != nextEvent) {
-				timedlist.remove(this);
-				timedlist.offer(this);
+				context.timedlist.remove(this);
+				context.timedlist.offer(this);
 			}
 		} else {
 			realSubscribe(freq);
@@ -205,7 +214,7 @@ public abstract class Timed implements Comparable<Timed> {
 			throw new IllegalStateException("ERROR: Negative event frequency cannot simulate further!");
 		} else {
 			frequency = freq;
-			nextEvent = calcTimeJump(freq);
+			nextEvent = calcTimeJump(context, freq);
 			if (nextEvent == Long.MAX_VALUE) {
 				throw new IllegalStateException("Event to never occur: " + freq);
 			}
@@ -234,6 +243,16 @@ public abstract class Timed implements Comparable<Timed> {
 		return frequency;
 	}
 
+	/**
+	 * Determines the simulation this object belongs to.
+	 * 
+	 * @return the context in which the recurring events of this object are
+	 *         handled.
+	 */
+	public final SimulationContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Determines the next event at which point this object will receive a tick()
 	 * call.
@@ -246,7 +265,7 @@ public abstract class Timed implements Comparable<Timed> {
 	 *         </ul>
 	 */
 	public long nextEventDistance() {
-		return activeSubscription ? nextEvent - fireCounter : Long.MAX_VALUE;
+		return activeSubscription ? nextEvent - context.fireCounter : Long.MAX_VALUE;
 	}
 
 	/**
@@ -284,17 +303,28 @@ public abstract class Timed implements Comparable<Timed> {
 	 * advances the time by one tick.
 	 */
 	public static void fire() {
-		while (!timedlist.isEmpty() && timedlist.peek().nextEvent == fireCounter) {
+		fire(SimulationContext.current());
+	}
+
+	/**
+	 * Sends out the events due at the actual time instance of a particular
+	 * simulation and advances its time by one tick.
+	 * 
+	 * @param ctx the simulation to advance
+	 */
+	private static void fire(final SimulationContext ctx) {
+		final TimedEventQueue timedlist = ctx.timedlist;
+		while (!timedlist.isEmpty() && timedlist.peek().nextEvent == ctx.fireCounter) {
 			final Timed t = timedlist.poll();
 			t.underProcessing = true;
-			t.tick(fireCounter);
+			t.tick(ctx.fireCounter);
 			if (t.activeSubscription) {
 				t.updateEvent(t.frequency);
 				timedlist.offer(t);
 			}
 			t.underProcessing = false;
 		}
-		fireCounter++;
+		ctx.fireCounter++;
 	}
 
 	/**
@@ -305,7 +335,19 @@ public abstract class Timed implements Comparable<Timed> {
 	 *         complete
 	 */
 	public static long calcTimeJump(long jump) {
-		final long targettime = fireCounter + jump;
+		return calcTimeJump(SimulationContext.current(), jump);
+	}
+
+	/**
+	 * Calculates time advances in a particular simulation
+	 * 
+	 * @param ctx  the simulation in which the time is advanced
+	 * @param jump the time (in ticks) to be advanced with
+	 * @return the time (in ticks) at which point the particular jump will be
+	 *         complete
+	 */
+	private static long calcTimeJump(final SimulationContext ctx, final long jump) {
+		final long targettime = ctx.fireCounter + jump;
 		return targettime < 0 ? Long.MAX_VALUE : targettime;
 	}
 
@@ -322,14 +364,25 @@ public abstract class Timed implements Comparable<Timed> {
 	 * @return the amount of time that still remains until desiredjump.
 	 */
 	public static long jumpTime(long desiredJump) {
-		final long targettime = calcTimeJump(desiredJump);
-		final long nextFire = getNextFire();
+		return jumpTime(SimulationContext.current(), desiredJump);
+	}
+
+	/**
+	 * Increases the time of a particular simulation, see jumpTime(long).
+	 * 
+	 * @param ctx         the simulation in which the time is advanced
+	 * @param desiredJump the amount of time to be jumped ahead.
+	 * @return the amount of time that still remains until desiredjump.
+	 */
+	private static long jumpTime(final SimulationContext ctx, final long desiredJump) {
+		final long targettime = calcTimeJump(ctx, desiredJump);
+		final long nextFire = getNextFire(ctx);
 		if (targettime <= nextFire) {
-			fireCounter = targettime;
+			ctx.fireCounter = targettime;
 			return 0;
 		} else {
-			fireCounter = nextFire < 0 ? targettime : nextFire;
-			return targettime - fireCounter;
+			ctx.fireCounter = nextFire < 0 ? targettime : nextFire;
+			return targettime - ctx.fireCounter;
 		}
 	}
 
@@ -345,15 +398,19 @@ public abstract class Timed implements Comparable<Timed> {
 	 *                    this function will have no effect.
 	 */
 	public static void skipEventsTill(final long desiredTime) {
-		final long distance = desiredTime - fireCounter;
+		final SimulationContext ctx = SimulationContext.current();
+		final TimedEventQueue timedlist = ctx.timedlist;
+		final long distance = desiredTime - ctx.fireCounter;
 		if (distance > 0) {
 			while (timedlist.peek() != null && timedlist.peek().nextEvent < desiredTime) {
 				final Timed t = timedlist.poll();
 				t.skip();
-				t.nextEvent = t.frequency==0?desiredTime:calcTimeJump(t.frequency * (1 + distance / t.frequency));
-				timedlist.offer(t);
+				if (t.activeSubscription) {
+					t.nextEvent = t.frequency==0?desiredTime:calcTimeJump(ctx, t.frequency * (1 + distance / t.frequency));
+					timedlist.offer(t);
+				}
 			}
-			fireCounter = desiredTime;
+			ctx.fireCounter = desiredTime;
 		}
 	}
 
@@ -364,7 +421,7 @@ public abstract class Timed implements Comparable<Timed> {
 	 * @return The number of ticks that has passed since the beginning of time.
 	 */
 	public static long getFireCount() {
-		return fireCounter;
+		return SimulationContext.current().fireCounter;
 	}
 
 	/**
@@ -374,7 +431,18 @@ public abstract class Timed implements Comparable<Timed> {
 	 * @return the time instance in ticks
 	 */
 	public static long getNextFire() {
-		final Timed head = timedlist.peek();
+		return getNextFire(SimulationContext.current());
+	}
+
+	/**
+	 * Determines the earliest time instance when there is any event in a
+	 * particular simulation.
+	 * 
+	 * @param ctx the simulation to check
+	 * @return the time instance in ticks
+	 */
+	private static long getNextFire(final SimulationContext ctx) {
+		final Timed head = ctx.timedlist.peek();
 		return head == null ? -1 : head.nextEvent;
 	}
 
@@ -392,11 +460,12 @@ public abstract class Timed implements Comparable<Timed> {
 	 * unsubscribe() function.
 	 */
 	public static void simulateUntilLastEvent() {
+		final SimulationContext ctx = SimulationContext.current();
 		long pnf = -1;
 		long cnf;
-		while ((cnf = getNextFire()) >= 0 && (cnf > pnf)) {
-			jumpTime(Long.MAX_VALUE);
-			fire();
+		while ((cnf = getNextFire(ctx)) >= 0 && (cnf > pnf)) {
+			jumpTime(ctx, Long.MAX_VALUE);
+			fire(ctx);
 			pnf = cnf;
 		}
 	}
@@ -411,21 +480,21 @@ public abstract class Timed implements Comparable<Timed> {
 	 *             advance to this point.
 	 */
 	public static void simulateUntil(final long time) {
-		while (timedlist.peek() != null && fireCounter < time) {
-			jumpTime(time - fireCounter);
-			if (getNextFire() == fireCounter) {
-				fire();
+		final SimulationContext ctx = SimulationContext.current();
+		while (ctx.timedlist.peek() != null && ctx.fireCounter < time) {
+			jumpTime(ctx, time - ctx.fireCounter);
+			if (getNextFire(ctx) == ctx.fireCounter) {
+				fire(ctx);
 			}
 		}
 	}
 
 	/**
-	 * Cancels all timed events and sets back the time to 0.
+	 * Cancels all timed events and sets back the time to 0 in the simulation the
+	 * calling thread is bound to.
 	 */
 	public static void resetTimed() {
-		timedlist.clear();
-		DeferredEvent.reset();
-		fireCounter = 0;
+		SimulationContext.current().resetTimed();
 	}
 
 	/**
@@ -0,0 +1,200 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The event queue of a simulation. It is a binary min-heap of timed objects
+ * ordered by their natural ordering (i.e., next event and back preference).
+ *
+ * Unlike java.util.PriorityQueue, every timed object remembers its own slot in
+ * the heap. Thus removing an arbitrary timed object (e.g., on unsubscription or
+ * frequency update) does not need a linear search, it is done in O(log n) time
+ * without any allocation.
+ *
+ * The sifting operations intentionally follow the ones of PriorityQueue, so the
+ * order of simultaneous events is the same as it was with the stock queue.
+ */
+final class TimedEventQueue implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The heap itself, the children of the element at i are at 2*i+1 and 2*i+2.
+	 */
+	private Timed[] heap = new Timed[64];
+	/**
+	 * The number of timed objects in the queue.
+	 */
+	private int size = 0;
+
+	/**
+	 * Determines if there are any events in the queue.
+	 *
+	 * @return true if there are no events queued
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Determines the number of events queued.
+	 *
+	 * @return the number of timed objects in the queue
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Determines the earliest event without removing it.
+	 *
+	 * @return the timed object with the earliest next event, null if the queue is
+	 *         empty
+	 */
+	Timed peek() {
+		return heap[0];
+	}
+
+	/**
+	 * Adds a timed object to the queue. The object must not be in the queue
+	 * already.
+	 *
+	 * @param t the timed object to be added
+	 */
+	void offer(final Timed t) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size << 1);
+		}
+		siftUp(size++, t);
+	}
+
+	/**
+	 * Removes the timed object with the earliest next event.
+	 *
+	 * @return the removed object, or null if the queue was empty
+	 */
+	Timed poll() {
+		if (size == 0) {
+			return null;
+		}
+		final Timed result = heap[0];
+		final int last = --size;
+		final Timed moved = heap[last];
+		heap[last] = null;
+		if (last != 0) {
+			siftDown(0, moved);
+		}
+		result.queueIndex = -1;
+		return result;
+	}
+
+	/**
+	 * Removes an arbitrary timed object from the queue using the slot recorded in
+	 * the object.
+	 *
+	 * @param t the object to remove
+	 * @return true if the object was queued, false otherwise
+	 */
+	boolean remove(final Timed t) {
+		final int i = t.queueIndex;
+		if (i < 0 || i >= size || heap[i] != t) {
+			return false;
+		}
+		final int last = --size;
+		if (last == i) {
+			heap[i] = null;
+		} else {
+			final Timed moved = heap[last];
+			heap[last] = null;
+			siftDown(i, moved);
+			if (heap[i] == moved) {
+				siftUp(i, moved);
+			}
+		}
+		t.queueIndex = -1;
+		return true;
+	}
+
+	/**
+	 * Drops all events from the queue.
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].queueIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Moves a timed object towards the root until its parent is not later than
+	 * the object.
+	 *
+	 * @param k the slot where the object would be placed initially
+	 * @param t the object to place
+	 */
+	private void siftUp(int k, final Timed t) {
+		while (k > 0) {
+			final int parent = (k - 1) >>> 1;
+			final Timed p = heap[parent];
+			if (t.compareTo(p) >= 0) {
+				break;
+			}
+			heap[k] = p;
+			p.queueIndex = k;
+			k = parent;
+		}
+		heap[k] = t;
+		t.queueIndex = k;
+	}
+
+	/**
+	 * Moves a timed object towards the leaves until none of its children are
+	 * earlier than the object.
+	 *
+	 * @param k the slot where the object would be placed initially
+	 * @param t the object to place
+	 */
+	private void siftDown(int k, final Timed t) {
+		final int half = size >>> 1;
+		while (k < half) {
+			int child = (k << 1) + 1;
+			Timed c = heap[child];
+			final int right = child + 1;
+			if (right < size && c.compareTo(heap[right]) > 0) {
+				c = heap[child = right];
+			}
+			if (t.compareTo(c) <= 0) {
+				break;
+			}
+			heap[k] = c;
+			c.queueIndex = k;
+			k = child;
+		}
+		heap[k] = t;
+		t.queueIndex = k;
+	}
+}
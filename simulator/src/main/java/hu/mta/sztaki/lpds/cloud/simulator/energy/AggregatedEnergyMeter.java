@@ -33,6 +33,8 @@ import java.util.List;
  */
 public class AggregatedEnergyMeter extends EnergyMeter {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The list of meters that supposed to be used together.
 	 * 
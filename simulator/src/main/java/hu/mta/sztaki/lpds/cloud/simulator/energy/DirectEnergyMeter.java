@@ -24,20 +24,33 @@
  */
 package hu.mta.sztaki.lpds.cloud.simulator.energy;
 
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.PowerBehaviorChangeListener;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ProcessingListener;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceSpreader;
 
 /**
  * Direct energy meters can monitor a single resource spreader and can convert
  * their processed consumption values to a continuously updated energy figure.
  * 
+ * The meter has two modes of operation. If started with a metering interval,
+ * it periodically polls the total processed value of the spreader and uses the
+ * average utilization of the past period to determine the power draw. If it is
+ * started without an interval (see {@link EnergyMeter#startMeter(boolean)}),
+ * it receives the processing reports of the spreader instead. As the spreader
+ * processes with a constant rate between two reports, the meter can integrate
+ * the power draw exactly without any periodic events.
+ * 
  * @author "Gabor Kecskemeti, Distributed and Parallel Systems Group, University of Innsbruck (c) 2013"
  *         "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems, MTA SZTAKI (c) 2014-5"
  * 
  */
 public class DirectEnergyMeter extends EnergyMeter
-		implements PowerBehaviorChangeListener, PowerState.PowerCharacteristicsChange {
+		implements PowerBehaviorChangeListener, PowerState.PowerCharacteristicsChange, ProcessingListener {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the resource spreader that needs to be measured energywise
 	 */
@@ -55,6 +68,11 @@ public class DirectEnergyMeter extends EnergyMeter
 	 * metering time interval.
 	 */
 	private double maxProcessable;
+	/**
+	 * true if the current metering session is event driven, i.e., the meter
+	 * follows the processing reports of the measured resource.
+	 */
+	private boolean eventDriven;
 
 	/**
 	 * sets up the new meter. keep in mind that metering is not started by
@@ -86,8 +104,14 @@ public class DirectEnergyMeter extends EnergyMeter
 	public boolean startMeter(long interval, boolean dropPriorReading) {
 		boolean startResult = super.startMeter(interval, dropPriorReading);
 		if (startResult) {
+			// Makes sure the processing before the session is not reported to us
 			previousProcessingReport = collectProcessingReport();
-			updateFieldsUsingNewInterval(interval);
+			eventDriven = interval <= 0;
+			if (eventDriven) {
+				measuredResource.subscribeProcessingEvents(this);
+			} else {
+				updateFieldsUsingNewInterval(interval);
+			}
 			usedPowerState = measuredResource.getCurrentPowerBehavior();
 			usedPowerState.subscribePowerCharacteristicsChanges(this);
 			measuredResource.subscribePowerBehaviorChangeEvents(this);
@@ -100,10 +124,14 @@ public class DirectEnergyMeter extends EnergyMeter
 	 */
 	@Override
 	public void stopMeter() {
-		if (isSubscribed()) {
+		if (isMetering()) {
 			super.stopMeter();
 			usedPowerState.unsubscribePowerCharacteristicsChanges(this);
 			measuredResource.unsubscribePowerBehaviorChangeEvents(this);
+			if (eventDriven) {
+				measuredResource.unsubscribeProcessingEvents(this);
+				eventDriven = false;
+			}
 		}
 	}
 
@@ -113,11 +141,17 @@ public class DirectEnergyMeter extends EnergyMeter
 	 */
 	@Override
 	public void behaviorChanged(final ResourceSpreader onSpreader, final PowerState newState) {
-		if (isSubscribed()) {
+		if (isMetering()) {
+			if (eventDriven) {
+				// the past is accounted with the power state it was spent in
+				settle();
+			}
 			usedPowerState.unsubscribePowerCharacteristicsChanges(this);
 			usedPowerState = newState;
 			usedPowerState.subscribePowerCharacteristicsChanges(this);
-			readjustMeter();
+			if (!eventDriven) {
+				readjustMeter();
+			}
 		}
 	}
 
@@ -129,7 +163,65 @@ public class DirectEnergyMeter extends EnergyMeter
 	 */
 	@Override
 	public void prePowerChangeEvent(PowerState onMe) {
-		readjustMeter();
+		if (eventDriven) {
+			settle();
+		} else {
+			readjustMeter();
+		}
+	}
+
+	/**
+	 * Receives the processing reports of the measured resource in event driven
+	 * sessions. The idle period before the reported one (if there was any) is
+	 * accounted with the idle power draw, while the reported period is
+	 * accounted with the power draw of its constant utilization.
+	 */
+	@Override
+	public void processed(final ResourceSpreader onSpreader, final long from, final long until,
+			final double processed) {
+		final long busyFrom = Math.max(from, lastMetered);
+		accountIdle(busyFrom);
+		if (until > busyFrom) {
+			final double utilization = processed / ((until - from) * measuredResource.getPerTickProcessingPower());
+			increaseTotalConsumption(usedPowerState.getCurrentPower(utilization) * (until - busyFrom));
+			lastMetered = until;
+		}
+	}
+
+	/**
+	 * Accounts the period since the last reading until the given time instance
+	 * with the idle power draw of the used power state.
+	 * 
+	 * @param until
+	 *            the end of the idle period
+	 */
+	private void accountIdle(final long until) {
+		if (until > lastMetered) {
+			increaseTotalConsumption(usedPowerState.getCurrentPower(0) * (until - lastMetered));
+			lastMetered = until;
+		}
+	}
+
+	/**
+	 * Brings the total consumption of an event driven session up to date: the
+	 * measured resource is asked to report its processing so far, and the
+	 * remaining time is spent idle.
+	 */
+	private void settle() {
+		collectProcessingReport();
+		accountIdle(Timed.getFireCount());
+	}
+
+	/**
+	 * In event driven sessions the consumption is brought up to date before it
+	 * is reported, thus the reading is exact at any time.
+	 */
+	@Override
+	public double getTotalConsumption() {
+		if (eventDriven) {
+			settle();
+		}
+		return super.getTotalConsumption();
 	}
 
 	/**
@@ -158,6 +250,10 @@ public class DirectEnergyMeter extends EnergyMeter
 	 */
 	@Override
 	public void tick(final long fires) {
+		if (eventDriven) {
+			settle();
+			return;
+		}
 		if (!isSubscribed()) {
 			updateFieldsUsingNewInterval(getFrequency() - getNextEvent() + fires);
 		}
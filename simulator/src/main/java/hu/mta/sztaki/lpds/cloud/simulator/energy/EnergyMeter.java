@@ -37,6 +37,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.Timed;
  */
 public abstract class EnergyMeter extends Timed {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the currently collected totalConsumption in all metering sessions so far.
 	 */
@@ -62,7 +64,8 @@ public abstract class EnergyMeter extends Timed {
 	 * Initiates an energy metering session.
 	 * 
 	 * @param interval
-	 *            The meter refresh frequency.
+	 *            The meter refresh frequency. If it is not positive, the
+	 *            session is event driven (see {@link #startMeter(boolean)}).
 	 * @param dropPriorReading
 	 *            <ul>
 	 *            <li>False: the totalConsumption values will accumulate from a
@@ -78,10 +81,12 @@ public abstract class EnergyMeter extends Timed {
 	 * 
 	 */
 	public boolean startMeter(final long interval, boolean dropPriorReading) {
-		if (meteringStopped == -1) {
+		if (isMetering()) {
 			return false;
 		}
-		subscribe(interval);
+		if (interval > 0) {
+			subscribe(interval);
+		}
 		lastMetered = Timed.getFireCount();
 		if (dropPriorReading) {
 			totalConsumption = 0;
@@ -95,12 +100,30 @@ public abstract class EnergyMeter extends Timed {
 		return true;
 	}
 
+	/**
+	 * Initiates an event driven energy metering session. Such sessions do not
+	 * use periodic events: the meters follow the changes of the metered
+	 * entities and integrate their power draw between these changes (see
+	 * {@link DirectEnergyMeter}). Thus the total consumption values are exact
+	 * whenever they are queried, while idle entities cost nothing to meter.
+	 * Periodic readings (i.e., a time series) should be collected by the
+	 * user of the meter only when they are actually needed.
+	 * 
+	 * @param dropPriorReading
+	 *            see {@link #startMeter(long, boolean)}
+	 * @return see {@link #startMeter(long, boolean)}
+	 */
+	public boolean startMeter(final boolean dropPriorReading) {
+		return startMeter(0, dropPriorReading);
+	}
+
 	/**
 	 * Terminates the metering session, the totalconsumption values will no
 	 * longer be updated!
 	 */
 	public void stopMeter() {
-		if (unsubscribe()) {
+		if (isMetering()) {
+			unsubscribe();
 			final long now = getFireCount();
 			if (now != lastMetered) {
 				tick(now);
@@ -109,6 +132,16 @@ public abstract class EnergyMeter extends Timed {
 		}
 	}
 
+	/**
+	 * Determines if a metering session is underway (either a periodic or an
+	 * event driven one).
+	 * 
+	 * @return <i>true</i> if the meter was started and not yet stopped
+	 */
+	public boolean isMetering() {
+		return meteringStopped == -1;
+	}
+
 	/**
 	 * Allows the reading of the meter's current consumption report.
 	 * 
@@ -165,7 +198,10 @@ public abstract class EnergyMeter extends Timed {
 	 * immediate utilization reading
 	 */
 	protected void readjustMeter() {
-		stopMeter();
-		startMeter(getFrequency(), false);
+		if (isMetering()) {
+			final long interval = isSubscribed() ? getFrequency() : 0;
+			stopMeter();
+			startMeter(interval, false);
+		}
 	}
 }
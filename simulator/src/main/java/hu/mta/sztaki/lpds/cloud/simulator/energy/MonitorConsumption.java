@@ -28,6 +28,7 @@ package hu.mta.sztaki.lpds.cloud.simulator.energy;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceSpreader;
 
+import java.io.Serializable;
 import java.util.PriorityQueue;
 
 /**
@@ -45,6 +46,9 @@ import java.util.PriorityQueue;
  * 
  */
 public class MonitorConsumption extends Timed {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the collected totalprocessed data with timestamps to allow seeing the
 	 * temporal behavior of totalprocessed
@@ -52,7 +56,10 @@ public class MonitorConsumption extends Timed {
 	 * @author "Gabor Kecskemeti, Distributed and Parallel Systems Group, University of Innsbruck (c) 2013"
 	 *
 	 */
-	private static class SpreadingRecord implements Comparable<SpreadingRecord> {
+	private static class SpreadingRecord implements Comparable<SpreadingRecord>, Serializable {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * the time in ticks when this record was acquired
 		 */
@@ -32,6 +32,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling;
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems, MTA SZTAKI (c) 2014"
  */
 public class ConstantConsumptionModel extends PowerState.ConsumptionModel {
+
+	private static final long serialVersionUID = 1L;
+
 	@Override
 	protected double evaluateConsumption(final double load) {
 		return getMyPowerState().getMinConsumption();
@@ -32,6 +32,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling;
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems, MTA SZTAKI (c) 2014"
  */
 public class NoIdleConsumptionModel extends LinearConsumptionModel {
+
+	private static final long serialVersionUID = 1L;
+
 	@Override
 	protected double evaluateConsumption(final double load) {
 		return load == 0 ? 0 : super.evaluateConsumption(load);
@@ -26,6 +26,7 @@ package hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling;
 
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.function.Supplier;
 
@@ -36,7 +37,10 @@ import java.util.function.Supplier;
  *         MTA SZTAKI (c) 2014"
  *
  */
-public class PowerState {
+public class PowerState implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * By sub-classing this class one can define arbitrary consumption models.
 	 * 
@@ -44,7 +48,10 @@ public class PowerState {
 	 *         MTA SZTAKI (c) 2014"
 	 *
 	 */
-	public static abstract class ConsumptionModel {
+	public static abstract class ConsumptionModel implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * backlink to the power state with useful data to determine the consumption
 		 * model
@@ -83,7 +90,7 @@ public class PowerState {
 	 *         MTA SZTAKI (c) 2014"
 	 *
 	 */
-	public interface PowerCharacteristicsChange {
+	public interface PowerCharacteristicsChange extends Serializable {
 		/**
 		 * this function is called when there is a powerstate characteristic change on
 		 * the powerstate onMe.
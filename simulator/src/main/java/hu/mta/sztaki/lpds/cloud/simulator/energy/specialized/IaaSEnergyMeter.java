@@ -43,6 +43,9 @@ import java.util.stream.Collectors;
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems, MTA SZTAKI (c) 2015"
  */
 public class IaaSEnergyMeter extends AggregatedEnergyMeter implements VMManager.CapacityChangeEvent<PhysicalMachine> {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The IaaSService to be observed with this meter
 	 */
@@ -87,8 +90,9 @@ public class IaaSEnergyMeter extends AggregatedEnergyMeter implements VMManager.
 	@Override
 	public void capacityChanged(ResourceConstraints newCapacity, List<PhysicalMachine> affectedCapacity) {
 		long freq = -1;
-		if (isSubscribed()) {
-			freq = getFrequency();
+		if (isMetering()) {
+			// event driven sessions are restarted with a 0 interval
+			freq = isSubscribed() ? getFrequency() : 0;
 			stopMeter();
 		}
 		if (newCapacity.compareTo(oldCapacity) < 0) {
@@ -42,6 +42,8 @@ import java.util.List;
 public class PhysicalMachineEnergyMeter extends AggregatedEnergyMeter
 		implements VMManager.CapacityChangeEvent<ResourceConstraints> {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The physical machine that is under monitoring
 	 */
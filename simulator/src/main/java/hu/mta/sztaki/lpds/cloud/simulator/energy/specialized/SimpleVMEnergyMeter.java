@@ -37,6 +37,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
  * 
  */
 public class SimpleVMEnergyMeter extends PhysicalMachineEnergyMeter {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Cannot be created for unallocated VMs!
 	 * 
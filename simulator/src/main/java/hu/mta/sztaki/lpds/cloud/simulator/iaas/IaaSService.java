@@ -57,6 +57,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.ArrayHandler;
  */
 public class IaaSService implements VMManager<IaaSService, PhysicalMachine>, PhysicalMachine.StateChangeListener {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * This class represents a generic error that occurred during the operation of
 	 * the IaaS service.
@@ -27,11 +27,12 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -74,6 +75,8 @@ import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
  */
 public class PhysicalMachine extends MaxMinProvider implements VMManager<PhysicalMachine, ResourceConstraints> {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * This is the default length for how long a resource allocation will be kept
 	 * before it becomes invalid.
@@ -147,7 +150,7 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 	 *         MTA SZTAKI (c) 2012"
 	 *
 	 */
-	public interface StateChangeListener {
+	public interface StateChangeListener extends Serializable {
 		/**
 		 * This function is called by the PM on subscribed objects when a PM's state
 		 * changes. To simplify the implementation of the receiver objects, this state
@@ -181,6 +184,9 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 	 *         Distributed Systems, MTA SZTAKI (c) 2012"
 	 */
 	public class ResourceAllocation extends DeferredEvent {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * The resource set that is virtually offered to the VM that uses this
 		 * allocation.
@@ -243,6 +249,7 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 			promisedCapacities.singleAdd(realAllocated);
 			internalReallyFreeCaps.subtract(realAllocated);
 			promisedAllocationsCount++;
+			freeCapacityUpdateManager.notifyListeners(Collections.singletonList(realAllocated));
 		}
 
 		/**
@@ -275,6 +282,7 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 			}
 			if (isUnUsed()) {
 				internalReallyFreeCaps.singleAdd(realAllocated);
+				freeCapacityUpdateManager.notifyListeners(Collections.singletonList(realAllocated));
 			}
 		}
 
@@ -335,7 +343,9 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 				completedVMs++;
 				internalAvailableCaps.singleAdd(realAllocated);
 				internalReallyFreeCaps.singleAdd(realAllocated);
-				increasingFreeCapacityListenerManager.notifyListeners(Collections.singletonList(realAllocated));
+				final List<ResourceConstraints> released = Collections.singletonList(realAllocated);
+				freeCapacityUpdateManager.notifyListeners(released);
+				increasingFreeCapacityListenerManager.notifyListeners(released);
 				user = null;
 				swept = true;
 			}
@@ -396,6 +406,9 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 	 *         Distributed Systems, MTA SZTAKI (c) 2014-"
 	 */
 	public class PowerStateDelayer extends ConsumptionEventAdapter {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * The state that the delayer must switch to after the power state change has
 		 * finished its activities.
@@ -468,6 +481,9 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 				// Mark the completion of the state change
 				onOffEvent = null;
 				class NetworkCausedStateDelay extends Timed {
+
+					private static final long serialVersionUID = 1L;
+
 					int infiniteLoopTest = 0;
 
 					public NetworkCausedStateDelay() {
@@ -654,9 +670,11 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 			);
 
 	/**
-	 * the set of currently running virtual machines on this PM
+	 * the set of currently running virtual machines on this PM, listed in the
+	 * order of their arrival. Unlike the order of a hash set, this order is the
+	 * same in a simulation restored from a checkpoint.
 	 */
-	private final HashSet<VirtualMachine> vms = new HashSet<>(); // current
+	private final LinkedHashSet<VirtualMachine> vms = new LinkedHashSet<>(); // current
 	/**
 	 * the publicly available, read only set of currently running virtual machines
 	 * on this PM
@@ -685,6 +703,12 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 	 * resources are getting used
 	 */
 	private final StateDependentEventHandler<CapacityChangeEvent<ResourceConstraints>, List<ResourceConstraints>> decreasingFreeCapacityListenerManager=new StateDependentEventHandler<>(this::sendCapacityUpdate);
+	/**
+	 * this notification handler is used to send out events on every change of
+	 * the freeCapacities field (including the resource allocations and their
+	 * cancellations)
+	 */
+	private final StateDependentEventHandler<CapacityChangeEvent<ResourceConstraints>, List<ResourceConstraints>> freeCapacityUpdateManager=new StateDependentEventHandler<>(this::sendCapacityUpdate);
 
 	/**
 	 * This consumer is added to the PM help simulate the pure (VM less) operations
@@ -847,6 +871,9 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 		if (migrateHere != null) {
 			final VirtualMachine[] vmarr = vms.toArray(new VirtualMachine[0]);
 			class MultiMigrate implements VirtualMachine.StateChange {
+
+				private static final long serialVersionUID = 1L;
+
 				private int counter = 0;
 
 				@Override
@@ -1524,6 +1551,31 @@ public class PhysicalMachine extends MaxMinProvider implements VMManager<Physica
 		increasingFreeCapacityListenerManager.unsubscribeFromEvents(e);
 	}
 
+	/**
+	 * manages the subscriptions for the updates of the freeCapacities field.
+	 * Unlike the increasing and decreasing free capacity events, these are also
+	 * sent when a resource allocation is made, cancelled or expires. Thus they
+	 * are meant for those who keep an index of the PMs' free resources (e.g.,
+	 * the VM schedulers), the listeners should not alter the allocations of the
+	 * PM.
+	 * 
+	 * @param e
+	 *            the listener object which expects the updates
+	 */
+	public void subscribeToFreeCapacityUpdates(final CapacityChangeEvent<ResourceConstraints> e) {
+		freeCapacityUpdateManager.subscribeToEvents(e);
+	}
+
+	/**
+	 * manages the subscriptions for the updates of the freeCapacities field.
+	 * 
+	 * @param e
+	 *            the listener object that no longer expects the updates
+	 */
+	public void unsubscribeFromFreeCapacityUpdates(final CapacityChangeEvent<ResourceConstraints> e) {
+		freeCapacityUpdateManager.unsubscribeFromEvents(e);
+	}
+
 	/**
 	 * determines if the direct consumer accepts compute tasks to be registered
 	 * 
@@ -27,6 +27,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -94,6 +95,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.notifications.StateDependentEventHandl
  *         MTA SZTAKI (c) 2012,2014-15"
  */
 public class VirtualMachine extends MaxMinConsumer {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * This class is defined to ensure one can differentiate errors that were caused
 	 * because the functions on the VM class are called in an improper order. E.g.
@@ -128,7 +132,7 @@ public class VirtualMachine extends MaxMinConsumer {
 	 *         of Innsbruck (c) 2013"
 	 * 
 	 */
-	public interface StateChange {
+	public interface StateChange extends Serializable {
 		/**
 		 * If the state of a VM is changed this function is called on all subscribing
 		 * implementations.
@@ -147,7 +151,9 @@ public class VirtualMachine extends MaxMinConsumer {
 	 *         of Innsbruck (c) 2013"
 	 * 
 	 */
-	private static class EventSetup {
+	private static class EventSetup implements Serializable {
+
+		private static final long serialVersionUID = 1L;
 
 		/**
 		 * the state that the VM needs to be after the eventsetup completes
@@ -177,6 +183,9 @@ public class VirtualMachine extends MaxMinConsumer {
 	 * 
 	 */
 	private static class StartupProcedure extends EventSetup {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * initiates the class and remarks that the modeled state should be startup
 		 */
@@ -454,6 +463,9 @@ public class VirtualMachine extends MaxMinConsumer {
 	 * 
 	 */
 	class InitialTransferEvent extends ConsumptionEventAdapter {
+
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * the target repository where the VA is expected to turn up
 		 */
@@ -466,6 +478,10 @@ public class VirtualMachine extends MaxMinConsumer {
 		 * the expected id of the storage object in the target repository
 		 */
 		final String diskid;
+		/**
+		 * should the VA be cached in the target repository after the transfer
+		 */
+		final boolean cacheVA;
 
 		/**
 		 * Initiates the event handler object
@@ -476,9 +492,27 @@ public class VirtualMachine extends MaxMinConsumer {
 		 *              repo for the new runnable VA.
 		 */
 		public InitialTransferEvent(final Repository t, final EventSetup event, final String did) {
+			this(t, event, did, false);
+		}
+
+		/**
+		 * Initiates the event handler object
+		 * 
+		 * @param t       the repository to observe
+		 * @param event   the event to fire after the transfer to the target repo
+		 *                happened
+		 * @param did     the disk id of the newly created storage object in the
+		 *                target repo for the new runnable VA.
+		 * @param cacheVA if true, the VA itself is also kept in the target repo's
+		 *                cache so later VMs could be started without transferring
+		 *                it again
+		 */
+		public InitialTransferEvent(final Repository t, final EventSetup event, final String did,
+				final boolean cacheVA) {
 			target = t;
 			esetup = event;
 			diskid = did;
+			this.cacheVA = cacheVA;
 		}
 
 		/**
@@ -490,6 +524,9 @@ public class VirtualMachine extends MaxMinConsumer {
 		public void conComplete() {
 			currentVMMOperations.clear();
 			disk = target.lookup(diskid);
+			if (cacheVA) {
+				target.cacheObject(va);
+			}
 			esetup.changeEvents(VirtualMachine.this);
 		}
 
@@ -554,6 +591,15 @@ public class VirtualMachine extends MaxMinConsumer {
 						currentVMMOperation = vatarget.duplicateContent(va.id, diskid,
 								new InitialTransferEvent(vatarget, es, diskid));
 					}
+				} else if (vatarget != null && vatarget != vasource && vatarget.getCachePolicy() != null) {
+					// Mixed scenario with an image cache on the target
+					if (vatarget.lookupCached(va.id) != null) {
+						currentVMMOperation = vatarget.duplicateContent(va.id, diskid,
+								new InitialTransferEvent(vatarget, es, diskid));
+					} else {
+						currentVMMOperation = vasource.requestContentDelivery(va.id, diskid, vatarget,
+								new InitialTransferEvent(vatarget, es, diskid, true));
+					}
 				} else {
 					// Mixed scenario
 					currentVMMOperation = vasource.requestContentDelivery(va.id, diskid, vatarget,
@@ -654,6 +700,9 @@ public class VirtualMachine extends MaxMinConsumer {
 		 * 
 		 */
 		class MigrationEvent extends ConsumptionEventAdapter {
+
+			private static final long serialVersionUID = 1L;
+
 			/**
 			 * When did the last memory transfer start for the current migration process
 			 */
@@ -1045,6 +1094,9 @@ public class VirtualMachine extends MaxMinConsumer {
 		setState(State.RESUME_TR);
 		final Repository pmdisk = ra.getHost().localDisk;
 		class ResumeComplete extends ConsumptionEventAdapter {
+
+			private static final long serialVersionUID = 1L;
+
 			private void cleanUpIntermediateData() {
 				savedmemory = null;
 				currentVMMOperations.clear();
@@ -44,11 +44,18 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
  *         Moores University, (c) 2017"
  */
 public abstract class Consolidator extends Timed {
+
+	private static final long serialVersionUID = 1L;
+
 	private final long consFreq;
 	private long consolidationRuns = 0;
 	protected final IaaSService toConsolidate;
 	private boolean resourceAllocationChange = false;
 	private boolean omitAllocationCheck = false;
+	/**
+	 * The number of PMs currently hosting VMs in the IaaS under consolidation
+	 */
+	private int hostingPMs = 0;
 
 	/**
 	 * This inner class ensures that the consolidator receives its periodic events
@@ -58,7 +65,15 @@ public abstract class Consolidator extends Timed {
 	 *         Moores University, (c) 2016"
 	 */
 	private class VMListObserver implements VMManager.CapacityChangeEvent<ResourceConstraints> {
+
+		private static final long serialVersionUID = 1L;
+
 		private final PhysicalMachine pm;
+		/**
+		 * Shows if the observed PM was hosting VMs at the time of the last
+		 * notification
+		 */
+		private boolean hosting = false;
 
 		/**
 		 * Subscribes for free capacity change events.
@@ -69,22 +84,36 @@ public abstract class Consolidator extends Timed {
 			forMe.subscribeToDecreasingFreeapacityChanges(this);
 			forMe.subscribeToIncreasingFreeapacityChanges(this);
 			pm = forMe;
-			capacityChanged(null, null);
+			checkVMs();
 		}
 
 		/**
-		 * Receives the usage related notifications from the observed physical machine
-		 * and ensures the subscription of the consolidator in case this is the first VM
-		 * the consolidator should know about.
+		 * Ensures the subscription of the consolidator in case this is the first VM
+		 * the consolidator should know about, and maintains the count of PMs hosting
+		 * VMs.
 		 */
-		@Override
-		public void capacityChanged(ResourceConstraints newCapacity, List<ResourceConstraints> affectedCapacity) {
-			if (pm.isHostingVMs() && !isSubscribed()) {
+		private void checkVMs() {
+			final boolean nowHosting = pm.isHostingVMs();
+			if (nowHosting != hosting) {
+				hosting = nowHosting;
+				hostingPMs += nowHosting ? 1 : -1;
+			}
+			if (nowHosting && !isSubscribed()) {
 				subscribe(consFreq);
 			}
 			resourceAllocationChange = true;
 		}
 
+		/**
+		 * Receives the usage related notifications from the observed physical machine
+		 * and passes them on to the consolidation algorithm.
+		 */
+		@Override
+		public void capacityChanged(ResourceConstraints newCapacity, List<ResourceConstraints> affectedCapacity) {
+			checkVMs();
+			vmListChanged(pm);
+		}
+
 		/**
 		 * To be called, so we don't keep the observer object in the pm's subscriber list
 		 * if there is no need for observing anymore.
@@ -92,6 +121,9 @@ public abstract class Consolidator extends Timed {
 		public void cancelSubscriptions() {
 			pm.unsubscribeFromDecreasingFreeCapacityChanges(this);
 			pm.unsubscribeFromIncreasingFreeCapacityChanges(this);
+			if (hosting) {
+				hostingPMs--;
+			}
 		}
 	}
 
@@ -168,12 +200,9 @@ public abstract class Consolidator extends Timed {
 	 */
     private void prepConsolidation() {
         // Should we consolidate next time?
-        var thereWereVMs = toConsolidate.machines.stream().anyMatch(PhysicalMachine::isHostingVMs);
+        var thereWereVMs = hostingPMs > 0;
         consolidationRuns++;
-        // Make a copy as machines as they could be sold/removed if they are not used because of
-        // consolidation...
-        doConsolidation(toConsolidate.machines
-                .toArray(new PhysicalMachine[0]));
+        doConsolidation(getConsolidationCandidates());
         if (!thereWereVMs) {
             // No we should not
             unsubscribe();
@@ -199,6 +228,28 @@ public abstract class Consolidator extends Timed {
 		this.omitAllocationCheck = omitAllocationCheck;
 	}
 
+	/**
+	 * Called when VMs are added to or removed from one of the PMs of the IaaS
+	 * under consolidation. Consolidators that only want to reconsider the
+	 * changed part of the infrastructure can collect these PMs.
+	 *
+	 * @param pm the PM with the changed VM list
+	 */
+	protected void vmListChanged(PhysicalMachine pm) {
+		// No need to track the changes by default
+	}
+
+	/**
+	 * Determines the PMs to be passed to the consolidation algorithm.
+	 *
+	 * @return by default, all PMs of the IaaS service
+	 */
+	protected PhysicalMachine[] getConsolidationCandidates() {
+		// Make a copy as machines as they could be sold/removed if they are not used because of
+		// consolidation...
+		return toConsolidate.machines.toArray(new PhysicalMachine[0]);
+	}
+
 	/**
 	 * The implementations of this function should provide the actual consolidation
 	 * algorithm.
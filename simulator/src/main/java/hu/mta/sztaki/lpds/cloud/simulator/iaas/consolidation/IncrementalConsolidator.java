@@ -0,0 +1,383 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.consolidation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine.ResourceAllocation;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager.VMManagementException;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
+
+/**
+ * A consolidator that only reconsiders those PMs which had their VM list
+ * changed since its last run. Unlike the simple consolidator, it does not look
+ * at the complete infrastructure in every round.
+ *
+ * The PMs with changes are evacuated in a best-fit-decreasing manner: the
+ * least loaded PMs are considered first, and their VMs are placed (largest
+ * first) on the more loaded PM which has the least free capacity that is still
+ * enough for the VM. The candidate targets are found in an index of the PMs
+ * hosting VMs ordered by their free processing power, which is maintained from
+ * the free capacity updates of the PMs. A PM is only evacuated if all of its
+ * VMs can be moved, as otherwise it would stay switched on anyway.
+ *
+ * The number of migrations started in a single round is limited. The PMs which
+ * could not be considered because of this limit are kept for the next round.
+ */
+public class IncrementalConsolidator extends Consolidator {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * This is a simple counter that one can query to determine how many migrations
+	 * this algorithm ordered.
+	 */
+	public static long migrationCount = 0;
+
+	/**
+	 * The maximum number of PMs to be tried as the target of a single VM (the
+	 * index only knows about the free processing power of the PMs, thus the
+	 * ones with the best fit might still lack the memory for the VM).
+	 */
+	public static final int maxTargetProbes = 16;
+
+	/**
+	 * Orders the PMs from the most free processing power to the least. PMs with
+	 * the same free capacity keep their order of appearance.
+	 */
+	private static final Comparator<PhysicalMachine> mostFreeFirst = (PhysicalMachine o1,
+			PhysicalMachine o2) -> Double.compare(o2.freeCapacities.getTotalProcessingPower(),
+					o1.freeCapacities.getTotalProcessingPower());
+
+	/**
+	 * Orders the VMs from the largest allocation to the smallest.
+	 */
+	private static final Comparator<VirtualMachine> largestFirst = (VirtualMachine o1,
+			VirtualMachine o2) -> Double.compare(o2.getResourceAllocation().allocated.getTotalProcessingPower(),
+					o1.getResourceAllocation().allocated.getTotalProcessingPower());
+
+	/**
+	 * Orders the index from the least free processing power to the most.
+	 */
+	private static class TargetOrder implements Comparator<Target>, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int compare(final Target o1, final Target o2) {
+			final int cmp = Double.compare(o1.free, o2.free);
+			return cmp == 0 ? Long.compare(o1.seq, o2.seq) : cmp;
+		}
+	}
+
+	/**
+	 * The position of a PM hosting VMs in the target index.
+	 */
+	private class Target implements VMManager.CapacityChangeEvent<ResourceConstraints> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The PM (null for the probes used for searching the index)
+		 */
+		final PhysicalMachine pm;
+		/**
+		 * Makes the order of the PMs with the same free capacity deterministic
+		 */
+		final long seq;
+		/**
+		 * The free processing power of the PM when it was put in the index
+		 */
+		double free;
+		/**
+		 * Shows if the PM is in the index
+		 */
+		boolean indexed = false;
+
+		Target(final PhysicalMachine pm, final double free, final long seq) {
+			this.pm = pm;
+			this.free = free;
+			this.seq = seq;
+		}
+
+		/**
+		 * Puts the PM in the index or removes it from there depending on whether
+		 * it hosts VMs, or updates its position if its free capacity changed.
+		 */
+		void update() {
+			final boolean hosting = pm.isHostingVMs();
+			final double now = pm.freeCapacities.getTotalProcessingPower();
+			if (indexed && (!hosting || now != free)) {
+				targets.remove(this);
+				indexed = false;
+			}
+			if (hosting && !indexed) {
+				free = now;
+				targets.add(this);
+				indexed = true;
+			}
+		}
+
+		@Override
+		public void capacityChanged(final ResourceConstraints newCapacity,
+				final List<ResourceConstraints> affectedCapacity) {
+			update();
+		}
+	}
+
+	/**
+	 * The maximum number of migrations to be started in a single round
+	 */
+	private final int migrationBudget;
+	/**
+	 * The PMs that had their VM list changed since they were last considered
+	 */
+	private final LinkedHashSet<PhysicalMachine> dirty = new LinkedHashSet<>();
+	/**
+	 * The PMs hosting VMs ordered by their free processing power (the least
+	 * free first)
+	 */
+	private final TreeSet<Target> targets = new TreeSet<>(new TargetOrder());
+	/**
+	 * The index entries of all PMs in the IaaS service
+	 */
+	private final HashMap<PhysicalMachine, Target> entries = new HashMap<>();
+	/**
+	 * The sequence number of the next index entry
+	 */
+	private long nextSeq = 0;
+
+	/**
+	 * Sets up the index of the PMs and the list of PMs to be considered in the
+	 * first round.
+	 *
+	 * @param toConsolidate   The cloud infrastructure to be continuously
+	 *                        consolidated
+	 * @param consFreq        The frequency with which the consolidation rounds
+	 *                        should be done
+	 * @param migrationBudget The maximum number of migrations to be started in a
+	 *                        single round
+	 */
+	public IncrementalConsolidator(IaaSService toConsolidate, long consFreq, int migrationBudget) {
+		super(toConsolidate, consFreq);
+		if (migrationBudget < 1) {
+			throw new IllegalArgumentException("At least one migration should be allowed per round");
+		}
+		this.migrationBudget = migrationBudget;
+		toConsolidate.machines.forEach(this::track);
+		toConsolidate.subscribeToCapacityChanges(
+				(ResourceConstraints newCapacity, List<PhysicalMachine> affectedCapacity) -> {
+					final boolean newRegistration = this.toConsolidate.isRegisteredHost(affectedCapacity.get(0));
+					for (final PhysicalMachine pm : affectedCapacity) {
+						if (newRegistration) {
+							track(pm);
+						} else {
+							untrack(pm);
+						}
+					}
+				});
+	}
+
+	/**
+	 * Starts following the free capacity of a PM, and marks it for the next
+	 * round.
+	 */
+	private void track(final PhysicalMachine pm) {
+		if (!entries.containsKey(pm)) {
+			final Target t = new Target(pm, 0, nextSeq++);
+			entries.put(pm, t);
+			pm.subscribeToFreeCapacityUpdates(t);
+			t.update();
+			dirty.add(pm);
+		}
+	}
+
+	/**
+	 * Stops following a PM that is no longer part of the IaaS.
+	 */
+	private void untrack(final PhysicalMachine pm) {
+		final Target t = entries.remove(pm);
+		if (t != null) {
+			pm.unsubscribeFromFreeCapacityUpdates(t);
+			if (t.indexed) {
+				targets.remove(t);
+			}
+		}
+		dirty.remove(pm);
+	}
+
+	/**
+	 * Marks the PM for the next round. Its position in the index is also
+	 * updated as it might have started or stopped hosting VMs.
+	 */
+	@Override
+	protected void vmListChanged(PhysicalMachine pm) {
+		final Target t = entries.get(pm);
+		if (t != null) {
+			t.update();
+			dirty.add(pm);
+		}
+	}
+
+	/**
+	 * Only the PMs with changes are considered.
+	 */
+	@Override
+	protected PhysicalMachine[] getConsolidationCandidates() {
+		return dirty.toArray(new PhysicalMachine[0]);
+	}
+
+	/**
+	 * Evacuates the least loaded PMs among the candidates if all of their VMs
+	 * fit on more loaded PMs.
+	 */
+	@Override
+	protected void doConsolidation(PhysicalMachine[] pmList) {
+		int lastItem = 0;
+		for (int i = 0; i < pmList.length; i++) {
+			if (pmList[i].isHostingVMs()
+					&& pmList[i].freeCapacities.getTotalProcessingPower() > SimpleConsolidator.pmFullLimit) {
+				pmList[lastItem++] = pmList[i];
+			} else {
+				dirty.remove(pmList[i]);
+			}
+		}
+		Arrays.sort(pmList, 0, lastItem, mostFreeFirst);
+		int budget = migrationBudget;
+		final ArrayList<ResourceAllocation> plan = new ArrayList<>();
+		// The PMs already evacuated or receiving VMs in this round
+		final HashSet<PhysicalMachine> touched = new HashSet<>();
+		final HashSet<PhysicalMachine> evacuated = new HashSet<>();
+		for (int i = 0; i < lastItem; i++) {
+			final PhysicalMachine source = pmList[i];
+			if (touched.contains(source)) {
+				// We will be notified about the PM again when its migrations complete
+				continue;
+			}
+			final VirtualMachine[] vmList = source.publicVms.toArray(new VirtualMachine[0]);
+			if (vmList.length > budget) {
+				// Let's continue with this PM in the next round, but PMs with fewer VMs
+				// could still be evacuated in this one
+				continue;
+			}
+			dirty.remove(source);
+			boolean movable = true;
+			for (VirtualMachine vm : vmList) {
+				if (!VirtualMachine.State.RUNNING.equals(vm.getState())) {
+					// We will be notified about the PM again when the VM is gone, but not when it
+					// starts running
+					dirty.add(source);
+					movable = false;
+					break;
+				}
+			}
+			if (!movable) {
+				continue;
+			}
+			Arrays.sort(vmList, largestFirst);
+			plan.clear();
+			for (VirtualMachine vm : vmList) {
+				final ResourceAllocation alloc = findTarget(source, vm.getResourceAllocation().allocated, evacuated);
+				if (alloc == null) {
+					break;
+				}
+				plan.add(alloc);
+			}
+			if (plan.size() < vmList.length) {
+				// The PM would stay on anyway
+				plan.forEach(ResourceAllocation::cancel);
+				continue;
+			}
+			touched.add(source);
+			evacuated.add(source);
+			for (int j = 0; j < vmList.length; j++) {
+				final ResourceAllocation alloc = plan.get(j);
+				touched.add(alloc.getHost());
+				try {
+					vmList[j].migrate(alloc);
+					migrationCount++;
+					budget--;
+				} catch (VMManagementException e) {
+					System.err.println(
+							"Error while handling vm " + vmList[j].hashCode() + " === " + e.getMessage());
+					alloc.cancel();
+				} catch (NetworkException nex) {
+					System.err.println(
+							"NW Error while handling vm " + vmList[j].hashCode() + " === " + nex.getMessage());
+					alloc.cancel();
+				}
+			}
+		}
+		// If the budget was not enough, we need a new round even without new changes
+		setOmitAllocationCheck(!dirty.isEmpty());
+	}
+
+	/**
+	 * Looks for the best fitting PM for a VM among those that are more loaded
+	 * than the source of the VM.
+	 *
+	 * @param source the PM currently hosting the VM
+	 * @param needed the resources allocated for the VM
+	 * @param evacuated the PMs not to be used as targets
+	 * @return the allocation on the target PM, or null if there is no suitable
+	 *         target
+	 */
+	private ResourceAllocation findTarget(final PhysicalMachine source, final ResourceConstraints needed,
+			final HashSet<PhysicalMachine> evacuated) {
+		final Target from = new Target(null, needed.getTotalProcessingPower() * (1 - 1e-9), Long.MIN_VALUE);
+		final Target to = entries.get(source);
+		if (to == null || !to.indexed || Double.compare(from.free, to.free) >= 0) {
+			return null;
+		}
+		final Iterator<Target> candidates = targets.subSet(from, true, to, false).iterator();
+		for (int probes = 0; probes < maxTargetProbes && candidates.hasNext(); probes++) {
+			final PhysicalMachine target = candidates.next().pm;
+			if (evacuated.contains(target)) {
+				continue;
+			}
+			try {
+				// The iteration is not continued after a successful allocation, as it
+				// changes the index
+				final ResourceAllocation alloc = target.allocateResources(needed, true,
+						PhysicalMachine.migrationAllocLen);
+				if (alloc != null) {
+					return alloc;
+				}
+			} catch (VMManagementException pmNotRunning) {
+				// Not a target then
+			}
+		}
+		return null;
+	}
+}
@@ -43,6 +43,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
  */
 public class SimpleConsolidator extends Consolidator {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * This is a simple counter that one can query to determine how many migrations
 	 * this algorithm ordered.
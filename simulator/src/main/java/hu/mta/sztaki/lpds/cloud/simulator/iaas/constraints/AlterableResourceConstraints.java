@@ -39,6 +39,9 @@ import java.util.stream.Stream;
  *         MTA SZTAKI (c) 2015"
  */
 public class AlterableResourceConstraints extends ResourceConstraints {
+
+	private static final long serialVersionUID = 1L;
+
 	// data members to represent the state required for the standard RC calls
 	private double requiredCPUs;
 	private double requiredProcessingPower;
@@ -33,6 +33,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints;
  * 
  */
 public class ConstantConstraints extends ResourceConstraints {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Provides easy access to the one and original zero constraints
 	 */
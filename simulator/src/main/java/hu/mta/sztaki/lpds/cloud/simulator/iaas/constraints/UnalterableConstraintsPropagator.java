@@ -44,6 +44,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints;
  * 
  */
 public class UnalterableConstraintsPropagator extends ResourceConstraints {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The other resource constraints object to encapsulate. Typically, this will
 	 * be an alterableresourceconstraints object.
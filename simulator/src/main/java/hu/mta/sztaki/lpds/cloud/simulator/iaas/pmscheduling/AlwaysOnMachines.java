@@ -46,6 +46,9 @@ import java.util.List;
  * Distributed Systems, MTA SZTAKI (c) 2012"
  */
 public class AlwaysOnMachines extends PhysicalMachineController {
+
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs the scheduler and passes the parent IaaSService to the superclass.
      *
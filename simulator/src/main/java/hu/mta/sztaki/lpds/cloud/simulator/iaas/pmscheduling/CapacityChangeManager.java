@@ -23,6 +23,8 @@ import java.util.List;
 class CapacityChangeManager
         implements VMManager.CapacityChangeEvent<ResourceConstraints>, PhysicalMachine.StateChangeListener {
 
+    private static final long serialVersionUID = 1L;
+
     private final SchedulingDependentMachines controller;
     /**
      * the physical machine that this capacity manager will target with its
@@ -89,6 +91,9 @@ class CapacityChangeManager
      * we just started the PM for no reason
      */
     class MachineSwitchoffDelayer extends DeferredEvent {
+
+        private static final long serialVersionUID = 1L;
+
         public MachineSwitchoffDelayer() {
             super(observed.getCurrentOnOffDelay());
         }
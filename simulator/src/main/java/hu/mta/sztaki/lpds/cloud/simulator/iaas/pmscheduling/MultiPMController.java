@@ -54,6 +54,8 @@ import java.util.ArrayList;
 
 public class MultiPMController extends SchedulingDependentMachines {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * the list of machines that are currently turned on by this controller.
      */
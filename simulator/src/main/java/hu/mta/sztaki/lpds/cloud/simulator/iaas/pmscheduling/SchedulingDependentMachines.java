@@ -46,6 +46,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
  */
 public class SchedulingDependentMachines extends PhysicalMachineController {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * this map lists all the currently controlled PMs and their controllers.
 	 */
@@ -0,0 +1,315 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A max-min fair scheduler working on flat primitive arrays.
+ *
+ * The influence group is copied to arrays first: the capacity of every
+ * spreader and the own processing limit of every consumption. Then all
+ * unassigned consumptions are raised to a common level which only grows. The
+ * level stops at the next event, that is either a consumption reaching its
+ * own processing limit or a spreader running out of capacity (i.e., the level
+ * where its remaining capacity is evenly spread among its still unassigned
+ * consumptions). The stopped consumptions keep the level as their real limit.
+ * The candidate events are kept in a binary heap, so the next one is found in
+ * logarithmic time, and only the two spreaders of a freshly assigned
+ * consumption need to be reevaluated.
+ *
+ * The work arrays are kept per thread and are reused, thus after a warm up
+ * period the solver does not allocate anything.
+ */
+public class ArrayMaxMinSolver implements MaxMinSolver {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The work arrays of the solver. Spreaders are identified by their index in
+	 * the influence group, while consumptions by their position in the order
+	 * they were collected from the providers. In the heap, spreader i has the
+	 * entry i, consumption k has the entry spreaderCount + k.
+	 */
+	private static final class Workspace {
+		/**
+		 * The processing capacity of the spreaders that is not yet given to
+		 * assigned consumptions.
+		 */
+		double[] remaining = new double[16];
+		/**
+		 * The number of unassigned consumptions per spreader.
+		 */
+		int[] unassignedCount = new int[16];
+		/**
+		 * The consumptions of the group.
+		 */
+		ResourceConsumption[] cons = new ResourceConsumption[16];
+		/**
+		 * The index of the provider of each consumption.
+		 */
+		int[] providerOf = new int[16];
+		/**
+		 * The index of the consumer of each consumption.
+		 */
+		int[] consumerOf = new int[16];
+		/**
+		 * The level at which a heap entry would stop the raise (indexed by entry).
+		 */
+		double[] key = new double[32];
+		/**
+		 * The binary min-heap of entries ordered by their keys.
+		 */
+		int[] heap = new int[32];
+		/**
+		 * The position of every entry in the heap, -1 if it is not in the heap.
+		 */
+		int[] pos = new int[32];
+		/**
+		 * The number of entries in the heap.
+		 */
+		int heapSize;
+
+		/**
+		 * Makes sure the arrays can accommodate the given group.
+		 */
+		void ensureCapacity(final int spreaders, final int consumptions) {
+			if (remaining.length < spreaders) {
+				final int len = Math.max(spreaders, remaining.length << 1);
+				remaining = new double[len];
+				unassignedCount = new int[len];
+			}
+			if (cons.length < consumptions) {
+				final int len = Math.max(consumptions, cons.length << 1);
+				cons = new ResourceConsumption[len];
+				providerOf = new int[len];
+				consumerOf = new int[len];
+			}
+			final int entries = spreaders + consumptions;
+			if (key.length < entries) {
+				final int len = Math.max(entries, key.length << 1);
+				key = new double[len];
+				heap = new int[len];
+				pos = new int[len];
+			}
+		}
+
+		void offer(final int entry) {
+			siftUp(heapSize++, entry);
+		}
+
+		int poll() {
+			final int result = heap[0];
+			pos[result] = -1;
+			final int last = heap[--heapSize];
+			if (heapSize > 0) {
+				siftDown(0, last);
+			}
+			return result;
+		}
+
+		void remove(final int entry) {
+			final int i = pos[entry];
+			if (i < 0) {
+				return;
+			}
+			pos[entry] = -1;
+			final int last = heap[--heapSize];
+			if (i != heapSize) {
+				siftDown(i, last);
+				if (heap[i] == last) {
+					siftUp(i, last);
+				}
+			}
+		}
+
+		void update(final int entry, final double newKey) {
+			final int i = pos[entry];
+			key[entry] = newKey;
+			if (i >= 0) {
+				siftDown(i, entry);
+				if (heap[i] == entry) {
+					siftUp(i, entry);
+				}
+			}
+		}
+
+		private void siftUp(int k, final int entry) {
+			final double ek = key[entry];
+			while (k > 0) {
+				final int parent = (k - 1) >>> 1;
+				final int p = heap[parent];
+				if (ek >= key[p]) {
+					break;
+				}
+				heap[k] = p;
+				pos[p] = k;
+				k = parent;
+			}
+			heap[k] = entry;
+			pos[entry] = k;
+		}
+
+		private void siftDown(int k, final int entry) {
+			final double ek = key[entry];
+			final int half = heapSize >>> 1;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				final int right = child + 1;
+				if (right < heapSize && key[heap[right]] < key[heap[child]]) {
+					child = right;
+				}
+				final int c = heap[child];
+				if (ek <= key[c]) {
+					break;
+				}
+				heap[k] = c;
+				pos[c] = k;
+				k = child;
+			}
+			heap[k] = entry;
+			pos[entry] = k;
+		}
+
+		/**
+		 * Drops the references to the consumptions of the last solved group.
+		 */
+		void clear(final int consumptions) {
+			Arrays.fill(cons, 0, consumptions, null);
+			heapSize = 0;
+		}
+	}
+
+	/**
+	 * The work arrays of the threads using this solver.
+	 */
+	private static final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+	@Override
+	public long solve(final FreqSyncer syncer) {
+		final Workspace ws = workspaces.get();
+		final int groupSize = syncer.getGroupSize();
+		final int providerCount = syncer.getProviderCount();
+		int conCount = 0;
+		for (int i = 0; i < providerCount; i++) {
+			conCount += syncer.getMember(i).toProcess.size();
+		}
+		ws.ensureCapacity(groupSize, conCount);
+
+		// Copying the group to the work arrays
+		for (int i = 0; i < groupSize; i++) {
+			final ResourceSpreader rs = syncer.getMember(i);
+			ws.remaining[i] = rs.perTickProcessingPower;
+			ws.unassignedCount[i] = rs.toProcess.size();
+			ws.pos[i] = -1;
+		}
+		int k = 0;
+		for (int i = 0; i < providerCount; i++) {
+			final ArrayList<ResourceConsumption> cons = syncer.getMember(i).toProcess;
+			for (int j = 0; j < cons.size(); j++, k++) {
+				final ResourceConsumption con = cons.get(j);
+				ws.cons[k] = con;
+				ws.providerOf[k] = i;
+				ws.consumerOf[k] = providerCount + con.getConsumer().groupIndex;
+				con.solverIndex = k;
+				ws.key[groupSize + k] = con.getProcessingLimit();
+				ws.offer(groupSize + k);
+			}
+		}
+		for (int i = 0; i < groupSize; i++) {
+			if (ws.unassignedCount[i] > 0) {
+				ws.key[i] = ws.remaining[i] / ws.unassignedCount[i];
+				ws.offer(i);
+			}
+		}
+
+		// Raising the level of the unassigned consumptions event by event
+		double level = 0;
+		int unassigned = conCount;
+		while (unassigned > 0) {
+			final int entry = ws.poll();
+			level = Math.max(level, ws.key[entry]);
+			if (entry >= groupSize) {
+				// A consumption reached its own limit
+				assign(ws, entry - groupSize, level);
+				unassigned--;
+			} else {
+				// A spreader is out of capacity, all its unassigned consumptions
+				// stop at the current level
+				final ArrayList<ResourceConsumption> cons = syncer.getMember(entry).toProcess;
+				for (int j = 0; j < cons.size(); j++) {
+					final int ck = cons.get(j).solverIndex;
+					if (ws.pos[groupSize + ck] >= 0) {
+						ws.remove(groupSize + ck);
+						assign(ws, ck, level);
+						unassigned--;
+					}
+				}
+			}
+		}
+
+		// Writing back the results and determining the earliest completion time
+		long earliestCompletion = Long.MAX_VALUE;
+		for (k = 0; k < conCount; k++) {
+			final ResourceConsumption con = ws.cons[k];
+			con.unassigned = false;
+			con.consumerLimit = con.providerLimit = con.limithelper;
+			con.updateRealLimit(true);
+			earliestCompletion = Math.min(earliestCompletion, con.getCompletionDistance());
+		}
+		ws.clear(conCount);
+		return earliestCompletion;
+	}
+
+	/**
+	 * Finalises the processing limit of a single consumption and updates the
+	 * saturation levels of its provider and consumer.
+	 *
+	 * @param ws        the work arrays
+	 * @param k         the index of the consumption
+	 * @param level     the limit to be given to the consumption
+	 */
+	private static void assign(final Workspace ws, final int k, final double level) {
+		ws.cons[k].limithelper = level;
+		updateSpreader(ws, ws.providerOf[k], level);
+		updateSpreader(ws, ws.consumerOf[k], level);
+	}
+
+	/**
+	 * Removes an assigned consumption from the unassigned ones of a spreader and
+	 * determines the new level at which the spreader would run out of capacity.
+	 *
+	 * @param ws    the work arrays
+	 * @param s     the index of the spreader
+	 * @param level the limit given to the assigned consumption
+	 */
+	private static void updateSpreader(final Workspace ws, final int s, final double level) {
+		ws.remaining[s] -= level;
+		if (--ws.unassignedCount[s] == 0) {
+			ws.remove(s);
+		} else {
+			ws.update(s, ws.remaining[s] / ws.unassignedCount[s]);
+		}
+	}
+}
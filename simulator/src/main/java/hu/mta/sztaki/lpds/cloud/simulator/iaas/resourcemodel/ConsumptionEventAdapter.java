@@ -42,6 +42,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption
  */
 public class ConsumptionEventAdapter implements ConsumptionEvent {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * shows if the resource consumption has failed to complete for some reason
 	 */
@@ -25,14 +25,8 @@
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
 
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
-import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import static java.util.function.Predicate.not;
+import java.util.Arrays;
 
 /**
  * This class is the core part of the unified resource consumption model of
@@ -50,37 +44,64 @@ import static java.util.function.Predicate.not;
  * resource consumption is added to the group or because one of the consumptions
  * complete), and then make sure that all spreaders in the influence group
  * receive timing events at the same time instance.
+ * <p>
+ * The members of the influence group are kept in plain arrays, and every
+ * member remembers its slot in the array of its kind (see
+ * ResourceSpreader.groupIndex). Thus membership checks, merges and splits do
+ * not need any lookup structures or temporary collections.
  *
  * @author "Gabor Kecskemeti, Distributed and Parallel Systems Group, University
  * of Innsbruck (c) 2013" "Gabor Kecskemeti, Laboratory of Parallel and
  * Distributed Systems, MTA SZTAKI (c) 2015"
  */
 public class FreqSyncer extends Timed {
+
+    private static final long serialVersionUID = 1L;
+
     public enum DepKind {
         CONSUMER, PROVIDER
     }
 
     /**
-     * The influence group managed by this freqsyncer object.
-     * <p>
-     * myDepGroup is always kept in order: first all the providers are listed, then
-     * all the consumers, when dealing with this data member please keep in mind
-     * this expected behavior. At the end of the array we have a padding with null
-     * items.
+     * The providers of the influence group managed by this freqsyncer object.
      * <p>
      * Contents:
      * <ul>
-     * <li>[0,firstConsumerId[ providers
-     * <li>[firstConsumerId,depgrouplen[ consumers
-     * <li>[depgrouplen,myDepGroup.length[ padding with null items
+     * <li>[0,providerCount[ providers
+     * <li>[providerCount,providers.length[ padding with null items
      * </ul>
      */
-    final EnumMap<DepKind, Set<ResourceSpreader>> myDepGroup;
+    private ResourceSpreader[] providers = new ResourceSpreader[4];
+    /**
+     * The number of providers in the influence group.
+     */
+    private int providerCount = 0;
+    /**
+     * The consumers of the influence group, organised the same way as the
+     * providers.
+     */
+    private ResourceSpreader[] consumers = new ResourceSpreader[4];
+    /**
+     * The number of consumers in the influence group.
+     */
+    private int consumerCount = 0;
     /**
      * those resource spreaders that need to be added to the influence group at the
      * particular time instance
+     * <p>
+     * Contents: [0,extensionCount[ the spreaders, the rest is padding with null
+     * items.
+     */
+    private ResourceSpreader[] depGroupExtension = new ResourceSpreader[4];
+    /**
+     * The number of spreaders waiting to be added to the influence group.
      */
-    private final HashSet<ResourceSpreader> depGroupExtension = new HashSet<>();
+    private int extensionCount = 0;
+    /**
+     * Reusable work area for the traversal of the influence group during its
+     * decomposition.
+     */
+    private ResourceSpreader[] traversalStack = null;
     /**
      * if there are some external activities that could lead to influence group
      * changes this field will be turned to true
@@ -105,45 +126,99 @@ public class FreqSyncer extends Timed {
      * @param consumer the consumer to be added to the initial influence group
      */
     FreqSyncer(final ResourceSpreader provider, final ResourceSpreader consumer) {
-        myDepGroup=new EnumMap<>(DepKind.class);
-        initDGMap(myDepGroup);
-        myDepGroup.get(DepKind.PROVIDER).add(provider);
-        myDepGroup.get(DepKind.CONSUMER).add(consumer);
-        provider.setSyncer(this);
-        consumer.setSyncer(this);
+        addMember(provider);
+        addMember(consumer);
         setBackPreference(true);
     }
 
-    private static void initDGMap(EnumMap<DepKind, Set<ResourceSpreader>> toInit) {
-        toInit.put(DepKind.PROVIDER, new HashSet<>());
-        toInit.put(DepKind.CONSUMER, new HashSet<>());
+    /**
+     * The constructor to be used when a new influence group needs to be created
+     * because the original group got fragmented. The new freqsyncer takes over
+     * the arrays passed.
+     *
+     * @param providers     the providers of the new influence group
+     * @param providerCount the number of providers in the array
+     * @param consumers     the consumers of the new influence group
+     * @param consumerCount the number of consumers in the array
+     */
+    private FreqSyncer(final ResourceSpreader[] providers, final int providerCount,
+            final ResourceSpreader[] consumers, final int consumerCount) {
+        this.providers = providers;
+        this.providerCount = providerCount;
+        this.consumers = consumers;
+        this.consumerCount = consumerCount;
+        for (int i = 0; i < getGroupSize(); i++) {
+            getMember(i).setSyncer(this);
+        }
+        setBackPreference(true);
     }
 
-    Stream<ResourceSpreader> getProviderStream() {
-        return getDepGroupStream(DepKind.PROVIDER);
+    /**
+     * Determines the number of providers in the influence group.
+     *
+     * @return the provider count
+     */
+    int getProviderCount() {
+        return providerCount;
     }
 
     /**
-     * @return Returns a new stream of all the members of the influence group, it is guaranteed to offer all providers first in the sequential stream
+     * Determines the number of all members of the influence group.
+     *
+     * @return the member count
      */
-    Stream<ResourceSpreader> getCompleteDGStream() {
-        return Stream.concat(getProviderStream(),getDepGroupStream(DepKind.CONSUMER));
+    int getGroupSize() {
+        return providerCount + consumerCount;
     }
 
-    Stream<ResourceSpreader> getDepGroupStream(DepKind streamKind) {
-        return myDepGroup.get(streamKind).stream();
+    /**
+     * Allows indexed access to the members of the influence group. All providers
+     * are listed before the consumers, thus the indexes [0,getProviderCount()[
+     * refer to providers only.
+     *
+     * @param i the index of the member, must be smaller than getGroupSize()
+     * @return the member at the given index
+     */
+    ResourceSpreader getMember(final int i) {
+        return i < providerCount ? providers[i] : consumers[i - providerCount];
     }
 
     /**
-     * The constructor to be used when a new influence group needs to be created
-     * because the original group got fragmented.
+     * Appends a spreader to the end of the array of its kind and makes the
+     * spreader aware of its group membership.
      *
-     * @param predefinedDepGroup the group members to take part in the new influence group
+     * @param rs the new member
      */
-    private FreqSyncer(EnumMap<DepKind,Set<ResourceSpreader>> predefinedDepGroup) {
-        myDepGroup=predefinedDepGroup;
-        getCompleteDGStream().forEach(rs -> rs.setSyncer(this));
-        setBackPreference(true);
+    private void addMember(final ResourceSpreader rs) {
+        if (rs.spreaderType() == DepKind.PROVIDER) {
+            if (providerCount == providers.length) {
+                providers = Arrays.copyOf(providers, providerCount << 1);
+            }
+            rs.groupIndex = providerCount;
+            providers[providerCount++] = rs;
+        } else {
+            if (consumerCount == consumers.length) {
+                consumers = Arrays.copyOf(consumers, consumerCount << 1);
+            }
+            rs.groupIndex = consumerCount;
+            consumers[consumerCount++] = rs;
+        }
+        rs.setSyncer(this);
+    }
+
+    /**
+     * Queues a spreader for addition to the influence group. The spreader will
+     * join the group at the beginning of the next round of group member
+     * identification.
+     *
+     * @param rs the spreader to queue
+     */
+    private void addToExtension(final ResourceSpreader rs) {
+        if (extensionCount == depGroupExtension.length) {
+            depGroupExtension = Arrays.copyOf(depGroupExtension, extensionCount << 1);
+        }
+        rs.groupIndex = extensionCount;
+        depGroupExtension[extensionCount++] = rs;
     }
 
     /**
@@ -152,10 +227,11 @@ public class FreqSyncer extends Timed {
      * the influence group know their group membership.
      */
     private void addToGroup() {
-        depGroupExtension.forEach(rs -> {
-            myDepGroup.get(rs.spreaderType()).add(rs);
-            rs.setSyncer(this);
-        });
+        for (int i = 0; i < extensionCount; i++) {
+            addMember(depGroupExtension[i]);
+            depGroupExtension[i] = null;
+        }
+        extensionCount = 0;
     }
 
     /**
@@ -166,7 +242,24 @@ public class FreqSyncer extends Timed {
      * @return <i>true</i> if the group is part of the current influence group
      */
     private boolean isInDepGroup(final ResourceSpreader lookfor) {
-        return getDepGroupStream(lookfor.spreaderType()).anyMatch( d -> d==lookfor);
+        final int i = lookfor.groupIndex;
+        if (lookfor.spreaderType() == DepKind.PROVIDER) {
+            return i >= 0 && i < providerCount && providers[i] == lookfor;
+        } else {
+            return i >= 0 && i < consumerCount && consumers[i] == lookfor;
+        }
+    }
+
+    /**
+     * Determines if the spreader in question is already waiting to be added to
+     * the influence group.
+     *
+     * @param lookfor the spreader in question
+     * @return <i>true</i> if the spreader is in the depGroupExtension list
+     */
+    private boolean isInExtension(final ResourceSpreader lookfor) {
+        final int i = lookfor.groupIndex;
+        return i >= 0 && i < extensionCount && depGroupExtension[i] == lookfor;
     }
 
     /**
@@ -186,7 +279,9 @@ public class FreqSyncer extends Timed {
      */
     @Override
     public String toString() {
-        return "FreqSyncer(" + super.toString() + " depGroup: " + myDepGroup + ")";
+        return "FreqSyncer(" + super.toString() + " depGroup: {PROVIDER="
+                + Arrays.toString(Arrays.copyOf(providers, providerCount)) + ", CONSUMER="
+                + Arrays.toString(Arrays.copyOf(consumers, consumerCount)) + "})";
     }
 
     /**
@@ -199,7 +294,12 @@ public class FreqSyncer extends Timed {
      * @param currentTime the time instance for which the processing should be done
      */
     protected final void outOfOrderProcessing(final long currentTime) {
-        getCompleteDGStream().forEach(rs -> rs.doProcessing(currentTime));
+        for (int i = 0; i < providerCount; i++) {
+            providers[i].doProcessing(currentTime);
+        }
+        for (int i = 0; i < consumerCount; i++) {
+            consumers[i].doProcessing(currentTime);
+        }
     }
 
     /**
@@ -236,19 +336,21 @@ public class FreqSyncer extends Timed {
      * @return if we need to do the group separation phase
      */
     private boolean identifyGroupMembers(long fires) {
-        var didRemovals = false;
+        boolean didRemovals = false;
         boolean didExtension;
         do {
             addToGroup();
             outOfOrderProcessing(fires);
-            depGroupExtension.clear();
             nudged = false;
-            var res = getCompleteDGStream()
-                    .map(rs -> Pair.of(rs.handleRemovals(), rs.handleAdditions(fires)))
-                    .reduce((in1, in2) -> Pair.of(in1.getLeft() | in2.getLeft(), in1.getRight() | in2.getRight()))
-                    .orElse(Pair.of(false, false));
-            didRemovals |= res.getLeft();
-            didExtension = res.getRight();
+            didExtension = false;
+            for (int i = 0; i < providerCount; i++) {
+                didRemovals |= providers[i].handleRemovals();
+                didExtension |= providers[i].handleAdditions(fires);
+            }
+            for (int i = 0; i < consumerCount; i++) {
+                didRemovals |= consumers[i].handleRemovals();
+                didExtension |= consumers[i].handleAdditions(fires);
+            }
         } while (didExtension || nudged);
         return didRemovals;
     }
@@ -258,23 +360,25 @@ public class FreqSyncer extends Timed {
      */
     private void groupSeparation() {
         cleanDepGroupFromUnusedSpreaders();
-        if(!isEmptyDG()) {
+        if (!isEmptyDG()) {
             // Marking all current members of the depgroup as non-members
-            getCompleteDGStream().forEach(rs -> rs.stillInDepGroup = false);
+            for (int i = 0; i < getGroupSize(); i++) {
+                getMember(i).stillInDepGroup = false;
+            }
             boolean needsFurtherSplitChecks = true;
             do {
-                buildDepGroup(getFirstProvider());
-                if (getCompleteDGStream().anyMatch(not(rs -> rs.stillInDepGroup))) {
+                if (buildDepGroup(providers[0]) != getGroupSize()) {
                     // a split is needed, we have identified an influence group which does not belong to the group of the first member
-                    EnumMap<DepKind, Set<ResourceSpreader>> newInfluenceGroup = new EnumMap<>(DepKind.class);
-                    initDGMap(newInfluenceGroup);
-                    var notClassified = getCompleteDGStream();
-                    // Separate the newly identified subgroup into its own
-                    notClassified.filter(rs -> rs.stillInDepGroup).peek(rs -> newInfluenceGroup.get(rs.spreaderType()).add(rs)).collect(Collectors.toList()).forEach(rs ->
-                            myDepGroup.get(rs.spreaderType()).remove(rs) // remove the new sub group's members from the original
-                    );
-                    // by this time we have a smaller influence group in the current freq syncer as the new group has some of the old members
-                    var newFreqSyncer = new FreqSyncer(newInfluenceGroup);
+                    // Separate the newly identified subgroup into its own, the
+                    // current freq syncer keeps the rest
+                    final ResourceSpreader[] newProviders = new ResourceSpreader[providerCount];
+                    final ResourceSpreader[] newConsumers = new ResourceSpreader[consumerCount];
+                    final int newProviderCount = providerCount;
+                    final int newConsumerCount = consumerCount;
+                    providerCount = separateMarked(providers, providerCount, newProviders);
+                    consumerCount = separateMarked(consumers, consumerCount, newConsumers);
+                    var newFreqSyncer = new FreqSyncer(newProviders, newProviderCount - providerCount,
+                            newConsumers, newConsumerCount - consumerCount);
                     newFreqSyncer.updateMyFreqNow();
                 } else {
                     // no split is needed, we have got the final group, it is just a bit smaller than before
@@ -282,7 +386,7 @@ public class FreqSyncer extends Timed {
                 }
             } while (needsFurtherSplitChecks);
         }
-        if(isEmptyDG()) {
+        if (isEmptyDG()) {
             // We have not been left to work with anything, no need to keep our subscription
             unsubscribe();
         } else {
@@ -290,18 +394,55 @@ public class FreqSyncer extends Timed {
         }
     }
 
+    /**
+     * Moves the marked members of a member array to a new array. The unmarked
+     * members are compacted to the beginning of the original array. Both arrays
+     * keep the original order of the members.
+     *
+     * @param from  the member array to separate
+     * @param count the number of members in the array
+     * @param to    the array to receive the marked members
+     * @return the number of unmarked members left in the original array
+     */
+    private static int separateMarked(final ResourceSpreader[] from, final int count, final ResourceSpreader[] to) {
+        int kept = 0;
+        int moved = 0;
+        for (int i = 0; i < count; i++) {
+            final ResourceSpreader rs = from[i];
+            if (rs.stillInDepGroup) {
+                rs.groupIndex = moved;
+                to[moved++] = rs;
+            } else {
+                rs.groupIndex = kept;
+                from[kept++] = rs;
+            }
+        }
+        Arrays.fill(from, kept, count, null);
+        return kept;
+    }
+
     private void cleanDepGroupFromUnusedSpreaders() {
-        for(DepKind dgType:DepKind.values()) cleanDepGroupFromUnusedSpreaders(dgType);
+        providerCount = cleanDepGroupFromUnusedSpreaders(providers, providerCount);
+        consumerCount = cleanDepGroupFromUnusedSpreaders(consumers, consumerCount);
     }
 
-    private void cleanDepGroupFromUnusedSpreaders(DepKind dgType) {
+    private static int cleanDepGroupFromUnusedSpreaders(final ResourceSpreader[] members, final int count) {
         // Removing all past members which are no longer processing
         // Clearing out previous freq syncer references to members no longer needing one
-        myDepGroup.get(dgType).removeIf(ResourceSpreader::cleanSyncerWhenNotProcessing);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            final ResourceSpreader rs = members[i];
+            if (!rs.cleanSyncerWhenNotProcessing()) {
+                rs.groupIndex = kept;
+                members[kept++] = rs;
+            }
+        }
+        Arrays.fill(members, kept, count, null);
+        return kept;
     }
 
     private boolean isEmptyDG() {
-        return getCompleteDGStream().findFirst().isEmpty();
+        return getGroupSize() == 0;
     }
 
     /**
@@ -320,7 +461,10 @@ public class FreqSyncer extends Timed {
     }
 
     private ResourceSpreader getFirstProvider() {
-        return getProviderStream().findFirst().orElseThrow();
+        if (providerCount == 0) {
+            throw new IllegalStateException("The influence group has no providers");
+        }
+        return providers[0];
     }
 
     /**
@@ -339,37 +483,78 @@ public class FreqSyncer extends Timed {
      * it is expected that all past members of the influence group are marked not in
      * the group anymore. This function will then change these flags back only on
      * the relevant members from the point of view of the starting item.
+     * <p>
+     * The traversal is done with an explicit stack, so even very long chains of
+     * spreaders do not exhaust the call stack.
      *
      * @param startingItem the starting item from which point the influence group
      *                     should be constructured.
+     * @return the number of spreaders marked
      */
-    private void buildDepGroup(final ResourceSpreader startingItem) {
-        if (!startingItem.toProcess.isEmpty() && !startingItem.stillInDepGroup) {
-            startingItem.stillInDepGroup = true;
-            startingItem.toProcess.stream().map(startingItem::getCounterPart).forEach(this::buildDepGroup);
+    private int buildDepGroup(final ResourceSpreader startingItem) {
+        if (startingItem.toProcess.isEmpty() || startingItem.stillInDepGroup) {
+            return 0;
         }
+        if (traversalStack == null || traversalStack.length < getGroupSize()) {
+            traversalStack = new ResourceSpreader[Math.max(4, getGroupSize())];
+        }
+        int marked = 0;
+        int top = 0;
+        startingItem.stillInDepGroup = true;
+        traversalStack[top++] = startingItem;
+        while (top > 0) {
+            final ResourceSpreader rs = traversalStack[--top];
+            traversalStack[top] = null;
+            marked++;
+            for (int i = 0; i < rs.toProcess.size(); i++) {
+                final ResourceSpreader cp = rs.getCounterPart(rs.toProcess.get(i));
+                if (!cp.toProcess.isEmpty() && !cp.stillInDepGroup) {
+                    cp.stillInDepGroup = true;
+                    if (top == traversalStack.length) {
+                        traversalStack = Arrays.copyOf(traversalStack, top << 1);
+                    }
+                    traversalStack[top++] = cp;
+                }
+            }
+        }
+        return marked;
     }
 
     boolean ensureDepGroupHasCounterPart(ResourceSpreader cp) {
         // Check if counterpart is in the dependency group
         if (!isInDepGroup(cp)) {
-            var cpSyncer=cp.getSyncer();
-            // No it is not, we need an extension
-            if (cpSyncer == null || cpSyncer == this) {
-                // Just this single item is missing
-                depGroupExtension.add(cp);
-            } else {
-                // There are further items missing
-                cpSyncer.unsubscribe(); // we will remove its old syncer
-                cpSyncer.getCompleteDGStream().forEach(depGroupExtension::add);
-                // Make sure, that if we encounter this cp
-                // next time we will not try to add all its
-                // dep group
-                cp.setSyncer(null);
+            if (!isInExtension(cp)) {
+                var cpSyncer = cp.getSyncer();
+                // No it is not, we need an extension
+                if (cpSyncer == null || cpSyncer == this) {
+                    // Just this single item is missing
+                    addToExtension(cp);
+                } else {
+                    // There are further items missing
+                    cpSyncer.unsubscribe(); // we will remove its old syncer
+                    for (int i = 0; i < cpSyncer.getGroupSize(); i++) {
+                        addToExtension(cpSyncer.getMember(i));
+                    }
+                    // Make sure, that if we encounter any of its members
+                    // next time we will not try to add all its
+                    // dep group
+                    cpSyncer.dropMembers();
+                    cp.setSyncer(null);
+                }
             }
             return true;
         } else {
             return false;
         }
     }
+
+    /**
+     * Forgets all members of the influence group. Used when the group is merged
+     * into another one.
+     */
+    private void dropMembers() {
+        Arrays.fill(providers, 0, providerCount, null);
+        Arrays.fill(consumers, 0, consumerCount, null);
+        providerCount = consumerCount = 0;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
+
+import java.util.ArrayList;
+
+/**
+ * The original max-min fair scheduler of DISSECT-CF. It raises the processing
+ * limits of all unassigned consumptions with the smallest possible increment
+ * in each round, and every spreader recalculates its fair shares among its
+ * unassigned consumptions after every round.
+ *
+ * Its cost is proportional to the number of rounds times the size of the
+ * influence group. It is kept as a reference to cross-check other solvers.
+ */
+public class IterativeMaxMinSolver implements MaxMinSolver {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public long solve(final FreqSyncer syncer) {
+		// Phase 1: preparation
+		final int groupSize = syncer.getGroupSize();
+		final int providerCount = syncer.getProviderCount();
+		for (int i = 0; i < groupSize; i++) {
+			((MaxMinFairSpreader) syncer.getMember(i)).initializeFreqUpdate();
+		}
+		boolean someConsumptionIsStillUnderUtilized;
+		// Phase 2: Progressive filling iteration
+		do {
+			// Phase 2a: determining maximum possible processing
+			// Determining wishes for providers and consumers
+			for (int i = 0; i < groupSize; i++) {
+				((MaxMinFairSpreader) syncer.getMember(i)).assignProcessingPower();
+			}
+			// Phase 2b: Finding minimum between providers and consumers
+			boolean foundUnassigned = false;
+			double minProcessing = Double.MAX_VALUE;
+			for (int i = 0; i < providerCount; i++) {
+				final ArrayList<ResourceConsumption> cons = syncer.getMember(i).toProcess;
+				for (int j = 0; j < cons.size(); j++) {
+					final ResourceConsumption con = cons.get(j);
+					if (con.unassigned) {
+						final double realLimit = con.updateRealLimit(false);
+						minProcessing = foundUnassigned ? Math.min(minProcessing, realLimit) : realLimit;
+						foundUnassigned = true;
+					}
+				}
+			}
+
+			final double mpLowLimit = minProcessing * 0.000000001;
+			// Phase 2c: single filling
+			someConsumptionIsStillUnderUtilized = false;
+			for (int i = 0; i < providerCount; i++) {
+				final MaxMinFairSpreader mmfs = (MaxMinFairSpreader) syncer.getMember(i);
+				for (int j = 0; j < mmfs.toProcess.size(); j++) {
+					final ResourceConsumption con = mmfs.toProcess.get(j);
+					if (con.unassigned) {
+						con.limithelper += minProcessing;
+						final MaxMinFairSpreader counterpart = (MaxMinFairSpreader) mmfs.getCounterPart(con);
+						mmfs.currentUnProcessed -= minProcessing;
+						counterpart.currentUnProcessed -= minProcessing;
+						final double rlMin = Math.abs(con.getRealLimit() - minProcessing);
+						if (rlMin <= mpLowLimit) {
+							con.unassigned = false;
+							mmfs.unassignedNum--;
+							counterpart.unassignedNum--;
+						}
+					}
+				}
+				someConsumptionIsStillUnderUtilized |= mmfs.unassignedNum != 0;
+			}
+		} while (someConsumptionIsStillUnderUtilized);
+		// Phase 3: Determining the earliest completion time
+		long earliestCompletion = Long.MAX_VALUE;
+		for (int i = 0; i < providerCount; i++) {
+			final ArrayList<ResourceConsumption> cons = syncer.getMember(i).toProcess;
+			for (int j = 0; j < cons.size(); j++) {
+				final ResourceConsumption con = cons.get(j);
+				con.consumerLimit = con.providerLimit = con.limithelper;
+				con.updateRealLimit(true);
+				earliestCompletion = Math.min(earliestCompletion, con.getCompletionDistance());
+			}
+		}
+		return earliestCompletion;
+	}
+}
@@ -42,6 +42,8 @@ package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
  */
 public class MaxMinConsumer extends MaxMinFairSpreader {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructs a generic Max Min fairness based resource consumer.
 	 * 
@@ -25,6 +25,8 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
 
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+
 /**
  * This class is part of the unified resource consumption model of DISSECT-CF.
  * 
@@ -38,19 +40,21 @@ package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
  */
 public abstract class MaxMinFairSpreader extends ResourceSpreader {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Determines the amount of processing that still remains unspent in this
 	 * spreader. This value is always smaller than the perTickProcessingPower of the
 	 * spreader.
 	 */
-	private double currentUnProcessed;
+	double currentUnProcessed;
 	/**
 	 * The number of resource consumptions for which this spreader still did not
 	 * assign temporal resource utilization limits - see: p(c,s,t) in the paper
 	 * titled "DISSECT-CF: a simulator to foster energy-aware scheduling in
 	 * infrastructure clouds" .
 	 */
-	private int unassignedNum;
+	int unassignedNum;
 
 	/**
 	 * Constructs a generic Max Min fairness based resource spreader.
@@ -74,10 +78,12 @@ public abstract class MaxMinFairSpreader extends ResourceSpreader {
 	 * situations.
 	 *
 	 */
-	private void initializeFreqUpdate() {
+	void initializeFreqUpdate() {
 		currentUnProcessed = perTickProcessingPower;
 		unassignedNum=underProcessing.size();
-		underProcessing.forEach(ResourceConsumption::resetForFreqUpdate);
+		for (int i = 0; i < toProcess.size(); i++) {
+			toProcess.get(i).resetForFreqUpdate();
+		}
 	}
 
 	/**
@@ -89,7 +95,7 @@ public abstract class MaxMinFairSpreader extends ResourceSpreader {
 	 * still unassigned then its limithelper should be still lower than the maximum
 	 * amount of processing possible by its provider/consumer.
 	 */
-	private void assignProcessingPower() {
+	void assignProcessingPower() {
 		if (currentUnProcessed > negligibleProcessing && unassignedNum > 0) {
 			int currlen = unassignedNum;
 			underProcessing.forEach(c -> c.inassginmentprocess=c.unassigned);
@@ -136,50 +142,50 @@ public abstract class MaxMinFairSpreader extends ResourceSpreader {
 	 * limit and determines what is the resource consumption which will finish
 	 * earliest with that particular limit. The earliest completion time is then
 	 * returned to the main resource spreading logic of the simulator.
+	 * 
+	 * The actual calculation is done by the solver set for the simulation of
+	 * the influence group.
 	 */
 	@Override
 	protected long singleGroupwiseFreqUpdater() {
-		// Phase 1: preparation
 		final FreqSyncer syncer = getSyncer();
-		syncer.getCompleteDGStream().forEach(rs -> ((MaxMinFairSpreader)rs).initializeFreqUpdate());
-		boolean someConsumptionIsStillUnderUtilized;
-		// Phase 2: Progressive filling iteration
-		do {
-			// Phase 2a: determining maximum possible processing
-			// Determining wishes for providers and consumers
-			syncer.getCompleteDGStream().forEach(rs -> ((MaxMinFairSpreader)rs).assignProcessingPower());
-			// Phase 2b: Finding minimum between providers and consumers
-			final double minProcessing = syncer.getProviderStream().flatMapToDouble(
-					rs -> rs.underProcessing.stream().filter(c -> c.unassigned).mapToDouble(c -> c.updateRealLimit(false))).min().orElse(Double.MAX_VALUE);
+		return getSolver(syncer.getContext()).solve(syncer);
+	}
 
-			final double mpLowLimit=minProcessing * 0.000000001;
-			// Phase 2c: single filling
-			someConsumptionIsStillUnderUtilized = syncer.getProviderStream().filter(
-					rs -> {
-						final MaxMinFairSpreader mmfs = (MaxMinFairSpreader) rs;
-						mmfs.underProcessing.stream().filter(c -> c.unassigned).forEach( con -> {
-							con.limithelper += minProcessing;
-							final MaxMinFairSpreader counterpart = (MaxMinFairSpreader) mmfs.getCounterPart(con);
-							mmfs.currentUnProcessed -= minProcessing;
-							counterpart.currentUnProcessed -= minProcessing;
-							final double rlMin = Math.abs(con.getRealLimit() - minProcessing);
-							if (rlMin <= mpLowLimit) {
-								con.unassigned = false;
-								mmfs.unassignedNum--;
-								counterpart.unassignedNum--;
-							}
-						});
-						return mmfs.unassignedNum!=0;
-					}
-			).count()!=0;
-		} while (someConsumptionIsStillUnderUtilized);
-		// Phase 3: Determining the earliest completion time
-		return syncer.getProviderStream().flatMapToLong(
-				rs ->  rs.underProcessing.stream().mapToLong(con -> {
-					con.consumerLimit = con.providerLimit = con.limithelper;
-					con.updateRealLimit(true);
-					return con.getCompletionDistance();
-				})).min().orElse(Long.MAX_VALUE);
+	/**
+	 * Determines the solver used for the max-min fair scheduling in a
+	 * simulation. If no solver was set, an ArrayMaxMinSolver is used.
+	 * 
+	 * @param ctx the simulation in question
+	 * @return the current solver of the simulation
+	 */
+	private static MaxMinSolver getSolver(final SimulationContext ctx) {
+		return ctx.getSetting(MaxMinSolver.class, ArrayMaxMinSolver::new);
+	}
+
+	/**
+	 * Determines the solver used for the max-min fair scheduling in the
+	 * simulation the calling thread is bound to.
+	 * 
+	 * @return the current solver
+	 */
+	public static MaxMinSolver getSolver() {
+		return getSolver(SimulationContext.current());
+	}
+
+	/**
+	 * Replaces the solver used for the max-min fair scheduling of all influence
+	 * groups in the simulation the calling thread is bound to. Other simulations
+	 * are not affected. Should only be done when there are no resource
+	 * consumptions under way.
+	 * 
+	 * @param newSolver the solver to be used from now on
+	 */
+	public static void setSolver(final MaxMinSolver newSolver) {
+		if (newSolver == null) {
+			throw new IllegalArgumentException("A solver must be specified");
+		}
+		SimulationContext.current().setSetting(MaxMinSolver.class, newSolver);
 	}
 
 	/**
@@ -39,6 +39,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
  *
  */
 public class MaxMinProvider extends MaxMinFairSpreader {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructs a generic Max Min fairness based resource producer.
 	 * 
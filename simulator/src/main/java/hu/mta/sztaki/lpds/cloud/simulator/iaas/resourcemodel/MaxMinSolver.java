@@ -0,0 +1,53 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
+
+import java.io.Serializable;
+
+/**
+ * The low level scheduler of the max-min fairness based resource spreaders.
+ * It distributes the processing capacities of the providers and consumers of
+ * an influence group among the group's resource consumptions.
+ *
+ * The solver can be replaced with MaxMinFairSpreader.setSolver() for each
+ * simulation context separately. This allows the comparison of alternative
+ * implementations, which are expected to produce the same processing limits
+ * (apart from floating point rounding).
+ *
+ * Implementations communicate their results through the package private
+ * scheduling fields of ResourceConsumption, thus they are expected to be
+ * placed in this package.
+ */
+public interface MaxMinSolver extends Serializable {
+	/**
+	 * Assigns a processing limit (its real limit) to each resource consumption
+	 * in the influence group and determines which consumption would finish the
+	 * earliest with these limits.
+	 *
+	 * @param group the influence group to schedule, all of its members are
+	 *              max-min fair spreaders
+	 * @return the duration (in ticks) one has to wait before any of the
+	 *         resource consumptions in the group complete
+	 */
+	long solve(FreqSyncer group);
+}
@@ -0,0 +1,56 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
+
+import java.io.Serializable;
+
+/**
+ * This interface should be implemented in case one would like to follow the
+ * processing done by a resource spreader without periodically polling its
+ * total processed value. The processing rate of a spreader only changes when
+ * its influence group is rescheduled, and before every such change the
+ * spreader reports the processing done since its previous report. Between two
+ * reports the spreader is either idle or processes with a constant rate.
+ * 
+ * This is expected to be used in the energy related part of the simulator
+ * (see the event driven mode of the DirectEnergyMeter).
+ */
+public interface ProcessingListener extends Serializable {
+	/**
+	 * Until subscribed, this function is called every time the resource
+	 * spreader accounts for the processing of its resource consumptions.
+	 * 
+	 * @param onSpreader
+	 *            the resource spreader which did the processing
+	 * @param from
+	 *            the time instance from which the spreader was processing with
+	 *            a constant rate. The spreader was idle since its previous report
+	 *            if this is later than the end of the previously reported period.
+	 * @param until
+	 *            the time instance until which the processing is reported
+	 *            (the current time)
+	 * @param processed
+	 *            the amount of processing done in the reported period
+	 */
+	void processed(final ResourceSpreader onSpreader, final long from, final long until, final double processed);
+}
@@ -26,6 +26,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
 
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.function.BooleanSupplier;
 
@@ -53,7 +54,9 @@ import java.util.function.BooleanSupplier;
  *         of Innsbruck (c) 2013"
  * 
  */
-public class ResourceConsumption {
+public class ResourceConsumption implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * This comparator class provides a simple comparison tool for two resource
@@ -82,7 +85,7 @@ public class ResourceConsumption {
 	 *         of Innsbruck (c) 2013"
 	 * 
 	 */
-	public interface ConsumptionEvent {
+	public interface ConsumptionEvent extends Serializable {
 		/**
 		 * This function is called when the resource consumption represented by the
 		 * ResourceConsumption object is fulfilled
@@ -185,6 +188,14 @@ public class ResourceConsumption {
 	 * MaxMinFairSpreader
 	 */
 	boolean inassginmentprocess;
+	/**
+	 * The position of this consumption in the work arrays of the
+	 * ArrayMaxMinSolver while it schedules the consumption's influence group.
+	 * 
+	 * <i>WARNING:</i> this is necessary for the internal behavior of
+	 * MaxMinFairSpreader
+	 */
+	int solverIndex;
 
 	/**
 	 * Added for live migration memDirtyingRate: percentage of memory dirtied
@@ -230,6 +241,13 @@ public class ResourceConsumption {
 	 * shows if the consumption event was already sent out to the listener
 	 */
 	private boolean eventNotFired = true;
+	/**
+	 * The positions of this consumption in the lists of its provider and
+	 * consumer (see ResourceSpreader.slotIndex), -1 if the consumption is not
+	 * in the particular list. This allows the spreaders to check membership and
+	 * to remove the consumption from their lists in constant time.
+	 */
+	final int[] slots = { -1, -1, -1, -1, -1, -1 };
 
 	/**
 	 * This constructor describes the basic properties of an individual resource
@@ -311,6 +329,7 @@ public class ResourceConsumption {
 	 */
 	public boolean registerConsumption() {
 		if (!registered) {
+			ResourceSpreader.catchUpProcessing(this);
 			if (getUnProcessed() == 0) {
 				return fireCompleteEvent();
 			} else if (resumable && provider != null && consumer != null) {
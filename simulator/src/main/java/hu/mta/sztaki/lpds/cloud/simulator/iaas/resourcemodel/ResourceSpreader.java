@@ -25,18 +25,18 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.statenotifications.PowerStateChangeNotificationHandler;
 import hu.mta.sztaki.lpds.cloud.simulator.notifications.StateDependentEventHandler;
-import hu.mta.sztaki.lpds.cloud.simulator.util.ArrayHandler;
 
 /**
  * This class is part of the unified resource consumption model of DISSECT-CF.
@@ -56,7 +56,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.ArrayHandler;
  *         Distributed Systems, MTA SZTAKI (c) 2012"
  * 
  */
-public abstract class ResourceSpreader {
+public abstract class ResourceSpreader implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	// These final variables define the base behavior of the class:
 	/**
@@ -70,6 +72,11 @@ public abstract class ResourceSpreader {
 	 * to be 1 billionth of the perTickProcessingPower.
 	 */
 	protected double negligibleProcessing;
+	/**
+	 * The list kinds a consumption can be in (see slotIndex): the consumptions
+	 * under processing, the ones under addition and the ones under removal.
+	 */
+	static final int PROCESSING = 0, ADDITION = 1, REMOVAL = 2;
 	/**
 	 * The array of consumption objects that will share the processing power of this
 	 * spreader. The order is not guaranteed!
@@ -113,6 +120,13 @@ public abstract class ResourceSpreader {
 	 * related events.
 	 */
 	private StateDependentEventHandler<PowerBehaviorChangeListener, Pair<ResourceSpreader, PowerState>> powerBehaviorListenerManager;
+	/**
+	 * The parties following the processing of this spreader, null until the
+	 * first subscription so unobserved spreaders pay nothing for the reports.
+	 * The list is replaced on every (un)subscription and never modified, thus
+	 * listeners can (un)subscribe while the reports are delivered.
+	 */
+	private ArrayList<ProcessingListener> processingListeners = null;
 
 	/**
 	 * The last time there were some processing operations done by this object. The
@@ -129,6 +143,13 @@ public abstract class ResourceSpreader {
 	 * group's freq syncer object
 	 */
 	boolean stillInDepGroup;
+	/**
+	 * The slot of this spreader in the member array of its influence group (or
+	 * in the array of the spreaders waiting to join the group). Maintained by
+	 * the group's freq syncer object, only meaningful while the spreader is a
+	 * member.
+	 */
+	int groupIndex = -1;
 
 	/**
 	 * This constructor just saves the processing power that can be spread in every
@@ -162,23 +183,81 @@ public abstract class ResourceSpreader {
 	protected abstract long singleGroupwiseFreqUpdater();
 
 	/**
-	 * Allows the management of the underRemoval list. When some objects are removed
-	 * the influence groups are reevaluated.
+	 * Determines where a consumption stores its position in one of the lists of
+	 * this spreader. Providers and consumers use separate slots as a
+	 * consumption is listed by both of them.
+	 * 
+	 * @param list the kind of the list (PROCESSING, ADDITION or REMOVAL)
+	 * @return the index in the slots array of the consumptions
+	 */
+	private int slotIndex(final int list) {
+		return isConsumer() ? 3 + list : list;
+	}
+
+	/**
+	 * Adds a consumption to one of the lists of this spreader in constant time,
+	 * unless it is already there.
+	 * 
+	 * @param to   the list to extend
+	 * @param list the kind of the list
+	 * @param con  the consumption to add
+	 */
+	private void addToList(final ArrayList<ResourceConsumption> to, final int list, final ResourceConsumption con) {
+		final int slot = slotIndex(list);
+		if (con.slots[slot] < 0) {
+			con.slots[slot] = to.size();
+			to.add(con);
+		}
+	}
+
+	/**
+	 * Removes a consumption from one of the lists of this spreader in constant
+	 * time by moving the last item of the list to its place.
 	 * 
-	 * @param conList the resource consumptions that must be dropped (either because
-	 *                they complete or because they are cancelled)
+	 * @param from the list to remove from
+	 * @param list the kind of the list
+	 * @param con  the consumption to remove
 	 */
-	protected final void removeTheseConsumptions(final Stream<ResourceConsumption> conList) {
-		var removalCount = conList.filter(rem -> {
-			if (!underRemoval.contains(rem)) {
-				underRemoval.add(rem);
+	private void removeFromList(final ArrayList<ResourceConsumption> from, final int list,
+			final ResourceConsumption con) {
+		final int slot = slotIndex(list);
+		final int loc = con.slots[slot];
+		if (loc >= 0) {
+			final int last = from.size() - 1;
+			final ResourceConsumption lastItem = from.remove(last);
+			if (loc != last) {
+				from.set(loc, lastItem);
+				lastItem.slots[slot] = loc;
 			}
-			ArrayHandler.removeAndReplaceWithLast(underAddition, rem);
-			return true;
-		}).count();
-		if (removalCount > 0 && mySyncer != null) {
-			mySyncer.nudge();
+			con.slots[slot] = -1;
+		}
+	}
+
+	/**
+	 * Empties one of the lists of this spreader.
+	 * 
+	 * @param what the list to clear
+	 * @param list the kind of the list
+	 */
+	private void clearList(final ArrayList<ResourceConsumption> what, final int list) {
+		final int slot = slotIndex(list);
+		for (int i = 0; i < what.size(); i++) {
+			what.get(i).slots[slot] = -1;
 		}
+		what.clear();
+	}
+
+	/**
+	 * Allows the management of the underRemoval list. When some objects are removed
+	 * the influence groups are reevaluated (the caller is expected to nudge the
+	 * syncer).
+	 * 
+	 * @param con the resource consumption that must be dropped (either because
+	 *            it completes or because it is cancelled)
+	 */
+	private void markForRemoval(final ResourceConsumption con) {
+		addToList(underRemoval, REMOVAL, con);
+		removeFromList(underAddition, ADDITION, con);
 	}
 
 	/**
@@ -208,20 +287,25 @@ public abstract class ResourceSpreader {
 			return false;
 		}
 		// ResourceConsumption synchronization
-		Stream.of(provider,consumer).forEach(rs -> {
-			ArrayHandler.removeAndReplaceWithLast(rs.underRemoval, con);
-			rs.underAddition.add(con);
-		});
+		provider.removeFromList(provider.underRemoval, REMOVAL, con);
+		provider.addToList(provider.underAddition, ADDITION, con);
+		consumer.removeFromList(consumer.underRemoval, REMOVAL, con);
+		consumer.addToList(consumer.underAddition, ADDITION, con);
 		nudgeSyncers(provider,consumer);
 		return true;
 	}
 
 	private static void nudgeSyncers(ResourceSpreader provider, ResourceSpreader consumer) {
-		var nudgedCount = Stream.of(provider, consumer).filter(rs -> rs.mySyncer != null).mapToInt(rs -> {
-			rs.mySyncer.nudge();
-			return 1;
-		}).sum();
-		if (nudgedCount == 0) {
+		boolean nudged = false;
+		if (provider.mySyncer != null) {
+			provider.mySyncer.nudge();
+			nudged = true;
+		}
+		if (consumer.mySyncer != null) {
+			consumer.mySyncer.nudge();
+			nudged = true;
+		}
+		if (!nudged) {
 			// We just form our new influence group
 			new FreqSyncer(provider, consumer).nudge();
 		}
@@ -256,7 +340,37 @@ public abstract class ResourceSpreader {
 	 *            consumer/provider pair.
 	 */
 	static void cancelConsumption(final ResourceConsumption con) {
-		Stream.of(con.getProvider(), con.getConsumer()).forEach(rs -> rs.removeTheseConsumptions(Stream.of(con)));
+		con.getProvider().dropConsumption(con);
+		con.getConsumer().dropConsumption(con);
+	}
+
+	/**
+	 * Brings the processing of the influence group up to date if a consumption is
+	 * resumed before its suspension was synchronised (i.e., it is still under
+	 * processing). This way the time passed since the last processing is
+	 * accounted with the limit the consumption was processed with, and not with the
+	 * hard limit it receives on its resumption.
+	 * 
+	 * @param con the consumption that is about to be resumed
+	 */
+	static void catchUpProcessing(final ResourceConsumption con) {
+		final ResourceSpreader provider = con.getProvider();
+		if (provider != null && provider.mySyncer != null && con.slots[provider.slotIndex(PROCESSING)] >= 0) {
+			provider.mySyncer.outOfOrderProcessing(Timed.getFireCount());
+		}
+	}
+
+	/**
+	 * Marks a consumption for removal and makes sure the influence group of
+	 * this spreader is reevaluated.
+	 * 
+	 * @param con the consumption to be removed
+	 */
+	private void dropConsumption(final ResourceConsumption con) {
+		markForRemoval(con);
+		if (mySyncer != null) {
+			mySyncer.nudge();
+		}
 	}
 
 	/**
@@ -279,12 +393,27 @@ public abstract class ResourceSpreader {
 			return;
 		}
 		var ticksPassed = currentFireCount - lastNotifTime;
-		removeTheseConsumptions(toProcess.stream().filter(con -> {
-					final double processed = processSingleConsumption(con, ticksPassed);
-					totalProcessed += Math.abs(processed);
-					return processed < 0;
-				}
-		));
+		final double processedBefore = totalProcessed;
+		boolean completed = false;
+		for (int i = 0; i < toProcess.size(); i++) {
+			final ResourceConsumption con = toProcess.get(i);
+			final double processed = processSingleConsumption(con, ticksPassed);
+			totalProcessed += Math.abs(processed);
+			if (processed < 0) {
+				markForRemoval(con);
+				completed = true;
+			}
+		}
+		if (completed && mySyncer != null) {
+			mySyncer.nudge();
+		}
+		if (processingListeners != null && ticksPassed > 0) {
+			final double processed = totalProcessed - processedBefore;
+			final ArrayList<ProcessingListener> listeners = processingListeners;
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).processed(this, lastNotifTime, currentFireCount, processed);
+			}
+		}
 		lastNotifTime = currentFireCount;
 	}
 
@@ -367,7 +496,7 @@ public abstract class ResourceSpreader {
 			if (isConsumer()) {
 				// We first have to make sure the providers provide the
 				// stuff that this consumer might need
-				mySyncer.getCompleteDGStream().forEach(c -> c.doProcessing(currTime));
+				mySyncer.outOfOrderProcessing(currTime);
 			}
 			doProcessing(currTime);
 		}
@@ -463,6 +592,33 @@ public abstract class ResourceSpreader {
 		powerBehaviorListenerManager.unsubscribeFromEvents(pbcl);
 	}
 
+	/**
+	 * allows interested parties to follow the processing done by this spreader
+	 * without polling its total processed value.
+	 * 
+	 * @param pl the new listener object
+	 */
+	public void subscribeProcessingEvents(final ProcessingListener pl) {
+		final ArrayList<ProcessingListener> updated = processingListeners == null ? new ArrayList<>(1)
+				: new ArrayList<>(processingListeners);
+		updated.add(pl);
+		processingListeners = updated;
+	}
+
+	/**
+	 * allows parties that got uninterested to cancel the reception of further
+	 * processing reports.
+	 * 
+	 * @param pl the old listener object
+	 */
+	public void unsubscribeProcessingEvents(final ProcessingListener pl) {
+		if (processingListeners != null && processingListeners.contains(pl)) {
+			final ArrayList<ProcessingListener> updated = new ArrayList<>(processingListeners);
+			updated.remove(pl);
+			processingListeners = updated.isEmpty() ? null : updated;
+		}
+	}
+
 	/**
 	 * Provides a nice formatted single line representation of the spreader. It
 	 * lists the currently processed resource consumptions and the power behavior as
@@ -476,9 +632,16 @@ public abstract class ResourceSpreader {
 
 	/**
 	 * A continuously increasing simple hash value to be used by the next resource
-	 * spreader object created
+	 * spreader object created in a simulation. It is kept in the settings of the
+	 * simulation context, thus it is captured by checkpoints and a restored
+	 * simulation hands out the same hash codes as the original would.
 	 */
-	static int hashCounter = 0;
+	private static class HashCounter implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		int next = 0;
+	}
+
 	/**
 	 * The hashcode of the actual resource spreader to be used in java's built-in
 	 * hashCode function
@@ -486,7 +649,7 @@ public abstract class ResourceSpreader {
 	private final int myHashCode = getHashandIncCounter();
 
 	/**
-	 * Manages the increment of the hashCounter and offers the latest hash code for
+	 * Manages the increment of the hash counter and offers the latest hash code for
 	 * new objects
 	 * 
 	 * <i>WARNING:</i> as this function does not check if a hash value is already
@@ -498,7 +661,7 @@ public abstract class ResourceSpreader {
 	static int getHashandIncCounter() {
 		// FIXME
 		// WARNING: some possible hash collisions!
-		return hashCounter++;
+		return SimulationContext.current().getSetting(HashCounter.class, HashCounter::new).next++;
 	}
 
 	/**
@@ -521,12 +684,13 @@ public abstract class ResourceSpreader {
 	 */
 	boolean handleRemovals() {
 		// managing removals
-		underRemoval.forEach(con -> {
-			ArrayHandler.removeAndReplaceWithLast(toProcess, con);
+		for (int i = 0; i < underRemoval.size(); i++) {
+			final ResourceConsumption con = underRemoval.get(i);
+			removeFromList(toProcess, PROCESSING, con);
 			manageRemoval(con);
-		});
+		}
 		var didRemovals=underRemoval.size()!=0;
-		underRemoval.clear();
+		clearList(underRemoval, REMOVAL);
 		return didRemovals;
 	}
 
@@ -534,10 +698,15 @@ public abstract class ResourceSpreader {
 		if (toProcess.size() == 0) {
 			lastNotifTime = fires;
 		}
-		var added = underAddition.stream().filter(con -> getSyncer().ensureDepGroupHasCounterPart(getCounterPart(con))).count();
-		toProcess.addAll(underAddition);
-		underAddition.clear();
-		return added != 0;
+		boolean added = false;
+		for (int i = 0; i < underAddition.size(); i++) {
+			added |= mySyncer.ensureDepGroupHasCounterPart(getCounterPart(underAddition.get(i)));
+		}
+		for (int i = 0; i < underAddition.size(); i++) {
+			addToList(toProcess, PROCESSING, underAddition.get(i));
+		}
+		clearList(underAddition, ADDITION);
+		return added;
 	}
 
 	public boolean isProcessing() {
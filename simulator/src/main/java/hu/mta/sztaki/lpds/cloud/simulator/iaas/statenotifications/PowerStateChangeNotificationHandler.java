@@ -45,6 +45,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.notifications.StateDependentEventHandl
 public class PowerStateChangeNotificationHandler
 		implements SingleNotificationHandler<PowerBehaviorChangeListener, Pair<ResourceSpreader, PowerState>> {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the single object that will handle all notification operations on the same
 	 * way
@@ -43,6 +43,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.notifications.StateDependentEventHandl
 public class VMStateChangeNotificationHandler
 		implements SingleNotificationHandler<StateChange, Triple<VirtualMachine, State, State>> {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * the singleton notification sender object that will send out all
 	 * notifications about a VM state changes on a uniform way
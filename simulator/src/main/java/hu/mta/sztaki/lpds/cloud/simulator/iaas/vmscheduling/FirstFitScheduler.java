@@ -31,10 +31,13 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine.ResourceAllocatio
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager.VMManagementException;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators.PMCapacityIndex;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators.PMIterator;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class implements one of the simplest VM schedulers: it places every VM
@@ -50,18 +53,13 @@ import java.util.ArrayList;
  */
 public class FirstFitScheduler extends Scheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The set of resource allocations made for the current VM request (this is
 	 * important for multi VM requests)
 	 */
 	private final ArrayList<ResourceAllocation> ras = new ArrayList<>(5);
-	/**
-	 * the largest allocation that was possible to collect from all running PMs
-	 * in the infrastructure. this is important to determine the amount of
-	 * resources that need to become free before the scheduler would be able to
-	 * place the head of the queue to any of the PMs in the infrastructure.
-	 */
-	private ResourceAllocation raBiggestNotSuitable = null;
 	/**
 	 * the iterator of the running PMs allowing to easily traverse the PM set in
 	 * a predefined order. The iterator plays a crucial role in this
@@ -69,6 +67,14 @@ public class FirstFitScheduler extends Scheduler {
 	 * handling of the PMs.
 	 */
 	private final PMIterator it;
+	/**
+	 * the free resources of the running PMs in the order of the running PM
+	 * list. This allows the scheduler to skip those PMs that surely cannot
+	 * host the VMs of the request at hand, and to determine the amount of
+	 * resources that need to become free before the scheduler would be able to
+	 * place the head of the queue to any of the PMs in the infrastructure.
+	 */
+	private final PMCapacityIndex capIndex;
 
 	/**
 	 * the constructor of the scheduler that passes on the parent IaaS service
@@ -79,6 +85,18 @@ public class FirstFitScheduler extends Scheduler {
 	public FirstFitScheduler(IaaSService parent) {
 		super(parent);
 		it = instantiateIterator();
+		capIndex = new PMCapacityIndex(parent.runningMachines);
+		parent.subscribeToCapacityChanges(
+				(final ResourceConstraints newCapacity, final List<PhysicalMachine> alteredPMs) -> {
+					final boolean newRegistration = parent.isRegisteredHost(alteredPMs.get(0));
+					for (final PhysicalMachine pm : alteredPMs) {
+						if (newRegistration) {
+							capIndex.track(pm);
+						} else {
+							capIndex.untrack(pm);
+						}
+					}
+				});
 	}
 
 	/**
@@ -104,10 +122,65 @@ public class FirstFitScheduler extends Scheduler {
 		return it;
 	}
 
+	/**
+	 * Collects the resource allocations for all VMs of a request (into ras) by
+	 * traversing the PMs with the iterator.
+	 * 
+	 * @param currIterator
+	 *            the iterator to be used
+	 * @param request
+	 *            the request to be hosted
+	 * @return the number of VMs processed (including the one that could not
+	 *         be placed)
+	 */
+	private int collectAllocations(final PMIterator currIterator, final QueueingData request) {
+		currIterator.restart(false);
+		int vmNum = 0;
+		boolean allocated;
+		do {
+			allocated = false;
+			do {
+				if (!currIterator.skipToFitting(capIndex, request.queuedRC)) {
+					break;
+				}
+				final PhysicalMachine pm = currIterator.next();
+				if (pm.localDisk.getFreeStorageCapacity() >= request.queuedVMs[vmNum].getVa().size) {
+					try {
+						final ResourceAllocation allocation = pm.allocateResources(request.queuedRC, false,
+								PhysicalMachine.defaultAllocLen);
+						if (allocation != null) {
+							if (allocation.allocated.compareTo(request.queuedRC) >= 0) {
+								// Successful allocation
+								if (pm.freeCapacities.getRequiredCPUs() == 0 && currIterator.hasNext()) {
+									currIterator.next();
+								}
+								currIterator.markLastCollected();
+								ras.add(allocation);
+								allocated = true;
+								break;
+							} else {
+								allocation.cancel();
+							}
+						}
+					} catch (VMManagementException e) {
+						//ignore
+					}
+				}
+			} while (currIterator.hasNext());
+			currIterator.restart(true);
+		} while (++vmNum < request.queuedVMs.length && allocated);
+		return vmNum;
+	}
+
 	/**
 	 * The actual first fit scheduling implementation. This implementation
 	 * supports requests with multiple VMs. It assumes that users want to deploy
 	 * all VMs or nothing, so it waits until all VMs could be deployed at once.
+	 * 
+	 * The PMs without enough free resources are skipped with the help of the
+	 * capacity index. If the request cannot be placed, the resources missing
+	 * for it are determined from the largest free resources in the index, so
+	 * a blocked queue does not cost a traversal of all PMs.
 	 */
 	@Override
 	protected ConstantConstraints scheduleQueued() {
@@ -118,44 +191,8 @@ public class FirstFitScheduler extends Scheduler {
 			boolean processableRequest = true;
 			while (queue.size() > 0 && processableRequest) {
 				request = queue.peek();
-				currIterator.restart(false);
-				int vmNum = 0;
-				do {
-					processableRequest = false;
-					do {
-						final PhysicalMachine pm = currIterator.next();
-						if (pm.localDisk.getFreeStorageCapacity() >= request.queuedVMs[vmNum].getVa().size) {
-							try {
-								final ResourceAllocation allocation = pm.allocateResources(request.queuedRC, false,
-										PhysicalMachine.defaultAllocLen);
-								if (allocation != null) {
-									if (allocation.allocated.compareTo(request.queuedRC) >= 0) {
-										// Successful allocation
-										if (pm.freeCapacities.getRequiredCPUs() == 0 && currIterator.hasNext()) {
-											currIterator.next();
-										}
-										currIterator.markLastCollected();
-										ras.add(allocation);
-										processableRequest = true;
-										break;
-									} else {
-										if (raBiggestNotSuitable == null) {
-											raBiggestNotSuitable = allocation;
-										} else if (allocation.allocated.compareTo(raBiggestNotSuitable.allocated) > 0) {
-											raBiggestNotSuitable.cancel();
-											raBiggestNotSuitable = allocation;
-										} else {
-											allocation.cancel();
-										}
-									}
-								}
-							} catch (VMManagementException e) {
-								//ignore
-							}
-						}
-					} while (currIterator.hasNext());
-					currIterator.restart(true);
-				} while (++vmNum < request.queuedVMs.length && processableRequest);
+				final int vmNum = collectAllocations(currIterator, request);
+				processableRequest = ras.size() == request.queuedVMs.length;
 				if (processableRequest) {
 					try {
 						for (int i = request.queuedVMs.length - 1; i >= 0; i--) {
@@ -172,17 +209,14 @@ public class FirstFitScheduler extends Scheduler {
 					}
 				} else {
 					AlterableResourceConstraints arc = new AlterableResourceConstraints(request.queuedRC);
-					if (raBiggestNotSuitable != null) {
-						arc.subtract(raBiggestNotSuitable.allocated);
+					final ResourceConstraints biggestNotSuitable = capIndex.largestOffer(request.queuedRC);
+					if (biggestNotSuitable != null) {
+						arc.subtract(biggestNotSuitable);
 					} else {
 						arc.multiply(request.queuedVMs.length - vmNum + 1);
 					}
 					returner = new ConstantConstraints(arc);
 				}
-				if (raBiggestNotSuitable != null) {
-					raBiggestNotSuitable.cancel();
-					raBiggestNotSuitable = null;
-				}
 			}
 			ras.forEach(ResourceAllocation::cancel);
 			ras.clear();
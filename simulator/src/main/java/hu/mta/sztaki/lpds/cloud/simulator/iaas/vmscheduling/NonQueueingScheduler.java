@@ -42,6 +42,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
  */
 public class NonQueueingScheduler extends FirstFitScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Passes the IaaSService further to its super class.
 	 * 
@@ -25,6 +25,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
 
@@ -41,7 +42,10 @@ import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
  *         of Innsbruck (c) 2013" "Gabor Kecskemeti, Laboratory of Parallel and
  *         Distributed Systems, MTA SZTAKI (c) 2012"
  */
-public class QueueingData {
+public class QueueingData implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The VMs to be placed as part of the request
 	 */
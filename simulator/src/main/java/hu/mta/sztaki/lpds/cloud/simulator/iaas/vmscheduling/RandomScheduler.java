@@ -40,6 +40,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators.RandomIt
  */
 public class RandomScheduler extends FirstFitScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Passes the IaaSService further to its super class.
 	 * 
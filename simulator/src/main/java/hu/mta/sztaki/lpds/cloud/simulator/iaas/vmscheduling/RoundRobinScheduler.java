@@ -43,6 +43,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators.RoundRob
  *         MTA SZTAKI (c) 2015"
  */
 public class RoundRobinScheduler extends FirstFitScheduler {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Passes the IaaSService further to its super class.
 	 * 
@@ -24,6 +24,7 @@
  */
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling;
 
+import java.io.Serializable;
 import java.util.*;
 
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
@@ -49,7 +50,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.notifications.StateDependentEventHandl
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems,
  *         MTA SZTAKI (c) 2012"
  */
-public abstract class Scheduler {
+public abstract class Scheduler implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Implementing this interface allows the implementor to receive events from the
@@ -60,7 +63,7 @@ public abstract class Scheduler {
 	 * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems,
 	 *         MTA SZTAKI (c) 2012"
 	 */
-	public interface QueueingEvent {
+	public interface QueueingEvent extends Serializable {
 
 		/**
 		 * This function is called when the VM scheduler believes the infrastructure
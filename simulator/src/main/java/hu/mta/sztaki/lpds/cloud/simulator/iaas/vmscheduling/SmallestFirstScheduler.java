@@ -44,6 +44,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
  * 
  */
 public class SmallestFirstScheduler extends FirstFitScheduler {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * This comparator allows ordering the VM request queue primarily by cumulative
 	 * resource request size and secondarily by request arrival time. (e.g. a
@@ -0,0 +1,327 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators;
+
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine.State;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the free resources of the PMs in a PM list in a segment tree, so the
+ * first PM (in the order of the list) that could accept a particular resource
+ * request can be found without asking every PM before it.
+ *
+ * The index is maintained incrementally from the free capacity updates of the
+ * tracked PMs. The positions of the PMs are only recalculated if the PM list
+ * changes (i.e., when a tracked PM is switched on or off).
+ *
+ * The index is conservative: it never skips a PM that could serve the
+ * request, but the PMs it offers might still refuse it (e.g., because of the
+ * type of their earlier allocations or their disk space). Thus its users are
+ * expected to make the allocations just like without the index.
+ */
+public class PMCapacityIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The relative tolerance used when comparing the processing power of the
+	 * request with the free processing power of the PMs. The PMs compare the
+	 * number of CPU cores needed, which might round differently.
+	 */
+	private static final double tolerance = 1e-9;
+
+	/**
+	 * Listens to the changes of a single tracked PM and remembers its position
+	 * in the PM list.
+	 */
+	private class Slot implements VMManager.CapacityChangeEvent<ResourceConstraints>,
+			PhysicalMachine.StateChangeListener {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The tracked PM
+		 */
+		final PhysicalMachine pm;
+		/**
+		 * The position of the PM in the PM list, -1 if it is not listed
+		 */
+		int pos = -1;
+
+		Slot(final PhysicalMachine pm) {
+			this.pm = pm;
+		}
+
+		@Override
+		public void capacityChanged(final ResourceConstraints newCapacity,
+				final List<ResourceConstraints> affectedCapacity) {
+			if (!dirty && pos >= 0) {
+				setLeaf(pos, pm);
+				update(pos);
+			}
+		}
+
+		@Override
+		public void stateChanged(final PhysicalMachine pm, final State oldState, final State newState) {
+			if (oldState != newState && (State.RUNNING.equals(oldState) || State.RUNNING.equals(newState))) {
+				dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * The PM list indexed
+	 */
+	private final List<PhysicalMachine> pmList;
+	/**
+	 * The listeners of the tracked PMs
+	 */
+	private final HashMap<PhysicalMachine, Slot> slots = new HashMap<>();
+	/**
+	 * The number of leaves in the tree (a power of two)
+	 */
+	private int leaves = 0;
+	/**
+	 * The number of PMs in the list when the tree was built
+	 */
+	private int size = -1;
+	/**
+	 * Shows if the positions of the PMs should be recalculated before the next
+	 * query
+	 */
+	private boolean dirty = true;
+	/**
+	 * The largest free processing power (free cores times the per core
+	 * processing power of the PM) in the subtrees. Node 1 is the root, the
+	 * children of node i are 2i and 2i+1.
+	 */
+	private double[] processing = new double[0];
+	/**
+	 * The largest free per core processing power in the subtrees.
+	 */
+	private double[] perCore = new double[0];
+	/**
+	 * The largest free memory in the subtrees.
+	 */
+	private long[] memory = new long[0];
+
+	/**
+	 * Creates an index for the given PM list. Only the tracked PMs are
+	 * expected to be in the list.
+	 *
+	 * @param pmList
+	 *            the list of PMs, it is not altered by the index
+	 */
+	public PMCapacityIndex(final List<PhysicalMachine> pmList) {
+		this.pmList = pmList;
+	}
+
+	/**
+	 * Checks if this index can be used to skip PMs in a particular PM list.
+	 *
+	 * @param list
+	 *            the PM list of an iterator
+	 * @return <i>true</i> if the index is maintained for the list
+	 */
+	public boolean covers(final List<PhysicalMachine> list) {
+		return pmList == list;
+	}
+
+	/**
+	 * Starts following the free capacities and state changes of a PM.
+	 *
+	 * @param pm
+	 *            the PM that can appear in the PM list
+	 */
+	public void track(final PhysicalMachine pm) {
+		if (!slots.containsKey(pm)) {
+			final Slot s = new Slot(pm);
+			slots.put(pm, s);
+			pm.subscribeToFreeCapacityUpdates(s);
+			pm.subscribeStateChangeEvents(s);
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Stops following a PM.
+	 *
+	 * @param pm
+	 *            the PM that will no longer appear in the PM list
+	 */
+	public void untrack(final PhysicalMachine pm) {
+		final Slot s = slots.remove(pm);
+		if (s != null) {
+			pm.unsubscribeFromFreeCapacityUpdates(s);
+			pm.unsubscribeStateChangeEvents(s);
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Determines the first position in a range of the PM list where the PM
+	 * might be able to accept the request.
+	 *
+	 * @param from
+	 *            the first position to check
+	 * @param to
+	 *            the position after the last one to check
+	 * @param rc
+	 *            the resource request
+	 * @return the position of the PM, or -1 if none of the PMs in the range
+	 *         have enough free resources
+	 */
+	public int firstFitting(final int from, final int to, final ResourceConstraints rc) {
+		if (dirty || size != pmList.size()) {
+			rebuild();
+		}
+		if (from >= to) {
+			return -1;
+		}
+		final double needed = rc.getTotalProcessingPower() * (1 - tolerance);
+		return find(1, 0, leaves, from, Math.min(to, size), needed, rc.getRequiredProcessingPower(),
+				rc.getRequiredMemory());
+	}
+
+	/**
+	 * Determines the largest allocation the PMs in the list could offer for a
+	 * request that none of them can host. The free resources are maximised per
+	 * resource kind, thus the result is never smaller than the largest partial
+	 * allocation an actual PM would offer.
+	 *
+	 * @param rc
+	 *            the resource request
+	 * @return the largest possible partial allocation, or null if none of the
+	 *         PMs could offer resources for the request
+	 */
+	public ResourceConstraints largestOffer(final ResourceConstraints rc) {
+		if (dirty || size != pmList.size()) {
+			rebuild();
+		}
+		if (size == 0 || processing[1] <= 0 || perCore[1] < rc.getRequiredProcessingPower()) {
+			return null;
+		}
+		return new ConstantConstraints(
+				Math.min(rc.getRequiredCPUs(), processing[1] / rc.getRequiredProcessingPower()),
+				rc.getRequiredProcessingPower(), rc.isRequiredProcessingIsMinimum(),
+				Math.min(rc.getRequiredMemory(), memory[1]));
+	}
+
+	/**
+	 * Searches the leftmost fitting leaf in the range of a subtree.
+	 */
+	private int find(final int node, final int nodeFrom, final int nodeTo, final int from, final int to,
+			final double needed, final double neededPerCore, final long neededMemory) {
+		if (nodeTo <= from || to <= nodeFrom || processing[node] < needed || perCore[node] < neededPerCore
+				|| memory[node] < neededMemory) {
+			return -1;
+		}
+		if (nodeTo - nodeFrom == 1) {
+			return nodeFrom;
+		}
+		final int mid = (nodeFrom + nodeTo) >>> 1;
+		final int pos = find(2 * node, nodeFrom, mid, from, to, needed, neededPerCore, neededMemory);
+		return pos >= 0 ? pos : find(2 * node + 1, mid, nodeTo, from, to, needed, neededPerCore, neededMemory);
+	}
+
+	/**
+	 * Recalculates the positions of the PMs and all nodes of the tree.
+	 */
+	private void rebuild() {
+		for (final Slot s : slots.values()) {
+			s.pos = -1;
+		}
+		size = pmList.size();
+		int newLeaves = 1;
+		while (newLeaves < size) {
+			newLeaves <<= 1;
+		}
+		if (newLeaves != leaves) {
+			leaves = newLeaves;
+			processing = new double[2 * leaves];
+			perCore = new double[2 * leaves];
+			memory = new long[2 * leaves];
+		}
+		for (int i = 0; i < leaves; i++) {
+			if (i < size) {
+				final PhysicalMachine pm = pmList.get(i);
+				Slot s = slots.get(pm);
+				if (s == null) {
+					track(pm);
+					s = slots.get(pm);
+				}
+				s.pos = i;
+				setLeaf(i, pm);
+			} else {
+				setLeaf(i, null);
+			}
+		}
+		for (int node = leaves - 1; node > 0; node--) {
+			merge(node);
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Stores the free resources of a PM in its leaf.
+	 */
+	private void setLeaf(final int pos, final PhysicalMachine pm) {
+		final int node = leaves + pos;
+		final ResourceConstraints free = pm == null ? null : pm.freeCapacities;
+		if (free == null || free.getRequiredCPUs() == 0 || free.getRequiredMemory() == 0) {
+			// The PM would not offer any allocation
+			processing[node] = -1;
+			perCore[node] = -1;
+			memory[node] = -1;
+		} else {
+			processing[node] = free.getRequiredCPUs() * pm.getCapacities().getRequiredProcessingPower();
+			perCore[node] = free.getRequiredProcessingPower();
+			memory[node] = free.getRequiredMemory();
+		}
+	}
+
+	/**
+	 * Propagates a leaf change towards the root.
+	 */
+	private void update(final int pos) {
+		for (int node = (leaves + pos) >>> 1; node > 0; node >>>= 1) {
+			merge(node);
+		}
+	}
+
+	/**
+	 * Recalculates a node from its children.
+	 */
+	private void merge(final int node) {
+		final int left = 2 * node;
+		final int right = left + 1;
+		processing[node] = Math.max(processing[left], processing[right]);
+		perCore[node] = Math.max(perCore[left], perCore[right]);
+		memory[node] = Math.max(memory[left], memory[right]);
+	}
+}
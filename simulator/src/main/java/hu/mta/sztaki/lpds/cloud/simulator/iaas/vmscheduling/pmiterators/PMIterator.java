@@ -24,7 +24,9 @@
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators;
 
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
 
+import java.io.Serializable;
 import java.util.Iterator;
 import java.util.List;
 
@@ -44,7 +46,9 @@ import java.util.List;
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems,
  *         MTA SZTAKI (c) 2015"
  */
-public class PMIterator implements Iterator<PhysicalMachine> {
+public class PMIterator implements Iterator<PhysicalMachine>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Current index to be used when the next PM is asked for
@@ -115,6 +119,26 @@ public class PMIterator implements Iterator<PhysicalMachine> {
 		marked = index - 1;
 	}
 
+	/**
+	 * Skips those PMs that would be offered next by the iterator but that do
+	 * not have enough free resources for the request according to the capacity
+	 * index. After this call the next PM of the iterator is the one that the
+	 * index reports as a possible host.
+	 * 
+	 * @param capIndex
+	 *            the capacity index over the PM list of the iterator
+	 * @param rc
+	 *            the resource request to be hosted
+	 * @return <i>true</i> if there is a possible host left in this iteration
+	 */
+	public boolean skipToFitting(final PMCapacityIndex capIndex, final ResourceConstraints rc) {
+		if (index < maxIndex && capIndex.covers(pmList)) {
+			final int pos = capIndex.firstFitting(index, maxIndex, rc);
+			index = pos < 0 ? maxIndex : pos;
+		}
+		return hasNext();
+	}
+
 	@Override
 	public boolean hasNext() {
 		return index < maxIndex;
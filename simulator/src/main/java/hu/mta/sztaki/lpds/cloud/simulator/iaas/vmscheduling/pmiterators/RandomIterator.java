@@ -24,6 +24,7 @@
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators;
 
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
 
 import java.util.Arrays;
@@ -39,6 +40,8 @@ import java.util.List;
  */
 public class RandomIterator extends PMIterator {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * A counter to show how many times the reset was called. This is used to
 	 * determine when to re randomize the order with which the PM list's
@@ -75,13 +78,22 @@ public class RandomIterator extends PMIterator {
 			Arrays.fill(usedidxs,false);
 			for (int i = 0; i < maxIndex; i++) {
 				do {
-					randomIndexes[i]=SeedSyncer.centralRnd.nextInt(maxIndex);
+					randomIndexes[i]=SeedSyncer.getCentralRnd().nextInt(maxIndex);
 				} while(usedidxs[randomIndexes[i]]);
 				usedidxs[randomIndexes[i]]=true;
 			}
 		}
 	}
 
+	/**
+	 * The random order of the PMs is not known by the capacity index, thus no
+	 * PMs are skipped.
+	 */
+	@Override
+	public boolean skipToFitting(final PMCapacityIndex capIndex, final ResourceConstraints rc) {
+		return hasNext();
+	}
+
 	@Override
 	public PhysicalMachine next() {
 		return pmList.get(randomIndexes[index++]);
@@ -24,6 +24,7 @@
 package hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.pmiterators;
 
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
 
 import java.util.List;
 
@@ -43,6 +44,8 @@ import java.util.List;
  */
 public class RoundRobinIterator extends PMIterator {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The index at which the restart took place, and thus we use this as the
 	 * marker for the end of the iteration instead of the end of the PM list.
@@ -77,6 +80,26 @@ public class RoundRobinIterator extends PMIterator {
 		super.reset();
 	}
 
+	/**
+	 * As the iteration might wrap around the end of the PM list, the capacity
+	 * index is queried at most twice: first for the rest of the list then for
+	 * its beginning.
+	 */
+	@Override
+	public boolean skipToFitting(final PMCapacityIndex capIndex, final ResourceConstraints rc) {
+		if (index < stopIndex && capIndex.covers(pmList)) {
+			final int base = index - index % maxIndex;
+			int pos = capIndex.firstFitting(index - base, Math.min(stopIndex - base, maxIndex), rc);
+			if (pos < 0) {
+				pos = capIndex.firstFitting(0, stopIndex - base - maxIndex, rc);
+				index = pos < 0 ? stopIndex : base + maxIndex + pos;
+			} else {
+				index = base + pos;
+			}
+		}
+		return hasNext();
+	}
+
 	@Override
 	public boolean hasNext() {
 		return index < stopIndex;
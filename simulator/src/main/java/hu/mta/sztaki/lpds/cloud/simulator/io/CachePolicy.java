@@ -0,0 +1,128 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.io;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+/**
+ * Decides which cached storage objects of a repository should be dropped if
+ * the repository runs out of space. The policy only sees the objects that were
+ * admitted to the cache of the repository (see Repository.cacheObject) and are
+ * not pinned, all other contents of the repository are never evicted.
+ *
+ * The policy also collects the statistics of the cache. A policy object can
+ * only be used by a single repository.
+ */
+public abstract class CachePolicy implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of cache lookups that found the requested object
+	 */
+	long hits = 0;
+	/**
+	 * The number of cache lookups that did not find the requested object
+	 */
+	long misses = 0;
+	/**
+	 * The number of objects dropped to make space for others
+	 */
+	long evictions = 0;
+	/**
+	 * The total size of the objects dropped to make space for others
+	 */
+	long evictedBytes = 0;
+
+	/**
+	 * Called when an object becomes evictable (i.e., it was admitted to the
+	 * cache or it was unpinned).
+	 *
+	 * @param so the object to follow
+	 */
+	protected abstract void admitted(StorageObject so);
+
+	/**
+	 * Called when an evictable object is used.
+	 *
+	 * @param so the object used
+	 */
+	protected abstract void accessed(StorageObject so);
+
+	/**
+	 * Called when an object is no longer evictable (i.e., it was removed from
+	 * the repository or it was pinned).
+	 *
+	 * @param so the object to forget
+	 */
+	protected abstract void removed(StorageObject so);
+
+	/**
+	 * Called when an object is dropped by the repository to make space for
+	 * others. By default this is handled as any other removal.
+	 *
+	 * @param so the evicted object
+	 */
+	protected void evicted(final StorageObject so) {
+		removed(so);
+	}
+
+	/**
+	 * Lists the evictable objects, the ones that should be dropped first come
+	 * first. The repository does not alter the policy while using the iterator.
+	 *
+	 * @return the objects in the order of their eviction
+	 */
+	protected abstract Iterator<StorageObject> evictionOrder();
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getEvictedBytes() {
+		return evictedBytes;
+	}
+
+	/**
+	 * Determines the ratio of the lookups that were served from the cache.
+	 *
+	 * @return the hit ratio, 0 if there were no lookups yet
+	 */
+	public double getHitRatio() {
+		final long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(H:" + hits + " M:" + misses + " E:" + evictions + ")";
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.io;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Greedy Dual Size Frequency eviction: every object gets the priority
+ * <i>L+uses*cost/size</i>, where <i>L</i> is the priority of the last evicted
+ * object. Objects with the smallest priority are evicted first, thus small and
+ * frequently used objects stay in the cache while the priorities of the
+ * objects not used for a long time fall behind the increasing <i>L</i>.
+ *
+ * As the priorities are not ordered by time, the objects are kept in a sorted
+ * set: the bookkeeping takes logarithmic time.
+ */
+public class GDSFCachePolicy extends CachePolicy {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The state of an evictable object
+	 */
+	private static class Entry implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final StorageObject so;
+		final long seq;
+		long uses = 1;
+		double priority;
+
+		Entry(final StorageObject so, final long seq) {
+			this.so = so;
+			this.seq = seq;
+		}
+	}
+
+	/**
+	 * Orders the entries by priority, then by their admission
+	 */
+	private static class EntryOrder implements Comparator<Entry>, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int compare(final Entry a, final Entry b) {
+			final int c = Double.compare(a.priority, b.priority);
+			return c != 0 ? c : Long.compare(a.seq, b.seq);
+		}
+	}
+
+	/**
+	 * The cost of fetching an object, a constant cost optimizes for the hit
+	 * ratio, while the size of the object optimizes for the transferred bytes
+	 */
+	private final boolean sizeAsCost;
+	/**
+	 * The inflation value: the priority of the last evicted object
+	 */
+	private double inflation = 0;
+	/**
+	 * The number of admissions so far, used to order the objects with the same
+	 * priority
+	 */
+	private long admissions = 0;
+	/**
+	 * The evictable objects
+	 */
+	private final HashMap<String, Entry> entries = new HashMap<>();
+	/**
+	 * The evictable objects in the order of their priority
+	 */
+	private final TreeSet<Entry> order = new TreeSet<>(new EntryOrder());
+
+	/**
+	 * Creates a policy that uses a constant cost for all objects.
+	 */
+	public GDSFCachePolicy() {
+		this(false);
+	}
+
+	/**
+	 * Creates a policy with a particular cost model.
+	 *
+	 * @param sizeAsCost if <i>true</i>, the cost of an object is its size (thus
+	 *                   only the use count determines the priority), otherwise
+	 *                   the cost is the same for all objects (thus smaller
+	 *                   objects are preferred)
+	 */
+	public GDSFCachePolicy(final boolean sizeAsCost) {
+		this.sizeAsCost = sizeAsCost;
+	}
+
+	/**
+	 * Calculates the priority of an entry from its current state
+	 */
+	private void prioritize(final Entry e) {
+		e.priority = inflation + (sizeAsCost ? e.uses : (double) e.uses / Math.max(1, e.so.size));
+	}
+
+	@Override
+	protected void admitted(final StorageObject so) {
+		if (!entries.containsKey(so.id)) {
+			final Entry e = new Entry(so, admissions++);
+			prioritize(e);
+			entries.put(so.id, e);
+			order.add(e);
+		}
+	}
+
+	@Override
+	protected void accessed(final StorageObject so) {
+		final Entry e = entries.get(so.id);
+		if (e != null) {
+			order.remove(e);
+			e.uses++;
+			prioritize(e);
+			order.add(e);
+		}
+	}
+
+	@Override
+	protected void removed(final StorageObject so) {
+		final Entry e = entries.remove(so.id);
+		if (e != null) {
+			order.remove(e);
+		}
+	}
+
+	@Override
+	protected void evicted(final StorageObject so) {
+		final Entry e = entries.get(so.id);
+		if (e != null) {
+			inflation = Math.max(inflation, e.priority);
+		}
+		removed(so);
+	}
+
+	@Override
+	protected Iterator<StorageObject> evictionOrder() {
+		final Iterator<Entry> it = order.iterator();
+		return new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public StorageObject next() {
+				return it.next().so;
+			}
+		};
+	}
+}
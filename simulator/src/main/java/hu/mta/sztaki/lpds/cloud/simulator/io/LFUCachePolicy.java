@@ -0,0 +1,153 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.io;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * Evicts the least frequently used objects first, objects with the same use
+ * count are evicted in the order they reached that count. The objects are kept
+ * in a list of buckets (one for each use count in use) so all operations take
+ * constant time.
+ */
+public class LFUCachePolicy extends CachePolicy {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The objects used the same number of times
+	 */
+	private static class Bucket implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final long uses;
+		final LinkedHashMap<String, StorageObject> members = new LinkedHashMap<>();
+		Bucket prev, next;
+
+		Bucket(final long uses) {
+			this.uses = uses;
+		}
+	}
+
+	/**
+	 * The bucket of the least used objects
+	 */
+	private Bucket head = null;
+	/**
+	 * The bucket of each evictable object
+	 */
+	private final HashMap<String, Bucket> buckets = new HashMap<>();
+
+	@Override
+	protected void admitted(final StorageObject so) {
+		if (buckets.containsKey(so.id)) {
+			return;
+		}
+		if (head == null || head.uses != 1) {
+			final Bucket first = new Bucket(1);
+			first.next = head;
+			if (head != null) {
+				head.prev = first;
+			}
+			head = first;
+		}
+		head.members.put(so.id, so);
+		buckets.put(so.id, head);
+	}
+
+	@Override
+	protected void accessed(final StorageObject so) {
+		final Bucket current = buckets.get(so.id);
+		if (current == null) {
+			return;
+		}
+		Bucket target = current.next;
+		if (target == null || target.uses != current.uses + 1) {
+			target = new Bucket(current.uses + 1);
+			target.prev = current;
+			target.next = current.next;
+			if (current.next != null) {
+				current.next.prev = target;
+			}
+			current.next = target;
+		}
+		target.members.put(so.id, current.members.remove(so.id));
+		buckets.put(so.id, target);
+		if (current.members.isEmpty()) {
+			unlink(current);
+		}
+	}
+
+	@Override
+	protected void removed(final StorageObject so) {
+		final Bucket current = buckets.remove(so.id);
+		if (current != null) {
+			current.members.remove(so.id);
+			if (current.members.isEmpty()) {
+				unlink(current);
+			}
+		}
+	}
+
+	/**
+	 * Drops an empty bucket from the list
+	 */
+	private void unlink(final Bucket b) {
+		if (b.prev == null) {
+			head = b.next;
+		} else {
+			b.prev.next = b.next;
+		}
+		if (b.next != null) {
+			b.next.prev = b.prev;
+		}
+	}
+
+	@Override
+	protected Iterator<StorageObject> evictionOrder() {
+		return new Iterator<>() {
+			private Bucket bucket = head;
+			private Iterator<StorageObject> inBucket = head == null ? null : head.members.values().iterator();
+
+			@Override
+			public boolean hasNext() {
+				while (inBucket != null && !inBucket.hasNext()) {
+					bucket = bucket.next;
+					inBucket = bucket == null ? null : bucket.members.values().iterator();
+				}
+				return inBucket != null;
+			}
+
+			@Override
+			public StorageObject next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return inBucket.next();
+			}
+		};
+	}
+}
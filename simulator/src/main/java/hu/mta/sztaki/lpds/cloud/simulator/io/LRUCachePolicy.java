@@ -0,0 +1,59 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.io;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts the least recently used objects first. All operations take constant
+ * time.
+ */
+public class LRUCachePolicy extends CachePolicy {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The evictable objects in the order of their last use
+	 */
+	private final LinkedHashMap<String, StorageObject> order = new LinkedHashMap<>(16, 0.75f, true);
+
+	@Override
+	protected void admitted(final StorageObject so) {
+		order.put(so.id, so);
+	}
+
+	@Override
+	protected void accessed(final StorageObject so) {
+		order.get(so.id);
+	}
+
+	@Override
+	protected void removed(final StorageObject so) {
+		order.remove(so.id);
+	}
+
+	@Override
+	protected Iterator<StorageObject> evictionOrder() {
+		return order.values().iterator();
+	}
+}
@@ -0,0 +1,394 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.io;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A latency map of a network node that stores the latencies in primitive
+ * arrays indexed with the compact integer ids of the network node names. This
+ * allows network nodes to determine the latency of a connection without
+ * hashing the name of the other node.
+ *
+ * The map can be used just like any other latency map (it can be shared
+ * between network nodes and altered after the nodes are created), but it does
+ * not accept null keys or values.
+ */
+public class LatencyMap extends AbstractMap<String, Integer> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The value returned by getLatency if there is no connection
+	 */
+	public static final int noConnection = Integer.MIN_VALUE;
+
+	/**
+	 * The ids of the network node names used so far
+	 */
+	private static final ConcurrentHashMap<String, Integer> nameIds = new ConcurrentHashMap<>();
+	/**
+	 * The names in the order of their ids
+	 */
+	private static String[] names = new String[64];
+
+	/**
+	 * Determines the id of a network node name. The id stays the same for the
+	 * lifetime of the JVM, thus it should not be saved.
+	 *
+	 * @param name the name of a network node
+	 * @return the compact id of the name
+	 */
+	public static int idOf(final String name) {
+		final Integer id = nameIds.get(name);
+		return id != null ? id : register(name);
+	}
+
+	/**
+	 * Assigns a new id to a name unless some other thread did it already
+	 */
+	private static synchronized int register(final String name) {
+		final Integer id = nameIds.get(name);
+		if (id != null) {
+			return id;
+		}
+		final int newId = nameIds.size();
+		if (newId == names.length) {
+			names = Arrays.copyOf(names, newId * 2);
+		}
+		names[newId] = name;
+		nameIds.put(name, newId);
+		return newId;
+	}
+
+	/**
+	 * Returns the name belonging to an id.
+	 */
+	private static synchronized String nameOf(final int id) {
+		return names[id];
+	}
+
+	/**
+	 * The ids of the connected nodes plus one, 0 marks an empty slot
+	 */
+	private transient int[] keys;
+	/**
+	 * The latencies of the connections in the same slots as their keys
+	 */
+	private transient int[] values;
+	/**
+	 * The number of connections
+	 */
+	private transient int size;
+
+	/**
+	 * Creates an empty latency map.
+	 */
+	public LatencyMap() {
+		init(4);
+	}
+
+	/**
+	 * Creates a latency map with the contents of another map.
+	 *
+	 * @param latencies the map to copy
+	 */
+	public LatencyMap(final Map<String, Integer> latencies) {
+		init(latencies.size() * 2);
+		putAll(latencies);
+	}
+
+	/**
+	 * Allocates the tables with a power of two size
+	 */
+	private void init(final int minCapacity) {
+		int capacity = 4;
+		while (capacity < minCapacity) {
+			capacity <<= 1;
+		}
+		keys = new int[capacity];
+		values = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * The first slot to look for a particular id
+	 */
+	private int slotOf(final int id) {
+		final int h = id * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (keys.length - 1);
+	}
+
+	/**
+	 * Looks for the slot of a particular id
+	 *
+	 * @return the slot or -1 if the id is not in the map
+	 */
+	private int find(final int id) {
+		final int mask = keys.length - 1;
+		for (int slot = slotOf(id);; slot = (slot + 1) & mask) {
+			final int key = keys[slot];
+			if (key == id + 1) {
+				return slot;
+			} else if (key == 0) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Determines the latency towards a network node.
+	 *
+	 * @param id the id of the name of the other node (see idOf)
+	 * @return the latency or noConnection if there is no latency known for the
+	 *         node
+	 */
+	public int getLatency(final int id) {
+		final int slot = find(id);
+		return slot < 0 ? noConnection : values[slot];
+	}
+
+	/**
+	 * Sets the latency towards a network node.
+	 *
+	 * @param id      the id of the name of the other node (see idOf)
+	 * @param latency the new latency
+	 * @return the previous latency or noConnection if there was none
+	 */
+	public int putLatency(final int id, final int latency) {
+		final int mask = keys.length - 1;
+		int slot = slotOf(id);
+		for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+			if (keys[slot] == id + 1) {
+				final int prev = values[slot];
+				values[slot] = latency;
+				return prev;
+			}
+		}
+		keys[slot] = id + 1;
+		values[slot] = latency;
+		if (++size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		return noConnection;
+	}
+
+	/**
+	 * Removes the latency towards a network node.
+	 *
+	 * @param id the id of the name of the other node (see idOf)
+	 * @return the removed latency or noConnection if there was none
+	 */
+	public int removeLatency(final int id) {
+		final int slot = find(id);
+		if (slot < 0) {
+			return noConnection;
+		}
+		final int prev = values[slot];
+		removeSlot(slot);
+		return prev;
+	}
+
+	/**
+	 * Empties a slot and moves the following entries of its cluster back, so
+	 * they remain reachable with linear probing.
+	 */
+	private void removeSlot(int slot) {
+		final int mask = keys.length - 1;
+		int next = (slot + 1) & mask;
+		while (keys[next] != 0) {
+			final int home = slotOf(keys[next] - 1);
+			// Can the entry at next be moved to the empty slot?
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				values[slot] = values[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[slot] = 0;
+		size--;
+	}
+
+	/**
+	 * Moves all entries to new tables of the given size
+	 */
+	private void rehash(final int capacity) {
+		final int[] oldKeys = keys;
+		final int[] oldValues = values;
+		init(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				putLatency(oldKeys[i] - 1, oldValues[i]);
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Integer get(final Object key) {
+		if (key instanceof String) {
+			final Integer id = nameIds.get(key);
+			if (id != null) {
+				final int slot = find(id);
+				if (slot >= 0) {
+					return values[slot];
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Integer put(final String key, final Integer value) {
+		final int prev = putLatency(idOf(key), value);
+		return prev == noConnection ? null : prev;
+	}
+
+	@Override
+	public Integer remove(final Object key) {
+		if (key instanceof String) {
+			final Integer id = nameIds.get(key);
+			if (id != null) {
+				final int prev = removeLatency(id);
+				return prev == noConnection ? null : prev;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void clear() {
+		if (size != 0) {
+			Arrays.fill(keys, 0);
+			size = 0;
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Integer>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public int size() {
+				return size;
+			}
+
+			/**
+			 * Iterates over the connections present when the iteration started.
+			 */
+			@Override
+			public Iterator<Map.Entry<String, Integer>> iterator() {
+				final int[] ids = new int[size];
+				int count = 0;
+				for (int key : keys) {
+					if (key != 0) {
+						ids[count++] = key - 1;
+					}
+				}
+				return new Iterator<>() {
+					private int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return next < ids.length;
+					}
+
+					@Override
+					public Map.Entry<String, Integer> next() {
+						if (next >= ids.length) {
+							throw new NoSuchElementException();
+						}
+						final int id = ids[next++];
+						final int latency = getLatency(id);
+						if (latency == noConnection) {
+							throw new ConcurrentModificationException();
+						}
+						return new SimpleEntry<>(nameOf(id), latency) {
+							private static final long serialVersionUID = 1L;
+
+							@Override
+							public Integer setValue(final Integer value) {
+								putLatency(id, value);
+								return super.setValue(value);
+							}
+						};
+					}
+
+					@Override
+					public void remove() {
+						if (next == 0 || removeLatency(ids[next - 1]) == noConnection) {
+							throw new IllegalStateException();
+						}
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * The ids are only valid in the current JVM, thus the names are saved
+	 * instead.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				out.writeUTF(nameOf(keys[i] - 1));
+				out.writeInt(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Loads the saved names with the ids of the current JVM.
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int count = in.readInt();
+		init(count * 2);
+		for (int i = 0; i < count; i++) {
+			putLatency(idOf(in.readUTF()), in.readInt());
+		}
+	}
+}
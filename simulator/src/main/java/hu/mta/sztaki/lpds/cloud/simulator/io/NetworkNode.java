@@ -25,6 +25,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.io;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
@@ -46,7 +47,9 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
  *         Distributed Systems, MTA SZTAKI (c) 2012,2014-"
  * 
  */
-public class NetworkNode {
+public class NetworkNode implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public static class NetworkException extends Exception {
 		private static final long serialVersionUID = 5173643896341066497L;
@@ -74,6 +77,8 @@ public class NetworkNode {
 	 */
 	static class SingleTransfer extends ResourceConsumption {
 
+		private static final long serialVersionUID = 1L;
+
 		/**
 		 * This constructor describes the basic properties of an individual transfer.
 		 * 
@@ -153,6 +158,11 @@ public class NetworkNode {
 	 * for the simulation at hand).
 	 */
 	private String name;
+	/**
+	 * The id of the name of this network node in the latency maps plus one, 0
+	 * if it is not yet determined. The ids are only valid in the current JVM.
+	 */
+	private transient int nameKey = 0;
 	
 	/**
 	 * The direct network connections of this network node.
@@ -350,6 +360,13 @@ public class NetworkNode {
 		if (from == to) {
 			return 0;
 		}
+		if (from.latencies instanceof LatencyMap) {
+			// No need to hash the name of the receiver
+			final int lat = ((LatencyMap) from.latencies).getLatency(to.nameId());
+			if (lat == LatencyMap.noConnection)
+				throw new NetworkException("No connection between: '" + from.name + "' and '" + to.name + "'");
+			return lat;
+		}
 		final Integer lat = from.latencies.get(to.name);
 		if (lat == null)
 			throw new NetworkException("No connection between: '" + from.name + "' and '" + to.name + "'");
@@ -364,6 +381,16 @@ public class NetworkNode {
 	public String getName() {
 		return name;
 	}
+
+	/**
+	 * Determines the id of the node's name as used by the latency maps.
+	 */
+	private int nameId() {
+		if (nameKey == 0) {
+			nameKey = LatencyMap.idOf(name) + 1;
+		}
+		return nameKey - 1;
+	}
 	
 	/**
      * Allows to modify the networknode's name. If the name is changed, it may be necessary to update the corresponding
@@ -372,6 +399,7 @@ public class NetworkNode {
      */
     public void setName(String name) {
         this.name = name;
+        this.nameKey = 0;
     }
 
 	/**
@@ -26,10 +26,12 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.io;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
@@ -53,6 +55,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption
  */
 public class Repository extends NetworkNode {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Stuff that is already in the current repository
 	 */
@@ -77,6 +81,20 @@ public class Repository extends NetworkNode {
 	 * The amount of contents that are about to arrive.
 	 */
 	private long promisedStorage = 0;
+	/**
+	 * Decides which cached contents to drop if the repository runs out of space.
+	 * If null, the repository does not cache.
+	 */
+	private CachePolicy cachePolicy = null;
+	/**
+	 * The ids of the contents that were admitted to the cache, only these can be
+	 * evicted.
+	 */
+	private final HashSet<String> cached = new HashSet<>();
+	/**
+	 * The ids of the cached contents that must not be evicted for now.
+	 */
+	private final HashSet<String> pinned = new HashSet<>();
 
 	/**
 	 * Constructor for repository objects
@@ -127,9 +145,161 @@ public class Repository extends NetworkNode {
 	
 	private boolean freeSpaceInFuture(long storageObjectSize) {
         final long futureFree = getFreeStorageCapacity() - storageObjectSize;
-        return futureFree >= 0;
+        return futureFree >= 0 || makeRoom(-futureFree);
     }
 
+	/**
+	 * Evicts cached contents (in the order offered by the cache policy) so the
+	 * requested amount of space is freed up. Contents are only evicted if the
+	 * request can be fully satisfied.
+	 * 
+	 * @param needed the amount of storage to free up
+	 * @return true if the space was freed up, false if there are not enough
+	 *         evictable contents in the repository
+	 */
+	private boolean makeRoom(final long needed) {
+		if (cachePolicy == null) {
+			return false;
+		}
+		final ArrayList<StorageObject> victims = new ArrayList<>();
+		long reclaimed = 0;
+		for (final Iterator<StorageObject> it = cachePolicy.evictionOrder(); reclaimed < needed && it.hasNext();) {
+			final StorageObject so = it.next();
+			if (!underTransfer.contains(so.id)) {
+				victims.add(so);
+				reclaimed += so.size;
+			}
+		}
+		if (reclaimed < needed) {
+			return false;
+		}
+		for (final StorageObject so : victims) {
+			contents.remove(so.id);
+			cached.remove(so.id);
+			currentStorageUse -= so.size;
+			cachePolicy.evicted(so);
+			cachePolicy.evictions++;
+			cachePolicy.evictedBytes += so.size;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the policy that decides which cached contents are dropped if the
+	 * repository runs out of space. Already cached contents are handed over to
+	 * the new policy (but their usage history is lost).
+	 * 
+	 * @param policy the new policy, null turns off caching: all cached contents
+	 *               become regular contents of the repository
+	 */
+	public void setCachePolicy(final CachePolicy policy) {
+		if (policy == null) {
+			cached.clear();
+			pinned.clear();
+		} else {
+			for (final String id : cached) {
+				if (!pinned.contains(id)) {
+					policy.admitted(contents.get(id));
+				}
+			}
+		}
+		cachePolicy = policy;
+	}
+
+	/**
+	 * Allows to query the statistics of the cache of this repository.
+	 * 
+	 * @return the current cache policy or null if the repository does not cache
+	 */
+	public CachePolicy getCachePolicy() {
+		return cachePolicy;
+	}
+
+	/**
+	 * Stores an object in the cache of the repository, without simulating data
+	 * movement (similarly to registerObject). If there is not enough space, the
+	 * cache policy is asked to drop some other cached contents. If the object is
+	 * already present, it is only marked as used.
+	 * 
+	 * @param so the object to be cached
+	 * @return true if the object is in the repository, false if caching is not
+	 *         enabled or there is not enough evictable space for the object
+	 */
+	public boolean cacheObject(final StorageObject so) {
+		if (cachePolicy == null) {
+			return false;
+		}
+		if (contents.containsKey(so.id)) {
+			touch(so.id);
+			return true;
+		}
+		if (!registerObject(so)) {
+			return false;
+		}
+		cached.add(so.id);
+		cachePolicy.admitted(so);
+		return true;
+	}
+
+	/**
+	 * Looks up a cached object and records the outcome in the cache statistics.
+	 * 
+	 * @param soid the id of the cached object
+	 * @return the object if it is cached, null otherwise (also if caching is not
+	 *         enabled or the object is a regular content of the repository)
+	 */
+	public StorageObject lookupCached(final String soid) {
+		if (cachePolicy == null) {
+			return null;
+		}
+		if (cached.contains(soid)) {
+			cachePolicy.hits++;
+			touch(soid);
+			return contents.get(soid);
+		}
+		cachePolicy.misses++;
+		return null;
+	}
+
+	/**
+	 * Forwards the use of an evictable object to the cache policy
+	 */
+	private void touch(final String soid) {
+		if (cached.contains(soid) && !pinned.contains(soid)) {
+			cachePolicy.accessed(contents.get(soid));
+		}
+	}
+
+	/**
+	 * Prevents the eviction of a cached object until it is unpinned.
+	 * 
+	 * @param soid the id of the cached object
+	 * @return true if the object is cached (and now pinned)
+	 */
+	public boolean pinObject(final String soid) {
+		if (!cached.contains(soid)) {
+			return false;
+		}
+		if (pinned.add(soid)) {
+			cachePolicy.removed(contents.get(soid));
+		}
+		return true;
+	}
+
+	/**
+	 * Allows the eviction of a previously pinned object.
+	 * 
+	 * @param soid the id of the cached object
+	 * @return true if the object was pinned
+	 */
+	public boolean unpinObject(final String soid) {
+		if (!pinned.remove(soid)) {
+			return false;
+		}
+		cachePolicy.admitted(contents.get(soid));
+		return true;
+	}
+
 	/**
 	 * This function is designed to simulate the erase function of the repository
 	 * given that its user knows the StorageObject to be dropped.
@@ -169,6 +339,9 @@ public class Repository extends NetworkNode {
 			StorageObject removed = contents.remove(soid);
 			if (removed != null) {
 				currentStorageUse -= removed.size;
+				if (cached.remove(soid) && !pinned.remove(soid)) {
+					cachePolicy.removed(removed);
+				}
 				return true;
 			}
 		}
@@ -232,6 +405,7 @@ public class Repository extends NetworkNode {
 			return null;
 		}
 		if (manageStoragePromise(totransfer, target)) {
+			touch(id);
 			underTransfer.add(id);
 			return initTransfer(totransfer.size, ResourceConsumption.unlimitedProcessing, Repository.this, target,
 					new ResourceConsumption.ConsumptionEvent() {
@@ -286,7 +460,8 @@ public class Repository extends NetworkNode {
 	 */
 	private static boolean manageStoragePromise(final StorageObject so, final Repository target) {
 		final long increasedpromise = target.promisedStorage + so.size;
-		if (increasedpromise + target.currentStorageUse <= target.maxStorageCapacity) {
+		final long shortage = increasedpromise + target.currentStorageUse - target.maxStorageCapacity;
+		if (shortage <= 0 || target.makeRoom(shortage)) {
 			target.promisedStorage = increasedpromise;
 			return true;
 		}
@@ -27,6 +27,8 @@ package hu.mta.sztaki.lpds.cloud.simulator.io;
 
 import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
 
+import java.io.Serializable;
+
 /**
  * Represents arbitrary data fragments (e.g. files) to be stored in a
  * repository. Also useful for modeling file transfers.
@@ -35,7 +37,10 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
  *         of Innsbruck (c) 2013" "Gabor Kecskemeti, Laboratory of Parallel and
  *         Distributed Systems, MTA SZTAKI (c) 2012"
  */
-public class StorageObject {
+public class StorageObject implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 	// TODO: think about if it would make things easier if we would refer here
 	// the repository where this storage object is stored.
 
@@ -61,7 +66,7 @@ public class StorageObject {
 	 */
 	public StorageObject(final String myid) {
 		id = myid;
-		size = 500000000L + (long) (SeedSyncer.centralRnd.nextDouble() * 19500000000L);
+		size = 500000000L + (long) (SeedSyncer.getCentralRnd().nextDouble() * 19500000000L);
 	}
 
 	/**
@@ -83,7 +88,7 @@ public class StorageObject {
 			throw new IllegalArgumentException("Cannot create negative sized Storage Objects");
 		}
 		id = myid;
-		size = vary ? (1 + 2 * mysize - (long) (2 * SeedSyncer.centralRnd.nextDouble() * mysize)) : mysize;
+		size = vary ? (1 + 2 * mysize - (long) (2 * SeedSyncer.getCentralRnd().nextDouble() * mysize)) : mysize;
 	}
 
 	/**
@@ -33,6 +33,9 @@ package hu.mta.sztaki.lpds.cloud.simulator.io;
  * 
  */
 public class VirtualAppliance extends StorageObject {
+
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The background network load expected to be simulated between the
 	 * appliance's hosting repository and the PM that hosts the VM while the VM
@@ -28,8 +28,18 @@ package hu.mta.sztaki.lpds.cloud.simulator.notifications;
 import java.util.List;
 
 public class DirectDispatcher implements EventDispatcherCore {
+
+	private static final long serialVersionUID = 1L;
+
 	public static final DirectDispatcher instance = new DirectDispatcher();
 
+	/**
+	 * Keeps the dispatcher a singleton when a simulation is deserialized.
+	 */
+	private Object readResolve() {
+		return instance;
+	}
+
 	@Override
 	public <T, P> void mainNotificationLoop(final StateDependentEventHandler<T, P> handler, final P payload) {
 		handler.myHandler.sendNotification(handler.listeners.get(0), payload);
@@ -25,9 +25,10 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.notifications;
 
+import java.io.Serializable;
 import java.util.List;
 
-public interface EventDispatcherCore {
+public interface EventDispatcherCore extends Serializable {
 	/**
 	 * The main event dispatching loop. It is not intended for external use as
 	 * it is not prepared to handle cases when the number of subscribers change
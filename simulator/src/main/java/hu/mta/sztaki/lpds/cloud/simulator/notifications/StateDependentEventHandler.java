@@ -26,6 +26,7 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.notifications;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
 /**
@@ -48,7 +49,9 @@ import java.util.ArrayList;
  *            notify about.
  * @param <P> the kind of data to be passed on to the notified party
  */
-public class StateDependentEventHandler<T, P> {
+public class StateDependentEventHandler<T, P> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The listeners that will receive notifications if the notify listeners
@@ -24,14 +24,22 @@
  */
 package hu.mta.sztaki.lpds.cloud.simulator.util;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -45,20 +53,40 @@ import org.xml.sax.helpers.DefaultHandler;
 
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
-import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.PhysicalMachineController;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
-import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 
 /**
  * This class offers a simple interface to prepare an IaaSService class based on
  * data loaded from an XML cloud configuration file.
  * 
+ * Configuration files are parsed only once: the result of the parsing is kept
+ * as a CloudTemplate, which is reused as long as the content of the file stays
+ * the same.
+ * 
  * @author "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems,
  *         MTA SZTAKI (c) 2012"
  */
 public class CloudLoader {
 
+	/**
+	 * A parsed configuration file together with the digest of its content.
+	 */
+	private static final class CachedTemplate {
+		final byte[] digest;
+		final CloudTemplate template;
+
+		CachedTemplate(final byte[] digest, final CloudTemplate template) {
+			this.digest = digest;
+			this.template = template;
+		}
+	}
+
+	/**
+	 * The already parsed configuration files indexed by their absolute path.
+	 */
+	private static final ConcurrentHashMap<Path, CachedTemplate> templates = new ConcurrentHashMap<>();
+
 	/**
 	 * Offers the IaaSService creator functionality by defining the sax parser for
 	 * the XML cloud configuration.
@@ -78,7 +106,78 @@ public class CloudLoader {
 			throws IOException, SAXException, ParserConfigurationException {
 		Calendar c = Calendar.getInstance();
 		System.out.println("Cloud Loader starts for: " + fileName + " at " + c.getTimeInMillis());
-		final ArrayList<IaaSService> returner = new ArrayList<>();
+		final CloudTemplate template = loadTemplate(fileName);
+		final IaaSService iaas;
+		try {
+			iaas = template.instantiate();
+		} catch (ReflectiveOperationException e) {
+			throw new SAXException("Cannot instantiate IaaS service because of an improper scheduler type designation",
+					e);
+		}
+		c = Calendar.getInstance();
+		System.out.println("Cloud Loader stops for: " + fileName + " at " + c.getTimeInMillis());
+		return iaas;
+	}
+
+	/**
+	 * Returns the parsed form of an XML cloud configuration file. The file is
+	 * parsed only if it was not parsed before or if its content has changed
+	 * since.
+	 * 
+	 * @param fileName the name of the xml file containing the configuration of the
+	 *                 cloud
+	 * @return the template that can create IaaS services complying with the
+	 *         configuration
+	 * @throws IOException                  if there was some problem with
+	 *                                      finding/accessing the xml file
+	 * @throws SAXException                 if there was some problem parsing the
+	 *                                      configuration file
+	 * @throws ParserConfigurationException
+	 */
+	public static CloudTemplate loadTemplate(String fileName)
+			throws IOException, SAXException, ParserConfigurationException {
+		final Path path = Paths.get(fileName).toAbsolutePath().normalize();
+		final byte[] content = Files.readAllBytes(path);
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		final CachedTemplate cached = templates.get(path);
+		if (cached != null && Arrays.equals(cached.digest, digest)) {
+			return cached.template;
+		}
+		final CloudTemplate template = parseTemplate(content);
+		templates.put(path, new CachedTemplate(digest, template));
+		return template;
+	}
+
+	/**
+	 * Forgets all previously parsed configuration files.
+	 */
+	public static void clearTemplateCache() {
+		templates.clear();
+	}
+
+	/**
+	 * Parses an XML cloud configuration.
+	 * 
+	 * @param content the raw content of the configuration file
+	 * @return the template representing the configuration
+	 * @throws IOException                  if the content could not be read
+	 * @throws SAXException                 if there was some problem parsing the
+	 *                                      configuration
+	 * @throws ParserConfigurationException
+	 */
+	private static CloudTemplate parseTemplate(final byte[] content)
+			throws IOException, SAXException, ParserConfigurationException {
+		final List<List<CloudTemplate.PowerStateSpec>> powerMaps = new ArrayList<>();
+		final List<Map<String, Integer>> latencyMaps = new ArrayList<>();
+		final List<CloudTemplate.NodeSpec> nodes = new ArrayList<>();
+		final ArrayList<Class<? extends Scheduler>> schedulers = new ArrayList<>();
+		final ArrayList<Class<? extends PhysicalMachineController>> controllers = new ArrayList<>();
 		SAXParserFactory spf = SAXParserFactory.newInstance();
 		SAXParser saxParser = spf.newSAXParser();
 		XMLReader xmlReader = saxParser.getXMLReader();
@@ -97,11 +196,17 @@ public class CloudLoader {
 			long inbw;
 			long outbw;
 			long diskbw;
-			HashMap<String, Integer> latencymap;
-			EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> powerTransitions = new EnumMap<>(
+			// maps are represented with their index in powerMaps and latencyMaps
+			int latencymap = -1;
+			EnumMap<PowerTransitionGenerator.PowerStateKind, Integer> powerTransitions = new EnumMap<>(
 					PowerTransitionGenerator.PowerStateKind.class);
 			PowerTransitionGenerator.PowerStateKind currentKind;
 
+			int powerMap(final PowerTransitionGenerator.PowerStateKind kind) {
+				final Integer index = powerTransitions.get(kind);
+				return index == null ? -1 : index;
+			}
+
 			@SuppressWarnings("unchecked")
 			@Override
 			public void startElement(String uri, String localName, String qName, Attributes attributes)
@@ -109,10 +214,9 @@ public class CloudLoader {
 				if (qName.equals("cloud")) {
 					incloud = true;
 					try {
-						returner.add(new IaaSService(
-								(Class<? extends Scheduler>) Class.forName(attributes.getValue("scheduler")),
-								(Class<? extends PhysicalMachineController>) Class
-										.forName(attributes.getValue("pmcontroller"))));
+						schedulers.add((Class<? extends Scheduler>) Class.forName(attributes.getValue("scheduler")));
+						controllers.add((Class<? extends PhysicalMachineController>) Class
+								.forName(attributes.getValue("pmcontroller")));
 					} catch (Exception e) {
 						throw new SAXException(
 								"Cannot instantiate IaaS service because of an improper scheduler type designation", e);
@@ -121,7 +225,8 @@ public class CloudLoader {
 				if (incloud) {
 					if (qName.equals("machine")) {
 						inmachine = true;
-						latencymap = new HashMap<>();
+						latencymap = latencyMaps.size();
+						latencyMaps.add(new HashMap<>());
 						cores = Double.parseDouble(attributes.getValue("cores"));
 						processing = Double.parseDouble(attributes.getValue("processing"));
 						memory = Long.parseLong(attributes.getValue("memory"));
@@ -140,14 +245,16 @@ public class CloudLoader {
 						rid = attributes.getValue("id");
 					}
 					if (qName.equals("latency") && inrepo) {
-						latencymap.put(attributes.getValue("towards"), Integer.parseInt(attributes.getValue("value")));
+						latencyMaps.get(latencymap).put(attributes.getValue("towards"),
+								Integer.parseInt(attributes.getValue("value")));
 					}
 					if (qName.equals("powerstates")) {
 						currentKind = PowerTransitionGenerator.PowerStateKind.valueOf(attributes.getValue("kind"));
-						powerTransitions.put(currentKind, new HashMap<>(PhysicalMachine.State.values().length));
+						powerTransitions.put(currentKind, powerMaps.size());
+						powerMaps.add(new ArrayList<>());
 					}
 					if (qName.equals("power") && currentKind != null) {
-						Map<String, PowerState> stateSet = powerTransitions.get(currentKind);
+						List<CloudTemplate.PowerStateSpec> stateSet = powerMaps.get(powerTransitions.get(currentKind));
 						String currentStateString = attributes.getValue("inState");
 						// Divider is needed so input and output spreaders are
 						// symmetrically consuming energy
@@ -155,16 +262,12 @@ public class CloudLoader {
 						try {
 							double idleCon = Double.parseDouble(attributes.getValue("idle")) / currentDivider;
 							double maxCon = Double.parseDouble(attributes.getValue("max")) / currentDivider;
-							Class<? extends PowerState.ConsumptionModel> consumptionmodel= (Class<? extends PowerState.ConsumptionModel>) Class
-									.forName(attributes.getValue("model"));
-							stateSet.put(currentStateString,
-									new PowerState(idleCon, maxCon - idleCon, () -> {
-										try {
-											return consumptionmodel.getDeclaredConstructor().newInstance();
-										} catch (Exception e) {
-											throw new RuntimeException(e);
-										}
-									}));
+							Constructor<? extends PowerState.ConsumptionModel> consumptionmodel = ((Class<? extends PowerState.ConsumptionModel>) Class
+									.forName(attributes.getValue("model"))).getDeclaredConstructor();
+							// Fail early if the model cannot be instantiated
+							consumptionmodel.newInstance();
+							stateSet.add(new CloudTemplate.PowerStateSpec(currentStateString, idleCon, maxCon - idleCon,
+									consumptionmodel));
 						} catch (Exception e) {
 							throw new SAXException(
 									"Cannot instantiate PowerState because of a consumption model type designation",
@@ -183,21 +286,17 @@ public class CloudLoader {
 					if (qName.equals("repository")) {
 						inrepo = false;
 						if (!inmachine) {
-							Repository newRepo = new Repository(disksize, rid, inbw, outbw, diskbw, latencymap,
-									powerTransitions.get(PowerTransitionGenerator.PowerStateKind.storage),
-									powerTransitions.get(PowerTransitionGenerator.PowerStateKind.network));
-							returner.get(0).registerRepository(newRepo);
+							nodes.add(new CloudTemplate.NodeSpec(false, 0, 0, 0, 0, 0, -1, disksize, rid, inbw, outbw,
+									diskbw, latencymap, powerMap(PowerTransitionGenerator.PowerStateKind.storage),
+									powerMap(PowerTransitionGenerator.PowerStateKind.network)));
 						}
 					}
 					if (qName.equals("machine")) {
 						inmachine = false;
-						returner.get(0)
-								.registerHost(new PhysicalMachine(cores, processing, memory,
-										new Repository(disksize, rid, inbw, outbw, diskbw, latencymap,
-												powerTransitions.get(PowerTransitionGenerator.PowerStateKind.storage),
-												powerTransitions.get(PowerTransitionGenerator.PowerStateKind.network)),
-										startuptime, shutdowntime,
-										powerTransitions.get(PowerTransitionGenerator.PowerStateKind.host)));
+						nodes.add(new CloudTemplate.NodeSpec(true, cores, processing, memory, startuptime, shutdowntime,
+								powerMap(PowerTransitionGenerator.PowerStateKind.host), disksize, rid, inbw, outbw,
+								diskbw, latencymap, powerMap(PowerTransitionGenerator.PowerStateKind.storage),
+								powerMap(PowerTransitionGenerator.PowerStateKind.network)));
 						powerTransitions = new EnumMap<>(PowerTransitionGenerator.PowerStateKind.class);
 					}
 					if (qName.equals("powerstates")) {
@@ -206,11 +305,10 @@ public class CloudLoader {
 				}
 			}
 		});
-		BufferedReader br = new BufferedReader(new FileReader(fileName));
-		xmlReader.parse(new InputSource(br));
-		br.close();
-		c = Calendar.getInstance();
-		System.out.println("Cloud Loader stops for: " + fileName + " at " + c.getTimeInMillis());
-		return returner.get(0);
+		xmlReader.parse(new InputSource(new ByteArrayInputStream(content)));
+		if (schedulers.isEmpty()) {
+			throw new SAXException("No cloud was defined in the configuration");
+		}
+		return new CloudTemplate(schedulers.get(0), controllers.get(0), powerMaps, latencyMaps, nodes);
 	}
 }
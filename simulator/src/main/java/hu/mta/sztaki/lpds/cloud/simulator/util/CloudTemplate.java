@@ -0,0 +1,221 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package hu.mta.sztaki.lpds.cloud.simulator.util;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.PhysicalMachineController;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+
+/**
+ * An already parsed XML cloud configuration (see CloudLoader). The template
+ * holds the resolved scheduler, PM controller and consumption model classes,
+ * as well as the specification of every repository and physical machine of the
+ * cloud in their order of appearance. Templates are immutable, thus the same
+ * template can be used to create any number of IaaS services in any simulation.
+ *
+ * Power state and latency maps are mutable once they are handed over to the
+ * repositories and PMs, so every new IaaS service receives a fresh copy of
+ * them. The copies are shared between the created components exactly the same
+ * way as the loader would share them when processing the XML file.
+ */
+public final class CloudTemplate {
+	/**
+	 * The specification of a single power state of a power state map.
+	 */
+	static final class PowerStateSpec {
+		final String state;
+		final double minConsumption;
+		final double consumptionRange;
+		final Constructor<? extends PowerState.ConsumptionModel> model;
+
+		PowerStateSpec(final String state, final double minConsumption, final double consumptionRange,
+				final Constructor<? extends PowerState.ConsumptionModel> model) {
+			this.state = state;
+			this.minConsumption = minConsumption;
+			this.consumptionRange = consumptionRange;
+			this.model = model;
+		}
+	}
+
+	/**
+	 * The specification of a repository that is either registered to the IaaS
+	 * directly or is the local disk of a physical machine. Maps are referred by
+	 * their index in the template's map lists, -1 represents a null map.
+	 */
+	static final class NodeSpec {
+		final boolean machine;
+		final double cores;
+		final double processing;
+		final long memory;
+		final int startupTime;
+		final int shutdownTime;
+		final int hostPowerMap;
+		final long diskSize;
+		final String id;
+		final long inBW;
+		final long outBW;
+		final long diskBW;
+		final int latencyMap;
+		final int storagePowerMap;
+		final int networkPowerMap;
+
+		NodeSpec(final boolean machine, final double cores, final double processing, final long memory,
+				final int startupTime, final int shutdownTime, final int hostPowerMap, final long diskSize,
+				final String id, final long inBW, final long outBW, final long diskBW, final int latencyMap,
+				final int storagePowerMap, final int networkPowerMap) {
+			this.machine = machine;
+			this.cores = cores;
+			this.processing = processing;
+			this.memory = memory;
+			this.startupTime = startupTime;
+			this.shutdownTime = shutdownTime;
+			this.hostPowerMap = hostPowerMap;
+			this.diskSize = diskSize;
+			this.id = id;
+			this.inBW = inBW;
+			this.outBW = outBW;
+			this.diskBW = diskBW;
+			this.latencyMap = latencyMap;
+			this.storagePowerMap = storagePowerMap;
+			this.networkPowerMap = networkPowerMap;
+		}
+	}
+
+	/**
+	 * The VM scheduler of the IaaS services to create
+	 */
+	public final Class<? extends Scheduler> scheduler;
+	/**
+	 * The PM controller of the IaaS services to create
+	 */
+	public final Class<? extends PhysicalMachineController> pmController;
+	/**
+	 * The content of the power state maps
+	 */
+	private final List<List<PowerStateSpec>> powerMaps;
+	/**
+	 * The content of the latency maps
+	 */
+	private final List<Map<String, Integer>> latencyMaps;
+	/**
+	 * The repositories and PMs in the order they were specified
+	 */
+	private final List<NodeSpec> nodes;
+
+	CloudTemplate(final Class<? extends Scheduler> scheduler,
+			final Class<? extends PhysicalMachineController> pmController, final List<List<PowerStateSpec>> powerMaps,
+			final List<Map<String, Integer>> latencyMaps, final List<NodeSpec> nodes) {
+		this.scheduler = scheduler;
+		this.pmController = pmController;
+		final ArrayList<List<PowerStateSpec>> pm = new ArrayList<>(powerMaps.size());
+		for (List<PowerStateSpec> m : powerMaps) {
+			pm.add(Collections.unmodifiableList(new ArrayList<>(m)));
+		}
+		this.powerMaps = Collections.unmodifiableList(pm);
+		final ArrayList<Map<String, Integer>> lm = new ArrayList<>(latencyMaps.size());
+		for (Map<String, Integer> m : latencyMaps) {
+			lm.add(Collections.unmodifiableMap(new HashMap<>(m)));
+		}
+		this.latencyMaps = Collections.unmodifiableList(lm);
+		this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+	}
+
+	/**
+	 * Determines the number of physical machines a new IaaS service will have.
+	 *
+	 * @return the number of PMs in the template
+	 */
+	public int getMachineCount() {
+		int count = 0;
+		for (NodeSpec n : nodes) {
+			if (n.machine) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Determines the number of repositories registered directly to a new IaaS
+	 * service (i.e., excluding the local disks of the PMs).
+	 *
+	 * @return the number of IaaS level repositories in the template
+	 */
+	public int getRepositoryCount() {
+		return nodes.size() - getMachineCount();
+	}
+
+	/**
+	 * Creates a new IaaS service with all its PMs and repositories in the
+	 * simulation the calling thread is bound to.
+	 *
+	 * @return the new IaaS service complying with the template
+	 * @throws ReflectiveOperationException if the scheduler or the PM controller
+	 *                                      could not be instantiated
+	 */
+	public IaaSService instantiate() throws ReflectiveOperationException {
+		final IaaSService iaas = new IaaSService(scheduler, pmController);
+		final ArrayList<Map<String, PowerState>> powerCopies = new ArrayList<>(powerMaps.size());
+		for (List<PowerStateSpec> specs : powerMaps) {
+			final HashMap<String, PowerState> states = new HashMap<>(PhysicalMachine.State.values().length);
+			for (PowerStateSpec s : specs) {
+				states.put(s.state, new PowerState(s.minConsumption, s.consumptionRange, () -> {
+					try {
+						return s.model.newInstance();
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}));
+			}
+			powerCopies.add(states);
+		}
+		final ArrayList<Map<String, Integer>> latencyCopies = new ArrayList<>(latencyMaps.size());
+		for (Map<String, Integer> latencies : latencyMaps) {
+			latencyCopies.add(new LatencyMap(latencies));
+		}
+		for (NodeSpec n : nodes) {
+			final Repository repo = new Repository(n.diskSize, n.id, n.inBW, n.outBW, n.diskBW,
+					n.latencyMap < 0 ? null : latencyCopies.get(n.latencyMap),
+					n.storagePowerMap < 0 ? null : powerCopies.get(n.storagePowerMap),
+					n.networkPowerMap < 0 ? null : powerCopies.get(n.networkPowerMap));
+			if (n.machine) {
+				iaas.registerHost(new PhysicalMachine(n.cores, n.processing, n.memory, repo, n.startupTime,
+						n.shutdownTime, n.hostPowerMap < 0 ? null : powerCopies.get(n.hostPowerMap)));
+			} else {
+				iaas.registerRepository(repo);
+			}
+		}
+		return iaas;
+	}
+}
@@ -25,6 +25,8 @@
 
 package hu.mta.sztaki.lpds.cloud.simulator.util;
 
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+
 import java.util.Random;
 
 /**
@@ -37,6 +39,9 @@ public class SeedSyncer {
 	/**
 	 * The random generator that will be used by the system components and that
 	 * is recommended to be used by simulations built on top of DISSECT-CF
+	 * 
+	 * This is the generator of the default simulation context, simulations
+	 * running in other contexts should use getCentralRnd() instead.
 	 */
 	public static final Random centralRnd;
 	/**
@@ -58,17 +63,27 @@ public class SeedSyncer {
 		centralRnd = new Random(seed);
 	}
 
+	/**
+	 * Determines the random generator of the simulation the calling thread is
+	 * bound to.
+	 * 
+	 * @return the random generator to be used by the system components
+	 */
+	public static Random getCentralRnd() {
+		return SimulationContext.current().getRandom();
+	}
+
 	/**
 	 * To restart the simulator's random generator
 	 */
 	public static void resetCentral() {
-		centralRnd.setSeed(seed);
+		SimulationContext.current().resetRandom();
 	}
 	
 	/**
      * To modify the simulator's random generator based on the given seed
      */
 	public static void modifySeed(long seed) {
-	    centralRnd.setSeed(seed);
+	    getCentralRnd().setSeed(seed);
 	}
 }
@@ -1,11 +1,16 @@
 package hu.u_szeged.inf.fog.simulator.agent;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class AgentApplication {
+public class AgentApplication implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
-    static class Component {
+    static class Component implements Serializable {
+
+        private static final long serialVersionUID = 1L;
         
         public String name;
         public String image; 
@@ -16,7 +21,9 @@ public class AgentApplication {
         }
     }
     
-    public static class Resource {
+    public static class Resource implements Serializable {
+
+        private static final long serialVersionUID = 1L;
         
         public String name;
         public String cpu; 
@@ -39,7 +46,9 @@ public class AgentApplication {
         } 
     }
 
-    static class Mapping {
+    static class Mapping implements Serializable {
+
+        private static final long serialVersionUID = 1L;
         
         public String component;
         public String resource;
@@ -69,6 +78,11 @@ public class AgentApplication {
     public double latencyPriority;
     
     public double bandwidthPriority;
+    
+    /**
+     * The upper bound of the (hourly) price of an acceptable offer.
+     */
+    public double maxPrice = Double.MAX_VALUE;
         
     public static List<AgentApplication> agentApplications = new ArrayList<>();
 
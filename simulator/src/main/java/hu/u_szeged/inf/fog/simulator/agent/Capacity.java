@@ -3,14 +3,19 @@ package hu.u_szeged.inf.fog.simulator.agent;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
 import hu.u_szeged.inf.fog.simulator.agent.AgentApplication.Resource;
 import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import org.apache.commons.lang3.tuple.Pair;
 
-public class Capacity {
+public class Capacity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
    
-    public static class Utilisation {
+    public static class Utilisation implements Serializable {
+
+        private static final long serialVersionUID = 1L;
         
         enum State {              
             RESERVED,
@@ -17,8 +17,14 @@ import hu.u_szeged.inf.fog.simulator.util.SimLogger;
 import org.apache.commons.lang3.tuple.Pair;
 
 public class Deployment extends Timed {
-    
-    private static int taskNum = 0;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of deployed components still running their tasks.
+     */
+    public static int taskNum = 0;
+
     public static Repository registryService;
     
     Pair<ComputingAppliance, Utilisation> leadResource;
@@ -75,7 +81,7 @@ public class Deployment extends Timed {
             this.deployResource(this.leadResource);
         } else if (leadResource != null && this.leadResource.getRight().vm.getState().equals(VirtualMachine.State.RUNNING)) {
             this.leadResource.getRight().setToAllocated();
-            SimLogger.logRun("Lead Resource for " + this.app.name + " was initilised at: " + Timed.getFireCount());
+            SimLogger.logRun(SimLogger.AGENT, "Lead Resource for %s was initilised at: %d", this.app.name, Timed.getFireCount());
             unsubscribe();
 
             new Deployment(null, this.offer, this.app);
@@ -89,7 +95,8 @@ public class Deployment extends Timed {
                 } 
             }
         } else if (this.leadResource == null && checkRemainingDeployment() == true) {
-            SimLogger.logRun("Remaining resources for " + this.app.name + " were initilised at: " + Timed.getFireCount());
+            SimLogger.logRun(SimLogger.AGENT, "Remaining resources for %s were initilised at: %d",
+                    this.app.name, Timed.getFireCount());
             app.deploymentTime = Timed.getFireCount() - app.deploymentTime;
             unsubscribe();
             
@@ -105,9 +112,9 @@ public class Deployment extends Timed {
                             
                                 @Override
                                 public void conComplete() {
-                                    SimLogger.logRun(
-                                            util.getRight().resource.name + " completed at: " + Timed.getFireCount() 
-                                            + " in " + (Timed.getFireCount() - actualTime) / 1000 / 60 + " min.");
+                                    SimLogger.logRun(SimLogger.AGENT, "%s completed at: %d in %d min.",
+                                            util.getRight().resource.name, Timed.getFireCount(),
+                                            (Timed.getFireCount() - actualTime) / 1000 / 60);
                                     taskNum--;
                                     if (taskNum == 0) {
                                         for (EnergyDataCollector ec : EnergyDataCollector.energyCollectors) {
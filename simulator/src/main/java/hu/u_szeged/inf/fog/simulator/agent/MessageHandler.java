@@ -4,13 +4,21 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.mta.sztaki.lpds.cloud.simulator.io.StorageObject;
+import java.io.Serializable;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class MessageHandler {
 
+    /**
+     * The action taken when all the responses arrived. It is kept by the pending transfers,
+     * thus it has to be serializable to be captured by checkpoints.
+     */
+    public interface ResponseAction extends Runnable, Serializable {
+    }
+
     public static void executeMessaging(
-            ResourceAgent gateway, AgentApplication app, int bcastMessageSize, String msg, Runnable customAction) {
+            ResourceAgent gateway, AgentApplication app, int bcastMessageSize, String msg, ResponseAction customAction) {
         
         List<ResourceAgent> filteredAgents = ResourceAgent.resourceAgents.stream()
                 .filter(agent -> agent.service.getState().equals(VirtualMachine.State.RUNNING))
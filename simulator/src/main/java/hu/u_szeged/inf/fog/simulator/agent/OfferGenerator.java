@@ -0,0 +1,230 @@
+package hu.u_szeged.inf.fog.simulator.agent;
+
+import hu.u_szeged.inf.fog.simulator.agent.AgentApplication.Resource;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Creates the offers for an application from the (agent, resource) pairs the agents
+ * are able to fulfil. An offer assigns every resource of the application to exactly one
+ * agent. The combinations are explored by a depth-first search, which is pruned as soon
+ * as a resource cannot be covered anymore or the price of the partial offer (plus the
+ * cheapest possible price of the uncovered resources) exceeds the price limit.
+ *
+ * <p>Without a top-K limit the offers are created in the same order as they were created
+ * by the former exhaustive enumeration. In top-K mode the cheapest offers are kept
+ * (ties are resolved by the order of discovery) and the price of the K-th cheapest offer
+ * found so far becomes the price limit of the search. The budget limits the number of
+ * complete combinations examined, thus the search is stopped early for huge numbers
+ * of agents.</p>
+ */
+public class OfferGenerator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of offers kept, Integer.MAX_VALUE means every offer.
+     */
+    public final int topK;
+
+    /**
+     * The maximum number of complete combinations examined, Long.MAX_VALUE means no limit.
+     */
+    public final long budget;
+
+    /**
+     * The number of combinations examined during the last generation.
+     */
+    public long examined;
+
+    // the state of the search, only used during a generation
+    private transient Pair<ResourceAgent, Resource>[] pairs;
+    private transient int[] resourceOf;
+    private transient double[] priceOf;
+    private transient int[] lastIndexOf;
+    private transient double[] minPriceOf;
+    private transient boolean[] covered;
+    private transient int[] chosen;
+    private transient double maxPrice;
+    private transient long discovered;
+    private transient PriorityQueue<Candidate> best;
+    private transient List<Candidate> all;
+
+    private static class Candidate {
+        final int[] pairIndices;
+        final double price;
+        final long order;
+
+        Candidate(int[] pairIndices, double price, long order) {
+            this.pairIndices = pairIndices;
+            this.price = price;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Creates a generator that examines and keeps every possible offer.
+     */
+    public OfferGenerator() {
+        this(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a generator with limits.
+     *
+     * @param topK the maximum number of (cheapest) offers kept
+     * @param budget the maximum number of complete combinations examined
+     */
+    public OfferGenerator(int topK, long budget) {
+        if (topK < 1 || budget < 1) {
+            throw new IllegalArgumentException("The number of offers and the budget must be positive");
+        }
+        this.topK = topK;
+        this.budget = budget;
+    }
+
+    /**
+     * The price of assigning a resource to an agent, the same as the one written to
+     * the offer file for ranking.
+     */
+    public static double price(ResourceAgent agent, Resource resource) {
+        return agent.hourlyPrice * resource.getTotalReqCpu();
+    }
+
+    /**
+     * Generates the offers and appends them to the offers of the application.
+     *
+     * @param agentResourcePairs the resources each agent can fulfil, duplicates are ignored
+     * @param app the application the offers are created for
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void generate(List<Pair<ResourceAgent, Resource>> agentResourcePairs, AgentApplication app) {
+        examined = 0;
+        discovered = 0;
+        int resourceCount = app.resources.size();
+        Map<Resource, Integer> resourceIndices = new IdentityHashMap<>();
+        for (Resource resource : app.resources) {
+            resourceIndices.putIfAbsent(resource, resourceIndices.size());
+        }
+        if (resourceCount == 0 || resourceIndices.size() != resourceCount) {
+            return;
+        }
+
+        pairs = new LinkedHashSet<>(agentResourcePairs).stream()
+                .filter(pair -> resourceIndices.containsKey(pair.getRight()))
+                .toArray(Pair[]::new);
+        resourceOf = new int[pairs.length];
+        priceOf = new double[pairs.length];
+        lastIndexOf = new int[resourceCount];
+        minPriceOf = new double[resourceCount];
+        Arrays.fill(lastIndexOf, -1);
+        Arrays.fill(minPriceOf, Double.MAX_VALUE);
+        for (int i = 0; i < pairs.length; i++) {
+            resourceOf[i] = resourceIndices.get(pairs[i].getRight());
+            priceOf[i] = price(pairs[i].getLeft(), pairs[i].getRight());
+            lastIndexOf[resourceOf[i]] = i;
+            minPriceOf[resourceOf[i]] = Math.min(minPriceOf[resourceOf[i]], priceOf[i]);
+        }
+        double minTotalPrice = 0;
+        for (int r = 0; r < resourceCount; r++) {
+            if (lastIndexOf[r] < 0) {
+                return;
+            }
+            minTotalPrice += minPriceOf[r];
+        }
+
+        covered = new boolean[resourceCount];
+        chosen = new int[resourceCount];
+        maxPrice = app.maxPrice;
+        all = new ArrayList<>();
+        best = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.price)
+                .thenComparingLong(c -> c.order).reversed());
+        search(0, 0, 0, minTotalPrice);
+
+        List<Candidate> result = all;
+        if (topK != Integer.MAX_VALUE) {
+            result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble((Candidate c) -> c.price).thenComparingLong(c -> c.order));
+        }
+        for (Candidate candidate : result) {
+            app.offers.add(toOffer(candidate, app.offers.size()));
+        }
+        pairs = null;
+        best = null;
+        all = null;
+    }
+
+    /**
+     * Extends the partial offer with the pairs not before the given index, in increasing
+     * order of the indices, so the offers are discovered in lexicographic order.
+     */
+    private void search(int start, int depth, double price, double remainingMinPrice) {
+        if (examined >= budget) {
+            return;
+        }
+        if (depth == covered.length) {
+            examined++;
+            if (price <= priceLimit()) {
+                offer(price);
+            }
+            return;
+        }
+        if (price + remainingMinPrice > priceLimit()) {
+            return;
+        }
+        int end = pairs.length - 1;
+        for (int r = 0; r < covered.length; r++) {
+            if (!covered[r]) {
+                end = Math.min(end, lastIndexOf[r]);
+            }
+        }
+        for (int i = start; i <= end && examined < budget; i++) {
+            int r = resourceOf[i];
+            if (covered[r]) {
+                continue;
+            }
+            covered[r] = true;
+            chosen[depth] = i;
+            search(i + 1, depth + 1, price + priceOf[i], remainingMinPrice - minPriceOf[r]);
+            covered[r] = false;
+        }
+    }
+
+    private double priceLimit() {
+        if (best.size() == topK) {
+            return Math.min(maxPrice, Math.nextDown(best.peek().price));
+        }
+        return maxPrice;
+    }
+
+    private void offer(double price) {
+        Candidate candidate = new Candidate(chosen.clone(), price, discovered++);
+        if (topK == Integer.MAX_VALUE) {
+            all.add(candidate);
+        } else {
+            best.add(candidate);
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+    }
+
+    private Offer toOffer(Candidate candidate, int id) {
+        Map<ResourceAgent, Set<Resource>> agentResourcesMap = new HashMap<>();
+        for (int i : candidate.pairIndices) {
+            agentResourcesMap.computeIfAbsent(pairs[i].getLeft(), agent -> new LinkedHashSet<>())
+                    .add(pairs[i].getRight());
+        }
+        return new Offer(agentResourcesMap, id);
+    }
+}
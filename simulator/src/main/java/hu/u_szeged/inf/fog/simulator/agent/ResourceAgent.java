@@ -18,18 +18,18 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
-public class ResourceAgent {
+public class ResourceAgent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     public static String rankingMethodName;
     
@@ -47,6 +47,8 @@ public class ResourceAgent {
     
     AgentStrategy agentStrategy;
     
+    private OfferGenerator offerGenerator = new OfferGenerator();
+    
     public static ArrayList<ResourceAgent> resourceAgents = new ArrayList<>();
     
     
@@ -65,17 +67,30 @@ public class ResourceAgent {
         this.capacities.add(capacity);
     }
     
+    public OfferGenerator getOfferGenerator() {
+        return offerGenerator;
+    }
+    
+    /**
+     * Sets how this agent creates the offers for the applications it deploys.
+     *
+     * @param offerGenerator the generator with the limits of the offer enumeration
+     */
+    public void setOfferGenerator(OfferGenerator offerGenerator) {
+        this.offerGenerator = offerGenerator;
+    }
+    
     private void initResourceAgent(VirtualAppliance resourceAgentVa, AlterableResourceConstraints resourceAgentArc) {
         try {
-            this.hostNode = this.capacities.get(SeedSyncer.centralRnd.nextInt(this.capacities.size())).node;
+            this.hostNode = this.capacities.get(SeedSyncer.getCentralRnd().nextInt(this.capacities.size())).node;
             VirtualAppliance va = resourceAgentVa.newCopy(this.name + "-VA");
             this.hostNode.iaas.repositories.get(0).registerObject(va);
             VirtualMachine vm = this.hostNode.iaas.requestVM(va, resourceAgentArc,
                     this.hostNode.iaas.repositories.get(0), 1)[0];
             this.service = vm;
                 
-            SimLogger.logRun(name + " agent started working at: " + Timed.getFireCount() 
-                    + ", hosted on: " + this.hostNode.name);
+            SimLogger.logRun(SimLogger.AGENT, "%s agent started working at: %d, hosted on: %s",
+                    name, Timed.getFireCount(), this.hostNode.name);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -107,7 +122,7 @@ public class ResourceAgent {
             agentResourcePairs.addAll(agent.agentStrategy.canFulfill(agent, app.resources));
         }
         
-        generateUniqueOfferCombinations(agentResourcePairs, app);
+        offerGenerator.generate(agentResourcePairs, app);
 
         // TODO: only for debugging, needs to be deleted
         System.out.println(app.name);
@@ -116,52 +131,6 @@ public class ResourceAgent {
         }
     } 
     
-    private void generateUniqueOfferCombinations(List<Pair<ResourceAgent, Resource>> pairs, AgentApplication app) {
-        
-        Set<Set<Pair<ResourceAgent, Resource>>> uniqueCombinations = new LinkedHashSet<>();
-        Set<Pair<ResourceAgent, Resource>> currentCombination = new LinkedHashSet<>();
-        Set<Resource> includedResources = new LinkedHashSet<>();
-
-        generateCombinations(pairs, app.resources.size(), uniqueCombinations, currentCombination, includedResources);
-        
-        for (Set<Pair<ResourceAgent, Resource>> combination : uniqueCombinations) {
-            Map<ResourceAgent, Set<Resource>> agentResourcesMap = new HashMap<>();
-
-            for (Pair<ResourceAgent, Resource> pair : combination) {
-                ResourceAgent agent = pair.getLeft();
-                Resource resource = pair.getRight();
-                
-                agentResourcesMap.putIfAbsent(agent, new LinkedHashSet<>());
-                agentResourcesMap.get(agent).add(resource);
-            }
-            
-            app.offers.add(new Offer(agentResourcesMap, app.offers.size()));
-        }
-    }
-
-    private void generateCombinations(List<Pair<ResourceAgent, Resource>> pairs, int resourceCount,
-                                      Set<Set<Pair<ResourceAgent, Resource>>> uniqueCombinations,
-                                      Set<Pair<ResourceAgent, Resource>> currentCombination,
-                                      Set<Resource> includedResources) {
-
-        if (includedResources.size() == resourceCount) {
-            uniqueCombinations.add(new LinkedHashSet<>(currentCombination));
-            return;
-        }
-        
-        for (Pair<ResourceAgent, Resource> pair : pairs) {      
-            if (!currentCombination.contains(pair) && !includedResources.contains(pair.getRight())) {
-                currentCombination.add(pair);
-                includedResources.add(pair.getRight());
-
-                generateCombinations(pairs, resourceCount, uniqueCombinations, currentCombination, includedResources);
-
-                currentCombination.remove(pair);
-                includedResources.remove(pair.getRight());
-            }
-        }
-    }
-    
     private int callRankingScript(AgentApplication app) {
 
         String inputfile = ScenarioBase.resultDirectory + File.separator + app.name + "-offers.json";
@@ -210,9 +179,8 @@ public class ResourceAgent {
                 int firstNumber = numberList.get(0);
                 int lastNumber = numberList.get(numberList.size() - 1);
                 
-                SimLogger.logRun(app.offers.size() + " offers were ranked for " 
-                        + app.name + " at: " + Timed.getFireCount() 
-                        + " as follows: first = " + firstNumber + ", last = " + lastNumber);
+                SimLogger.logRun(SimLogger.AGENT, "%d offers were ranked for %s at: %d as follows: first = %d, last = %d",
+                        app.offers.size(), app.name, Timed.getFireCount(), firstNumber, lastNumber);
                 
                 return firstNumber;
                 //return lastNumber;
@@ -249,7 +217,7 @@ public class ResourceAgent {
                 for (Resource resource : offer.agentResourcesMap.get(agent)) {
                     averageEnergy += agent.hostNode.iaas.machines.get(0).getCurrentPowerBehavior().getConsumptionRange() 
                             * (resource.getTotalReqCpu() / 100);
-                    averagePrice += agent.hourlyPrice * resource.getTotalReqCpu();   
+                    averagePrice += OfferGenerator.price(agent, resource);   
                 }
             } 
             
@@ -273,21 +241,22 @@ public class ResourceAgent {
                 + averageBandwidth + " avg. energy: " + averageEnergy +  " avg. price: " + averagePrice);
             */
             
-            QosPriority qosPriority = new QosPriority(app.energyPriority, app.bandwidthPriority, app.latencyPriority, app.pricePriority);
-
-            JsonOfferData jsonData = new JsonOfferData(qosPriority, reliabilityList, energyList, bandwidthList, latencyList, priceList);
-            
-            AgentOfferWriter.writeOffers(jsonData, app.name);
         }
+        
+        QosPriority qosPriority = new QosPriority(app.energyPriority, app.bandwidthPriority, app.latencyPriority, app.pricePriority);
+
+        JsonOfferData jsonData = new JsonOfferData(qosPriority, reliabilityList, energyList, bandwidthList, latencyList, priceList);
+        
+        AgentOfferWriter.writeOffers(jsonData, app.name);
     }
     
     private void acknowledgeAndInitSwarmAgent(AgentApplication app, Offer offer, int bcastMessageSize) {
         MessageHandler.executeMessaging(this, app, bcastMessageSize, "ack", () -> {
-            SimLogger.logRun("All ack. messages receieved for " + app.name
-                    + " at: " + Timed.getFireCount());
+            SimLogger.logRun(SimLogger.AGENT, "All ack. messages receieved for %s at: %d",
+                    app.name, Timed.getFireCount());
             
             if (offer.id == -1) {
-                SimLogger.logRun(app.name + "'s requirements cannot be fulfilled!");
+                SimLogger.logRun(SimLogger.AGENT, "%s's requirements cannot be fulfilled!", app.name);
                 for (ResourceAgent agent : ResourceAgent.resourceAgents) {
                     for (Capacity capacity : agent.capacities) {                        
                         List<Resource> resourcesToBeRemoved = new ArrayList<>();
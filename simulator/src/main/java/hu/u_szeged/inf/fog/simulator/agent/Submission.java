@@ -11,6 +11,8 @@ import java.util.List;
 
 public class Submission extends Timed {
 
+    private static final long serialVersionUID = 1L;
+
     AgentApplication app;
     
     ResourceAgent agent;
@@ -28,7 +30,7 @@ public class Submission extends Timed {
         
         this.app = app;
         this.bcastMessageSize = bcastMessageSize;
-        int random = SeedSyncer.centralRnd.nextInt(ResourceAgent.resourceAgents.size());
+        int random = SeedSyncer.getCentralRnd().nextInt(ResourceAgent.resourceAgents.size());
         this.agent = ResourceAgent.resourceAgents.get(random);
         this.registerImages(app.components);
         this.delay = delay;
@@ -61,7 +63,7 @@ public class Submission extends Timed {
 
                 @Override
                 protected void eventAction() {
-                    SimLogger.logRun(agent.name + " picked up " + app.name + " at: " + Timed.getFireCount());
+                    SimLogger.logRun(SimLogger.AGENT, "%s picked up %s at: %d", agent.name, app.name, Timed.getFireCount());
                     agent.broadcast(app, 100);
                     app.deploymentTime = Timed.getFireCount();
                 }
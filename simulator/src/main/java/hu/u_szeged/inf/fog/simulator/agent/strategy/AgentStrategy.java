@@ -2,10 +2,13 @@ package hu.u_szeged.inf.fog.simulator.agent.strategy;
 
 import hu.u_szeged.inf.fog.simulator.agent.AgentApplication.Resource;
 import hu.u_szeged.inf.fog.simulator.agent.ResourceAgent;
+import java.io.Serializable;
 import java.util.List;
 import org.apache.commons.lang3.tuple.Pair;
 
-public abstract class AgentStrategy {
+public abstract class AgentStrategy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     public abstract List<Pair<ResourceAgent, Resource>> canFulfill(ResourceAgent agent, List<Resource> resources);
 }
@@ -9,6 +9,8 @@ import java.util.List;
 import org.apache.commons.lang3.tuple.Pair;
 
 public class FirstFitAgentStrategy extends AgentStrategy {
+
+    private static final long serialVersionUID = 1L;
     
     private boolean descending;
     
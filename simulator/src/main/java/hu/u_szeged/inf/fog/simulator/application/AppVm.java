@@ -3,12 +3,15 @@ package hu.u_szeged.inf.fog.simulator.application;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import java.io.Serializable;
 
 /**
  * This class holds information about a virtual machine
  * utilized by an Application instance.
  */
-public class AppVm {
+public class AppVm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The identifier for this VM instance.
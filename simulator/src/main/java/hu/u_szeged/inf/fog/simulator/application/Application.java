@@ -1,5 +1,6 @@
 package hu.u_szeged.inf.fog.simulator.application;
 
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine.ResourceAllocation;
@@ -16,6 +17,7 @@ import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.prediction.FeatureManager;
 import hu.u_szeged.inf.fog.simulator.provider.Instance;
 import hu.u_szeged.inf.fog.simulator.util.SimLogger;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
 import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
 import java.util.ArrayList;
 
@@ -32,11 +34,16 @@ import java.util.ArrayList;
  */
 public class Application extends Timed {
 
+    private static final long serialVersionUID = 1L;
+
     /**
-     * A list containing references to all applications.
+     * A list containing references to all applications of the default simulation context.
      * Each element in the list is an instance of the {@code Application} class.
+     * Simulations running in other contexts (e.g., restored from a checkpoint) should use
+     * {@link #getAllApplications()}.
      */
-    public static ArrayList<Application> allApplications = new ArrayList<>();
+    public static final ArrayList<Application> allApplications = 
+            SimulationContext.getDefault().getRegistry(Application.class);
 
     /**
      * It aggregates the time of each file transfer during offloading decisions.
@@ -133,6 +140,23 @@ public class Application extends Timed {
      */
     public ArrayList<TimelineEntry> timelineEntries = new ArrayList<TimelineEntry>();
 
+    /**
+     * The position of the application in the list of all applications at the time
+     * of its creation. It keeps the results of the device strategies in creation order.
+     */
+    public final int registrationIndex;
+
+    /**
+     * The ids of the features of the computing appliance computed in every tick,
+     * they are resolved again only if new features are added to the FeatureManager.
+     */
+    private int[] featureIds = new int[0];
+
+    /**
+     * The number of features in the FeatureManager when the feature ids were resolved.
+     */
+    private int resolvedFeatureCount;
+
     /**
      * Constructs a new Application with the specified parameters.
      *
@@ -146,7 +170,8 @@ public class Application extends Timed {
      */
     public Application(String name, long freq, long tasksize, double instructions, boolean serviceable,
             ApplicationStrategy applicationStrategy, Instance instance) {
-        Application.allApplications.add(this);
+        this.registrationIndex = Application.getAllApplications().size();
+        Application.getAllApplications().add(this);
         this.deviceList = new ArrayList<>();
         this.utilisedVms = new ArrayList<>();
         this.name = name;
@@ -159,6 +184,13 @@ public class Application extends Timed {
         this.applicationStrategy.application = this;
     }
 
+    /**
+     * Returns with the list of all applications of the simulation the calling thread is bound to.
+     */
+    public static ArrayList<Application> getAllApplications() {
+        return SimulationContext.current().getRegistry(Application.class);
+    }
+
     /**
      * It sets the physical resource for this application and it also
      * registers VM image file in the resource's first repository.
@@ -195,7 +227,8 @@ public class Application extends Timed {
                 this.computingAppliance.broker.vm.switchOn(ra, null);
                 this.computingAppliance.broker.restartCounter++;
                 this.computingAppliance.broker.runningPeriod = Timed.getFireCount();
-                SimLogger.logRun(this.computingAppliance.name + " broker is turned on at: " + Timed.getFireCount());
+                SimLogger.logRun(SimLogger.APPLICATION, "%s broker is turned on at: %d",
+                        this.computingAppliance.name, Timed.getFireCount());
             } catch (VMManagementException | NetworkException e) {
                 e.printStackTrace();
             }
@@ -231,7 +264,7 @@ public class Application extends Timed {
                             AppVm appVm = new AppVm(vm);
                             appVm.pm = pm;
                             this.utilisedVms.add(appVm);
-                            SimLogger.logRun("\tVM-" + appVm.id + " is requested at: " + Timed.getFireCount());
+                            SimLogger.logRun(SimLogger.APPLICATION, "\tVM-%d is requested at: %d", appVm.id, Timed.getFireCount());
                             return true;
                         }
                     }
@@ -258,7 +291,7 @@ public class Application extends Timed {
                     appVm.vm.switchOn(ra, null);
                     appVm.restartCounter++;
                     appVm.runningPeriod = Timed.getFireCount();
-                    SimLogger.logRun("\tVM-" + appVm.id + " is turned on at: " + Timed.getFireCount());
+                    SimLogger.logRun(SimLogger.APPLICATION, "\tVM-%d is turned on at: %d", appVm.id, Timed.getFireCount());
                     return true;
                 } catch (NetworkException | VMManagementException e) {
                     e.printStackTrace();
@@ -290,7 +323,8 @@ public class Application extends Timed {
             if (appVm.vm.getState().equals(VirtualMachine.State.RUNNING) && appVm.isWorking == false) {
                 try {
                     appVm.vm.switchoff(false);
-                    SimLogger.logRun("\t" + name + " VM-" + appVm.id + " is turned off at: " + Timed.getFireCount());
+                    SimLogger.logRun(SimLogger.APPLICATION, "\t%s VM-%d is turned off at: %d",
+                            name, appVm.id, Timed.getFireCount());
                 } catch (StateChangeException e) {
                     e.printStackTrace();
                 }
@@ -330,9 +364,13 @@ public class Application extends Timed {
      */
     @Override
     public void tick(long fires) {
-        for (String featureName : FeatureManager.getInstance().getFeatureNames("::")) {
-            FeatureManager.getInstance().getFeatureByName(
-                    String.format("%s::%s", computingAppliance.name, featureName)).computeValue();
+        FeatureManager featureManager = FeatureManager.getInstance();
+        if (resolvedFeatureCount != featureManager.getFeatureCount()) {
+            featureIds = featureManager.getFeatureIds(computingAppliance.name + "::");
+            resolvedFeatureCount = featureManager.getFeatureCount();
+        }
+        for (int featureId : featureIds) {
+            featureManager.getFeature(featureId).computeValue();
         }
         
         long unprocessedData = (this.receivedData - this.processedData);
@@ -343,13 +381,13 @@ public class Application extends Timed {
                 final AppVm appVm = this.vmSearch();
                 if (appVm == null) {
                     double ratio = (double) unprocessedData / this.tasksize;
-                    SimLogger.logRun(name + " has " + unprocessedData + " bytes left, "
+                    SimLogger.logRun(SimLogger.APPLICATION, () -> name + " has " + unprocessedData + " bytes left, "
                             + this.computingAppliance.getLoadOfResource() + " load (%),"
                             + " unprocessed data / tasksize ratio: " + ratio + ". Decision: ");
                     if (Double.compare(ratio, this.applicationStrategy.activationRatio) > 0) {
                         long dataForTransfer = ((long) ((unprocessedData - alreadyProcessedData)
                                 / this.applicationStrategy.transferDivider));
-                        SimLogger.logRun("\tdata is ready to be transferred: " + dataForTransfer + " ");
+                        SimLogger.logRun(SimLogger.APPLICATION, "\tdata is ready to be transferred: %d ", dataForTransfer);
                         this.applicationStrategy.findApplication(dataForTransfer);
                     }
                     this.createVm();
@@ -377,12 +415,12 @@ public class Application extends Timed {
                                     appVm.taskCounter++;
                                     taskInProgress--;
                                     Application.lastAction = Timed.getFireCount();
-                                    timelineEntries.add(new TimelineEntry(taskStartTime, Timed.getFireCount(),
-                                            Integer.toString(appVm.id)));
-                                    SimLogger.logRun(name + " VM-" + appVm.id + " started at: " + taskStartTime
-                                            + " finished at: " + Timed.getFireCount() + " bytes: " + allocatedDataTemp
-                                            + " took: " + (Timed.getFireCount() - taskStartTime) + " instructions: "
-                                            + noiTemp);
+                                    TimelineVisualiser.addEntry(timelineEntries, name, taskStartTime,
+                                            Timed.getFireCount(), Integer.toString(appVm.id));
+                                    SimLogger.logRun(SimLogger.APPLICATION,
+                                            "%s VM-%d started at: %d finished at: %d bytes: %d took: %d instructions: %s",
+                                            name, appVm.id, taskStartTime, Timed.getFireCount(), allocatedDataTemp,
+                                            Timed.getFireCount() - taskStartTime, noiTemp);
                                 }
                             });
                 } catch (NetworkException e) {
@@ -405,10 +443,10 @@ public class Application extends Timed {
                     this.computingAppliance.broker.vm.switchoff(false);
                     this.computingAppliance.broker.workTime += (Timed.getFireCount()
                             - this.computingAppliance.broker.runningPeriod);
-                    timelineEntries.add(new TimelineEntry(this.computingAppliance.broker.runningPeriod,
-                            Timed.getFireCount(), this.computingAppliance.name + "-broker"));
-                    SimLogger.logRun(this.computingAppliance.name
-                            + " broker is turned off at: " + Timed.getFireCount() + " ");
+                    TimelineVisualiser.addEntry(timelineEntries, name, this.computingAppliance.broker.runningPeriod,
+                            Timed.getFireCount(), this.computingAppliance.name + "-broker");
+                    SimLogger.logRun(SimLogger.APPLICATION, "%s broker is turned off at: %d ",
+                            this.computingAppliance.name, Timed.getFireCount());
                 }
             } catch (StateChangeException e) {
                 e.printStackTrace();
@@ -7,13 +7,16 @@ import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.u_szeged.inf.fog.simulator.application.Application;
 import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import java.io.Serializable;
 import java.util.ArrayList;
 
 /**
  * This is an abstract class to implement arbitrary offloading logic 
  * for IoT applications by overriding the findApplication method.
  */
-public abstract class ApplicationStrategy {
+public abstract class ApplicationStrategy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The application that will apply the strategy.
@@ -6,6 +6,8 @@ package hu.u_szeged.inf.fog.simulator.application.strategy;
  */
 public class DefaultApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public void findApplication(long dataForTransfer) { 
         /* The strategy does not support offloading. */ 
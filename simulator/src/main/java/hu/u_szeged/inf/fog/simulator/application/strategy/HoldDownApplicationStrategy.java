@@ -10,6 +10,8 @@ import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
  */
 public class HoldDownApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new strategy with the specified activation ratio and transfer divider.
      *
@@ -39,7 +41,7 @@ public class HoldDownApplicationStrategy extends ApplicationStrategy {
                 }
             }
             Application chosenApplication = selectedCa.applications
-                    .get(SeedSyncer.centralRnd.nextInt(selectedCa.applications.size()));
+                    .get(SeedSyncer.getCentralRnd().nextInt(selectedCa.applications.size()));
             this.startDataTranfer(chosenApplication, dataForTransfer);
         }
     }
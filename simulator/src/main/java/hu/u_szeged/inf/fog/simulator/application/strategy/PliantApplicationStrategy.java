@@ -22,6 +22,8 @@ import java.util.Vector;
  */
 public class PliantApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new strategy with the specified activation ratio and transfer divider.
      *
@@ -254,12 +256,12 @@ public class PliantApplicationStrategy extends ApplicationStrategy {
         }
           
 
-        Collections.shuffle(finaldecision, SeedSyncer.centralRnd);
-        int chooseIdx = SeedSyncer.centralRnd.nextInt(finaldecision.size());
+        Collections.shuffle(finaldecision, SeedSyncer.getCentralRnd());
+        int chooseIdx = SeedSyncer.getCentralRnd().nextInt(finaldecision.size());
 
         if (finaldecision.get(chooseIdx) != -1) {
             ComputingAppliance ca = availableCompAppliances.get(finaldecision.get(chooseIdx));
-            return ca.applications.get(SeedSyncer.centralRnd.nextInt(ca.applications.size()));
+            return ca.applications.get(SeedSyncer.getCentralRnd().nextInt(ca.applications.size()));
 
         }
         return application;
@@ -9,6 +9,8 @@ import hu.u_szeged.inf.fog.simulator.application.Application;
  */
 public class PushUpApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new strategy with the specified activation ratio and transfer divider.
      *
@@ -30,7 +32,7 @@ public class PushUpApplicationStrategy extends ApplicationStrategy {
     public void findApplication(long dataForTransfer) {
         if (this.application.computingAppliance.parent != null) {
             Application chosenApplication = this.application.computingAppliance.parent.applications
-                    .get(SeedSyncer.centralRnd.nextInt(this.application.computingAppliance.parent.applications.size()));
+                    .get(SeedSyncer.getCentralRnd().nextInt(this.application.computingAppliance.parent.applications.size()));
             this.startDataTranfer(chosenApplication, dataForTransfer);
         }
     }
@@ -10,6 +10,8 @@ import java.util.ArrayList;
  */
 public class RandomApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new strategy with the specified activation ratio and transfer divider.
      *
@@ -35,7 +37,7 @@ public class RandomApplicationStrategy extends ApplicationStrategy {
         }
         
         if (availableApplications.size() > 0) {
-            int rnd = SeedSyncer.centralRnd.nextInt(availableApplications.size());
+            int rnd = SeedSyncer.getCentralRnd().nextInt(availableApplications.size());
             chosenApplication = availableApplications.get(rnd);
             this.startDataTranfer(chosenApplication, dataForTransfer);
         }
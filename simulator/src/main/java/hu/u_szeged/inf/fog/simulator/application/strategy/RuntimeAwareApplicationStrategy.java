@@ -10,6 +10,8 @@ import java.util.ArrayList;
  */
 public class RuntimeAwareApplicationStrategy extends ApplicationStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a new strategy with the specified activation ratio and transfer divider.
      *
@@ -42,7 +44,7 @@ public class RuntimeAwareApplicationStrategy extends ApplicationStrategy {
                 }
             }
             Application chosenApplication = selectedCa.applications
-                    .get(SeedSyncer.centralRnd.nextInt(selectedCa.applications.size()));
+                    .get(SeedSyncer.getCentralRnd().nextInt(selectedCa.applications.size()));
             this.startDataTranfer(chosenApplication, dataForTransfer);
         }
     }
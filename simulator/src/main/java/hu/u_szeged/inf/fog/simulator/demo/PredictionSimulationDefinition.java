@@ -4,6 +4,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
 import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
@@ -22,7 +23,6 @@ import hu.u_szeged.inf.fog.simulator.provider.Instance;
 import hu.u_szeged.inf.fog.simulator.util.SimLogger;
 import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
 
 public class PredictionSimulationDefinition implements PredictionConfigurator.SimulationDefinition {
@@ -132,7 +132,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         ScenarioBase.calculateIoTCost();
         ScenarioBase.logBatchProcessing(stoptime - starttime);
         TimelineVisualiser.generateTimeline(ScenarioBase.resultDirectory);
-        // MapVisualiser.mapGenerator(ScenarioBase.scriptPath, ScenarioBase.resultDirectory, Device.allDevices);
+        // MapVisualiser.mapGenerator(ScenarioBase.scriptPath, ScenarioBase.resultDirectory, Device.getAllDevices());
     }
 
     private static ApplicationStrategy generateAppStrategy(String strategy, double activationRatio, double transferDivider) {
@@ -156,8 +156,8 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         double minLatitude = 45.8;
         double minLongitude = 16.4;
 
-        double returnLat = minLatitude + ((double) SeedSyncer.centralRnd.nextInt(26) / 10);
-        double returnLong = minLongitude +  ((double) SeedSyncer.centralRnd.nextInt(60) / 10);
+        double returnLat = minLatitude + ((double) SeedSyncer.getCentralRnd().nextInt(26) / 10);
+        double returnLong = minLongitude +  ((double) SeedSyncer.getCentralRnd().nextInt(60) / 10);
 
         double[] pos = {returnLat, returnLong};
         return pos;
@@ -166,7 +166,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
     private static void generateDevices(int multiplier) {
         // 0-1 hours: 2
         for(int i = 0; i<2*multiplier; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
             try {
@@ -190,7 +190,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         }
         // 1-2 hours: 6
         for(int i = 0; i<6*multiplier; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
             try {
@@ -214,7 +214,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         }
         // 2-3 hours: 3
         for(int i = 0; i<3*multiplier; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
             try {
@@ -238,7 +238,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         }
         // 3-4 hours: 7
         for(int i = 0; i<7*multiplier; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
             try {
@@ -262,7 +262,7 @@ public class PredictionSimulationDefinition implements PredictionConfigurator.Si
         }
         // 4-5 hours: 2
         for(int i = 0; i<2*multiplier; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
             try {
@@ -105,12 +105,12 @@ public class ScenarioBase {
             }
         }
 
-        SimLogger.logRes("Number of devices: " + Device.allDevices.size());
-        for (Device device : Device.allDevices) {
+        SimLogger.logRes("Number of devices: " + Device.getAllDevices().size());
+        for (Device device : Device.getAllDevices()) {
             totalGeneratedData += device.generatedData;
             totalLocallyProcessedData += device.locallyProcessedData;
             totalMessageCount += device.messageCount;
-            totalDeviceEnergyConsumption += device.energyConsumption;
+            totalDeviceEnergyConsumption += device.getEnergyConsumption();
         }
         // SimLogger.logInfo("Movement pred. success/all: " + (double)
         // EdgeDevice.success/EdgeDevice.all + " (" + EdgeDevice.success + "/" +
@@ -102,8 +102,8 @@ public class WorkflowSimulation {
         
         
         /** --- Adaptive Clustering Approach  --- */
-        double[][] globalPheromoneMatrix = DecentralisedAntOptimiser.runOptimiser(ComputingAppliance.allComputingAppliances, 10, 50, 0.75, 0.15);
-        ClusterMessenger cm = new ClusterMessenger(globalPheromoneMatrix, ComputingAppliance.allComputingAppliances, 1 * 60 * 1000);
+        double[][] globalPheromoneMatrix = DecentralisedAntOptimiser.runOptimiser(ComputingAppliance.getAllComputingAppliances(), 10, 50, 0.75, 0.15);
+        ClusterMessenger cm = new ClusterMessenger(globalPheromoneMatrix, ComputingAppliance.getAllComputingAppliances(), 1 * 60 * 1000);
         Timed.simulateUntilLastEvent();
         clusterAssignments = cm.clusterAssignments;
         
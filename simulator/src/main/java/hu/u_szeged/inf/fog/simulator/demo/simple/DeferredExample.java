@@ -5,6 +5,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
 
 public class DeferredExample extends DeferredEvent {
 
+    private static final long serialVersionUID = 1L;
+
     public DeferredExample(long delay) {
         super(delay);
     }
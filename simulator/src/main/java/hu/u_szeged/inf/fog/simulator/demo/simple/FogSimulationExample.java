@@ -4,6 +4,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
 import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
@@ -65,7 +66,7 @@ public class FogSimulationExample {
 
         ArrayList<Device> deviceList = new ArrayList<Device>();
         for (int i = 0; i < 10; i++) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = 
                     PowerTransitionGenerator.generateTransitions(0.065, 1.475, 2.0, 1, 2);
 
@@ -77,7 +78,7 @@ public class FogSimulationExample {
             PhysicalMachine localMachine = new PhysicalMachine(2, 0.001, 2_147_483_648L, repo, 0, 0, cpuTransitions);
 
             Device device;
-            double step = SeedSyncer.centralRnd.nextDouble(); 
+            double step = SeedSyncer.getCentralRnd().nextDouble(); 
             if(i % 2 == 0) {
                 device = new EdgeDevice(0, 10 * 60 * 60 * 1000, 100, 60 * 1000, 
                         new RandomWalkMobilityStrategy(new GeoLocation(47 + step, 19 - step), 0.0027, 0.0055, 10000),
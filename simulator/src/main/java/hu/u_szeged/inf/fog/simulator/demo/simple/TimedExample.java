@@ -4,6 +4,8 @@ import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 
 public class TimedExample extends Timed {
 
+    private static final long serialVersionUID = 1L;
+
     String name;
 
     TimedExample(String id, long freq) {
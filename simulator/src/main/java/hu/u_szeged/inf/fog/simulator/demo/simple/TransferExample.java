@@ -3,17 +3,19 @@ package hu.u_szeged.inf.fog.simulator.demo.simple;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.io.StorageObject;
 import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
 
 public class TransferExample extends ConsumptionEventAdapter {
 
+    private static final long serialVersionUID = 1L;
+
     Repository from;
     Repository to;
     StorageObject so;
@@ -44,7 +46,7 @@ public class TransferExample extends ConsumptionEventAdapter {
         final EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions =
                 PowerTransitionGenerator.generateTransitions(20, 200, 300, 10, 20);
 
-        HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+        Map<String, Integer> latencyMap = new LatencyMap();
 
         Repository repo1 = new Repository(storageSize, "repo1", bandwidth, bandwidth, bandwidth, latencyMap, 
                 transitions.get(PowerTransitionGenerator.PowerStateKind.storage),
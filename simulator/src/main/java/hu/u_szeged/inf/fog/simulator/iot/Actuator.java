@@ -2,6 +2,7 @@ package hu.u_szeged.inf.fog.simulator.iot;
 
 import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
@@ -9,7 +10,9 @@ import java.util.Queue;
 /**
  * The class is a simple IoT actuator representation for workflow-based evaluations.
  */
-public class Actuator {
+public class Actuator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * A list of all actuators.
@@ -1,6 +1,7 @@
 package hu.u_szeged.inf.fog.simulator.iot;
 
 import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.specialized.PhysicalMachineEnergyMeter;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
@@ -28,6 +29,8 @@ import java.util.ArrayList;
  */
 public abstract class Device extends Timed {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * It stores the time when the last IoT device unsubscribes, i.e.
      * when it stops generating, forwarding or processing data.
@@ -35,9 +38,11 @@ public abstract class Device extends Timed {
     public static long lastAction;
 
     /**
-     * All IoT devices created are available in this list.
+     * All IoT devices created in the default simulation context are available in this list.
+     * Simulations running in other contexts (e.g., restored from a checkpoint) should use
+     * {@link #getAllDevices()}.
      */
-    public static ArrayList<Device> allDevices = new ArrayList<Device>();
+    public static final ArrayList<Device> allDevices = SimulationContext.getDefault().getRegistry(Device.class);
 
     /**
      * The amount of the total generated data by IoT devices.
@@ -120,10 +125,17 @@ public abstract class Device extends Timed {
     public int messageCount;
 
     /**
-     * The energy consumed by this device.
+     * The energy consumed by this device, it is updated when the device stops
+     * (see {@link #getEnergyConsumption()} for an up-to-date reading).
      */
     public double energyConsumption;
 
+    /**
+     * The energy meter of the local machine. It is event driven, thus it does not
+     * create any events, however the readings are exact at any time.
+     */
+    PhysicalMachineEnergyMeter energyMeter;
+
     /**
      * The amount of data already sent to nodes.
      */
@@ -139,6 +151,18 @@ public abstract class Device extends Timed {
      */
     public long generatedData;
 
+    /**
+     * If not null, the sensor readings are aggregated into batches before sending them.
+     */
+    SensorDataCoalescer coalescer;
+
+    /**
+     * Returns with the list of all IoT devices of the simulation the calling thread is bound to.
+     */
+    public static ArrayList<Device> getAllDevices() {
+        return SimulationContext.current().getRegistry(Device.class);
+    }
+
     /**
      * The device starts its operation defined in its tick() method
      * at the time specified with the startTime parameter.
@@ -167,8 +191,51 @@ public abstract class Device extends Timed {
     public void stopMeter() {
         unsubscribe();
         Device.lastAction = Timed.getFireCount();
+        if (this.energyMeter != null) {
+            this.energyMeter.stopMeter();
+            this.energyConsumption = this.energyMeter.getTotalConsumption();
+        }
+    }
+
+    /**
+     * Returns with the energy consumed by this device so far.
+     */
+    public double getEnergyConsumption() {
+        if (this.energyMeter != null && this.energyMeter.isMetering()) {
+            return this.energyMeter.getTotalConsumption();
+        }
+        return this.energyConsumption;
     }
     
+    /**
+     * Turns on the coalescing of sensor readings: the readings are collected into batches,
+     * and a single transfer is started for each batch.
+     *
+     * @param coalescer the coalescing configuration of this device, null turns coalescing off
+     */
+    public void setCoalescer(SensorDataCoalescer coalescer) {
+        if (this.coalescer != null) {
+            this.coalescer.flush();
+        }
+        this.coalescer = coalescer;
+    }
+
+    public SensorDataCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * It makes a sensor measurement. Without coalescing, a sensor event creates a new file
+     * for the reading, otherwise the reading is immediately added to the open batch.
+     */
+    protected void measure() {
+        if (this.coalescer == null) {
+            new Sensor(this, 1);
+        } else {
+            this.coalescer.addReading(this);
+        }
+    }
+
     /**
      * If the broker VM for the selected IoT application is running, 
      * the method responsible for sending data is called. 
@@ -184,9 +251,25 @@ public abstract class Device extends Timed {
     }
     
     /**
-     * It starts a file transfer with each content of the local storage.  
+     * It starts a file transfer with each content of the local storage. 
+     * With coalescing, only the closed batches not yet under transfer are sent.
      */
     private void realTransfer() {
+        if (this.coalescer != null) {
+            this.coalescer.flushIfDue(Timed.getFireCount() >= this.stopTime);
+            for (StorageObject storageObject : this.localMachine.localDisk.contents()) {
+                if (!(storageObject instanceof VirtualAppliance) && this.coalescer.startTransfer(storageObject)) {
+                    try {
+                        NetworkNode.initTransfer(storageObject.size, ResourceConsumption.unlimitedProcessing,
+                                this.localMachine.localDisk, this.caRepository, new DeviceDataEvent(this, storageObject));
+                    } catch (NetworkException e) {
+                        this.coalescer.transferEnded(storageObject);
+                        e.printStackTrace();
+                    }
+                }
+            }
+            return;
+        }
         this.localMachine.localDisk.contents().stream()
             .filter(storageObject -> !(storageObject instanceof VirtualAppliance)).forEach(storageObject -> {
                 DeviceDataEvent soe = new DeviceDataEvent(this, storageObject);
@@ -219,42 +302,15 @@ public abstract class Device extends Timed {
     }
     
     /**
-     * This initializes a PM energy meter, which requires a timed event (DataCollector class) 
-     * to retrieve the total energy consumption of the PM.
+     * This starts the energy metering of the local machine. The meter follows the
+     * power state and utilisation changes of the machine, thus no periodic events
+     * are needed to retrieve the energy consumption of the device.
      */
     protected void readEnergy() {
-        final PhysicalMachineEnergyMeter pmEnergyMeter = new PhysicalMachineEnergyMeter(this.localMachine);
-        final Device device = this;
-        
-        /**
-         * A timed event to periodically check the energy consumption of the device.
-         */
-        class EnergyCollector extends Timed {
-            
-            /**
-             * It starts the energy measurement with the frequency of the device.
-             */
-            private void start() {
-                subscribe(device.freq);
-            }
-
-            /**
-             * It retrieves the energy consumption from the energy meter.
-             * It stops the energy measurement if the device was also stopped.
-             */
-            @Override
-            public void tick(final long fires) {
-                energyConsumption = pmEnergyMeter.getTotalConsumption();
-                if (!device.isSubscribed()) {
-                    unsubscribe();
-                    pmEnergyMeter.stopMeter();
-                }
-            }
+        if (this.energyMeter == null) {
+            this.energyMeter = new PhysicalMachineEnergyMeter(this.localMachine);
         }
-        
-        final EnergyCollector dc = new EnergyCollector();
-        pmEnergyMeter.startMeter(device.freq, true);
-        dc.start();
+        this.energyMeter.startMeter(false);
     }
 
     /**
@@ -263,6 +319,8 @@ public abstract class Device extends Timed {
      */
     class DeviceDataEvent implements ConsumptionEvent {
 
+        private static final long serialVersionUID = 1L;
+
         /**
          * The file that is under transfer.
          */
@@ -289,6 +347,9 @@ public abstract class Device extends Timed {
          */
         @Override
         public void conComplete() {
+            if (coalescer != null) {
+                coalescer.transferEnded(this.so);
+            }
             localMachine.localDisk.deregisterObject(this.so);
             application.receivedData += this.so.size;
             this.device.sentData += this.so.size;
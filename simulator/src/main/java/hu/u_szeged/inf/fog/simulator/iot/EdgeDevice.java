@@ -17,6 +17,7 @@ import hu.u_szeged.inf.fog.simulator.iot.mobility.MobilityEvent;
 import hu.u_szeged.inf.fog.simulator.iot.mobility.MobilityStrategy;
 import hu.u_szeged.inf.fog.simulator.iot.strategy.DeviceStrategy;
 import hu.u_szeged.inf.fog.simulator.util.SimLogger;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
 import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
 import java.util.ArrayList;
 
@@ -27,6 +28,8 @@ import java.util.ArrayList;
  */
 public class EdgeDevice extends Device {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The VM image file associated to the local virtual machine.
      */
@@ -70,7 +73,7 @@ public class EdgeDevice extends Device {
     public EdgeDevice(long startTime, long stopTime, long fileSize, long freq, MobilityStrategy mobilityStrategy, 
             DeviceStrategy deviceStrategy, PhysicalMachine localMachine, double instructionPerByte, int latency, 
             boolean pathLogging) {
-        long delay = Math.abs(SeedSyncer.centralRnd.nextLong() % 180) * 1000; 
+        long delay = Math.abs(SeedSyncer.getCentralRnd().nextLong() % 180) * 1000; 
         this.startTime = startTime + delay;
         this.stopTime = stopTime + delay;
         this.fileSize = fileSize;
@@ -78,7 +81,7 @@ public class EdgeDevice extends Device {
         this.freq = freq;
         this.localMachine = localMachine;
         this.mobilityStrategy = mobilityStrategy;
-        Device.allDevices.add(this);
+        Device.getAllDevices().add(this);
         this.instructionPerByte = instructionPerByte;
         this.isPathLogged = pathLogging;
         this.devicePath = new ArrayList<GeoLocation>();
@@ -135,7 +138,7 @@ public class EdgeDevice extends Device {
     @Override
     public void tick(long fires) {
         if (Timed.getFireCount() < stopTime && Timed.getFireCount() >= startTime) {
-            new Sensor(this, 1);
+            this.measure();
         }
 
         GeoLocation newLocation = this.mobilityStrategy.move(this);
@@ -174,12 +177,13 @@ public class EdgeDevice extends Device {
                                     @Override
                                     public void conComplete() {
                                         locallyProcessedData += currentlyProcessedData;
-                                        timelineEntries.add(new TimelineEntry(taskStartTime, Timed.getFireCount(),
-                                                Integer.toString(edgeDevice.hashCode())));
-                                        SimLogger.logRun("Device-" + edgeDevice.hashCode() + " started at: "
-                                                + taskStartTime + " finished at: " + Timed.getFireCount() + " bytes: "
-                                                + currentlyProcessedData + " took: "
-                                                + (Timed.getFireCount() - taskStartTime) + " instructions: " + noi);
+                                        TimelineVisualiser.addEntry(timelineEntries,
+                                                "Device-" + edgeDevice.hashCode(), taskStartTime,
+                                                Timed.getFireCount(), Integer.toString(edgeDevice.hashCode()));
+                                        SimLogger.logRun(SimLogger.DEVICE,
+                                                "Device-%d started at: %d finished at: %d bytes: %s took: %d instructions: %s",
+                                                edgeDevice.hashCode(), taskStartTime, Timed.getFireCount(),
+                                                currentlyProcessedData, Timed.getFireCount() - taskStartTime, noi);
                                     }
                                 });
                         if (rc != null) {
@@ -12,6 +12,8 @@ import java.util.ArrayList;
  */
 public class Sensor extends DeferredEvent {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * It contains the log of a sensor events. 
      * It is used only for visualization, in IoT workflow simulations.
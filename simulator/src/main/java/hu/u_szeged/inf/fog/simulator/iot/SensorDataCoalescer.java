@@ -0,0 +1,173 @@
+package hu.u_szeged.inf.fog.simulator.iot;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.io.StorageObject;
+import java.io.Serializable;
+import java.util.HashSet;
+
+/**
+ * This class aggregates the sensor readings of a device into batches, so instead of
+ * a file and a transfer per reading, only a single file and a single transfer is
+ * needed per batch. A batch is closed (flushed) if it reaches the flush size or if
+ * it was opened at least flush window time ago; only closed batches are sent.
+ * The per-reading accounting of the device (generated data, message count) is the
+ * same as without coalescing.
+ */
+public class SensorDataCoalescer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A file containing several sensor readings.
+     */
+    public static class CoalescedData extends StorageObject {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The number of readings in this batch.
+         */
+        public int readings;
+
+        CoalescedData(String id, long size) {
+            super(id, size, false);
+            this.readings = 1;
+        }
+    }
+
+    /**
+     * The longest time a batch is kept open (ms).
+     */
+    public final long flushWindow;
+
+    /**
+     * A batch is closed when its size reaches this value (byte).
+     */
+    public final long flushSize;
+
+    /**
+     * The number of batches closed so far.
+     */
+    public long flushes;
+
+    /**
+     * The batch collecting the readings, null if there is none.
+     */
+    private CoalescedData batch;
+
+    /**
+     * The time when the current batch was opened.
+     */
+    private long batchOpened;
+
+    /**
+     * Used for creating unique file names.
+     */
+    private long batchCounter;
+
+    /**
+     * The batches currently transferred to a node.
+     */
+    private final HashSet<StorageObject> inFlight = new HashSet<>();
+
+    /**
+     * Defines the coalescing of the readings of a device.
+     *
+     * @param flushWindow the longest time a batch is kept open (ms)
+     * @param flushSize the size of the data that closes a batch (byte)
+     */
+    public SensorDataCoalescer(long flushWindow, long flushSize) {
+        if (flushWindow < 0 || flushSize <= 0) {
+            throw new IllegalArgumentException("The flush window cannot be negative, the flush size must be positive");
+        }
+        this.flushWindow = flushWindow;
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * It adds a new reading to the open batch (or opens a new one) in the storage of the device.
+     * If the data cannot be saved (e.g. due to lack of space), the simulation terminates.
+     *
+     * @param device the device producing the reading
+     */
+    void addReading(Device device) {
+        Repository disk = device.localMachine.localDisk;
+        if (batch != null && disk.lookup(batch.id) != batch) {
+            // the open batch was processed locally in the meantime
+            batch = null;
+        }
+        boolean stored;
+        if (batch == null) {
+            CoalescedData newBatch = new CoalescedData(disk.getName() + " batch " + batchCounter++, device.fileSize);
+            stored = disk.registerObject(newBatch);
+            if (stored) {
+                batch = newBatch;
+                batchOpened = Timed.getFireCount();
+            }
+        } else {
+            // registering the same id again extends the stored object
+            stored = disk.registerObject(new StorageObject(batch.id, device.fileSize, false));
+            if (stored) {
+                batch.readings++;
+            }
+        }
+        if (stored) {
+            device.generatedData += device.fileSize;
+            Device.totalGeneratedSize += device.fileSize;
+            device.messageCount++;
+            if (batch.size >= flushSize) {
+                flush();
+            }
+        } else {
+            try {
+                System.err.println(
+                        "ERROR in SensorDataCoalescer.java: Saving data into the local repository is unsuccessful.");
+                System.exit(0);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Closes the open batch if its flush window is over or if no more readings are expected.
+     *
+     * @param stopping true if the device does not produce readings anymore
+     */
+    void flushIfDue(boolean stopping) {
+        if (batch != null && (stopping || Timed.getFireCount() - batchOpened >= flushWindow)) {
+            flush();
+        }
+    }
+
+    /**
+     * Closes the open batch, thus it can be sent.
+     */
+    public void flush() {
+        if (batch != null) {
+            batch = null;
+            flushes++;
+        }
+    }
+
+    /**
+     * Determines if a file of the device can be sent, i.e. it is not the open batch
+     * and it is not under transfer. If it can, it is registered as under transfer.
+     *
+     * @param so the file in the local storage of the device
+     * @return true if the transfer of the file should be started
+     */
+    boolean startTransfer(StorageObject so) {
+        return so != batch && inFlight.add(so);
+    }
+
+    /**
+     * Registers that the transfer of a file is over.
+     *
+     * @param so the file sent
+     */
+    void transferEnded(StorageObject so) {
+        inFlight.remove(so);
+    }
+}
@@ -21,6 +21,8 @@ import java.util.ArrayList;
  * the position of the moving device is (at least temporarily) covered by a node.
  */
 public class SmartDevice extends Device {
+
+    private static final long serialVersionUID = 1L;
     
     /**
      * This value is used to calculate how many times the tick method can be called after the last data is created.
@@ -50,8 +52,8 @@ public class SmartDevice extends Device {
     public SmartDevice(long startTime, long stopTime, long fileSize, long freq,
             MobilityStrategy mobilityStrategy, DeviceStrategy deviceStrategy, 
             PhysicalMachine localMachine, int latency, boolean pathLogging) {
-        Device.allDevices.add(this);
-        long delay = Math.abs(SeedSyncer.centralRnd.nextLong() % 180) * 1000; 
+        Device.getAllDevices().add(this);
+        long delay = Math.abs(SeedSyncer.getCentralRnd().nextLong() % 180) * 1000; 
         this.startTime = startTime + delay;
         this.stopTime = stopTime + delay;
         this.fileSize = fileSize;
@@ -84,7 +86,7 @@ public class SmartDevice extends Device {
     @Override
     public void tick(long fires) {
         if (Timed.getFireCount() < stopTime && Timed.getFireCount() >= startTime) {
-            new Sensor(this, 1);
+            this.measure();
         }
 
         GeoLocation newLocation = this.mobilityStrategy.move(this);
@@ -111,9 +113,10 @@ public class SmartDevice extends Device {
                 this.stopMeter();
             } else {
                 if (++this.iterationCounter > 100) {
-                    SimLogger.logRun("WARNING: 100 iteration after the device stopped metering, "
-                            + "IoT data are still stuck in " + this.localMachine.localDisk.getName() 
-                            + "'s local storage (the device's actual position are not covered by any node.)");
+                    SimLogger.logRun(SimLogger.DEVICE, "WARNING: 100 iteration after the device stopped metering, "
+                            + "IoT data are still stuck in %s's local storage "
+                            + "(the device's actual position are not covered by any node.)",
+                            this.localMachine.localDisk.getName());
                     this.stopMeter();
                     ComputingAppliance.stopEnergyMetering();
                     SmartDevice.stuckData += calculateStuckData();
@@ -1,16 +1,19 @@
 package hu.u_szeged.inf.fog.simulator.iot.mobility;
 
+import java.io.Serializable;
 import java.util.Random;
 
 /**
  * The class represents a geographic location specified by latitude and longitude coordinates.
  */
-public class GeoLocation {
+public class GeoLocation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The approximate radius of the earth considered in the simulator (in km). 
      */
-    static final double earthRadius = 6378.137;
+    public static final double earthRadius = 6378.137;
 
     /**
      * The latitude of the location (-90 to +90 degrees). 
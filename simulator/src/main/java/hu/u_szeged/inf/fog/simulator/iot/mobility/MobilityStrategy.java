@@ -1,12 +1,15 @@
 package hu.u_szeged.inf.fog.simulator.iot.mobility;
 
 import hu.u_szeged.inf.fog.simulator.iot.Device;
+import java.io.Serializable;
 
 /**
  * The abstract class provides a template for creating different mobility 
  * strategies of moving devices.
  */
-public abstract class MobilityStrategy {
+public abstract class MobilityStrategy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The first position of the moving device.
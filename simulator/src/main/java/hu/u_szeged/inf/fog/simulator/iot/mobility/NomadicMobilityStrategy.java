@@ -13,6 +13,8 @@ import java.util.Queue;
  */
 public class NomadicMobilityStrategy extends MobilityStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * A queue of geographical locations that the device will follow.
      */
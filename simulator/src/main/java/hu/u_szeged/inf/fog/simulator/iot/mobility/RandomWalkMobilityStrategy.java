@@ -12,6 +12,8 @@ import hu.u_szeged.inf.fog.simulator.util.SimLogger;
  */
 public class RandomWalkMobilityStrategy extends MobilityStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The maximum distance ('circle') the device can move from the start position.
      */
@@ -50,7 +52,7 @@ public class RandomWalkMobilityStrategy extends MobilityStrategy {
     @Override
     public GeoLocation move(Device device) {
         // TODO: the method can be simplified!
-        double direction = Math.toRadians((SeedSyncer.centralRnd.nextDouble() * 360));
+        double direction = Math.toRadians((SeedSyncer.getCentralRnd().nextDouble() * 360));
 
         double lat1 = Math.toRadians(currentPosition.latitude);
         double lon1 = Math.toRadians(currentPosition.longitude);
@@ -70,7 +72,7 @@ public class RandomWalkMobilityStrategy extends MobilityStrategy {
         int i = 0;
         while (!(currentDistance <= radius)) {
 
-            direction = Math.toRadians((SeedSyncer.centralRnd.nextDouble() * 360));
+            direction = Math.toRadians((SeedSyncer.getCentralRnd().nextDouble() * 360));
 
             lat1 = Math.toRadians(currentPosition.latitude);
             lon1 = Math.toRadians(currentPosition.longitude);
@@ -86,7 +88,7 @@ public class RandomWalkMobilityStrategy extends MobilityStrategy {
 
             currentDistance = startPosition.calculateDistance(new GeoLocation(lat2, lon2));
             if (++i > 100) {
-                SimLogger.logRun(
+                SimLogger.logRun(SimLogger.DEVICE,
                         "ERROR: After 100 iteration, the device's new position couldn't be determined because of"
                         + "the nodes' the small radius, or the device's high speed.");
                 device.stopMeter();
@@ -106,6 +108,6 @@ public class RandomWalkMobilityStrategy extends MobilityStrategy {
      * @param freq the frequency at which the movement is updated.
      */
     private double distance(long freq) {
-        return freq * (SeedSyncer.centralRnd.nextDouble() * (speedMax - speed) + speed);
+        return freq * (SeedSyncer.getCentralRnd().nextDouble() * (speedMax - speed) + speed);
     }
 }
\ No newline at end of file
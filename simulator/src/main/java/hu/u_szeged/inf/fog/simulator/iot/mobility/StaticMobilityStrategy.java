@@ -8,6 +8,8 @@ import hu.u_szeged.inf.fog.simulator.iot.Device;
  */
 public class StaticMobilityStrategy extends MobilityStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a strategy with the specified start position.
      *
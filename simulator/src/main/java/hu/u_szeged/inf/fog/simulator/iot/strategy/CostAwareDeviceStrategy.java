@@ -9,6 +9,8 @@ import java.util.ArrayList;
  */
 public class CostAwareDeviceStrategy extends DeviceStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * If there are available applications, then the cheapest one will be chosen.
      * As it can cause a node change, the latency must be updated. 
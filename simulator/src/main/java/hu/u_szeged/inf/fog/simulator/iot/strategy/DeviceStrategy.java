@@ -2,13 +2,18 @@ package hu.u_szeged.inf.fog.simulator.iot.strategy;
 
 import hu.u_szeged.inf.fog.simulator.application.Application;
 import hu.u_szeged.inf.fog.simulator.iot.Device;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.node.ComputingApplianceIndex;
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.Comparator;
 
 /**
  * This abstract class represents a strategy for finding an IoT application suitable for an IoT device.
  */
-public abstract class DeviceStrategy {
+public abstract class DeviceStrategy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The device for which the strategy is being applied.
@@ -28,12 +33,22 @@ public abstract class DeviceStrategy {
     /**
      * Returns with the list of available applications, which are able to receive IoT data
      * directly from the IoT device. The device must be located inside of the applications range.
+     * Only the computing appliances around the device are checked (using the spatial index of the 
+     * simulation), and the applications are listed in the order of their creation.
      */
     public ArrayList<Application> getAvailableApplications() {
-        ArrayList<Application> availableApplications = Application.allApplications.stream()
-                .filter(app -> app.serviceable && this.device.geoLocation
-                        .calculateDistance(app.computingAppliance.geoLocation) <= app.computingAppliance.range * 1000)
-                .collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<Application> availableApplications = new ArrayList<>();
+        for (ComputingAppliance ca : ComputingApplianceIndex.current().covering(this.device.geoLocation)) {
+            if (ca.applications == null) {
+                continue;
+            }
+            for (Application app : ca.applications) {
+                if (app.serviceable && app.computingAppliance == ca) {
+                    availableApplications.add(app);
+                }
+            }
+        }
+        availableApplications.sort(Comparator.comparingInt(app -> app.registrationIndex));
 
         return availableApplications;
     }
@@ -9,6 +9,8 @@ import java.util.ArrayList;
  */
 public class DistanceBasedDeviceStrategy extends DeviceStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * If there are available applications, then the closest one will be chosen.
      * As it can cause a node change, the latency must be updated. 
@@ -22,8 +24,9 @@ public class DistanceBasedDeviceStrategy extends DeviceStrategy {
             double min = Double.MAX_VALUE;
             this.chosenApplication = null;
             for (Application app : availableApplications) {
-                if (this.device.geoLocation.calculateDistance(app.computingAppliance.geoLocation) < min) {
-                    min = this.device.geoLocation.calculateDistance(app.computingAppliance.geoLocation);
+                double distance = this.device.geoLocation.calculateDistance(app.computingAppliance.geoLocation);
+                if (distance < min) {
+                    min = distance;
                     this.chosenApplication = app;
                 }
             }
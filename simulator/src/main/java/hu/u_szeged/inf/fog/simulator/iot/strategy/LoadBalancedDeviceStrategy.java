@@ -9,6 +9,8 @@ import java.util.ArrayList;
  */
 public class LoadBalancedDeviceStrategy extends DeviceStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * If there are available applications, then the least loaded one will be chosen.
      * As it can cause a node change, the latency must be updated. 
@@ -22,8 +24,9 @@ public class LoadBalancedDeviceStrategy extends DeviceStrategy {
             double min = Double.MAX_VALUE;
             this.chosenApplication = null;
             for (Application app : availableApplications) {
-                if (app.computingAppliance.getLoadOfResource() < min) {
-                    min = app.computingAppliance.getLoadOfResource();
+                double load = app.computingAppliance.getLoadOfResource();
+                if (load < min) {
+                    min = load;
                     this.chosenApplication = app;
                 }
             }
@@ -17,6 +17,8 @@ import java.util.Vector;
  */
 public class PliantDeviceStrategy extends DeviceStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Finds and sets the chosen application for the device, which is 
      * determined by the decision maker method.
@@ -107,7 +109,7 @@ public class PliantDeviceStrategy extends DeviceStrategy {
         sig = new Sigmoid(Double.valueOf(-0.125), Double.valueOf(sumStations / (availableApplications.size())));
         for (int i = 0; i < availableApplications.size(); ++i) {
             numberofstation
-                    .add(kappa.getAt(sig.getAt(Double.valueOf(Application.allApplications.get(i).deviceList.size()))));
+                    .add(kappa.getAt(sig.getAt(Double.valueOf(Application.getAllApplications().get(i).deviceList.size()))));
         }
 
         Vector<Double> numberofActiveStation = new Vector<Double>();
@@ -174,8 +176,8 @@ public class PliantDeviceStrategy extends DeviceStrategy {
             }
         }
 
-        Collections.shuffle(finaldecision, SeedSyncer.centralRnd);
-        int temp = SeedSyncer.centralRnd.nextInt(finaldecision.size());
+        Collections.shuffle(finaldecision, SeedSyncer.getCentralRnd());
+        int temp = SeedSyncer.getCentralRnd().nextInt(finaldecision.size());
 
         return finaldecision.elementAt(temp);
     }
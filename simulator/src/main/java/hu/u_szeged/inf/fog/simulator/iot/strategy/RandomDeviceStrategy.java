@@ -10,6 +10,8 @@ import java.util.ArrayList;
  */
 public class RandomDeviceStrategy extends DeviceStrategy {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * If there are available applications, then one will be chosen randomly.
      * As it can cause a node change, the latency must be updated. 
@@ -20,7 +22,7 @@ public class RandomDeviceStrategy extends DeviceStrategy {
         ArrayList<Application> availableApplications = this.getAvailableApplications();
      
         if (availableApplications.size() > 0) {
-            int rnd = SeedSyncer.centralRnd.nextInt(availableApplications.size());
+            int rnd = SeedSyncer.getCentralRnd().nextInt(availableApplications.size());
             this.chosenApplication = availableApplications.get(rnd);
         }
 
@@ -1,5 +1,6 @@
 package hu.u_szeged.inf.fog.simulator.node;
 
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
@@ -15,6 +16,7 @@ import hu.u_szeged.inf.fog.simulator.util.EnergyDataCollector;
 import hu.u_szeged.inf.fog.simulator.util.SimLogger;
 import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
@@ -25,7 +27,9 @@ import org.xml.sax.SAXException;
  * physical machines form a hierarchical structure.
  * This representation fits the batch processing-based evaluation.
  */
-public class ComputingAppliance {
+public class ComputingAppliance implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Ensures a common virtual image file with 1 GB of disk size requirement.
@@ -38,10 +42,13 @@ public class ComputingAppliance {
     public static AlterableResourceConstraints brokerArc = new AlterableResourceConstraints(1, 0.001, 1294967296L);
 
     /**
-     * A list containing references to all computing appliances.
+     * A list containing references to all computing appliances of the default simulation context.
      * Each element in the list is an instance of the {@code ComputingAppliance} class.
+     * Simulations running in other contexts (e.g., restored from a checkpoint) should use
+     * {@link #getAllComputingAppliances()}.
      */
-    public static ArrayList<ComputingAppliance> allComputingAppliances = new ArrayList<>();
+    public static final ArrayList<ComputingAppliance> allComputingAppliances = 
+            SimulationContext.getDefault().getRegistry(ComputingAppliance.class);
 
     /**
      * The physical position of the node.
@@ -118,7 +125,7 @@ public class ComputingAppliance {
         this.applications = new ArrayList<>();
         this.range = range <= 0 ? Integer.MAX_VALUE : range;
         this.modifyRepoName(this.iaas.repositories.get(0).getName() + "-" + this.name);
-        ComputingAppliance.allComputingAppliances.add(this);
+        ComputingAppliance.register(this);
     }
     
     public ComputingAppliance(IaaSService iaas, GeoLocation geoLocation, String location, String provider) {
@@ -131,7 +138,7 @@ public class ComputingAppliance {
         this.provider = provider;
         this.neighbors = new ArrayList<>();
         this.range = Integer.MAX_VALUE;
-        ComputingAppliance.allComputingAppliances.add(this);
+        ComputingAppliance.register(this);
     }
 
     /**
@@ -165,12 +172,12 @@ public class ComputingAppliance {
         boolean devicesDown = true;
         boolean applicationsDown = true;
         
-        for (Device device : Device.allDevices) {
+        for (Device device : Device.getAllDevices()) {
             if (device.isSubscribed()) {
                 devicesDown = false;
             }
         }
-        for (Application app : Application.allApplications) {
+        for (Application app : Application.getAllApplications()) {
             if (app.isSubscribed()) {
                 applicationsDown = false;
             }
@@ -257,16 +264,57 @@ public class ComputingAppliance {
             VirtualMachine vm = this.iaas.requestVM(ComputingAppliance.brokerVa, ComputingAppliance.brokerArc,
                     this.iaas.repositories.get(0), 1)[0];
             this.broker = new AppVm(vm);
-            SimLogger.logRun(name + " broker is turned on at: " + Timed.getFireCount());
+            SimLogger.logRun(SimLogger.NODE, "%s broker is turned on at: %d", name, Timed.getFireCount());
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     
     /**
-     * Returns with the list of all computing appliance instances.
+     * Removes this computing appliance from the simulation the calling thread is bound to,
+     * thus devices will no longer find the applications deployed to it.
+     */
+    public void unregister() {
+        ComputingApplianceIndex index = ComputingApplianceIndex.current();
+        SimulationContext.Registry<ComputingAppliance> all = SimulationContext.current()
+                .getRegistry(ComputingAppliance.class);
+        if (all.remove(this)) {
+            index.remove(this);
+            index.synced(all);
+        }
+    }
+
+    /**
+     * Moves the computing appliance to a new position, the spatial index of the
+     * simulation the calling thread is bound to is updated accordingly.
+     *
+     * @param latitude the new latitude of the appliance
+     * @param longitude the new longitude of the appliance
+     */
+    public void setLocation(double latitude, double longitude) {
+        this.geoLocation.latitude = latitude;
+        this.geoLocation.longitude = longitude;
+        ComputingApplianceIndex.current().relocate(this);
+    }
+
+    /**
+     * Adds a new computing appliance to the list of all computing appliances and 
+     * to the spatial index of the simulation the calling thread is bound to.
+     */
+    private static void register(ComputingAppliance ca) {
+        ComputingApplianceIndex index = ComputingApplianceIndex.current();
+        SimulationContext.Registry<ComputingAppliance> all = SimulationContext.current()
+                .getRegistry(ComputingAppliance.class);
+        all.add(ca);
+        index.add(ca);
+        index.synced(all);
+    }
+
+    /**
+     * Returns with the list of all computing appliance instances of the simulation
+     * the calling thread is bound to.
      */
     public static ArrayList<ComputingAppliance> getAllComputingAppliances() {
-        return allComputingAppliances;
+        return SimulationContext.current().getRegistry(ComputingAppliance.class);
     }
 }
\ No newline at end of file
@@ -0,0 +1,372 @@
+package hu.u_szeged.inf.fog.simulator.node;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.function.Consumer;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+/**
+ * A spatial index over the computing appliances of a simulation. The surface of the earth
+ * is divided into a grid of latitude-longitude cells and every appliance is stored in the
+ * cell containing its position, thus the range and nearest neighbour queries only check
+ * the appliances of the cells around the queried position instead of all the appliances.
+ * Each simulation context has its own index (see {@link #current()}), which is updated
+ * whenever a computing appliance is created or removed. An indexed appliance should
+ * be moved with {@link ComputingAppliance#setLocation(double, double)}, otherwise
+ * the index would look for it in the cell of its previous position.
+ */
+public class ComputingApplianceIndex {
+
+    /**
+     * The default size of a grid cell in degrees (roughly 111 km at the equator).
+     */
+    public static final double defaultCellSize = 1.0;
+
+    /**
+     * The largest possible distance between two locations on the earth (in meters).
+     */
+    static final double maxDistance = Math.PI * GeoLocation.earthRadius * 1000;
+
+    /**
+     * The height of a grid row in degrees, 180 is a multiple of it.
+     */
+    private final double latCellSize;
+
+    /**
+     * The width of a grid column in degrees, 360 is a multiple of it,
+     * thus the columns wrap around at the antimeridian.
+     */
+    private final double lonCellSize;
+
+    /**
+     * The number of grid rows (i.e., latitude bands).
+     */
+    private final int latCells;
+
+    /**
+     * The number of grid columns (i.e., longitude bands).
+     */
+    private final int lonCells;
+
+    /**
+     * The non-empty cells of the grid with the appliances located in them,
+     * indexed by the cell's row * lonCells + column.
+     */
+    private final IntObjectHashMap<ArrayList<ComputingAppliance>> cells = new IntObjectHashMap<>();
+
+    /**
+     * The key of the cell each indexed appliance is stored in.
+     */
+    private final IdentityHashMap<ComputingAppliance, Integer> cellKeys = new IdentityHashMap<>();
+
+    /**
+     * The modification count of the list of computing appliances the index was last
+     * synchronised with, -1 if it was never synchronised.
+     */
+    private int registryVersion = -1;
+
+    /**
+     * The appliances whose range covers the whole earth, they are also stored in their cells.
+     */
+    private final ArrayList<ComputingAppliance> unbounded = new ArrayList<>();
+
+    /**
+     * The largest range amongst the appliances not listed in {@link #unbounded} (in meters).
+     */
+    private double maxRange;
+
+    /**
+     * The number of indexed appliances.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty index with the default cell size.
+     */
+    public ComputingApplianceIndex() {
+        this(defaultCellSize);
+    }
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param cellSize the size of a grid cell in degrees, smaller cells suit dense
+     *                 deployments with short ranges (it is rounded down to a divisor of 180)
+     */
+    public ComputingApplianceIndex(double cellSize) {
+        if (!(cellSize > 0 && cellSize <= 180)) {
+            throw new IllegalArgumentException("The cell size should be between 0 and 180 degrees: " + cellSize);
+        }
+        this.latCells = (int) Math.ceil(180 / cellSize);
+        this.lonCells = 2 * latCells;
+        this.latCellSize = 180.0 / latCells;
+        this.lonCellSize = 360.0 / lonCells;
+    }
+
+    /**
+     * Returns with the index of the simulation the calling thread is bound to. If the
+     * list of computing appliances was modified directly (e.g. it was cleared), the
+     * index is rebuilt from the list.
+     */
+    public static ComputingApplianceIndex current() {
+        SimulationContext ctx = SimulationContext.current();
+        ComputingApplianceIndex index = ctx.getAttachment(ComputingApplianceIndex.class,
+                ComputingApplianceIndex::new);
+        SimulationContext.Registry<ComputingAppliance> all = ctx.getRegistry(ComputingAppliance.class);
+        if (index.registryVersion != all.getModificationCount()) {
+            index.rebuild(all);
+            index.synced(all);
+        }
+        return index;
+    }
+
+    /**
+     * Marks the index as up to date with the given list, used when the list and the
+     * index are updated together.
+     *
+     * @param all the list of computing appliances of the simulation
+     */
+    void synced(SimulationContext.Registry<ComputingAppliance> all) {
+        registryVersion = all.getModificationCount();
+    }
+
+    /**
+     * Adds a computing appliance to the index.
+     *
+     * @param ca the appliance to add
+     */
+    public void add(ComputingAppliance ca) {
+        int key = cellOf(ca.geoLocation);
+        ArrayList<ComputingAppliance> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(ca);
+        cellKeys.put(ca, key);
+        if (isUnbounded(ca)) {
+            unbounded.add(ca);
+        } else {
+            maxRange = Math.max(maxRange, ca.range * 1000.0);
+        }
+        size++;
+    }
+
+    /**
+     * Removes a computing appliance from the index.
+     *
+     * @param ca the appliance to remove
+     * @return true if the appliance was indexed
+     */
+    public boolean remove(ComputingAppliance ca) {
+        Integer key = cellKeys.remove(ca);
+        if (key == null) {
+            return false;
+        }
+        ArrayList<ComputingAppliance> cell = cells.get(key);
+        cell.remove(ca);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        size--;
+        if (isUnbounded(ca)) {
+            unbounded.remove(ca);
+        } else if (ca.range * 1000.0 >= maxRange) {
+            maxRange = 0;
+            cells.forEachValue(list -> {
+                for (ComputingAppliance other : list) {
+                    if (!isUnbounded(other)) {
+                        maxRange = Math.max(maxRange, other.range * 1000.0);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Moves an indexed appliance to the cell of its current position, it should be
+     * called after the position of the appliance was changed.
+     *
+     * @param ca the appliance moved
+     * @return true if the appliance was indexed
+     */
+    public boolean relocate(ComputingAppliance ca) {
+        Integer key = cellKeys.get(ca);
+        if (key == null) {
+            return false;
+        }
+        if (key != cellOf(ca.geoLocation)) {
+            remove(ca);
+            add(ca);
+        }
+        return true;
+    }
+
+    /**
+     * Drops the content of the index and fills it with the given appliances.
+     *
+     * @param appliances the appliances to be indexed
+     */
+    public void rebuild(Iterable<ComputingAppliance> appliances) {
+        cells.clear();
+        cellKeys.clear();
+        unbounded.clear();
+        maxRange = 0;
+        size = 0;
+        for (ComputingAppliance ca : appliances) {
+            add(ca);
+        }
+    }
+
+    /**
+     * Returns with the number of indexed appliances.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns with the appliances whose range covers the given location, i.e., the appliances
+     * that can receive data directly from a device located there.
+     *
+     * @param location the location to be covered
+     */
+    public ArrayList<ComputingAppliance> covering(GeoLocation location) {
+        ArrayList<ComputingAppliance> result = new ArrayList<>();
+        for (ComputingAppliance ca : unbounded) {
+            if (location.calculateDistance(ca.geoLocation) <= ca.range * 1000) {
+                result.add(ca);
+            }
+        }
+        if (size > unbounded.size()) {
+            forEachCandidate(location, maxRange, ca -> {
+                if (!isUnbounded(ca) && location.calculateDistance(ca.geoLocation) <= ca.range * 1000) {
+                    result.add(ca);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Returns with the appliances located within a given distance of a location.
+     *
+     * @param location the center of the queried area
+     * @param distance the radius of the queried area (in meters)
+     */
+    public ArrayList<ComputingAppliance> withinDistance(GeoLocation location, double distance) {
+        ArrayList<ComputingAppliance> result = new ArrayList<>();
+        forEachCandidate(location, distance, ca -> {
+            if (location.calculateDistance(ca.geoLocation) <= distance) {
+                result.add(ca);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns with the k appliances closest to a location, ordered by their distance.
+     * The search area around the location is doubled until it contains k appliances.
+     *
+     * @param location the location to measure the distances from
+     * @param k the number of appliances to return
+     */
+    public ArrayList<ComputingAppliance> nearest(GeoLocation location, int k) {
+        if (k <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        ArrayList<ComputingAppliance> found;
+        if (k >= size) {
+            found = new ArrayList<>(size);
+            cells.forEachValue(found::addAll);
+        } else {
+            double radius = Math.toRadians(latCellSize) * GeoLocation.earthRadius * 1000;
+            while ((found = withinDistance(location, radius)).size() < k) {
+                radius *= 2;
+            }
+        }
+        double[] distances = new double[found.size()];
+        Integer[] order = new Integer[found.size()];
+        for (int i = 0; i < order.length; i++) {
+            distances[i] = location.calculateDistance(found.get(i).geoLocation);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+        ArrayList<ComputingAppliance> result = new ArrayList<>(Math.min(k, order.length));
+        for (int i = 0; i < order.length && i < k; i++) {
+            result.add(found.get(order[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Passes every appliance of the cells overlapping the bounding box of a spherical cap
+     * to the given action. The appliances are not filtered by their exact distance.
+     *
+     * @param location the center of the cap
+     * @param distance the radius of the cap (in meters)
+     * @param action the operation to perform on the candidates
+     */
+    private void forEachCandidate(GeoLocation location, double distance, Consumer<ComputingAppliance> action) {
+        // the angular radius of the cap, slightly enlarged against rounding errors
+        double delta = distance / (GeoLocation.earthRadius * 1000) * (1 + 1e-9) + 1e-12;
+        double latMin = location.latitude - Math.toDegrees(delta);
+        double latMax = location.latitude + Math.toDegrees(delta);
+        int lonFrom = 0;
+        int lonTo = lonCells - 1;
+        if (delta < Math.PI && latMin > -90 && latMax < 90) {
+            double sinLon = Math.sin(delta) / Math.cos(Math.toRadians(location.latitude));
+            if (sinLon < 1) {
+                double deltaLon = Math.toDegrees(Math.asin(sinLon));
+                int from = (int) Math.floor((location.longitude - deltaLon + 180) / lonCellSize);
+                int to = (int) Math.floor((location.longitude + deltaLon + 180) / lonCellSize);
+                if (to - from + 1 < lonCells) {
+                    lonFrom = from;
+                    lonTo = to;
+                }
+            }
+        }
+        int latFrom = latCell(latMin);
+        int latTo = latCell(latMax);
+
+        if ((long) (latTo - latFrom + 1) * (lonTo - lonFrom + 1) >= cells.size()) {
+            cells.forEachValue(list -> list.forEach(action));
+            return;
+        }
+        for (int lat = latFrom; lat <= latTo; lat++) {
+            for (int lon = lonFrom; lon <= lonTo; lon++) {
+                ArrayList<ComputingAppliance> cell = cells.get(lat * lonCells + Math.floorMod(lon, lonCells));
+                if (cell != null) {
+                    cell.forEach(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the grid row of a latitude.
+     */
+    private int latCell(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / latCellSize);
+        return Math.max(0, Math.min(latCells - 1, row));
+    }
+
+    /**
+     * Determines the key of the grid cell containing a location.
+     */
+    private int cellOf(GeoLocation location) {
+        int column = Math.floorMod((int) Math.floor((location.longitude + 180) / lonCellSize), lonCells);
+        return latCell(location.latitude) * lonCells + column;
+    }
+
+    /**
+     * Determines if the range of an appliance covers the whole earth.
+     */
+    private static boolean isUnbounded(ComputingAppliance ca) {
+        return ca.range * 1000.0 >= maxDistance;
+    }
+}
@@ -14,6 +14,8 @@ import java.util.TreeSet;
  */
 public class WorkflowComputingAppliance extends ComputingAppliance {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * A list of virtual machines utilized by this appliance for job processing.
      */
@@ -33,7 +35,7 @@ public class WorkflowComputingAppliance extends ComputingAppliance {
     public Set<String> cluster;
     
     public static ComputingAppliance getNodeByName(String name) {
-        for (ComputingAppliance ca : ComputingAppliance.allComputingAppliances) {
+        for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
             if (ca.name.equals(name)) {
                 return ca;
             }
@@ -55,8 +57,8 @@ public class WorkflowComputingAppliance extends ComputingAppliance {
     }
 
     public static void setDistanceBasedLatency() {
-        for (ComputingAppliance ca1 : ComputingAppliance.allComputingAppliances) {
-            for (ComputingAppliance ca2 : ComputingAppliance.allComputingAppliances) {
+        for (ComputingAppliance ca1 : ComputingAppliance.getAllComputingAppliances()) {
+            for (ComputingAppliance ca2 : ComputingAppliance.getAllComputingAppliances()) {
                 if (ca1 != ca2) {
                     int distance = (int) ca1.geoLocation.calculateDistance(ca2.geoLocation) / 10_000;
                     ca1.iaas.repositories.get(0).addLatencies(ca2.iaas.repositories.get(0).getName(), distance);
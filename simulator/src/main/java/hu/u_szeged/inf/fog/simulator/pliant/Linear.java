@@ -5,6 +5,8 @@ import java.util.Vector;
 
 public class Linear implements Normalizer {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public Vector<Double> normalizeIncrement(Vector<Double> sourceVector) {
 
@@ -1,8 +1,9 @@
 package hu.u_szeged.inf.fog.simulator.pliant;
 
+import java.io.Serializable;
 import java.util.Vector;
 
-public interface Normalizer {
+public interface Normalizer extends Serializable {
 
     public Vector<Double> normalizeIncrement(Vector<Double> source);
 
@@ -4,6 +4,8 @@ import java.util.Vector;
 
 public class Sigmoid implements Normalizer {
 
+    private static final long serialVersionUID = 1L;
+
     private double lambda;
     private double shift;
 
@@ -1,5 +1,15 @@
 package hu.u_szeged.inf.fog.simulator.prediction;
 
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import org.json.JSONException;
@@ -8,13 +18,31 @@ import org.json.JSONObject;
 /**
  * The Feature class represents a measurable characteristic or property used in time series analysis.
  * It provides methods to compute, store, and retrieve the feature's values.
+ *
+ * <p>Only the last {@code capacity} values are kept in memory (in a primitive ring buffer), as the
+ * predictors only read a fixed window of them. The buffer grows if a larger window is requested.
+ * If the complete history is needed (e.g., for exporting the dataset), it can be spilled to a file
+ * with {@link #spillHistory(Path)}.</p>
  */
 public abstract class Feature {
-    
+
+    /**
+     * The smallest number of values kept in memory if no capacity is given, the configured
+     * batch size of the predictions is used instead if it is larger.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
     private String name;
-    private List<Double> values;
+    private int id = -1;
+    private double[] ring;
+    private int head;
+    private int kept;
+    private long valueCount;
     private List<Prediction> predictions;
     private boolean hasNewValue;
+    private Path historyFile;
+    private boolean historyComplete;
+    private DataOutputStream history;
 
     /**
      * Constructs a Feature object with the specified name.
@@ -22,12 +50,33 @@ public abstract class Feature {
      * @param name the name of the feature
      */
     public Feature(String name) {
+        this(name, defaultCapacity());
+    }
+
+    /**
+     * Constructs a Feature object with the specified name and number of values kept in memory.
+     *
+     * @param name the name of the feature
+     * @param capacity the number of values kept in memory initially
+     */
+    public Feature(String name, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("At least one value should be kept for a feature");
+        }
         this.name = name;
-        this.values = new ArrayList<>();
+        this.ring = new double[capacity];
         this.predictions = new ArrayList<>();
         this.hasNewValue = false;
     }
 
+    private static int defaultCapacity() {
+        SimulationSettings settings = SimulationSettings.get();
+        if (settings == null || settings.getPrediction() == null) {
+            return DEFAULT_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, settings.getPrediction().getBatchSize());
+    }
+
     /**
      * This method should be implemented by subclasses to
      * provide specific computation logic for the feature's value.
@@ -37,24 +86,155 @@ public abstract class Feature {
     public abstract double compute();
 
     /**
-     * Computes the feature's value and adds it to the list of values.
+     * Computes the feature's value and adds it to the values.
      */
     public void computeValue() {
-        values.add(compute());
+        addValue(compute());
+    }
+
+    /**
+     * Adds a value to the feature, the oldest value kept in memory is overwritten
+     * if the ring buffer is full.
+     *
+     * @param value the new value of the feature
+     */
+    public void addValue(double value) {
+        ring[head] = value;
+        head = head + 1 == ring.length ? 0 : head + 1;
+        if (kept < ring.length) {
+            kept++;
+        }
+        valueCount++;
         hasNewValue = true;
+        if (history != null) {
+            try {
+                history.writeDouble(value);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write the history of feature " + name, e);
+            }
+        } else {
+            historyComplete = false;
+        }
+    }
+
+    /**
+     * Makes sure that at least the given number of values can be kept in memory. The values
+     * kept so far are preserved, but the ones already overwritten cannot be restored.
+     *
+     * @param capacity the number of values to keep
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= ring.length) {
+            return;
+        }
+        double[] grown = new double[capacity];
+        for (int i = 0; i < kept; i++) {
+            grown[i] = getValue(kept - 1 - i);
+        }
+        ring = grown;
+        head = kept;
+    }
+
+    /**
+     * Starts writing every value computed from now on to a file, so the complete history
+     * of the feature can be read back with {@link #openHistory()}.
+     *
+     * @param file the file to write, it is overwritten if it exists
+     */
+    public void spillHistory(Path file) throws IOException {
+        closeHistory();
+        history = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 13));
+        historyFile = file;
+        historyComplete = kept == valueCount;
+        // the values computed so far are not lost if they are still in memory
+        for (int i = kept; i > 0; i--) {
+            history.writeDouble(getValue(i - 1));
+        }
+    }
+
+    /**
+     * Stops writing the values of the feature to its history file.
+     */
+    public void closeHistory() throws IOException {
+        if (history != null) {
+            history.close();
+            history = null;
+        }
+    }
+
+    /**
+     * Opens the complete history of the feature if it is spilled to a file, otherwise the
+     * values kept in memory.
+     */
+    public HistoryReader openHistory() throws IOException {
+        if (history != null) {
+            history.flush();
+        }
+        return new HistoryReader();
+    }
+
+    /**
+     * Reads the values of a feature in the order they were computed.
+     */
+    public class HistoryReader implements Closeable {
+
+        private final DataInputStream in;
+        private long remaining;
+        private long index;
+
+        private HistoryReader() throws IOException {
+            if (historyFile != null) {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(historyFile), 1 << 13));
+                remaining = Files.size(historyFile) / Double.BYTES;
+            } else {
+                in = null;
+                remaining = kept;
+                index = remaining;
+            }
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public double next() throws IOException {
+            remaining--;
+            return in != null ? in.readDouble() : getValue(--index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
     }
 
     /**
-     * Converts the feature's data to a JSON object.
+     * Returns with a value kept in memory.
+     *
+     * @param age 0 for the last value, 1 for the one before it, and so on
+     */
+    public double getValue(long age) {
+        if (age < 0 || age >= kept) {
+            throw new IndexOutOfBoundsException("The value is not kept in memory: " + age);
+        }
+        int pos = head - 1 - (int) age;
+        return ring[pos < 0 ? pos + ring.length : pos];
+    }
+
+    /**
+     * Converts the feature's data to a JSON object, see {@link #getValues()}.
      *
      * @return a JSONObject representing the feature's data
+     * @throws IllegalStateException if older values were dropped without spilling them
      */
     public JSONObject toJson() throws JSONException {
         return new JSONObject()
                 .put("name", name)
-                .put("values", Utils.listToJsonArray(values));
+                .put("values", Utils.listToJsonArray(getValues()));
     }
-    
+
     /**
      * Converts the feature's data within a specified window size to a JSON object.
      *
@@ -67,6 +247,31 @@ public abstract class Feature {
                 .put("values", Utils.listToJsonArray(getWindowValues(windowSize)));
     }
 
+    /**
+     * Retrieves the last values of the feature, the oldest first.
+     * If the number of values kept is less than the window size, an empty array is returned.
+     * A window larger than the capacity of the feature extends the capacity, thus it can be
+     * returned once enough new values are computed.
+     *
+     * @param windowSize the size of the window
+     * @return the feature's values within the window size
+     */
+    public double[] getWindow(int windowSize) {
+        ensureCapacity(windowSize);
+        if (kept < windowSize) {
+            return new double[0];
+        }
+        double[] window = new double[windowSize];
+        int start = head - windowSize;
+        if (start >= 0) {
+            System.arraycopy(ring, start, window, 0, windowSize);
+        } else {
+            System.arraycopy(ring, start + ring.length, window, 0, -start);
+            System.arraycopy(ring, 0, window, -start, head);
+        }
+        return window;
+    }
+
     /**
      * Retrieves a list of the feature's values within a specified window size.
      * If the number of values is less than the window size, an empty list is returned.
@@ -75,10 +280,12 @@ public abstract class Feature {
      * @return a list of the feature's values within the window size
      */
     public List<Double> getWindowValues(int windowSize) {
-        if (values.size() < windowSize) {
-            return new ArrayList<>();
+        double[] window = getWindow(windowSize);
+        List<Double> result = new ArrayList<>(window.length);
+        for (double value : window) {
+            result.add(value);
         }
-        return values.subList(values.size() - windowSize, values.size());
+        return result;
     }
 
     public void setHasNewValue(boolean hasNewValue) {
@@ -88,29 +295,89 @@ public abstract class Feature {
     public boolean getHasNewValue() {
         return hasNewValue;
     }
-    
+
     public String getName() {
         return name;
     }
 
+    /**
+     * Returns with the handle of the feature in the FeatureManager, -1 if it is not managed.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns with the number of values that can be kept in memory.
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Returns with the number of values kept in memory, i.e. the largest window that can be returned.
+     */
+    public int getKeptCount() {
+        return kept;
+    }
+
+    /**
+     * Returns with the number of values computed so far.
+     */
+    public long getValueCount() {
+        return valueCount;
+    }
+
     public void addPrediction(Prediction result) {
         predictions.add(result);
     }
 
+    /**
+     * Returns with every value of the feature, the oldest first. The values no longer kept
+     * in memory are read back from the history file (see {@link #spillHistory(Path)}).
+     *
+     * @throws IllegalStateException if older values were dropped without spilling them
+     */
     public List<Double> getValues() {
+        if (kept == valueCount) {
+            return getKeptValues();
+        }
+        if (historyFile == null || !historyComplete) {
+            throw new IllegalStateException("Only the last " + kept + " of the " + valueCount
+                    + " values of " + name + " are kept, the history should be spilled to keep all of them");
+        }
+        List<Double> values = new ArrayList<>((int) Math.min(valueCount, Integer.MAX_VALUE));
+        try (HistoryReader reader = openHistory()) {
+            while (reader.hasNext()) {
+                values.add(reader.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the history of feature " + name, e);
+        }
         return values;
     }
 
+    /**
+     * Returns with the values kept in memory, the oldest first.
+     */
+    public List<Double> getKeptValues() {
+        return getWindowValues(kept);
+    }
+
     public List<Prediction> getPredictions() {
         return predictions;
     }
-    
+
     @Override
     public String toString() {
-        return "Feature{" 
+        return "Feature{"
                 + "name='" + name + '\''
-                + ", values=" + values.size() 
-                + ", predictions=" + predictions.size() 
+                + ", values=" + valueCount
+                + ", predictions=" + predictions.size()
                 + '}';
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,45 @@
 package hu.u_szeged.inf.fog.simulator.prediction;
 
+import hu.u_szeged.inf.fog.simulator.prediction.communication.ClientThread;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.PredictionCodec;
 import hu.u_szeged.inf.fog.simulator.prediction.communication.ServerSocket;
 import hu.u_szeged.inf.fog.simulator.prediction.communication.SocketMessage;
 import hu.u_szeged.inf.fog.simulator.prediction.communication.launchers.ElectronLauncher;
 import hu.u_szeged.inf.fog.simulator.prediction.communication.launchers.Launcher;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.json.JSONObject;
 
 /**
  * Manages a collection of features for time series analysis.
  * Provides methods to add and retrieve features, and their export data.
+ *
+ * <p>The features can be looked up by their names, or by their ids (the position of the
+ * feature in the manager), which can be resolved once and used afterwards without any lookup.</p>
  */
 public class FeatureManager {
     
     private static FeatureManager featureManager;
     private List<Feature> features;
+    private Map<String, Feature> featuresByName;
+    private int featuresPerRequest = 64;
+    private Path historyDirectory;
 
     /**
      * Private constructor to enforce singleton pattern.
      */
     private FeatureManager() {
         this.features = new ArrayList<>();
+        this.featuresByName = new HashMap<>();
     }
     
     /**
@@ -46,8 +60,12 @@ public class FeatureManager {
      * @param feature the feature to be added
      */
     public FeatureManager addFeature(Feature feature) {
-        if (getFeatureByName(feature.getName()) == null) {
+        if (featuresByName.putIfAbsent(feature.getName(), feature) == null) {
+            feature.setId(features.size());
             features.add(feature);
+            if (historyDirectory != null) {
+                spillHistory(feature);
+            }
         }
         return this;
     }
@@ -59,12 +77,69 @@ public class FeatureManager {
      * @return the feature with the specified name, or null if it does not exist
      */
     public Feature getFeatureByName(String name) {
+        return featuresByName.get(name);
+    }
+
+    /**
+     * Retrieves a feature by its id.
+     *
+     * @param id the id of the feature (see {@link Feature#getId()})
+     */
+    public Feature getFeature(int id) {
+        return features.get(id);
+    }
+
+    /**
+     * Returns with the number of features, the ids of the features are below this number.
+     */
+    public int getFeatureCount() {
+        return features.size();
+    }
+
+    /**
+     * Resolves the ids of the features with a common name prefix (e.g. the features of a
+     * computing appliance), in the order the features were added.
+     *
+     * @param prefix the beginning of the names of the features
+     */
+    public int[] getFeatureIds(String prefix) {
+        return features.stream().filter(feature -> feature.getName().startsWith(prefix))
+                .mapToInt(Feature::getId).toArray();
+    }
+
+    /**
+     * Writes the complete history of every feature (including the ones added later) into
+     * the specified directory, so the dataset export is not limited to the values kept in memory.
+     *
+     * @param directory the directory of the history files
+     */
+    public void spillHistory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        historyDirectory = directory;
         for (Feature feature : features) {
-            if (feature.getName().equals(name)) {
-                return feature;
+            spillHistory(feature);
+        }
+    }
+
+    /**
+     * Stops writing the history of the features and deletes the history files.
+     */
+    public void deleteHistory() throws IOException {
+        if (historyDirectory != null) {
+            for (Feature feature : features) {
+                feature.closeHistory();
+                Files.deleteIfExists(historyDirectory.resolve(feature.getId() + ".bin"));
             }
+            historyDirectory = null;
+        }
+    }
+
+    private void spillHistory(Feature feature) {
+        try {
+            feature.spillHistory(historyDirectory.resolve(feature.getId() + ".bin"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return null;
     }
 
     /**
@@ -88,16 +163,32 @@ public class FeatureManager {
 
             sb.append("\n");
 
-            // Values
-            for (int i = 0; i < getFeatureValuesMaxLength(); i++) {
+            // Values, read from the histories row by row
+            List<Feature.HistoryReader> histories = new ArrayList<>();
+            try {
                 for (Feature feature : features) {
-                    if (i < feature.getValues().size()) {
-                        sb.append(String.format("%.16f", feature.getValues().get(i)).replace("\\.", ",")).append(";");
-                    } else {
-                        sb.append("").append(";");
+                    histories.add(feature.openHistory());
+                }
+                boolean hasMore = true;
+                while (hasMore) {
+                    hasMore = false;
+                    StringBuilder row = new StringBuilder();
+                    for (Feature.HistoryReader history : histories) {
+                        if (history.hasNext()) {
+                            row.append(String.format("%.16f", history.next()).replace("\\.", ",")).append(";");
+                            hasMore = true;
+                        } else {
+                            row.append("").append(";");
+                        }
+                    }
+                    if (hasMore) {
+                        sb.append(row).append("\n");
                     }
                 }
-                sb.append("\n");
+            } finally {
+                for (Feature.HistoryReader history : histories) {
+                    history.close();
+                }
             }
 
             printWriter.write(sb.toString());
@@ -198,7 +289,9 @@ public class FeatureManager {
     }
 
     /**
-     * Sends features for prediction.
+     * Sends features for prediction. If the predictor uses the binary protocol, the features 
+     * are sent in batches without waiting for the previous batches to be predicted,
+     * otherwise they are sent one by one as JSON messages.
      *
      * @param features the list of features to predict
      * @param windowSize the size of the window for prediction
@@ -206,6 +299,62 @@ public class FeatureManager {
      */
     public List<Prediction> predict(List<Feature> features, int windowSize) throws Exception {
         PredictionLogger.info("FeatureManager-sendFeatures", "Send features for prediction");
+        ClientThread predictor = ServerSocket.getInstance().getClientThreadByApplication(
+                SocketMessage.SocketApplication.APPLICATION_PREDICTOR);
+        List<Prediction> predictions = predictor != null && predictor.isBinary()
+                ? predictInBatches(predictor, features, windowSize)
+                : predictOneByOne(features, windowSize);
+
+        if (Launcher.hasApplication(ElectronLauncher.class.getSimpleName())) {
+            PredictionLogger.info("FeatureManager-sendFeatures", "Send features to UI");
+            for (Prediction prediction : predictions) {
+                ServerSocket.getInstance().sendAndGet(
+                        SocketMessage.SocketApplication.APPLICATION_INTERFACE,
+                        new SocketMessage(
+                                "prediction",
+                                new JSONObject().put("prediction", prediction.toJson())
+                        )
+                );
+            }
+        }
+        return predictions;
+    }
+
+    /**
+     * Sends the features to the predictor in batches of at most featuresPerRequest features
+     * using the binary protocol. All batches are sent before waiting for the first reply.
+     */
+    private List<Prediction> predictInBatches(ClientThread predictor, List<Feature> features, int windowSize)
+            throws Exception {
+        List<CompletableFuture<List<PredictionCodec.Result>>> requests = new ArrayList<>();
+        for (int from = 0; from < features.size(); from += featuresPerRequest) {
+            List<Feature> batch = features.subList(from, Math.min(features.size(), from + featuresPerRequest));
+            for (Feature feature : batch) {
+                feature.setHasNewValue(false);
+            }
+            requests.add(predictor.predict(batch, windowSize));
+        }
+
+        List<Prediction> predictions = new ArrayList<>();
+        int index = 0;
+        for (CompletableFuture<List<PredictionCodec.Result>> request : requests) {
+            for (PredictionCodec.Result result : request.get()) {
+                Feature feature = features.get(index++);
+                if (result.prediction == null) {
+                    PredictionLogger.error("socket-prediction-result", result.error);
+                    continue;
+                }
+                feature.addPrediction(result.prediction);
+                predictions.add(result.prediction);
+            }
+        }
+        return predictions;
+    }
+
+    /**
+     * Sends the features to the predictor one by one using the JSON protocol.
+     */
+    private List<Prediction> predictOneByOne(List<Feature> features, int windowSize) throws Exception {
         List<Prediction> predictions = new ArrayList<>();
         for (Feature feature : features) {
             feature.setHasNewValue(false);
@@ -226,33 +375,20 @@ public class FeatureManager {
             feature.addPrediction(result);
             predictions.add(result);
         }
-
-        if (Launcher.hasApplication(ElectronLauncher.class.getSimpleName())) {
-            PredictionLogger.info("FeatureManager-sendFeatures", "Send features to UI");
-            for (Prediction prediction : predictions) {
-                ServerSocket.getInstance().sendAndGet(
-                        SocketMessage.SocketApplication.APPLICATION_INTERFACE,
-                        new SocketMessage(
-                                "prediction",
-                                new JSONObject().put("prediction", prediction.toJson())
-                        )
-                );
-            }
-        }
         return predictions;
     }
 
     /**
-     * Returns the maximum length of feature values.
+     * Sets the maximum number of features sent to the predictor in a single request
+     * when the binary protocol is used.
+     *
+     * @param featuresPerRequest the maximum number of features in a request
      */
-    private int getFeatureValuesMaxLength() {
-        int max = Integer.MIN_VALUE;
-        for (Feature feature : features) {
-            if (feature.getValues().size() > max) {
-                max = feature.getValues().size();
-            }
+    public void setFeaturesPerRequest(int featuresPerRequest) {
+        if (featuresPerRequest < 1) {
+            throw new IllegalArgumentException("At least one feature should be sent in a request");
         }
-        return max;
+        this.featuresPerRequest = featuresPerRequest;
     }
 
     /**
@@ -270,6 +406,7 @@ public class FeatureManager {
 
     /**
      * Retrieves features with enough data based on the specified window size.
+     * The features are extended to keep windows of this size in memory.
      *
      * @param windowSize the size of the window for data
      * @return the list of features with enough data
@@ -278,7 +415,8 @@ public class FeatureManager {
         List<Feature> result = new ArrayList<>();
 
         for (Feature feature : features) {
-            if (feature.getValues().size() >= windowSize && feature.getHasNewValue()) {
+            feature.ensureCapacity(windowSize);
+            if (feature.getKeptCount() >= windowSize && feature.getHasNewValue()) {
                 result.add(feature);
             }
         }
@@ -292,7 +430,7 @@ public class FeatureManager {
         TableBuilder table = new TableBuilder();
         table.addHeader("Feature name", "Dataset length", "Number of predictions");
         for (Feature feature : features) {
-            table.addRow(feature.getName(), feature.getValues().size(), feature.getPredictions().size());
+            table.addRow(feature.getName(), feature.getValueCount(), feature.getPredictions().size());
         }
         System.out.println(table);
     }
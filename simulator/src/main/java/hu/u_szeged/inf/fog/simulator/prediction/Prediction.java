@@ -15,7 +15,7 @@ public class Prediction {
     /**
      * Represents error metrics including RMSE, MSE, and MAE.
      */
-    public class ErrorMetrics {
+    public static class ErrorMetrics {
         
         private double rmse;
         private double mse;
@@ -32,6 +32,19 @@ public class Prediction {
             this.mae = jsonObject.getDouble("MAE");
         }
 
+        /**
+         * Constructs ErrorMetrics object from already computed values.
+         *
+         * @param rmse the root mean squared error
+         * @param mse the mean squared error
+         * @param mae the mean absolute error
+         */
+        public ErrorMetrics(double rmse, double mse, double mae) {
+            this.rmse = rmse;
+            this.mse = mse;
+            this.mae = mae;
+        }
+
         public double getRmse() {
             return rmse;
         }
@@ -60,7 +73,7 @@ public class Prediction {
     /**
      * Represents a dataset with timestamps and data points.
      */
-    public class Data {
+    public static class Data {
         
         private List<Integer> timestamp;
         private List<Double> data;
@@ -84,6 +97,17 @@ public class Prediction {
             }
         }
 
+        /**
+         * Constructs Data from already existing lists.
+         *
+         * @param timestamp the timestamps of the data points
+         * @param data the data points
+         */
+        public Data(List<Integer> timestamp, List<Double> data) {
+            this.timestamp = timestamp;
+            this.data = data;
+        }
+
         public List<Integer> getTimestamp() {
             return timestamp;
         }
@@ -161,6 +185,37 @@ public class Prediction {
         this.predictionTime = jsonObject.getDouble("prediction_time");
     }
 
+    /**
+     * Constructs a Prediction from its already decoded parts.
+     *
+     * @param featureName the name of the predicted feature
+     * @param predictionNumber the number of previous predictions of the feature
+     * @param simulationSettings the settings the prediction was made with
+     * @param originalData the window of the feature the prediction is based on
+     * @param preprocessedData the window after smoothing and scaling
+     * @param testDataBeginning the part of the window used for training the test prediction
+     * @param testDataEnd the part of the window the test prediction is compared to
+     * @param predictionFuture the predicted future values (might be null)
+     * @param predictionTest the prediction for the test data end (might be null)
+     * @param errorMetrics the errors of the test prediction (might be null)
+     * @param predictionTime the time taken by the prediction (in ms)
+     */
+    public Prediction(String featureName, int predictionNumber, SimulationSettings simulationSettings,
+            Data originalData, Data preprocessedData, Data testDataBeginning, Data testDataEnd,
+            Data predictionFuture, Data predictionTest, ErrorMetrics errorMetrics, double predictionTime) {
+        this.featureName = featureName;
+        this.predictionNumber = predictionNumber;
+        this.simulationSettings = simulationSettings;
+        this.originalData = originalData;
+        this.preprocessedData = preprocessedData;
+        this.testDataBeginning = testDataBeginning;
+        this.testDataEnd = testDataEnd;
+        this.predictionFuture = predictionFuture;
+        this.predictionTest = predictionTest;
+        this.errorMetrics = errorMetrics;
+        this.predictionTime = predictionTime;
+    }
+
     public String getFeatureName() {
         return featureName;
     }
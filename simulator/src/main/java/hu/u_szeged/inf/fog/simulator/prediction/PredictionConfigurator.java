@@ -4,6 +4,7 @@ import hu.u_szeged.inf.fog.simulator.prediction.communication.ServerSocket;
 import hu.u_szeged.inf.fog.simulator.prediction.communication.launchers.Launcher;
 import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -62,8 +63,13 @@ public class PredictionConfigurator {
         }
 
         startSocket();
+        if (SimulationSettings.get().getExport().canExportDataset()) {
+            // only a window of the values is kept in memory, the dataset needs all of them
+            FeatureManager.getInstance().spillHistory(Files.createTempDirectory("features"));
+        }
         simulationDefinition.simulation();
         export();
+        FeatureManager.getInstance().deleteHistory();
         
         ServerSocket.getInstance().stopThreads();
         SimulationSettings.get().printInfo();
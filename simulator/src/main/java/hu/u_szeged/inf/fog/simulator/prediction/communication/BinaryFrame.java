@@ -0,0 +1,97 @@
+package hu.u_szeged.inf.fog.simulator.prediction.communication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A single message of the binary protocol used with the predictor application.
+ * On the wire every frame starts with its length (a big-endian int, not counting
+ * itself), followed by the type of the frame (a byte), the correlation ID (an int)
+ * and the payload. The reply to a frame carries the same correlation ID, thus
+ * several requests can be sent without waiting for the replies of the previous ones.
+ */
+public class BinaryFrame {
+
+    /**
+     * The version of the binary protocol, it is checked while switching to the protocol.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The payload is an UTF-8 encoded {@link SocketMessage}.
+     */
+    public static final byte TYPE_JSON = 0;
+
+    /**
+     * The payload is a batch of feature windows (see {@link PredictionCodec#encodeRequest}).
+     */
+    public static final byte TYPE_PREDICT_REQUEST = 1;
+
+    /**
+     * The payload is a batch of predictions (see {@link PredictionCodec#encodeResponse}).
+     */
+    public static final byte TYPE_PREDICT_RESPONSE = 2;
+
+    /**
+     * The size of the type and the correlation ID.
+     */
+    static final int HEADER_LENGTH = 5;
+
+    /**
+     * Frames longer than this are considered to be the result of a broken stream.
+     */
+    static final int MAX_LENGTH = 256 * 1024 * 1024;
+
+    private final byte type;
+    private final int correlationId;
+    private final byte[] payload;
+
+    public BinaryFrame(byte type, int correlationId, byte[] payload) {
+        this.type = type;
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    /**
+     * Writes the frame to a stream, the stream is not flushed.
+     *
+     * @param out the stream to write to
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(HEADER_LENGTH + payload.length);
+        out.writeByte(type);
+        out.writeInt(correlationId);
+        out.write(payload);
+    }
+
+    /**
+     * Reads the next frame from a stream, it blocks until the whole frame arrives.
+     *
+     * @param in the stream to read from
+     * @throws java.io.EOFException if the stream was closed
+     */
+    public static BinaryFrame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < HEADER_LENGTH || length > MAX_LENGTH) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte type = in.readByte();
+        int correlationId = in.readInt();
+        byte[] payload = new byte[length - HEADER_LENGTH];
+        in.readFully(payload);
+        return new BinaryFrame(type, correlationId, payload);
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
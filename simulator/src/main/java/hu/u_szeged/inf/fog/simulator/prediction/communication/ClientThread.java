@@ -1,25 +1,75 @@
 package hu.u_szeged.inf.fog.simulator.prediction.communication;
 
+import hu.u_szeged.inf.fog.simulator.prediction.Feature;
 import hu.u_szeged.inf.fog.simulator.prediction.PredictionLogger;
-import java.io.BufferedReader;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+/**
+ * The connection to one of the applications taking part in the prediction. Every message
+ * starts as a JSON message acknowledged by the other side. Predictor applications
+ * are asked to switch to the binary protocol (see {@link BinaryFrame}) after the connection
+ * is set up; if they accept, this thread reads the replies and matches them to the
+ * pending requests by their correlation IDs, otherwise the JSON protocol is kept.
+ */
 public class ClientThread extends Thread {
+
+    /**
+     * The longest time to wait for the reply to a message sent with the binary protocol (ms),
+     * if it is not given for the connection.
+     */
+    public static final long DEFAULT_REPLY_TIMEOUT = 60_000;
+
+    private final boolean binaryProtocolEnabled;
+    private final long replyTimeout;
     private Socket socket;
     private String name;
-    private BufferedReader in;
+    private DataInputStream in;
     private DataOutputStream out;
+    private volatile boolean binary;
+    private volatile boolean closed;
+    private volatile IOException closeCause;
+    private final AtomicInteger nextCorrelationId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<BinaryFrame>> pending = new ConcurrentHashMap<>();
 
     public ClientThread(Socket socket) {
+        this(socket, true, DEFAULT_REPLY_TIMEOUT);
+    }
+
+    /**
+     * Sets up the connection to an application.
+     *
+     * @param socket the socket connected to the application
+     * @param binaryProtocolEnabled whether a predictor application should be asked to use the binary protocol
+     * @param replyTimeout the longest time to wait for the reply to a message sent with the binary protocol (ms)
+     */
+    public ClientThread(Socket socket, boolean binaryProtocolEnabled, long replyTimeout) {
         this.socket = socket;
+        this.binaryProtocolEnabled = binaryProtocolEnabled;
+        this.replyTimeout = replyTimeout;
 
         try {
-            this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
-            this.out = new DataOutputStream(this.socket.getOutputStream());
+            this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -30,60 +80,233 @@ public class ClientThread extends Thread {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+
+        if (binaryProtocolEnabled && SocketMessage.SocketApplication.APPLICATION_PREDICTOR.value.equals(name)) {
+            try {
+                SocketMessage message = sendAndGet(new SocketMessage("binary-protocol",
+                        new JSONObject().put("version", BinaryFrame.VERSION)));
+                this.binary = message != null && message.getEvent().equals("binary-protocol-response")
+                        && message.getData().optBoolean("accepted", false);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            PredictionLogger.info("socket", String.format("[%s]: %s protocol", name, binary ? "binary" : "JSON"));
+        }
     }
 
     public void stopThread() {
         try {
             ServerSocket.CONNECTED_CLIENTS -= 1;
-            sendAndGet(new SocketMessage("stop-connection", new JSONObject().put("message", "stop")));
+            try {
+                sendAndGet(new SocketMessage("stop-connection", new JSONObject().put("message", "stop")));
+            } catch (IOException e) {
+                // the application closes the connection instead of replying
+            }
             join();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Dispatches the incoming frames to the pending requests while the binary protocol is used.
+     */
     @Override
     public void run() {
-
+        if (!binary) {
+            return;
+        }
+        try {
+            while (true) {
+                BinaryFrame frame = BinaryFrame.read(in);
+                CompletableFuture<BinaryFrame> request = pending.remove(frame.getCorrelationId());
+                if (request == null) {
+                    PredictionLogger.warning("socket",
+                            String.format("[%s]: unexpected reply %d", name, frame.getCorrelationId()));
+                } else {
+                    request.complete(frame);
+                }
+            }
+        } catch (IOException e) {
+            closeCause = e;
+        } finally {
+            // the requests sent from now on are failed by send() and sendAndGet()
+            closed = true;
+            for (Integer correlationId : pending.keySet()) {
+                failPending(correlationId);
+            }
+        }
     }
 
-    public SocketMessage sendAndGet(SocketMessage message) {
-        SocketMessage inMessage = null;
+    /**
+     * Sends a message and waits for its reply.
+     *
+     * @param message the message to send
+     * @return the reply of the application
+     * @throws IOException if the connection is closed, the reply does not arrive in time or it is malformed
+     */
+    public SocketMessage sendAndGet(SocketMessage message) throws IOException {
+        if (closed) {
+            throw closedException();
+        }
+        PredictionLogger.info("socket-out",
+                String.format("[%s]: %s", name == null ? "UNKNOWN" : name, message.getEvent()));
+
+        String data;
         try {
-            PredictionLogger.info("socket-out", 
-                    String.format("[%s]: %s", name == null ? "UNKNOWN" : name, message.getEvent()));
+            if (binary) {
+                CompletableFuture<BinaryFrame> request = send(BinaryFrame.TYPE_JSON, createByteArrayMessage(message));
+                try {
+                    BinaryFrame reply = request.get(replyTimeout, TimeUnit.MILLISECONDS);
+                    data = new String(reply.getPayload(), StandardCharsets.UTF_8);
+                } finally {
+                    // drops the request if the reply did not arrive in time
+                    request.cancel(false);
+                }
+            } else {
+                data = sendAndGetJson(message);
+            }
+        } catch (JSONException e) {
+            throw new IOException(String.format("[%s]: cannot send %s", name, message.getEvent()), e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException(String.format("[%s]: no reply to %s in %d ms", name, message.getEvent(),
+                    replyTimeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("[%s]: interrupted while waiting for %s", name,
+                    message.getEvent()));
+        }
 
-            SocketMessage messageSize = new SocketMessage("data-size", 
-                    new JSONObject().put("size", message.toString().getBytes().length));
-            out.write(createByteArrayMessage(messageSize));
-            out.flush();
+        if (data == null) {
+            closed = true;
+            throw closedException();
+        }
 
-            String r = in.readLine(); // ACK for message size
+        SocketMessage inMessage;
+        try {
+            inMessage = new SocketMessage(data);
+        } catch (JSONException e) {
+            throw new IOException(String.format("[%s]: malformed reply to %s", name, message.getEvent()), e);
+        }
+        PredictionLogger.info("socket-in",
+                String.format("[%s]: %s", name == null ? "UNKNOWN" : name, inMessage.getEvent()));
+        return inMessage;
+    }
 
-            out.write(createByteArrayMessage(message));
-            out.flush();
-            String data = in.readLine();
+    /**
+     * Sends the windows of several features for prediction in a single frame without waiting
+     * for the reply. It can only be used if the binary protocol is in use.
+     *
+     * @param features the features to predict
+     * @param windowSize the size of the window for prediction
+     * @return the future results of the predictions in the order of the features
+     */
+    public CompletableFuture<List<PredictionCodec.Result>> predict(List<Feature> features, int windowSize) {
+        PredictionLogger.info("socket-out", String.format("[%s]: predict-features (%d)", name, features.size()));
+        return send(BinaryFrame.TYPE_PREDICT_REQUEST, PredictionCodec.encodeRequest(features, windowSize))
+                .thenApply(reply -> {
+                    try {
+                        return PredictionCodec.decodeResponse(reply.getPayload(), SimulationSettings.get());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Determines if the binary protocol is used with the connected application.
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public String getSocketName() {
+        return name;
+    }
 
-            if (data == null) {
-                PredictionLogger.warning("socket", "Message data is null.");
-                join();
+    /**
+     * Sends a frame with a new correlation ID.
+     *
+     * @param type the type of the frame
+     * @param payload the content of the frame
+     * @return the future reply to the frame, it fails if the connection is closed
+     */
+    private CompletableFuture<BinaryFrame> send(byte type, byte[] payload) {
+        int correlationId = nextCorrelationId.incrementAndGet();
+        CompletableFuture<BinaryFrame> reply = new CompletableFuture<>();
+        pending.put(correlationId, reply);
+        reply.whenComplete((frame, e) -> pending.remove(correlationId));
+        if (closed) {
+            // the reader may have finished failing the pending requests before this one was added
+            failPending(correlationId);
+            return reply;
+        }
+        try {
+            synchronized (out) {
+                new BinaryFrame(type, correlationId, payload).write(out);
+                out.flush();
             }
+        } catch (IOException e) {
+            pending.remove(correlationId);
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
 
-            inMessage = new SocketMessage(data);
-            PredictionLogger.info("socket-in", 
-                    String.format("[%s]: %s", name == null ? "UNKNOWN" : name, inMessage.getEvent()));
-        } catch (Exception e) {
-            //e.printStackTrace();
+    /**
+     * Fails a pending request as its reply will never be read.
+     *
+     * @param correlationId the ID of the request
+     */
+    private void failPending(int correlationId) {
+        CompletableFuture<BinaryFrame> request = pending.remove(correlationId);
+        if (request != null) {
+            request.completeExceptionally(closedException());
         }
+    }
 
-        return inMessage;
+    private IOException closedException() {
+        return closeCause != null ? closeCause : new IOException(String.format("[%s]: connection closed", name));
     }
 
-    public String getSocketName() {
-        return name;
+    /**
+     * Sends a message with the JSON protocol: the size of the message is sent and
+     * acknowledged first, then the message itself, which is replied in a single line.
+     */
+    private String sendAndGetJson(SocketMessage message) throws IOException, JSONException {
+        byte[] content = createByteArrayMessage(message);
+        SocketMessage messageSize = new SocketMessage("data-size", new JSONObject().put("size", content.length));
+        out.write(createByteArrayMessage(messageSize));
+        out.flush();
+
+        readLine(); // ACK for message size
+
+        out.write(content);
+        out.flush();
+        return readLine();
+    }
+
+    /**
+     * Reads a line terminated by \n or \r\n.
+     *
+     * @return the line without its terminator, or null if the stream was closed
+     */
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        String s = line.toString(StandardCharsets.UTF_8);
+        return s.endsWith("\r") ? s.substring(0, s.length() - 1) : s;
     }
 
     private static byte[] createByteArrayMessage(SocketMessage message) {
-        return message.toString().getBytes();
+        return message.toString().getBytes(StandardCharsets.UTF_8);
     }
 }
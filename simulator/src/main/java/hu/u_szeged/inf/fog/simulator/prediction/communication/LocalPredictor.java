@@ -0,0 +1,322 @@
+package hu.u_szeged.inf.fog.simulator.prediction.communication;
+
+import hu.u_szeged.inf.fog.simulator.prediction.Prediction;
+import hu.u_szeged.inf.fog.simulator.prediction.PredictionLogger;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A predictor application written in Java, which can stand in for the Python-based
+ * predictor (e.g. for offline testing). It connects to the simulator's server socket
+ * the same way as the Python application does and it speaks both the JSON and the binary
+ * protocol. Every feature is predicted with a linear regression over its window
+ * regardless of the predictor chosen in the settings; smoothing, scaling and the
+ * minimum prediction time are not emulated.
+ */
+public class LocalPredictor extends Thread {
+
+    private final String host;
+    private final int port;
+    private final boolean binaryProtocolAccepted;
+    private final Map<String, Integer> numOfPredictions = new HashMap<>();
+    private SimulationSettings simulationSettings;
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private boolean binary;
+
+    /**
+     * Constructs a predictor connecting to the given server socket.
+     *
+     * @param host the host of the simulator's server socket
+     * @param port the port of the simulator's server socket
+     * @param binaryProtocolAccepted false if the predictor should stick to the JSON protocol
+     */
+    public LocalPredictor(String host, int port, boolean binaryProtocolAccepted) {
+        super("LocalPredictor");
+        this.host = host;
+        this.port = port;
+        this.binaryProtocolAccepted = binaryProtocolAccepted;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            connect();
+            boolean running = true;
+            while (running) {
+                running = binary ? handleFrame(BinaryFrame.read(in)) : handleJsonMessage();
+            }
+        } catch (EOFException e) {
+            // the simulator has closed the connection
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Predicts a single feature.
+     *
+     * @param name the name of the feature
+     * @param values the window of the feature
+     * @return the prediction in the same form as the Python predictor creates it
+     */
+    public Prediction predict(String name, double[] values) {
+        long start = System.nanoTime();
+        int testSize = simulationSettings.getPrediction().getTestSize();
+        int length = simulationSettings.getPrediction().getLength();
+        if (values.length < 2 || testSize < 1 || testSize > values.length - 2) {
+            throw new IllegalArgumentException("The window of " + name + " is too short for the test size");
+        }
+        int predictionNumber = numOfPredictions.merge(name, 1, Integer::sum) - 1;
+        int split = values.length - testSize;
+
+        Prediction.Data original = series(values, 0, values.length);
+        Prediction.Data preprocessed = series(values, 0, values.length);
+        Prediction.Data testBeginning = series(values, 0, split);
+        Prediction.Data testEnd = series(values, split, values.length);
+        Prediction.Data future = extrapolate(values, values.length, values.length, length);
+        Prediction.Data test = extrapolate(values, split, split, testSize);
+
+        double mse = 0;
+        double mae = 0;
+        for (int i = 0; i < testSize; i++) {
+            double error = testEnd.getData().get(i) - test.getData().get(i);
+            mse += error * error / testSize;
+            mae += Math.abs(error) / testSize;
+        }
+        return new Prediction(name, predictionNumber, simulationSettings, original, preprocessed,
+                testBeginning, testEnd, future, test, new Prediction.ErrorMetrics(Math.sqrt(mse), mse, mae),
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void connect() throws IOException, InterruptedException {
+        while (socket == null) {
+            try {
+                socket = new Socket(host, port);
+            } catch (ConnectException e) {
+                // the server socket is not open yet
+                Thread.sleep(100);
+            }
+        }
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        PredictionLogger.info("LocalPredictor", "Connected to " + host + ":" + port);
+    }
+
+    private void close() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Receives a message with the JSON protocol and replies to it.
+     *
+     * @return false if the connection should be closed
+     */
+    private boolean handleJsonMessage() throws IOException, JSONException {
+        String size = readJsonObject();
+        if (size == null) {
+            return false;
+        }
+        int length = new SocketMessage(size).getData().getInt("size");
+        writeLine(new SocketMessage("data-size-response", new JSONObject().put("message", "ACK")));
+
+        byte[] content = new byte[length];
+        in.readFully(content);
+        SocketMessage reply = handleMessage(new SocketMessage(new String(content, StandardCharsets.UTF_8)));
+        if (reply == null) {
+            return false;
+        }
+        writeLine(reply);
+        if (reply.getEvent().equals("binary-protocol-response") && reply.getData().getBoolean("accepted")) {
+            binary = true;
+        }
+        return true;
+    }
+
+    /**
+     * Replies to a frame of the binary protocol.
+     *
+     * @return false if the connection should be closed
+     */
+    private boolean handleFrame(BinaryFrame frame) throws IOException, JSONException {
+        byte[] reply;
+        if (frame.getType() == BinaryFrame.TYPE_PREDICT_REQUEST) {
+            List<PredictionCodec.Result> results = new ArrayList<>();
+            for (PredictionCodec.FeatureWindow window : PredictionCodec.decodeRequest(frame.getPayload())) {
+                results.add(predictSafely(window.name, window.values));
+            }
+            reply = PredictionCodec.encodeResponse(results);
+        } else {
+            SocketMessage message = handleMessage(
+                    new SocketMessage(new String(frame.getPayload(), StandardCharsets.UTF_8)));
+            if (message == null) {
+                return false;
+            }
+            reply = message.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        byte type = frame.getType() == BinaryFrame.TYPE_PREDICT_REQUEST
+                ? BinaryFrame.TYPE_PREDICT_RESPONSE : BinaryFrame.TYPE_JSON;
+        new BinaryFrame(type, frame.getCorrelationId(), reply).write(out);
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Creates the reply to a JSON message.
+     *
+     * @return the reply, or null if the connection should be closed
+     */
+    private SocketMessage handleMessage(SocketMessage message) throws JSONException {
+        switch (message.getEvent()) {
+            case "get-name":
+                return new SocketMessage("get-name-response",
+                        new JSONObject().put("name", SocketMessage.SocketApplication.APPLICATION_PREDICTOR.value));
+            case "binary-protocol":
+                return new SocketMessage("binary-protocol-response", new JSONObject().put("accepted",
+                        binaryProtocolAccepted && message.getData().optInt("version") == BinaryFrame.VERSION));
+            case "simulation-settings":
+                simulationSettings = new SimulationSettings(message.getData().getJSONObject("simulation-settings"));
+                return new SocketMessage("simulation-settings-response", new JSONObject().put("message", "OK"));
+            case "predict-feature":
+                JSONObject feature = message.getData().getJSONObject("feature");
+                double[] values = new double[feature.getJSONArray("values").length()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = feature.getJSONArray("values").getDouble(i);
+                }
+                PredictionCodec.Result result = predictSafely(feature.getString("name"), values);
+                JSONObject data = new JSONObject();
+                if (result.prediction == null) {
+                    data.put("error", result.error);
+                } else {
+                    data.put("prediction", result.prediction.toJson());
+                }
+                return new SocketMessage("prediction-result", data);
+            case "stop-connection":
+                return null;
+            default:
+                PredictionLogger.error("LocalPredictor", "No event has been found: " + message.getEvent());
+                return new SocketMessage("error", new JSONObject().put("error", "Unknown event"));
+        }
+    }
+
+    private PredictionCodec.Result predictSafely(String name, double[] values) {
+        try {
+            return new PredictionCodec.Result(name, predict(name, values), null);
+        } catch (RuntimeException e) {
+            return new PredictionCodec.Result(name, null, "Something went wrong while predicting: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a JSON object that is not terminated by a new line (i.e., the size
+     * message of the JSON protocol) by matching its braces.
+     *
+     * @return the JSON object or null if the stream was closed
+     */
+    private String readJsonObject() throws IOException {
+        int b;
+        do {
+            b = in.read();
+            if (b == -1) {
+                return null;
+            }
+        } while (b != '{');
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(b);
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        while (depth > 0) {
+            b = in.read();
+            if (b == -1) {
+                return null;
+            }
+            bytes.write(b);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{') {
+                depth++;
+            } else if (b == '}') {
+                depth--;
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeLine(SocketMessage message) throws IOException {
+        out.write((message + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * Creates a series from a part of a window, the timestamps are the positions in the window.
+     */
+    private static Prediction.Data series(double[] values, int from, int to) {
+        List<Integer> timestamp = new ArrayList<>(to - from);
+        List<Double> data = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            timestamp.add(i);
+            data.add(values[i]);
+        }
+        return new Prediction.Data(timestamp, data);
+    }
+
+    /**
+     * Fits a line to the first trainSize values of a window and evaluates it at the
+     * next count timestamps starting from the given one.
+     */
+    private static Prediction.Data extrapolate(double[] values, int trainSize, int from, int count) {
+        double meanT = (trainSize - 1) / 2.0;
+        double meanY = 0;
+        for (int i = 0; i < trainSize; i++) {
+            meanY += values[i] / trainSize;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < trainSize; i++) {
+            covariance += (i - meanT) * (values[i] - meanY);
+            variance += (i - meanT) * (i - meanT);
+        }
+        double slope = variance == 0 ? 0 : covariance / variance;
+        List<Integer> timestamp = new ArrayList<>(count);
+        List<Double> data = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            timestamp.add(i);
+            data.add(meanY + slope * (i - meanT));
+        }
+        return new Prediction.Data(timestamp, data);
+    }
+}
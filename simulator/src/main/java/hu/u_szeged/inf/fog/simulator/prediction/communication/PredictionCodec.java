@@ -0,0 +1,222 @@
+package hu.u_szeged.inf.fog.simulator.prediction.communication;
+
+import hu.u_szeged.inf.fog.simulator.prediction.Feature;
+import hu.u_szeged.inf.fog.simulator.prediction.Prediction;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the payloads of the prediction frames of the binary protocol.
+ * All numbers are big-endian, strings are written as their length in bytes (int)
+ * followed by their UTF-8 encoded content.
+ *
+ * <p>A request is the number of features (int), then for each feature its name,
+ * the number of values in its window (int) and the values (doubles).</p>
+ *
+ * <p>A response lists the results in the order of the request: the number of results (int),
+ * then for each result a status byte (0 means success), the name of the feature and either
+ * an error message or the prediction. A prediction is its number (int), its time (double),
+ * the original data, the preprocessed data, the test data beginning and end, the future and
+ * the test prediction (each one is a length (int, -1 for missing data), the timestamps
+ * (ints) and the data points (doubles)) and optionally the RMSE, MSE and MAE
+ * (a presence byte and three doubles).</p>
+ */
+public class PredictionCodec {
+
+    /**
+     * The window of a feature to be predicted.
+     */
+    public static class FeatureWindow {
+        public final String name;
+        public final double[] values;
+
+        public FeatureWindow(String name, double[] values) {
+            this.name = name;
+            this.values = values;
+        }
+    }
+
+    /**
+     * The outcome of the prediction of a single feature, either the prediction or the error is null.
+     */
+    public static class Result {
+        public final String featureName;
+        public final Prediction prediction;
+        public final String error;
+
+        public Result(String featureName, Prediction prediction, String error) {
+            this.featureName = featureName;
+            this.prediction = prediction;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Encodes the last windowSize values of each feature.
+     *
+     * @param features the features to be predicted
+     * @param windowSize the size of the window for prediction
+     */
+    public static byte[] encodeRequest(List<Feature> features, int windowSize) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(features.size());
+            for (Feature feature : features) {
+                double[] values = feature.getWindow(windowSize);
+                writeString(out, feature.getName());
+                out.writeInt(values.length);
+                for (double value : values) {
+                    out.writeDouble(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the feature windows of a request.
+     *
+     * @param payload the payload of a prediction request frame
+     */
+    public static List<FeatureWindow> decodeRequest(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<FeatureWindow> windows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            double[] values = new double[in.readInt()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = in.readDouble();
+            }
+            windows.add(new FeatureWindow(name, values));
+        }
+        return windows;
+    }
+
+    /**
+     * Encodes the results of a request.
+     *
+     * @param results the results in the order of the request
+     */
+    public static byte[] encodeResponse(List<Result> results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(results.size());
+            for (Result result : results) {
+                out.writeByte(result.prediction == null ? 1 : 0);
+                writeString(out, result.featureName);
+                if (result.prediction == null) {
+                    writeString(out, result.error == null ? "" : result.error);
+                    continue;
+                }
+                Prediction p = result.prediction;
+                out.writeInt(p.getPredictionNumber());
+                out.writeDouble(p.getPredictionTime());
+                writeData(out, p.getOriginalData());
+                writeData(out, p.getPreprocessedData());
+                writeData(out, p.getTestDataBeginning());
+                writeData(out, p.getTestDataEnd());
+                writeData(out, p.getPredictionFuture());
+                writeData(out, p.getPredictionTest());
+                Prediction.ErrorMetrics metrics = p.getErrorMetrics();
+                out.writeByte(metrics == null ? 0 : 1);
+                if (metrics != null) {
+                    out.writeDouble(metrics.getRmse());
+                    out.writeDouble(metrics.getMse());
+                    out.writeDouble(metrics.getMae());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the results of a request.
+     *
+     * @param payload the payload of a prediction response frame
+     * @param settings the settings the predictions were made with
+     */
+    public static List<Result> decodeResponse(byte[] payload, SimulationSettings settings) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<Result> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean failed = in.readByte() != 0;
+            String featureName = readString(in);
+            if (failed) {
+                results.add(new Result(featureName, null, readString(in)));
+                continue;
+            }
+            int predictionNumber = in.readInt();
+            double predictionTime = in.readDouble();
+            Prediction.Data originalData = readData(in);
+            Prediction.Data preprocessedData = readData(in);
+            Prediction.Data testDataBeginning = readData(in);
+            Prediction.Data testDataEnd = readData(in);
+            Prediction.Data predictionFuture = readData(in);
+            Prediction.Data predictionTest = readData(in);
+            Prediction.ErrorMetrics errorMetrics = null;
+            if (in.readByte() != 0) {
+                errorMetrics = new Prediction.ErrorMetrics(in.readDouble(), in.readDouble(), in.readDouble());
+            }
+            results.add(new Result(featureName, new Prediction(featureName, predictionNumber, settings,
+                    originalData, preprocessedData, testDataBeginning, testDataEnd, predictionFuture,
+                    predictionTest, errorMetrics, predictionTime), null));
+        }
+        return results;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeData(DataOutputStream out, Prediction.Data data) throws IOException {
+        if (data == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(data.getData().size());
+        for (int i = 0; i < data.getData().size(); i++) {
+            out.writeInt(data.getTimestamp().get(i));
+        }
+        for (double value : data.getData()) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Prediction.Data readData(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Integer> timestamp = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            timestamp.add(in.readInt());
+        }
+        List<Double> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            data.add(in.readDouble());
+        }
+        return new Prediction.Data(timestamp, data);
+    }
+}
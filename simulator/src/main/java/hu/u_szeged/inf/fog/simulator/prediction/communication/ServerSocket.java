@@ -12,6 +12,7 @@ import org.json.JSONObject;
 
 public class ServerSocket {
     private static ServerSocket SERVER_SOCKET;
+    public static final int DEFAULT_PORT = 65432;
     public static int CONNECTED_CLIENTS = 0;
     private java.net.ServerSocket server;
     private int port;
@@ -24,7 +25,7 @@ public class ServerSocket {
 
     public static ServerSocket getInstance() {
         if (ServerSocket.SERVER_SOCKET == null) {
-            ServerSocket.SERVER_SOCKET = new ServerSocket(65432);
+            ServerSocket.SERVER_SOCKET = new ServerSocket(DEFAULT_PORT);
         }
         return ServerSocket.SERVER_SOCKET;
     }
@@ -127,9 +128,14 @@ public class ServerSocket {
         }
     }
 
-    private ClientThread getClientThreadByApplication(SocketMessage.SocketApplication application) {
+    /**
+     * Returns with the connection to an application, or null if the application is not connected.
+     *
+     * @param application the application to look for
+     */
+    public ClientThread getClientThreadByApplication(SocketMessage.SocketApplication application) {
         for (ClientThread clientThread : clientThreads) {
-            if (clientThread.getSocketName().equals(application.value)) {
+            if (application.value.equals(clientThread.getSocketName())) {
                 return clientThread;
             }
         }
@@ -0,0 +1,59 @@
+package hu.u_szeged.inf.fog.simulator.prediction.communication.launchers;
+
+import hu.u_szeged.inf.fog.simulator.prediction.PredictionLogger;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.LocalPredictor;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.ServerSocket;
+
+/**
+ * The class starts the Java-based stand-in predictor inside the simulator's process,
+ * thus simulations using predictions can run without Python (e.g. offline or in tests).
+ */
+public class LocalPredictorLauncher extends Launcher {
+
+    private final boolean binaryProtocolAccepted;
+
+    public LocalPredictorLauncher() {
+        this(true);
+    }
+
+    /**
+     * Constructs a launcher for the stand-in predictor.
+     *
+     * @param binaryProtocolAccepted false if the predictor should only use the JSON protocol
+     */
+    public LocalPredictorLauncher(boolean binaryProtocolAccepted) {
+        this.binaryProtocolAccepted = binaryProtocolAccepted;
+        Launcher.predictionApplications.add(this);
+    }
+
+    @Override
+    public String getProjectLocation() {
+        return LocalPredictor.class.getName();
+    }
+
+    @Override
+    public Process openWindows() throws Exception {
+        start();
+        return null;
+    }
+
+    @Override
+    public Process openLinux() throws Exception {
+        start();
+        return null;
+    }
+
+    /**
+     * The predictor runs on a thread of the simulator on every operating system.
+     */
+    @Override
+    public void open() {
+        start();
+        PredictionLogger.info("application", 
+                String.format("Opening '%s' application... (%s)", getClass().getSimpleName(), getProjectLocation()));
+    }
+
+    private void start() {
+        new LocalPredictor("localhost", ServerSocket.DEFAULT_PORT, binaryProtocolAccepted).start();
+    }
+}
@@ -46,26 +46,45 @@ public class Predictor {
      * Calculated the predicted direction based on maximum of k previous steps using
      * Markov prediction model and the transition matrix.
      *
+     * <p>The score of a direction n is 1 + sum(w_i * P^(i+1)[d_i][n]), where d_i is
+     * the i-th latest direction and w_i is its weight. Only the rows d_i of the
+     * matrix powers are needed, so instead of computing the powers of the matrix
+     * the scores are accumulated Horner-style: starting from the oldest direction,
+     * the weighted indicator vector of each direction is added to the accumulator,
+     * which is then multiplied by the transition matrix. This takes k vector-matrix
+     * products instead of O(k^2) matrix-matrix products.</p>
+     *
      * @return The predicted direction [0, 359]
      */
     public int predictDirection() {
         LimitedQueue<Double> weights = backlog.applyWeights();
         int dirQueueSize = backlog.directionQueue.size();
-        double[][][] cache = new double[dirQueueSize][ProbabilityMatrix.POSSIBLE_DIR][ProbabilityMatrix.POSSIBLE_DIR];
-        for (int i = 0; i < dirQueueSize; i++) {
-            cache[i] = Utils.pow(probabilityMatrix.getTransitionMatrix(), i + 1);
+        int[] directions = new int[dirQueueSize];
+        double[] directionWeights = new double[dirQueueSize];
+        int j = 0;
+        for (Integer direction : backlog.directionQueue) {
+            directions[j++] = direction;
+        }
+        j = 0;
+        for (Double weight : weights) {
+            directionWeights[j++] = weight;
+        }
+
+        double[][] transitionMatrix = probabilityMatrix.getTransitionMatrix();
+        double[] scores = new double[ProbabilityMatrix.POSSIBLE_DIR];
+        double[] next = new double[ProbabilityMatrix.POSSIBLE_DIR];
+        for (int i = dirQueueSize - 1; i >= 0; i--) {
+            scores[directions[i]] += directionWeights[i];
+            Utils.vectorMatrixMultiplication(scores, transitionMatrix, next);
+            double[] tmp = scores;
+            scores = next;
+            next = tmp;
         }
+
         int predicted = -1;
         double max = Double.MIN_VALUE;
         for (int n = 0; n < ProbabilityMatrix.POSSIBLE_DIR; n++) {
-            double product = 1.0;
-            for (int i = 0; i < dirQueueSize; i++) {
-                // double[][] POW_MATRIX = Utils.pow(probabilityMatrix.getTransitionMatrix(), i
-                // + 1);
-                double[][] powMatrix = cache[i];
-                Integer currDirectrion = backlog.directionQueue.get(i);
-                product += powMatrix[currDirectrion][n] * weights.get(i);
-            }
+            double product = 1.0 + scores[n];
             if (product > max) {
                 max = product;
                 predicted = n;
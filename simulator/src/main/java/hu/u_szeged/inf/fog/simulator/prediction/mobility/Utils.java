@@ -76,6 +76,29 @@ public class Utils {
         return result;
     }
 
+    /**
+     * Multiplies a row vector with a matrix (v x M). Zero elements of the vector
+     * are skipped, so sparse vectors are multiplied faster.
+     *
+     * @param v      The row vector, its length is the number of rows of M
+     * @param m      The matrix
+     * @param result The array receiving v x M, its length is the number of
+     *               columns of M; it must not be the same array as v
+     */
+    public static void vectorMatrixMultiplication(double[] v, double[][] m, double[] result) {
+        Arrays.fill(result, 0);
+        for (int row = 0; row < v.length; row++) {
+            double factor = v[row];
+            if (factor == 0) {
+                continue;
+            }
+            double[] mRow = m[row];
+            for (int col = 0; col < result.length; col++) {
+                result[col] += factor * mRow[col];
+            }
+        }
+    }
+
     /**
      * Calculates the value of a cell during matrix multiplication (row x col
      * composition).
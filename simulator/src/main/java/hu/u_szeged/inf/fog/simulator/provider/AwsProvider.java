@@ -10,6 +10,8 @@ import hu.u_szeged.inf.fog.simulator.iot.Device;
  */
 public class AwsProvider extends Provider {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The default cost per message for connectivity in AWS.
      */
@@ -71,7 +73,7 @@ public class AwsProvider extends Provider {
         long totalDeviceRuntime = 0;
         long totalMessageCount = 0;
 
-        for (Device d : Device.allDevices) {
+        for (Device d : Device.getAllDevices()) {
             totalDeviceRuntime += (d.stopTime - d.startTime);
             totalMessageCount += d.messageCount;
         }
@@ -11,6 +11,8 @@ import hu.u_szeged.inf.fog.simulator.iot.Device;
  */
 public class AzureProvider extends Provider {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The default size of a message in bytes for Azure.
      */
@@ -86,7 +88,7 @@ public class AzureProvider extends Provider {
         }
 
         int countOfServicableApplications = 0;
-        for (Application app : Application.allApplications) {
+        for (Application app : Application.getAllApplications()) {
             if (app.serviceable) {
                 countOfServicableApplications++;
             }
@@ -97,11 +99,11 @@ public class AzureProvider extends Provider {
 
         long totalMessageCount = 0;
         double totalDeviceFileSize = 0.0;
-        for (Device d : Device.allDevices) {
+        for (Device d : Device.getAllDevices()) {
             totalDeviceFileSize += d.fileSize;
             totalMessageCount += d.messageCount;
         }
-        if ((totalDeviceFileSize / Device.allDevices.size()) > messageSize) {
+        if ((totalDeviceFileSize / Device.getAllDevices().size()) > messageSize) {
             System.err.println("The message size is larger than the category allows for the Azure IoT provider.");
         }
 
@@ -1,6 +1,7 @@
 package hu.u_szeged.inf.fog.simulator.provider;
 
 import hu.u_szeged.inf.fog.simulator.application.Application;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -11,10 +12,14 @@ import java.util.Arrays;
  */
 public class IbmProvider extends Provider {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Represents a data tier with corresponding size range and its cost.
      */
-    public static class DataTier {
+    public static class DataTier implements Serializable {
+
+        private static final long serialVersionUID = 1L;
         
         /**
          * The lower bound of the size range (in MBs).
@@ -2,12 +2,15 @@ package hu.u_szeged.inf.fog.simulator.provider;
 
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import java.io.Serializable;
 import java.util.HashMap;
 
 /**
  * The class represents a VM type with pricing, and image and flavor characteristics.
  */
-public class Instance {
+public class Instance implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * A map storing all instances and identified by their name.
@@ -1,5 +1,6 @@
 package hu.u_szeged.inf.fog.simulator.provider;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
 /**
@@ -7,7 +8,9 @@ import java.util.ArrayList;
  * The concrete provider implementation has to override the calculate
  * method to determine the IoT-side cost of the provider.
  */
-public abstract class Provider {
+public abstract class Provider implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     /**
      * A list containing all instances of providers.
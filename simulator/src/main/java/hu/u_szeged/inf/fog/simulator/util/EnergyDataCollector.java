@@ -5,54 +5,121 @@ import hu.mta.sztaki.lpds.cloud.simulator.energy.specialized.IaaSEnergyMeter;
 import hu.mta.sztaki.lpds.cloud.simulator.energy.specialized.PhysicalMachineEnergyMeter;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Periodically samples the total energy consumption of an IaaS service or a physical machine.
+ * The underlying meters are event driven, so the samples are exact and the only periodic
+ * events are the ones of the collector itself.
+ *
+ * <p>If logging is turned on, the readings are kept in two growable primitive columns
+ * (timestamps and values), so a reading costs 16 bytes without any boxing. The collectors
+ * are registered in {@link #energyCollectors}, the position of a collector in this list
+ * is its id, while the collector of an IaaS service or a physical machine can be found
+ * by a hash lookup.</p>
+ */
 public class EnergyDataCollector extends Timed {
-    
+
+    private static final long serialVersionUID = 1L;
+
     public static long freq = 60 * 1000;
-    
+
+    /**
+     * All collectors created so far, indexed by their ids.
+     */
     public static List<EnergyDataCollector> energyCollectors = new ArrayList<>();
-    
-    public static TreeMap<String, TreeMap<Long, Double>> readings = new TreeMap<String, TreeMap<Long, Double>>();
-        
+
+    private static Map<IaaSService, EnergyDataCollector> iaasCollectors = new IdentityHashMap<>();
+
+    private static Map<PhysicalMachine, EnergyDataCollector> pmCollectors = new IdentityHashMap<>();
+
+    /**
+     * The readings are flushed to the output file when this many characters are buffered.
+     */
+    private static final int writeBufferSize = 1 << 16;
+
     public double energyConsumption;
-    
+
+    /**
+     * The position of the collector in {@link #energyCollectors}.
+     */
+    public final int id;
+
     PhysicalMachineEnergyMeter pmEnergyMeter;
-    
+
     IaaSEnergyMeter iaasEnergyMeter;
-    
+
     IaaSService iaas;
-    
+
     PhysicalMachine pm;
-    
+
     boolean logging;
-    
+
     String name;
-    
+
+    private long[] timestamps = new long[16];
+
+    private double[] values = new double[16];
+
+    private int size;
+
     public EnergyDataCollector(String name, IaaSService iaas, boolean logging) {
         this.name = name;
         subscribe(freq);
-        energyCollectors.add(this);
+        this.id = register();
+        iaasCollectors.putIfAbsent(iaas, this);
         this.iaas = iaas;
         this.logging = logging;
         this.iaasEnergyMeter = new IaaSEnergyMeter(iaas);
-        this.iaasEnergyMeter.startMeter(freq, true);
+        this.iaasEnergyMeter.startMeter(true);
     }
-    
+
     public EnergyDataCollector(String name, PhysicalMachine pm, boolean logging) {
         this.name = name;
         subscribe(freq);
-        energyCollectors.add(this);
+        this.id = register();
+        pmCollectors.putIfAbsent(pm, this);
         this.pm = pm;
         this.logging = logging;
         this.pmEnergyMeter = new PhysicalMachineEnergyMeter(pm);
-        this.pmEnergyMeter.startMeter(freq, true);
+        this.pmEnergyMeter.startMeter(true);
+    }
+
+    private int register() {
+        energyCollectors.add(this);
+        return energyCollectors.size() - 1;
+    }
+
+    /**
+     * Replaces the registered collectors with the ones of a restored simulation
+     * (see {@link SimulationCheckpoint}) and rebuilds the lookups.
+     */
+    static void restore(List<EnergyDataCollector> collectors) {
+        energyCollectors = collectors;
+        iaasCollectors = new IdentityHashMap<>();
+        pmCollectors = new IdentityHashMap<>();
+        for (EnergyDataCollector edc : collectors) {
+            if (edc.iaas != null) {
+                iaasCollectors.putIfAbsent(edc.iaas, edc);
+            }
+            if (edc.pm != null) {
+                pmCollectors.putIfAbsent(edc.pm, edc);
+            }
+        }
     }
 
     public void stop() {
@@ -64,7 +131,7 @@ public class EnergyDataCollector extends Timed {
             this.iaasEnergyMeter.stopMeter();
         }
     }
-    
+
     @Override
     public void tick(long fires) {
         if (this.pmEnergyMeter != null) {
@@ -74,56 +141,286 @@ public class EnergyDataCollector extends Timed {
             energyConsumption = iaasEnergyMeter.getTotalConsumption();
         }
         if (logging) {
-            readings.computeIfAbsent(this.name, k -> new TreeMap<>()).put(Timed.getFireCount(), energyConsumption);
+            addReading(Timed.getFireCount(), energyConsumption);
         }
-      
     }
-    
-    public static EnergyDataCollector getEnergyCollector(IaaSService iaas) {
-        for (EnergyDataCollector edc : EnergyDataCollector.energyCollectors) {
-            if (edc.iaas == iaas) {
-                return edc;
+
+    /**
+     * Stores a reading, a reading with the same timestamp as the latest one replaces it.
+     *
+     * @param timestamp the time of the reading, not smaller than the one of the latest reading
+     * @param value the total energy consumption (in Joule)
+     */
+    void addReading(long timestamp, double value) {
+        if (size > 0 && timestamps[size - 1] == timestamp) {
+            values[size - 1] = value;
+            return;
+        }
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns with the number of readings stored.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns with the timestamp of the i-th reading.
+     */
+    public long getTimestamp(int i) {
+        checkIndex(i);
+        return timestamps[i];
+    }
+
+    /**
+     * Returns with the value of the i-th reading (total energy consumption in Joule).
+     */
+    public double getReading(int i) {
+        checkIndex(i);
+        return values[i];
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Reading " + i + " of " + size);
+        }
+    }
+
+    /**
+     * Returns with the index of the first reading taken at or after the given time,
+     * or {@link #size()} if there is no such reading.
+     *
+     * @param time the time in ticks
+     */
+    public int indexOf(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
-        return null;
+        return low;
     }
-    
-    public static EnergyDataCollector getEnergyCollector(PhysicalMachine pm) {
-        for (EnergyDataCollector edc : EnergyDataCollector.energyCollectors) {
-            if (edc.pm == pm) {
-                return edc;
+
+    /**
+     * Returns with the energy consumed between the first and the last reading taken in
+     * the [from, to) interval (in Joule). As the readings are cumulative, this is the
+     * difference of the two readings, 0 if there are less than two readings in the interval.
+     */
+    public double consumption(long from, long to) {
+        int start = indexOf(from);
+        int end = indexOf(to);
+        return end - start < 2 ? 0 : values[end - 1] - values[start];
+    }
+
+    /**
+     * Returns with the readings taken in the [from, to) interval.
+     */
+    public double[] range(long from, long to) {
+        int start = indexOf(from);
+        return Arrays.copyOfRange(values, start, Math.max(start, indexOf(to)));
+    }
+
+    /**
+     * Returns with the latest reading taken at or before the given time, or NaN if there
+     * was no reading until that time.
+     */
+    public double valueAt(long time) {
+        int i = indexOf(time);
+        if (i < size && timestamps[i] == time) {
+            return values[i];
+        }
+        return i == 0 ? Double.NaN : values[i - 1];
+    }
+
+    /**
+     * Samples the readings at equidistant points of time, the value of a point is the latest
+     * reading taken at or before that time (NaN if there was no reading until then).
+     *
+     * @param from the time of the first point
+     * @param step the distance of the points, must be positive
+     * @param count the number of points
+     */
+    public double[] resample(long from, long step, int count) {
+        if (step <= 0 || count < 0) {
+            throw new IllegalArgumentException("The step must be positive and the count must not be negative");
+        }
+        double[] result = new double[count];
+        int i = indexOf(from);
+        for (int p = 0; p < count; p++) {
+            long time = from + p * step;
+            while (i < size && timestamps[i] <= time) {
+                i++;
             }
+            result[p] = i == 0 ? Double.NaN : values[i - 1];
         }
-        return null;
+        return result;
+    }
+
+    public static EnergyDataCollector getEnergyCollector(int id) {
+        return energyCollectors.get(id);
+    }
+
+    public static EnergyDataCollector getEnergyCollector(IaaSService iaas) {
+        return iaasCollectors.get(iaas);
+    }
+
+    public static EnergyDataCollector getEnergyCollector(PhysicalMachine pm) {
+        return pmCollectors.get(pm);
+    }
+
+    /**
+     * Forgets every collector (e.g. before starting a new simulation), the collectors
+     * themselves are not stopped.
+     */
+    public static void clear() {
+        energyCollectors.clear();
+        iaasCollectors.clear();
+        pmCollectors.clear();
     }
-    
+
+    /**
+     * Writes the readings of the logging collectors to the energy.csv file of the given directory.
+     * There is a column for each collector name (in alphabetical order) and a row for each
+     * timestamp any of the collectors has a reading for, the values are given in kWh.
+     * If more collectors have the same name, the latest registered one having a reading
+     * at a timestamp gives the value.
+     */
     public static void writeToFile(String resultDirectory) {
-        try {            
-            FileWriter fw = new FileWriter(resultDirectory + File.separator + "energy.csv");
-            
-            fw.write("Timestamp");
-            for (String key : readings.keySet()) {
-                fw.write("; " + key);
+        List<EnergyDataCollector> logged = new ArrayList<>();
+        for (EnergyDataCollector edc : energyCollectors) {
+            if (edc.logging && edc.size > 0) {
+                logged.add(edc);
             }
-            fw.write("\n");
+        }
+        logged.sort(Comparator.comparing(edc -> edc.name));
 
-            TreeSet<Long> allTimestamps = new TreeSet<>();
-            for (TreeMap<Long, Double> treeMap : readings.values()) {
-                allTimestamps.addAll(treeMap.keySet());
+        List<EnergyDataCollector[]> columns = new ArrayList<>();
+        for (int i = 0; i < logged.size();) {
+            int j = i;
+            while (j < logged.size() && logged.get(j).name.equals(logged.get(i).name)) {
+                j++;
             }
+            columns.add(logged.subList(i, j).toArray(new EnergyDataCollector[0]));
+            i = j;
+        }
 
-            for (Long timestamp : allTimestamps) {
-                fw.write(timestamp.toString()); 
-                for (String key : readings.keySet()) {
-                    Double value = readings.get(key).get(timestamp);
-                    fw.write(";" + (value != null ? String.format("%.3f", value / 1000 / 3_600_000) : "")); 
-                }
-                fw.write("\n");
+        char decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT))
+                .getDecimalSeparator();
+        int[] cursors = new int[energyCollectors.size()];
+        StringBuilder sb = new StringBuilder(writeBufferSize + 1024);
+
+        try (Writer fw = new BufferedWriter(new FileWriter(resultDirectory + File.separator + "energy.csv"))) {
+            sb.append("Timestamp");
+            for (EnergyDataCollector[] column : columns) {
+                sb.append("; ").append(column[0].name);
             }
+            sb.append('\n');
 
-            fw.close();
+            while (true) {
+                long timestamp = Long.MAX_VALUE;
+                boolean found = false;
+                for (EnergyDataCollector edc : logged) {
+                    int cursor = cursors[edc.id];
+                    if (cursor < edc.size && edc.timestamps[cursor] <= timestamp) {
+                        timestamp = edc.timestamps[cursor];
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    break;
+                }
+
+                sb.append(timestamp);
+                for (EnergyDataCollector[] column : columns) {
+                    sb.append(';');
+                    int valueOf = -1;
+                    for (int c = 0; c < column.length; c++) {
+                        EnergyDataCollector edc = column[c];
+                        int cursor = cursors[edc.id];
+                        if (cursor < edc.size && edc.timestamps[cursor] == timestamp) {
+                            if (valueOf < 0 || edc.id > column[valueOf].id) {
+                                valueOf = c;
+                            }
+                            cursors[edc.id]++;
+                        }
+                    }
+                    if (valueOf >= 0) {
+                        EnergyDataCollector edc = column[valueOf];
+                        appendDecimal(sb, edc.values[cursors[edc.id] - 1] / 1000 / 3_600_000, decimalSeparator);
+                    }
+                }
+                sb.append('\n');
+
+                if (sb.length() >= writeBufferSize) {
+                    write(fw, sb);
+                }
+            }
+            write(fw, sb);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private static void write(Writer writer, StringBuilder sb) throws IOException {
+        char[] chars = new char[sb.length()];
+        sb.getChars(0, chars.length, chars, 0);
+        writer.write(chars);
+        sb.setLength(0);
+    }
+
+    /**
+     * Appends the value with three fractional digits, rounding half up like
+     * <code>String.format("%.3f", value)</code> does.
+     */
+    static void appendDecimal(StringBuilder sb, double value, char decimalSeparator) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            sb.append(value);
+            return;
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+            value = -value;
+        }
+        double scaled = value * 1000;
+        long rounded;
+        if (scaled < 1e12 && Math.abs(scaled - Math.floor(scaled) - 0.5) > 1e-3) {
+            rounded = (long) Math.floor(scaled + 0.5);
+        } else {
+            // the decimal digits of the value are needed to decide which way to round
+            BigDecimal exact = new BigDecimal(Double.toString(value)).setScale(3, RoundingMode.HALF_UP);
+            if (exact.precision() > 18) {
+                String digits = exact.toPlainString();
+                int point = digits.length() - 4;
+                sb.append(digits, 0, point).append(decimalSeparator).append(digits, point + 1, digits.length());
+                return;
+            }
+            rounded = exact.unscaledValue().longValue();
+        }
+        sb.append(rounded / 1000).append(decimalSeparator);
+        long fraction = rounded % 1000;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
 }
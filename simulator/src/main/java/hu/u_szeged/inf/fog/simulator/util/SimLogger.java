@@ -2,21 +2,105 @@ package hu.u_szeged.inf.fog.simulator.util;
 
 import hu.u_szeged.inf.fog.simulator.demo.ScenarioBase;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
 
 /**
  * Provides logging functionality for the simulation.
+ *
+ * <p>Runtime messages can be given as a format string (see {@link String#format}) with
+ * its arguments or as a supplier, in both cases the message is only built if the
+ * level of the message is enabled. The messages can be sorted into categories, each
+ * category is a child logger of {@link #simLogger}, thus its level can be set separately
+ * (see {@link #setLevel}); categories without their own level inherit the level of
+ * {@link #simLogger}.</p>
  */
 public class SimLogger {
-    
+
     /**
      * Logger instance for logging simulation events.
      */
-    public static Logger simLogger = Logger.getLogger("DISSECT-CF-Fog-SimLogger"); 
-    
+    public static Logger simLogger = Logger.getLogger("DISSECT-CF-Fog-SimLogger");
+
+    /**
+     * A named group of log messages with its own level.
+     */
+    public static final class Category {
+
+        final Logger logger;
+
+        private Category(String name) {
+            this.logger = Logger.getLogger(simLogger.getName() + "." + name);
+        }
+
+        public String getName() {
+            return logger.getName().substring(simLogger.getName().length() + 1);
+        }
+    }
+
+    /**
+     * The categories created so far, they are kept so the level of a category is not lost
+     * (JUL only keeps weak references to its loggers).
+     */
+    private static final ConcurrentHashMap<String, Category> categories = new ConcurrentHashMap<>();
+
+    public static final Category APPLICATION = category("application");
+
+    public static final Category DEVICE = category("device");
+
+    public static final Category NODE = category("node");
+
+    public static final Category AGENT = category("agent");
+
+    public static final Category WORKFLOW = category("workflow");
+
+    /**
+     * The handler forwarding the log records to the original handlers on a background
+     * thread, or null if logging is synchronous.
+     */
+    private static AsyncHandler asyncHandler;
+
+    private static boolean shutdownHookAdded;
+
+    /**
+     * Returns with the category of the given name, categories of the same name share their level.
+     *
+     * @param name the name of the category
+     */
+    public static Category category(String name) {
+        return categories.computeIfAbsent(name, Category::new);
+    }
+
+    /**
+     * Sets the level of a category, null means the level of {@link #simLogger} is used.
+     *
+     * @param category the category to configure
+     * @param level the level of the category
+     */
+    public static void setLevel(Category category, Level level) {
+        category.logger.setLevel(level);
+    }
+
+    /**
+     * Determines if the runtime messages of a category are logged.
+     *
+     * @param category the category of the messages
+     */
+    public static boolean isRunEnabled(Category category) {
+        return category.logger.isLoggable(Level.INFO);
+    }
+
     /**
      * Logs event occurring runtime.
      *
@@ -25,16 +109,66 @@ public class SimLogger {
     public static void logRun(String string) {
         simLogger.info(string);
     }
-    
+
+    /**
+     * Logs event occurring runtime, the message is only formatted if it is going to be logged.
+     *
+     * @param format the format string of the message
+     * @param args the arguments of the format string
+     */
+    public static void logRun(String format, Object... args) {
+        log(simLogger, Level.INFO, format, args);
+    }
+
+    /**
+     * Logs event occurring runtime, the message is only created if it is going to be logged.
+     *
+     * @param message the supplier of the message to log
+     */
+    public static void logRun(Supplier<String> message) {
+        log(simLogger, Level.INFO, message);
+    }
+
+    /**
+     * Logs event of a category occurring runtime, the message is only formatted if it is going to be logged.
+     *
+     * @param category the category of the message
+     * @param format the format string of the message
+     * @param args the arguments of the format string
+     */
+    public static void logRun(Category category, String format, Object... args) {
+        log(category.logger, Level.INFO, format, args);
+    }
+
+    /**
+     * Logs event of a category occurring runtime, the message is only created if it is going to be logged.
+     *
+     * @param category the category of the message
+     * @param message the supplier of the message to log
+     */
+    public static void logRun(Category category, Supplier<String> message) {
+        log(category.logger, Level.INFO, message);
+    }
+
     /**
      * Logs event occurring after (i.e. logging results).
      *
      * @param message he message to log
      */
     public static void logRes(Object message) {
-        simLogger.warning(String.valueOf(message)); 
+        simLogger.warning(String.valueOf(message));
+    }
+
+    /**
+     * Logs event occurring after (i.e. logging results), the message is only formatted if it is going to be logged.
+     *
+     * @param format the format string of the message
+     * @param args the arguments of the format string
+     */
+    public static void logRes(String format, Object... args) {
+        log(simLogger, Level.WARNING, format, args);
     }
-    
+
     /**
      * Logs critical error event and exits the program.
      *
@@ -42,9 +176,22 @@ public class SimLogger {
      */
     public static void logError(String string) {
         simLogger.severe("ERROR: " + string);
+        flush();
         System.exit(0);
     }
-    
+
+    private static void log(Logger logger, Level level, String format, Object... args) {
+        if (logger.isLoggable(level)) {
+            logger.log(level, args.length == 0 ? format : String.format(format, args));
+        }
+    }
+
+    private static void log(Logger logger, Level level, Supplier<String> message) {
+        if (logger.isLoggable(level)) {
+            logger.log(level, message.get());
+        }
+    }
+
     /**
      * Set up logging for the simulation.
 
@@ -65,21 +212,202 @@ public class SimLogger {
               simLogger.setLevel(Level.INFO);
               break;
           case 2:
-              simLogger.setLevel(Level.WARNING);        
+              simLogger.setLevel(Level.WARNING);
               break;
           default:
               simLogger.setLevel(Level.INFO);
         }
-        
+
         if (toFile) {
             try {
                 FileHandler fh = new FileHandler(ScenarioBase.resultDirectory + "/log.txt");
-                simLogger.addHandler(fh);
-                SimpleFormatter formatter = new SimpleFormatter();  
-                fh.setFormatter(formatter);  
+                SimpleFormatter formatter = new SimpleFormatter();
+                fh.setFormatter(formatter);
+                if (asyncHandler != null) {
+                    asyncHandler.targets.add(fh);
+                } else {
+                    simLogger.addHandler(fh);
+                }
             } catch (SecurityException | IOException e) {
                 e.printStackTrace();
-            }  
+            }
+        }
+    }
+
+    /**
+     * Writes the log messages on a background thread. The messages are still formatted
+     * on the logging thread, only the writing (e.g. console and file output) is deferred.
+     * If the given number of messages are waiting to be written, logging blocks until the
+     * background thread catches up. Calling it again has no effect until
+     * {@link #setSynchronous()} is called.
+     *
+     * @param capacity the maximum number of messages waiting to be written
+     */
+    public static synchronized void setAsynchronous(int capacity) {
+        if (asyncHandler != null) {
+            return;
+        }
+        List<Handler> targets = new ArrayList<>();
+        for (Handler handler : simLogger.getHandlers()) {
+            simLogger.removeHandler(handler);
+            targets.add(handler);
+        }
+        boolean useParentHandlers = simLogger.getUseParentHandlers();
+        if (useParentHandlers) {
+            for (Logger parent = simLogger.getParent(); parent != null; parent = parent.getParent()) {
+                for (Handler handler : parent.getHandlers()) {
+                    targets.add(handler);
+                }
+                if (!parent.getUseParentHandlers()) {
+                    break;
+                }
+            }
+        }
+        asyncHandler = new AsyncHandler(capacity, targets, useParentHandlers);
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SimLogger::flush));
+            shutdownHookAdded = true;
+        }
+        simLogger.setUseParentHandlers(false);
+        simLogger.addHandler(asyncHandler);
+    }
+
+    /**
+     * Waits until the pending messages are written and writes the log messages on
+     * the logging thread again.
+     */
+    public static synchronized void setSynchronous() {
+        if (asyncHandler == null) {
+            return;
+        }
+        asyncHandler.close();
+        simLogger.removeHandler(asyncHandler);
+        simLogger.setUseParentHandlers(asyncHandler.useParentHandlers);
+        if (!asyncHandler.useParentHandlers) {
+            for (Handler handler : asyncHandler.targets) {
+                simLogger.addHandler(handler);
+            }
+        } else {
+            // the inherited handlers are used again, only the own ones have to be restored
+            for (Handler handler : asyncHandler.targets) {
+                if (!isInherited(handler)) {
+                    simLogger.addHandler(handler);
+                }
+            }
+        }
+        asyncHandler = null;
+    }
+
+    /**
+     * Waits until the messages logged so far are written.
+     */
+    public static void flush() {
+        AsyncHandler handler = asyncHandler;
+        if (handler != null) {
+            handler.flush();
+        }
+    }
+
+    private static boolean isInherited(Handler handler) {
+        for (Logger parent = simLogger.getParent(); parent != null; parent = parent.getParent()) {
+            for (Handler h : parent.getHandlers()) {
+                if (h == handler) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forwards the log records to other handlers on a daemon thread through a bounded queue.
+     */
+    private static class AsyncHandler extends Handler {
+
+        private static final LogRecord END = new LogRecord(Level.OFF, "");
+
+        final List<Handler> targets;
+
+        final boolean useParentHandlers;
+
+        private final BlockingQueue<LogRecord> queue;
+
+        private final Thread writer;
+
+        private long published;
+
+        private long written;
+
+        AsyncHandler(int capacity, List<Handler> targets, boolean useParentHandlers) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.targets = new CopyOnWriteArrayList<>(targets);
+            this.useParentHandlers = useParentHandlers;
+            this.writer = new Thread(this::write, "SimLogger-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            try {
+                queue.put(record);
+            } catch (InterruptedException e) {
+                // the record is dropped, thus it must not be waited for by flush
+                Thread.currentThread().interrupt();
+                return;
+            }
+            synchronized (this) {
+                published++;
+            }
+        }
+
+        private void write() {
+            try {
+                while (true) {
+                    LogRecord record = queue.take();
+                    if (record == END) {
+                        return;
+                    }
+                    for (Handler handler : targets) {
+                        handler.publish(record);
+                    }
+                    synchronized (this) {
+                        written++;
+                        if (written >= published || queue.isEmpty()) {
+                            for (Handler handler : targets) {
+                                handler.flush();
+                            }
+                            notifyAll();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the writer is only interrupted when the JVM stops
+            }
+        }
+
+        @Override
+        public synchronized void flush() {
+            long target = published;
+            while (written < target && writer.isAlive()) {
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+            try {
+                queue.put(END);
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
-}
\ No newline at end of file
+}
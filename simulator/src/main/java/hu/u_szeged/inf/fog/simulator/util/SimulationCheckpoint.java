@@ -0,0 +1,192 @@
+package hu.u_szeged.inf.fog.simulator.util;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Checkpoint;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.u_szeged.inf.fog.simulator.agent.AgentApplication;
+import hu.u_szeged.inf.fog.simulator.agent.Deployment;
+import hu.u_szeged.inf.fog.simulator.agent.ResourceAgent;
+import hu.u_szeged.inf.fog.simulator.application.Application;
+import hu.u_szeged.inf.fog.simulator.iot.Actuator;
+import hu.u_szeged.inf.fog.simulator.iot.Device;
+import hu.u_szeged.inf.fog.simulator.iot.Sensor;
+import hu.u_szeged.inf.fog.simulator.iot.SmartDevice;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.MobilityEvent;
+import hu.u_szeged.inf.fog.simulator.provider.Instance;
+import hu.u_szeged.inf.fog.simulator.provider.Provider;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
+import hu.u_szeged.inf.fog.simulator.workflow.WorkflowExecutor;
+import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import hu.u_szeged.inf.fog.simulator.workflow.aco.ClusterMessenger;
+import hu.u_szeged.inf.fog.simulator.workflow.scheduler.WorkflowScheduler;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Saves and restores a running fog simulation, thus the warm-up phase of a scenario has to be
+ * simulated only once, and several variants can be continued from the same state.
+ *
+ * <p>Besides the simulation context (see {@link Checkpoint}), which holds the events, the devices,
+ * the applications and the computing appliances, the static state of the fog entities is also
+ * captured: the actuators, the energy data collectors, the providers and instances, the workflow
+ * jobs and schedulers, the resource agents with their applications and image registry, and the
+ * counters of the applications, devices and mobility events. Restoring a checkpoint overwrites
+ * this static state, thus only one restored simulation should be continued at a time. The
+ * devices, applications and computing appliances stay in the restored context, they are
+ * available through {@link Device#getAllDevices()} and alike while the calling thread is bound
+ * to the restored context (see {@link SimulationContext#run(Runnable)}). A checkpoint should be
+ * taken between two simulateUntil...() calls.</p>
+ *
+ * <p>The timeline being recorded to disk (see {@link TimelineVisualiser#startRecording}) and the
+ * connections of the prediction module are not captured, recording has to be started again
+ * in the restored simulation if needed.</p>
+ */
+public class SimulationCheckpoint {
+
+    /**
+     * The name of the captured static state in the checkpoint.
+     */
+    static final String FOG_STATE = "fogState";
+
+    /**
+     * The static state of the fog entities at the time of the checkpoint.
+     */
+    static class FogState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        List<Actuator> allActuators;
+        ArrayList<TimelineEntry> sensorEventList;
+        List<EnergyDataCollector> energyCollectors;
+        long energyCollectorFreq;
+        HashMap<String, Instance> allInstances;
+        ArrayList<Provider> allProviders;
+        ArrayList<WorkflowJob> workflowJobs;
+        ArrayList<WorkflowScheduler> schedulers;
+        ArrayList<WorkflowScheduler> workflowSchedulers;
+        int clusterMessageCount;
+        ArrayList<ResourceAgent> resourceAgents;
+        List<AgentApplication> agentApplications;
+        Repository registryService;
+        int deploymentTaskNum;
+        long applicationTotalTimeOnNetwork;
+        long applicationTotalBytesOnNetwork;
+        long applicationLastAction;
+        long applicationTotalProcessedSize;
+        long deviceLastAction;
+        long deviceTotalGeneratedSize;
+        long stuckData;
+        long changePositionEventCounter;
+        long connectToNodeEventCounter;
+        long disconnectFromNodeEventCounter;
+        long changeNodeEventCounter;
+
+        void capture() {
+            allActuators = Actuator.allActuators;
+            sensorEventList = Sensor.sensorEventList;
+            energyCollectors = EnergyDataCollector.energyCollectors;
+            energyCollectorFreq = EnergyDataCollector.freq;
+            allInstances = Instance.allInstances;
+            allProviders = Provider.allProviders;
+            workflowJobs = WorkflowJob.workflowJobs;
+            schedulers = WorkflowScheduler.schedulers;
+            workflowSchedulers = WorkflowExecutor.workflowSchedulers;
+            clusterMessageCount = ClusterMessenger.clusterMessageCount;
+            resourceAgents = ResourceAgent.resourceAgents;
+            agentApplications = AgentApplication.agentApplications;
+            registryService = Deployment.registryService;
+            deploymentTaskNum = Deployment.taskNum;
+            applicationTotalTimeOnNetwork = Application.totalTimeOnNetwork;
+            applicationTotalBytesOnNetwork = Application.totalBytesOnNetwork;
+            applicationLastAction = Application.lastAction;
+            applicationTotalProcessedSize = Application.totalProcessedSize;
+            deviceLastAction = Device.lastAction;
+            deviceTotalGeneratedSize = Device.totalGeneratedSize;
+            stuckData = SmartDevice.stuckData;
+            changePositionEventCounter = MobilityEvent.changePositionEventCounter;
+            connectToNodeEventCounter = MobilityEvent.connectToNodeEventCounter;
+            disconnectFromNodeEventCounter = MobilityEvent.disconnectFromNodeEventCounter;
+            changeNodeEventCounter = MobilityEvent.changeNodeEventCounter;
+        }
+
+        void restore() {
+            Actuator.allActuators = allActuators;
+            Sensor.sensorEventList = sensorEventList;
+            EnergyDataCollector.restore(energyCollectors);
+            EnergyDataCollector.freq = energyCollectorFreq;
+            Instance.allInstances = allInstances;
+            Provider.allProviders = allProviders;
+            WorkflowJob.workflowJobs = workflowJobs;
+            WorkflowScheduler.schedulers = schedulers;
+            if (workflowSchedulers != null) {
+                // the executor would replace the schedulers when it is created
+                WorkflowExecutor.getIstance();
+            }
+            WorkflowExecutor.workflowSchedulers = workflowSchedulers;
+            ClusterMessenger.clusterMessageCount = clusterMessageCount;
+            ResourceAgent.resourceAgents = resourceAgents;
+            AgentApplication.agentApplications = agentApplications;
+            Deployment.registryService = registryService;
+            Deployment.taskNum = deploymentTaskNum;
+            Application.totalTimeOnNetwork = applicationTotalTimeOnNetwork;
+            Application.totalBytesOnNetwork = applicationTotalBytesOnNetwork;
+            Application.lastAction = applicationLastAction;
+            Application.totalProcessedSize = applicationTotalProcessedSize;
+            Device.lastAction = deviceLastAction;
+            Device.totalGeneratedSize = deviceTotalGeneratedSize;
+            SmartDevice.stuckData = stuckData;
+            MobilityEvent.changePositionEventCounter = changePositionEventCounter;
+            MobilityEvent.connectToNodeEventCounter = connectToNodeEventCounter;
+            MobilityEvent.disconnectFromNodeEventCounter = disconnectFromNodeEventCounter;
+            MobilityEvent.changeNodeEventCounter = changeNodeEventCounter;
+        }
+    }
+
+    /**
+     * Captures the simulation the calling thread is bound to, further objects (e.g., the ones
+     * evaluated at the end of the scenario) can be added to the returned checkpoint.
+     */
+    public static Checkpoint capture() {
+        FogState state = new FogState();
+        state.capture();
+        return new Checkpoint().put(FOG_STATE, state);
+    }
+
+    /**
+     * Restores the static state of the fog entities from a checkpoint.
+     *
+     * @param checkpoint a checkpoint created with {@link #capture()}
+     * @return the context the restored simulation has to be continued in
+     */
+    public static SimulationContext restore(Checkpoint checkpoint) {
+        FogState state = checkpoint.get(FOG_STATE, FogState.class);
+        if (state == null) {
+            throw new IllegalArgumentException("The checkpoint does not hold the state of a fog simulation");
+        }
+        state.restore();
+        return checkpoint.getContext();
+    }
+
+    /**
+     * Saves the simulation the calling thread is bound to into a file.
+     *
+     * @param file the file to write, it is overwritten if it exists
+     */
+    public static void save(File file) throws IOException {
+        capture().save(file);
+    }
+
+    /**
+     * Loads a simulation saved with {@link #save(File)} and restores its static state.
+     *
+     * @param file the file to read
+     * @return the context the restored simulation has to be continued in
+     */
+    public static SimulationContext load(File file) throws IOException {
+        return restore(Checkpoint.load(file));
+    }
+}
@@ -0,0 +1,354 @@
+package hu.u_szeged.inf.fog.simulator.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams timeline entries to disk in chunks, so the memory used does not depend on the
+ * number of entries. The entries are stored on several levels: level 0 holds the entries
+ * themselves, while the higher levels hold spans, each of them merging the entries of a row
+ * that are closer to each other than the gap of the level. Every level is written into its own
+ * sequence of chunk files (<code>chunk-&lt;level&gt;-&lt;number&gt;.js</code>), and the time
+ * range and size of every chunk is kept for the index, thus a viewer can load only the chunks
+ * of the level and time window it displays.
+ *
+ * <p>A chunk file is a JavaScript call: <code>timelineChunk(level, number, labels, data)</code>,
+ * where the data holds four numbers for each entry: the row id, the label id (the number of
+ * merged entries on the higher levels), the start and the duration. The row names are
+ * listed by the index. Levels with a few spans are also kept in memory to be embedded into
+ * the HTML page.</p>
+ */
+public class TimelineStore {
+
+    /**
+     * The maximum number of entries (or spans) in a chunk file.
+     */
+    public static int chunkSize = 8192;
+
+    /**
+     * The gap of each level in ticks, level 0 holds the entries without merging.
+     */
+    static final long[] levelGaps = {0, 1_000, 10_000, 60_000, 600_000, 3_600_000, 36_000_000};
+
+    /**
+     * The maximum number of entries (or spans) of a level embedded into the HTML page.
+     */
+    static final int embeddedLimit = 20_000;
+
+    /**
+     * The directory of the chunk files.
+     */
+    public final File directory;
+
+    private final Map<String, Integer> rowIds = new HashMap<>();
+
+    private final List<String> rows = new ArrayList<>();
+
+    private final Level[] levels = new Level[levelGaps.length];
+
+    private long first = Long.MAX_VALUE;
+
+    private long last = Long.MIN_VALUE;
+
+    private boolean closed;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param directory the directory of the chunk files, it is created if it does not exist
+     */
+    public TimelineStore(File directory) throws IOException {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the timeline directory: " + directory);
+        }
+        for (int l = 0; l < levels.length; l++) {
+            levels[l] = new Level(l, levelGaps[l]);
+        }
+    }
+
+    /**
+     * Stores an entry, the chunks are written to disk when they become full.
+     *
+     * @param row the row the entry is displayed in
+     * @param text the label of the entry
+     * @param start the start time of the entry
+     * @param stop the end time of the entry
+     */
+    public void record(String row, String text, long start, long stop) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The timeline store is already closed");
+        }
+        stop = Math.max(start, stop);
+        int rowId = rowIds.computeIfAbsent(row, r -> {
+            rows.add(r);
+            return rows.size() - 1;
+        });
+        first = Math.min(first, start);
+        last = Math.max(last, stop);
+        levels[0].add(rowId, levels[0].labelId(text == null ? "" : text), start, stop);
+        for (int l = 1; l < levels.length; l++) {
+            levels[l].merge(rowId, start, stop);
+        }
+    }
+
+    /**
+     * Returns with the number of entries recorded.
+     */
+    public long getEntryCount() {
+        return levels[0].total + levels[0].size;
+    }
+
+    /**
+     * Writes the remaining entries and spans, no entry can be recorded afterwards.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        for (Level level : levels) {
+            level.closeSpans();
+            level.writeChunk();
+        }
+        closed = true;
+    }
+
+    /**
+     * Writes the index of the (closed) store as a JavaScript object literal.
+     *
+     * @param sb the builder the index is appended to
+     * @param path the path of the chunk directory relative to the HTML page
+     */
+    void appendIndex(StringBuilder sb, String path) {
+        sb.append("{\"path\":");
+        appendString(sb, path);
+        sb.append(",\"first\":").append(first == Long.MAX_VALUE ? 0 : first);
+        sb.append(",\"last\":").append(last == Long.MIN_VALUE ? 0 : last);
+        sb.append(",\"rows\":[");
+        for (int r = 0; r < rows.size(); r++) {
+            if (r > 0) {
+                sb.append(',');
+            }
+            appendString(sb, rows.get(r));
+        }
+        sb.append("],\"levels\":[");
+        for (int l = 0; l < levels.length; l++) {
+            Level level = levels[l];
+            sb.append(l > 0 ? "," : "").append("{\"gap\":").append(level.gap)
+                .append(",\"embedded\":").append(level.embedded != null).append(",\"chunks\":[");
+            for (int c = 0; c < level.chunks.size(); c++) {
+                long[] chunk = level.chunks.get(c);
+                sb.append(c > 0 ? "," : "").append('[').append(chunk[0]).append(',').append(chunk[1]).append(',')
+                    .append(chunk[2]).append(']');
+            }
+            sb.append("]}");
+        }
+        sb.append("]}");
+    }
+
+    /**
+     * Writes the chunks of the levels small enough to be embedded into the HTML page.
+     */
+    void writeEmbeddedChunks(Writer writer) throws IOException {
+        for (Level level : levels) {
+            if (level.embedded != null) {
+                for (String chunk : level.embedded) {
+                    writer.write("<script>");
+                    writer.write(chunk);
+                    writer.write("</script>\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a string as a JavaScript string literal, which is also safe inside a script element.
+     */
+    static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+              case '"':
+                  sb.append("\\\"");
+                  break;
+              case '\\':
+                  sb.append("\\\\");
+                  break;
+              case '\n':
+                  sb.append("\\n");
+                  break;
+              case '\r':
+                  sb.append("\\r");
+                  break;
+              case '\t':
+                  sb.append("\\t");
+                  break;
+              case '<':
+                  sb.append("\\u003c");
+                  break;
+              default:
+                  if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                      sb.append(String.format("\\u%04x", (int) c));
+                  } else {
+                      sb.append(c);
+                  }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * The entries or spans of a level: the chunk being filled, the metadata of the written
+     * chunks and the open span of each row.
+     */
+    private class Level {
+
+        final int id;
+
+        final long gap;
+
+        /**
+         * The first start, the last stop and the number of entries of each written chunk.
+         */
+        final List<long[]> chunks = new ArrayList<>();
+
+        /**
+         * The written chunks while the level is small enough to be embedded, null afterwards.
+         */
+        List<String> embedded = new ArrayList<>();
+
+        long total;
+
+        final int[] rowOf = new int[chunkSize];
+
+        final int[] valueOf = new int[chunkSize];
+
+        final long[] startOf = new long[chunkSize];
+
+        final long[] stopOf = new long[chunkSize];
+
+        int size;
+
+        final Map<String, Integer> labelIds = new HashMap<>();
+
+        final List<String> labels = new ArrayList<>();
+
+        long[] spanStart = new long[16];
+
+        long[] spanStop = new long[16];
+
+        int[] spanCount = new int[16];
+
+        Level(int id, long gap) {
+            this.id = id;
+            this.gap = gap;
+        }
+
+        int labelId(String label) {
+            return labelIds.computeIfAbsent(label, l -> {
+                labels.add(l);
+                return labels.size() - 1;
+            });
+        }
+
+        void add(int row, int value, long start, long stop) throws IOException {
+            rowOf[size] = row;
+            valueOf[size] = value;
+            startOf[size] = start;
+            stopOf[size] = stop;
+            if (++size == chunkSize) {
+                writeChunk();
+            }
+        }
+
+        void merge(int row, long start, long stop) throws IOException {
+            if (row >= spanCount.length) {
+                int length = Math.max(row + 1, spanCount.length * 2);
+                spanStart = Arrays.copyOf(spanStart, length);
+                spanStop = Arrays.copyOf(spanStop, length);
+                spanCount = Arrays.copyOf(spanCount, length);
+            }
+            if (spanCount[row] > 0 && start <= spanStop[row] + gap && stop >= spanStart[row] - gap) {
+                spanStart[row] = Math.min(spanStart[row], start);
+                spanStop[row] = Math.max(spanStop[row], stop);
+                spanCount[row]++;
+                return;
+            }
+            if (spanCount[row] > 0) {
+                add(row, spanCount[row], spanStart[row], spanStop[row]);
+            }
+            spanStart[row] = start;
+            spanStop[row] = stop;
+            spanCount[row] = 1;
+        }
+
+        void closeSpans() throws IOException {
+            if (id == 0) {
+                return;
+            }
+            for (int row = 0; row < spanCount.length; row++) {
+                if (spanCount[row] > 0) {
+                    add(row, spanCount[row], spanStart[row], spanStop[row]);
+                    spanCount[row] = 0;
+                }
+            }
+        }
+
+        void writeChunk() throws IOException {
+            if (size == 0) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder(size * 24 + 64);
+            sb.append("timelineChunk(").append(id).append(',').append(chunks.size()).append(",[");
+            for (int i = 0; i < labels.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendString(sb, labels.get(i));
+            }
+            sb.append("],[");
+            long minStart = Long.MAX_VALUE;
+            long maxStop = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(rowOf[i]).append(',').append(valueOf[i]).append(',').append(startOf[i]).append(',')
+                    .append(stopOf[i] - startOf[i]);
+                minStart = Math.min(minStart, startOf[i]);
+                maxStop = Math.max(maxStop, stopOf[i]);
+            }
+            sb.append("]);\n");
+            String chunk = sb.toString();
+
+            File file = new File(directory, "chunk-" + id + "-" + chunks.size() + ".js");
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                writer.write(chunk);
+            }
+            chunks.add(new long[] {minStart, maxStop, size});
+            total += size;
+            if (embedded != null) {
+                if (total <= embeddedLimit) {
+                    embedded.add(chunk);
+                } else {
+                    embedded = null;
+                }
+            }
+            size = 0;
+            labelIds.clear();
+            labels.clear();
+        }
+    }
+}
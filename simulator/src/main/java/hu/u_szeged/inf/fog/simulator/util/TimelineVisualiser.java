@@ -6,94 +6,200 @@ import hu.u_szeged.inf.fog.simulator.iot.Device;
 import hu.u_szeged.inf.fog.simulator.iot.EdgeDevice;
 import hu.u_szeged.inf.fog.simulator.iot.Sensor;
 import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Provides functionality to generate a timeline visualization in HTML format
  * that presents main simulation events.
+ *
+ * <p>The entries are written into chunk files by a {@link TimelineStore}, and the HTML page
+ * only loads the chunks of the time window it displays, merging the entries at coarse zoom
+ * levels. If recording is started before the simulation (see {@link #startRecording}), the
+ * entries are streamed to disk as they are created instead of being collected in the
+ * timeline lists of the simulation objects.</p>
  */
 public class TimelineVisualiser {
 
     /**
-     * Generates a timeline visualization resulting in an HTML file.
+     * The store the entries are streamed to, or null if they are collected in the timeline lists.
+     */
+    private static TimelineStore store;
+
+    /**
+     * Streams the timeline entries created from now on into the timeline directory of the given
+     * result directory, instead of keeping them in memory until the timeline is generated.
+     *
+     * @param resultDirectory the directory where the timeline is generated
+     */
+    public static void startRecording(String resultDirectory) throws IOException {
+        store = new TimelineStore(new File(resultDirectory, "timeline"));
+    }
+
+    /**
+     * Determines if the timeline entries are streamed to disk.
+     */
+    public static boolean isRecording() {
+        return store != null;
+    }
+
+    /**
+     * Adds a timeline entry: it is either streamed to disk (if recording is started) or added
+     * to the given list.
+     *
+     * @param entries the list of the entry if it is kept in memory
+     * @param row the row the entry is displayed in
+     * @param start start time of the timeline entry
+     * @param stop end time of the timeline entry
+     * @param text description of the event
+     */
+    public static void addEntry(List<TimelineEntry> entries, String row, long start, long stop, String text) {
+        if (store == null) {
+            entries.add(new TimelineEntry(start, stop, text));
+            return;
+        }
+        try {
+            store.record(row, text, start, stop);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the timeline", e);
+        }
+    }
+
+    /**
+     * Adds a timeline entry of a computing appliance. The entries of an appliance are only
+     * displayed if it has no applications (otherwise the rows of its applications are), and
+     * as applications may be deployed later, the entries are kept in memory until the timeline
+     * is generated even if recording is started. While recording, the entries of an appliance
+     * already having applications are dropped right away.
+     *
+     * @param ca the appliance the entry belongs to
+     * @param start start time of the timeline entry
+     * @param stop end time of the timeline entry
+     * @param text description of the event
+     */
+    public static void addEntry(ComputingAppliance ca, long start, long stop, String text) {
+        if (store == null || ca.applications.isEmpty()) {
+            ca.timelineList.add(new TimelineEntry(start, stop, text));
+        }
+    }
+
+    /**
+     * Generates a timeline visualization resulting in an HTML file and a directory of chunk
+     * files next to it. Recording is stopped, the entries kept in memory are written as well.
      *
      * @param resultDirectory he directory where the HTML file will be generated
      * @return The generated HTML file.
      */
     public static File generateTimeline(String resultDirectory) throws IOException {
+        File html = new File(resultDirectory, "timeline.html");
+        TimelineStore timeline = store;
+        store = null;
+        if (timeline == null) {
+            timeline = new TimelineStore(new File(resultDirectory, "timeline"));
+        }
+        recordEntries(timeline);
+        timeline.close();
+
+        Path htmlDirectory = html.getAbsoluteFile().getParentFile().toPath();
+        String path = htmlDirectory.relativize(timeline.directory.getAbsoluteFile().toPath()).toString()
+                .replace(File.separatorChar, '/');
+        StringBuilder index = new StringBuilder("var timelineIndex = ");
+        timeline.appendIndex(index, path);
+        index.append(";");
+
+        try (Writer fw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(html), StandardCharsets.UTF_8))) {
+            fw.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\">\n");
+            fw.write("<script type=\'text/javascript\' src=\'https://www.gstatic.com/charts/loader.js\'></script>\n");
+            fw.write("<script type=\'text/javascript\'>");
+            fw.write(index.toString());
+            fw.write("</script>\n<script type=\'text/javascript\'>\n");
+            fw.write(viewerScript());
+            fw.write("</script>\n");
+            timeline.writeEmbeddedChunks(fw);
+            fw.write("</head><body>");
+            fw.write("<div><button onclick=\"timelinePan(-0.5)\">&larr;</button>");
+            fw.write("<button onclick=\"timelineZoom(0.5)\">+</button>");
+            fw.write("<button onclick=\"timelineZoom(2)\">-</button>");
+            fw.write("<button onclick=\"timelinePan(0.5)\">&rarr;</button>");
+            fw.write("<button onclick=\"timelineReset()\">Reset</button> <span id=\"timeline-status\"></span></div>");
+            fw.write("<div id=\"timeline\" style=\"height: 1500px; width: 100%;\"></div>");
+            fw.write("</body></html>");
+        }
 
-        FileWriter fw = new FileWriter(resultDirectory + File.separator + "timeline.html");
-
-        fw.write("<!DOCTYPE html><html><head>");
-        fw.write("<script type=\'text/javascript\' src=\'https://www.gstatic.com/charts/loader.js\'></script>");
-        fw.write("<script type=\'text/javascript\'>");
-        fw.write("google.charts.load(\'current\', {packages:[\'timeline\']});");
-        fw.write("google.charts.setOnLoadCallback(drawChart);");
-        fw.write("function drawChart(){");
-        fw.write("var container = document.getElementById('example');");
-        fw.write("var chart = new google.visualization.Timeline(container);");
-        fw.write("var dataTable = new google.visualization.DataTable();");
-        fw.write("dataTable.addColumn({ type: 'string', id: 'Application' });");
-        fw.write("dataTable.addColumn({ type: 'string', id: 'VM' });");
-        fw.write("dataTable.addColumn({ type: 'date', id: 'Start' });");
-        fw.write("dataTable.addColumn({ type: 'date', id: 'End' });");
-        fw.write("dataTable.addRows([");
+        return html;
+    }
 
+    /**
+     * Writes the entries collected in the timeline lists, in the order of their start.
+     */
+    private static void recordEntries(TimelineStore timeline) throws IOException {
+        List<Map.Entry<String, TimelineEntry>> entries = new ArrayList<>();
         for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
             if (ca.applications.isEmpty()) {
                 for (TimelineEntry tc : ca.timelineList) {
-                    fw.write("[ '" + ca.name + "', '" + tc.text + "', new Date(0,0,0,0,0,0," + tc.start
-                            + "), new Date(0,0,0,0,0,0," + tc.stop + ")],");
+                    entries.add(Map.entry(ca.name, tc));
                 }
             } else {
                 for (Application a : ca.applications) {
                     for (TimelineEntry tc : a.timelineEntries) {
-                        fw.write("[ '" + a.name + "', '" + tc.text + "', new Date(0,0,0,0,0,0," + tc.start
-                                + "), new Date(0,0,0,0,0,0," + tc.stop + ")],");
+                        entries.add(Map.entry(a.name, tc));
                     }
                 }
             }
         }
 
-        for (Device device : Device.allDevices) {
+        for (Device device : Device.getAllDevices()) {
             if (device instanceof EdgeDevice) {
-                EdgeDevice ed = (EdgeDevice) device;
-                for (TimelineEntry tc : ed.timelineEntries) {
-                    fw.write("[ 'Device-" + tc.text + "', '" + "', new Date(0,0,0,0,0,0," + tc.start
-                            + "), new Date(0,0,0,0,0,0," + tc.stop + ")],");
+                for (TimelineEntry tc : ((EdgeDevice) device).timelineEntries) {
+                    entries.add(Map.entry("Device-" + tc.text, tc));
                 }
             }
         }
 
         for (Actuator a : Actuator.allActuators) {
             for (TimelineEntry tc : a.actuatorEventList) {
-                fw.write("[ '" + a.name + "', '" + tc.text + "', new Date(0,0,0,0,0,0," + tc.start
-                        + "), new Date(0,0,0,0,0,0," + tc.stop + ")],");
+                entries.add(Map.entry(a.name, tc));
             }
         }
 
         for (TimelineEntry tc : Sensor.sensorEventList) {
-            fw.write("[ 'IoT sensors', '" + tc.text + "', new Date(0,0,0,0,0,0," + tc.start + "), new Date(0,0,0,0,0,0,"
-                    + tc.stop + ")],");
+            entries.add(Map.entry("IoT sensors", tc));
         }
 
-        fw.write("]);");
-        fw.write("chart.draw(dataTable);");
-        fw.write("}</script>");
-        fw.write("</head><body>");
-        fw.write("<div id=\"example\" style=\"height: 1500px; width=100%;\"></div>");
-        fw.write("</body></html>");
-        fw.close();
+        entries.sort(Comparator.comparingLong(e -> e.getValue().start));
+        for (Map.Entry<String, TimelineEntry> e : entries) {
+            timeline.record(e.getKey(), e.getValue().text, e.getValue().start, e.getValue().stop);
+        }
+    }
 
-        return new File(resultDirectory + File.separator + "timeline.html");
+    private static String viewerScript() throws IOException {
+        try (InputStream in = TimelineVisualiser.class.getResourceAsStream("/timeline/viewer.js")) {
+            if (in == null) {
+                throw new IOException("The timeline viewer script is missing");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
     }
 
     /**
      * Represents a single entry in the timeline.
      */
-    public static class TimelineEntry {
+    public static class TimelineEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         /**
          * Start time of the timeline event.
@@ -1,11 +1,15 @@
 package hu.u_szeged.inf.fog.simulator.util.result;
 
+import java.io.Serializable;
+
 /**
  * Helper class for saving the results of a simulation to the database used 
  * by DISSECT-CF-Fog-WebApp and the executor module.
  */
 @SuppressWarnings("unused")
-public class ActuatorEvents {
+public class ActuatorEvents implements Serializable {
+
+    private static final long serialVersionUID = 1L;
    
     private long changeNode;
     private long changePosition;
@@ -0,0 +1,147 @@
+package hu.u_szeged.inf.fog.simulator.util.result;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.u_szeged.inf.fog.simulator.demo.ScenarioBase;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.util.EnergyDataCollector;
+import hu.u_szeged.inf.fog.simulator.util.SimLogger;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
+import hu.u_szeged.inf.fog.simulator.util.xml.ApplianceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.DeviceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.InstanceXmlModel;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Runs a single simulation job of the executor module in its own JVM, thus every job
+ * starts with a clean static state of the simulator.
+ *
+ * <p>The job is described by a properties file (its path is the only argument), the keys
+ * are the constants of this class, the IaaS files are given by the {@link #IAAS_FILE_PREFIX}
+ * prefixed keys followed by the name used in the appliance file. The results are written
+ * into the result directory, and each result file is announced on the standard output
+ * in a line of the form <code>{@link #RESULT_PREFIX}&lt;type&gt; &lt;absolute path&gt;</code>
+ * as soon as it is ready. The type of the serialised {@link SimulatorJobResult} is
+ * {@link #SUMMARY}, the other types are the names of the result file types of the
+ * executor (see {@link #announcement(String, File)} and {@link #parseAnnouncement(String)}).
+ * A failed simulation exits with a non-zero code.</p>
+ */
+public class SimulatorJobRunner {
+
+    public static final String RESULT_DIRECTORY = "resultDirectory";
+
+    public static final String DEVICES_FILE = "devicesFile";
+
+    public static final String INSTANCES_FILE = "instancesFile";
+
+    public static final String APPLIANCES_FILE = "appliancesFile";
+
+    public static final String IAAS_FILE_PREFIX = "iaasFile.";
+
+    public static final String DEVICE_CODE = "deviceCode";
+
+    public static final String IS_DEVICE_CODE_CUSTOM = "isDeviceCodeCustom";
+
+    public static final String APPLICATION_CODE = "applicationCode";
+
+    public static final String IS_APPLICATION_CODE_CUSTOM = "isApplicationCodeCustom";
+
+    public static final String RESULT_PREFIX = "dissect-cf-result ";
+
+    public static final String SUMMARY = "SUMMARY";
+
+    public static void main(String[] args) throws Exception {
+        final long startTime = System.nanoTime();
+        if (args.length != 1) {
+            System.err.println("Usage: SimulatorJobRunner <job properties file>");
+            System.exit(2);
+        }
+
+        Properties job = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            job.load(reader);
+        }
+        ScenarioBase.resultDirectory = job.getProperty(RESULT_DIRECTORY);
+        new File(ScenarioBase.resultDirectory).mkdirs();
+
+        Map<String, String> iaasLoaders = new HashMap<>();
+        for (String key : job.stringPropertyNames()) {
+            if (key.startsWith(IAAS_FILE_PREFIX)) {
+                iaasLoaders.put(key.substring(IAAS_FILE_PREFIX.length()), job.getProperty(key));
+            }
+        }
+
+        DeviceXmlModel.loadDeviceXml(job.getProperty(DEVICES_FILE), job.getProperty(DEVICE_CODE),
+                Boolean.valueOf(job.getProperty(IS_DEVICE_CODE_CUSTOM)));
+        InstanceXmlModel.loadInstanceXml(job.getProperty(INSTANCES_FILE));
+        ApplianceXmlModel.loadApplianceXml(job.getProperty(APPLIANCES_FILE), iaasLoaders,
+                job.getProperty(APPLICATION_CODE), Boolean.valueOf(job.getProperty(IS_APPLICATION_CODE_CUSTOM)));
+        for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
+            new EnergyDataCollector(ca.name, ca.iaas, false);
+        }
+
+        SimLogger.setLogging(1, true);
+        TimelineVisualiser.startRecording(ScenarioBase.resultDirectory);
+        Timed.simulateUntilLastEvent();
+
+        ScenarioBase.calculateIoTCost();
+        SimulatorJobResult result = ScenarioBase.logBatchProcessing(System.nanoTime() - startTime);
+        SimLogger.flush();
+
+        announce("TIMELINE", TimelineVisualiser.generateTimeline(ScenarioBase.resultDirectory));
+
+        File summary = new File(ScenarioBase.resultDirectory, "result.ser");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(summary))) {
+            out.writeObject(result);
+        }
+        announce(SUMMARY, summary);
+
+        // the simulation may leave non-daemon threads behind
+        System.exit(0);
+    }
+
+    private static void announce(String type, File file) {
+        System.out.println(announcement(type, file));
+        System.out.flush();
+    }
+
+    /**
+     * Creates the line announcing a result file.
+     *
+     * @param type the type of the result, it cannot contain spaces
+     * @param file the result file
+     */
+    public static String announcement(String type, File file) {
+        if (type.isEmpty() || type.contains(" ")) {
+            throw new IllegalArgumentException("Invalid result type: '" + type + "'");
+        }
+        return RESULT_PREFIX + type + " " + file.getAbsolutePath();
+    }
+
+    /**
+     * Parses a line of the output of the runner.
+     *
+     * @param line the line to parse
+     * @return the type and the path of the announced result file, or null if the line
+     *         is not a well-formed announcement (i.e. it does not start with
+     *         {@link #RESULT_PREFIX}, or its type or path is missing)
+     */
+    public static String[] parseAnnouncement(String line) {
+        if (!line.startsWith(RESULT_PREFIX)) {
+            return null;
+        }
+        String[] announcement = line.substring(RESULT_PREFIX.length()).split(" ", 2);
+        if (announcement.length != 2 || announcement[0].isEmpty() || announcement[1].isBlank()) {
+            return null;
+        }
+        return announcement;
+    }
+}
@@ -2,6 +2,7 @@ package hu.u_szeged.inf.fog.simulator.util.xml;
 
 import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
 import hu.u_szeged.inf.fog.simulator.iot.SmartDevice;
@@ -18,7 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -199,7 +199,7 @@ public class DeviceXmlModel {
         DevicesXmlModel devices = (DevicesXmlModel) jaxbUnmarshaller.unmarshal(file);
         System.out.println(devices.deviceList);
         for (DeviceXmlModel dm : devices.deviceList) {
-            HashMap<String, Integer> latencyMap = new HashMap<String, Integer>();
+            Map<String, Integer> latencyMap = new LatencyMap();
             EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions;
 
             transitions = PowerTransitionGenerator.generateTransitions(dm.minpower, dm.idlepower, dm.maxpower, 10, 20);
@@ -6,6 +6,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
@@ -18,15 +19,18 @@ import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.util.EnergyDataCollector;
 import hu.u_szeged.inf.fog.simulator.util.SimLogger;
-import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob.Uses;
 import hu.u_szeged.inf.fog.simulator.workflow.scheduler.WorkflowScheduler;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
-public class WorkflowExecutor {
+public class WorkflowExecutor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     private static WorkflowExecutor executor;
     
@@ -99,8 +103,8 @@ public class WorkflowExecutor {
                                 }
                             }
                             actuator.isWorking = false;
-                            actuator.actuatorEventList
-                                    .add(new TimelineEntry(actuatorStartTime, Timed.getFireCount(), workflowJob.id));
+                            TimelineVisualiser.addEntry(actuator.actuatorEventList, actuator.name, actuatorStartTime,
+                                    Timed.getFireCount(), workflowJob.id);
                             execute(workflowScheduler);
                         }
                     };
@@ -125,8 +129,8 @@ public class WorkflowExecutor {
                                 * vm.getResourceAllocation().allocated.getRequiredProcessingPower();
                 }
                 
-                SimLogger.logRun(workflowScheduler.appName + "-" + workflowJob.id + " started running on:  " + workflowJob.ca.name
-                        + " at: " + Timed.getFireCount());
+                SimLogger.logRun(SimLogger.WORKFLOW, "%s-%s started running on:  %s at: %d",
+                        workflowScheduler.appName, workflowJob.id, workflowJob.ca.name, Timed.getFireCount());
                 
                 try {
                     vm.newComputeTask(noi, ResourceConsumption.unlimitedProcessing, new ConsumptionEventAdapter() {
@@ -134,8 +138,8 @@ public class WorkflowExecutor {
                         @Override
                         public void conComplete() {
                             workflowJob.ca.vmTime += Timed.getFireCount() - vmStartTime;
-                            workflowJob.ca.timelineList.add(new TimelineEntry(vmStartTime, Timed.getFireCount(),
-                                    Integer.toString(vm.hashCode()) + "-" + workflowJob.id));
+                            TimelineVisualiser.addEntry(workflowJob.ca, vmStartTime,
+                                    Timed.getFireCount(), Integer.toString(vm.hashCode()) + "-" + workflowJob.id);
                             workflowJob.state = WorkflowJob.State.COMPLETED;
                             if (isAllJobCompleted(workflowScheduler)) {
                                 workflowScheduler.stopTime = Timed.getFireCount();
@@ -153,8 +157,8 @@ public class WorkflowExecutor {
                                 
                             sendFileToChildren(workflowScheduler, workflowJob);
                             
-                            SimLogger.logRun(workflowScheduler.appName + "-" + workflowJob.id + " finished on: " + workflowJob.ca.name 
-                                + " at: " + Timed.getFireCount());
+                            SimLogger.logRun(SimLogger.WORKFLOW, "%s-%s finished on: %s at: %d",
+                                workflowScheduler.appName, workflowJob.id, workflowJob.ca.name, Timed.getFireCount());
                             }
                         });
                 } catch (NetworkException e) {
@@ -192,8 +196,9 @@ public class WorkflowExecutor {
                         
                         long time = Timed.getFireCount();
                         
-                        SimLogger.logRun(workflowScheduler.appName + "-" + currentJob.id + " sent " + uses.size + " bytes to: " 
-                                + childWorkflowJob.id + " at: " + Timed.getFireCount());
+                        SimLogger.logRun(SimLogger.WORKFLOW, "%s-%s sent %s bytes to: %s at: %d",
+                                workflowScheduler.appName, currentJob.id, uses.size, childWorkflowJob.id,
+                                Timed.getFireCount());
                         
                         if (childWorkflowJob.ca == currentJob.ca) {
                             childWorkflowJob.inputs.get(0).amount--;
@@ -243,7 +248,7 @@ public class WorkflowExecutor {
         for (WorkflowJob workflowJob : workflowScheduler.jobs) {
             if (workflowJob.id.contains("sensor")) {
 
-                HashMap<String, Integer> latencyMap = new HashMap<>();
+                Map<String, Integer> latencyMap = new LatencyMap();
                 EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions = null;
 
                 transitions = PowerTransitionGenerator.generateTransitions(0, 0, 0, 0, 0);
@@ -282,8 +287,8 @@ public class WorkflowExecutor {
 
                                             @Override
                                             public void conComplete() {
-                                                Sensor.sensorEventList.add(new TimelineEntry(sensorStartTime,
-                                                        Timed.getFireCount(), workflowJob.id));
+                                                TimelineVisualiser.addEntry(Sensor.sensorEventList, "IoT sensors",
+                                                        sensorStartTime, Timed.getFireCount(), workflowJob.id);
                                                 workflowJob.state = WorkflowJob.State.COMPLETED;
                                                 childWorkflowJob.inputs.get(0).amount--;
                                                 childWorkflowJob.bytesRecieved += uses.size;
@@ -2,9 +2,12 @@ package hu.u_szeged.inf.fog.simulator.workflow;
 
 import hu.u_szeged.inf.fog.simulator.iot.Actuator;
 import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public class WorkflowJob {
+public class WorkflowJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * A list containing jobs created so far.
@@ -72,7 +75,9 @@ public class WorkflowJob {
         WorkflowJob.workflowJobs.add(this);
     }
 
-    public static class Uses {
+    public static class Uses implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         public static enum Type {
             DATA,
@@ -1,6 +1,7 @@
 package hu.u_szeged.inf.fog.simulator.workflow.aco;
 
 import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
+import java.util.Random;
 
 /**
  * An agent to build a solution.
@@ -28,12 +29,33 @@ public class CentralisedAnt implements Comparable<CentralisedAnt> {
         return 0;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public int[] getSolution() {
+        return solution;
+    }
+
+    public double getFitness() {
+        return fitness;
+    }
+
     public void generateSolution(double[][] pheromoneMatrix, int numberOfNodes, double probability) {
+        generateSolution(pheromoneMatrix, numberOfNodes, probability, SeedSyncer.getCentralRnd());
+    }
+
+    /**
+     * Builds a solution drawing the random numbers from the given generator.
+     *
+     * @param random the random generator used by this ant only
+     */
+    public void generateSolution(double[][] pheromoneMatrix, int numberOfNodes, double probability, Random random) {
         int[] localSolution = new int[numberOfNodes];
         
         double[] randomSolution = new double[numberOfNodes];
         for (int i = 0; i < numberOfNodes; i++) {
-            randomSolution[i] = SeedSyncer.centralRnd.nextDouble();
+            randomSolution[i] = random.nextDouble();
         }
         
         int maxIndex = 0;
@@ -48,7 +70,7 @@ public class CentralisedAnt implements Comparable<CentralisedAnt> {
                     }
                 }
             } else {
-                maxIndex = (int) (SeedSyncer.centralRnd.nextInt(pheromoneMatrix[i].length));
+                maxIndex = (int) (random.nextInt(pheromoneMatrix[i].length));
                 /*
                 double sum = 0;
                
@@ -9,54 +9,102 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class CentralisedAntOptimiser {
 
     /**
-     * The global pheromone matrix is to be updated depending on the quality of solutions
-     * produced by the agents.
+     * Receives the state of the optimiser after each iteration, e.g. for logging.
      */
-    private static double[][] globalPheromoneMatrix;
+    public interface IterationListener {
+
+        /**
+         * Called after the pheromone matrix of an iteration has been updated and evaporated.
+         *
+         * @param iteration the index of the finished iteration
+         * @param ants the ants of the iteration ordered by their fitness (best first)
+         * @param pheromoneMatrix the updated pheromone matrix, it must not be modified
+         */
+        void iterationFinished(int iteration, CentralisedAnt[] ants, double[][] pheromoneMatrix);
+    }
 
+    /**
+     * Runs the optimiser on the common fork-join pool without an iteration listener.
+     */
     public static HashMap<WorkflowComputingAppliance, ArrayList<WorkflowComputingAppliance>> runOptimiser(
             ArrayList<WorkflowComputingAppliance> centerNodes, 
             ArrayList<WorkflowComputingAppliance> nodesToBeClustered, 
             int numberOfAnts, int numberOfIteration, double probability, double topPercentAnts,
             double pheromoneIncrement, double evaporationRate) {
+        return runOptimiser(centerNodes, nodesToBeClustered, numberOfAnts, numberOfIteration, probability,
+                topPercentAnts, pheromoneIncrement, evaporationRate, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Clusters the nodes around the center nodes. The ants of an iteration build and evaluate
+     * their solutions in parallel on the given pool. Every ant draws its random numbers from its
+     * own generator, whose seed is derived from the central random generator before the
+     * iteration starts, and the pheromone matrix is updated row by row with the contributions
+     * of the ants in the order of their fitness. Hence, the result only depends on the seed of
+     * the simulation and not on the number of threads. Every run has its own pheromone
+     * matrix, so independent simulations can run the optimiser at the same time.
+     *
+     * @param pool the pool used for building and evaluating the solutions
+     * @param listener notified after every iteration, it can be null
+     */
+    public static HashMap<WorkflowComputingAppliance, ArrayList<WorkflowComputingAppliance>> runOptimiser(
+            ArrayList<WorkflowComputingAppliance> centerNodes, 
+            ArrayList<WorkflowComputingAppliance> nodesToBeClustered, 
+            int numberOfAnts, int numberOfIteration, double probability, double topPercentAnts,
+            double pheromoneIncrement, double evaporationRate, ForkJoinPool pool, IterationListener listener) {
         
-        globalPheromoneMatrix = new double[nodesToBeClustered.size()][centerNodes.size()];
+        // it is updated depending on the quality of the solutions produced by the ants
+        double[][] globalPheromoneMatrix = new double[nodesToBeClustered.size()][centerNodes.size()];
         for (int i = 0; i < nodesToBeClustered.size(); i++) {
             for (int j = 0; j < centerNodes.size(); j++) {
-                double noise = SeedSyncer.centralRnd.nextDouble() * 0.1;
+                double noise = SeedSyncer.getCentralRnd().nextDouble() * 0.1;
                 globalPheromoneMatrix[i][j] = 0.5 - (0.1 / 2) + noise;
             }
         }
-        printMatrix("Init pheromone: ", globalPheromoneMatrix);
 
         for (int i = 0; i < numberOfIteration; i++) {
-            System.out.println("Iteration: " + i);
-            
             CentralisedAnt[] ants = new CentralisedAnt[numberOfAnts];
+            long[] seeds = new long[numberOfAnts];
             for (int j = 0; j < numberOfAnts; j++) {
                 ants[j] = new CentralisedAnt(j);
+                seeds[j] = SeedSyncer.getCentralRnd().nextLong();
             }
             
-            for (CentralisedAnt ant : ants) {
-                ant.generateSolution(globalPheromoneMatrix, nodesToBeClustered.size(), probability);
-            }
+            inParallel(pool, numberOfAnts, j -> {
+                ants[j].generateSolution(globalPheromoneMatrix, nodesToBeClustered.size(), probability,
+                        new Random(seeds[j]));
+                calculateFitness(centerNodes, nodesToBeClustered, ants[j]);
+            });
             
-            calculateFitness(centerNodes, nodesToBeClustered, ants);
-            for (CentralisedAnt ant : ants) {
-                System.out.println(ant.id + ": " + Arrays.toString(ant.solution) + " " + ant.fitness);
+            updatePheromones(pool, globalPheromoneMatrix, ants, topPercentAnts, pheromoneIncrement, evaporationRate);
+            if (listener != null) {
+                listener.iterationFinished(i, ants, globalPheromoneMatrix);
             }
-            updatePheromones(nodesToBeClustered, ants, topPercentAnts, pheromoneIncrement);
-            evaporatePheromones(globalPheromoneMatrix, evaporationRate);
-            printMatrix("updated pheromone matrix: ", globalPheromoneMatrix);
         }
         return generateClusters(globalPheromoneMatrix, nodesToBeClustered, centerNodes);
     }
     
+    private static void inParallel(ForkJoinPool pool, int count, IntConsumer task) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
     private static HashMap<WorkflowComputingAppliance, ArrayList<WorkflowComputingAppliance>> generateClusters(
             double[][] globalPheromoneMatrix,
             ArrayList<WorkflowComputingAppliance> nodesToBeClustered,
@@ -87,43 +135,41 @@ public class CentralisedAntOptimiser {
         return clusterAssignment;
     }
 
-    private static void evaporatePheromones(double[][] globalPheromoneMatrix, double evaporationRate) {
-       
-        for (int i = 0; i < globalPheromoneMatrix.length; i++) {
-            for (int j = 0; j < globalPheromoneMatrix[i].length; j++) {
-                globalPheromoneMatrix[i][j] *= (1 - evaporationRate);
-            }
-        }
-    }
-
-    private static void updatePheromones(ArrayList<WorkflowComputingAppliance> nodesToBeClustered, 
-            CentralisedAnt[] ants, double topPercentAnts, double pheromoneIncrement) {
+    /**
+     * Reinforces the solutions of the best ants and evaporates the pheromones. The rows
+     * of the matrix are independent, so they are processed in parallel, while the
+     * contributions within a row are always summed in the order of the ants' fitness.
+     */
+    private static void updatePheromones(ForkJoinPool pool, double[][] globalPheromoneMatrix,
+            CentralisedAnt[] ants, double topPercentAnts, double pheromoneIncrement, double evaporationRate) {
         
         Arrays.sort(ants);
         int number = (int) Math.ceil(ants.length * topPercentAnts);
         double maxFitness = 1.0 / ants[0].fitness; 
-
-        System.out.print("Best: ");
+        double[] increments = new double[number];
         for (int i = 0; i < number; i++) {
-            System.out.print(ants[i].id + " ");
             double relativeFitness = (1.0 / ants[i].fitness) / maxFitness; 
-            for (int j = 0; j < nodesToBeClustered.size(); j++) {
-                globalPheromoneMatrix[j][ants[i].solution[j]] += pheromoneIncrement * relativeFitness;
-            }
+            increments[i] = pheromoneIncrement * relativeFitness;
         }
-        System.out.println();
+
+        inParallel(pool, globalPheromoneMatrix.length, j -> {
+            double[] row = globalPheromoneMatrix[j];
+            for (int i = 0; i < number; i++) {
+                row[ants[i].solution[j]] += increments[i];
+            }
+            for (int k = 0; k < row.length; k++) {
+                row[k] *= (1 - evaporationRate);
+            }
+        });
     }
 
     private static void calculateFitness(ArrayList<WorkflowComputingAppliance> centerNodes, 
-            ArrayList<WorkflowComputingAppliance> nodesToBeClustered, CentralisedAnt[] ants) {
-        for (CentralisedAnt ant : ants) {
-            double fitnessLevel = 0.0;
-            for (int i = 0; i < nodesToBeClustered.size(); i++) {
-                fitnessLevel += calculateHeuristic(nodesToBeClustered.get(i), centerNodes.get(ant.solution[i]));
-            }
-            ant.fitness = fitnessLevel;
-            //System.out.println(ant.fitness);
+            ArrayList<WorkflowComputingAppliance> nodesToBeClustered, CentralisedAnt ant) {
+        double fitnessLevel = 0.0;
+        for (int i = 0; i < nodesToBeClustered.size(); i++) {
+            fitnessLevel += calculateHeuristic(nodesToBeClustered.get(i), centerNodes.get(ant.solution[i]));
         }
+        ant.fitness = fitnessLevel;
     }
     
     private static double calculateHeuristic(WorkflowComputingAppliance node, WorkflowComputingAppliance center) {
@@ -14,6 +14,8 @@ import java.util.Set;
 import java.util.UUID;
 
 public class ClusterMessenger extends Timed {
+
+    private static final long serialVersionUID = 1L;
     
     private HashMap<WorkflowComputingAppliance, Long> messageLogger;
     
@@ -99,11 +101,11 @@ public class ClusterMessenger extends Timed {
         HashMap<WorkflowComputingAppliance, ArrayList<WorkflowComputingAppliance>> clusterMap = new HashMap<>();
         HashSet<ComputingAppliance> visitedNodes = new HashSet<>();
         
-        for (ComputingAppliance appliance : ComputingAppliance.allComputingAppliances) {
+        for (ComputingAppliance appliance : ComputingAppliance.getAllComputingAppliances()) {
             if (!visitedNodes.contains(appliance)) {
                 ArrayList<WorkflowComputingAppliance> clusterMembers = new ArrayList<>();
 
-                for (ComputingAppliance otherAppliance : ComputingAppliance.allComputingAppliances) {
+                for (ComputingAppliance otherAppliance : ComputingAppliance.getAllComputingAppliances()) {
                     WorkflowComputingAppliance wca = (WorkflowComputingAppliance) appliance;
                     if (wca.cluster.contains(otherAppliance.name)) {
                         clusterMembers.add((WorkflowComputingAppliance) otherAppliance);
@@ -14,11 +14,11 @@ public class DecentralisedAnt {
     public void generateSolution(double[] pheromoneVector, int position, double probability, double evaporationRate) {
         for (int i = 0; i < pheromoneVector.length; i++) {
             if (i != position) {
-                double randomNumber = SeedSyncer.centralRnd.nextDouble();
+                double randomNumber = SeedSyncer.getCentralRnd().nextDouble();
 
                 if (randomNumber < probability) {
-                    ComputingAppliance node = ComputingAppliance.allComputingAppliances.get(i);
-                    ComputingAppliance center = ComputingAppliance.allComputingAppliances.get(position);
+                    ComputingAppliance node = ComputingAppliance.getAllComputingAppliances().get(i);
+                    ComputingAppliance center = ComputingAppliance.getAllComputingAppliances().get(position);
 
                     double distance = this.calculateHeuristic(node, center);
                     
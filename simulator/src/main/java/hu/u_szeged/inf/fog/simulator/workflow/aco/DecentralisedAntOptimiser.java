@@ -8,16 +8,14 @@ import java.util.HashMap;
 
 public class DecentralisedAntOptimiser {
     
-    private static double[][] globalPheromoneMatrix;
-    
     public static double[][] runOptimiser(
             ArrayList<ComputingAppliance> allComputingAppliances, int numberOfAnts, 
             int numberOfIteration, double propability, double evaporationRate) {
         
-        globalPheromoneMatrix = new double[allComputingAppliances.size()][allComputingAppliances.size()];
+        double[][] globalPheromoneMatrix = new double[allComputingAppliances.size()][allComputingAppliances.size()];
         for (int i = 0; i < allComputingAppliances.size(); i++) {
             for (int j = 0; j < allComputingAppliances.size(); j++) {
-                double noise = SeedSyncer.centralRnd.nextDouble() * 0.1;
+                double noise = SeedSyncer.getCentralRnd().nextDouble() * 0.1;
                 globalPheromoneMatrix[i][j] = 0.5 - (0.1 / 2) + noise;
             }
         }
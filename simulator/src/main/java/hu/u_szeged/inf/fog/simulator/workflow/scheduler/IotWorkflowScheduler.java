@@ -6,6 +6,7 @@ import hu.u_szeged.inf.fog.simulator.iot.Actuator;
 import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.provider.Instance;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.PriorityQueue;
@@ -13,7 +14,11 @@ import org.apache.commons.lang3.tuple.Pair;
 
 public class IotWorkflowScheduler extends WorkflowScheduler {
 
-    class NoOperationComperator implements Comparator<WorkflowJob> {
+    private static final long serialVersionUID = 1L;
+
+    class NoOperationComperator implements Comparator<WorkflowJob>, Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         @Override
         public int compare(WorkflowJob o1, WorkflowJob o2) {
@@ -50,13 +55,13 @@ public class IotWorkflowScheduler extends WorkflowScheduler {
         
         for (WorkflowJob workflowJob : this.jobs) {
             if (workflowJob.id.contains("service")) {
-                workflowJob.ca = this.computeArchitecture.get(SeedSyncer.centralRnd.nextInt(this.computeArchitecture.size()));
+                workflowJob.ca = this.computeArchitecture.get(SeedSyncer.getCentralRnd().nextInt(this.computeArchitecture.size()));
                 if (workflowJob.inputs.get(0).amount == 0) {
                     workflowJob.ca.workflowQueue.add(workflowJob);
                 }
             }
             if (workflowJob.id.contains("actuator")) {
-                workflowJob.actuator = this.actuatorArchitecture.get(SeedSyncer.centralRnd.nextInt(this.actuatorArchitecture.size()));
+                workflowJob.actuator = this.actuatorArchitecture.get(SeedSyncer.getCentralRnd().nextInt(this.actuatorArchitecture.size()));
                 if (workflowJob.inputs.get(0).amount == 0) {
                     workflowJob.actuator.actuatorWorkflowQueue.add(workflowJob);
                 }
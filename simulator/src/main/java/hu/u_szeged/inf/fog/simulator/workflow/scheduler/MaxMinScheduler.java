@@ -6,14 +6,19 @@ import hu.u_szeged.inf.fog.simulator.iot.Actuator;
 import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.provider.Instance;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 import org.apache.commons.lang3.tuple.Pair;
 
 public class MaxMinScheduler extends WorkflowScheduler {
+
+    private static final long serialVersionUID = 1L;
     
-    static class MaxMinComperator implements Comparator<WorkflowJob> {
+    static class MaxMinComperator implements Comparator<WorkflowJob>, Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         @Override
         public int compare(WorkflowJob o1, WorkflowJob o2) {
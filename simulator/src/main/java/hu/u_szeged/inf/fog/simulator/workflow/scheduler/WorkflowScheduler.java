@@ -8,10 +8,13 @@ import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
 import hu.u_szeged.inf.fog.simulator.provider.Instance;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowExecutor;
 import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.TreeMap;
 
-public abstract class WorkflowScheduler {
+public abstract class WorkflowScheduler implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     public static ArrayList<WorkflowScheduler> schedulers = new ArrayList<WorkflowScheduler>();
     
@@ -0,0 +1,157 @@
+// Viewer of the chunked timeline written by TimelineVisualiser. The index (timelineIndex) lists
+// the chunks of every level with their time range and size, only the chunks overlapping the
+// displayed window are loaded, and the finest level with few enough entries is displayed.
+
+var timelineMaxEntries = 4000;
+var timelineCache = {};
+var timelineLoading = {};
+var timelineChart = null;
+var timelineFrom = 0;
+var timelineTo = 0;
+
+function timelineChunk(level, number, labels, data) {
+    timelineCache[level + '-' + number] = {labels: labels, data: data};
+    delete timelineLoading[level + '-' + number];
+    if (timelineChart !== null && Object.keys(timelineLoading).length === 0) {
+        timelineRender();
+    }
+}
+
+function timelineChunksOf(level, from, to) {
+    var chunks = timelineIndex.levels[level].chunks;
+    var result = [];
+    for (var c = 0; c < chunks.length; c++) {
+        if (chunks[c][0] <= to && chunks[c][1] >= from) {
+            result.push(c);
+        }
+    }
+    return result;
+}
+
+function timelineCount(level, from, to) {
+    var chunks = timelineIndex.levels[level].chunks;
+    var count = 0;
+    timelineChunksOf(level, from, to).forEach(function (c) {
+        count += chunks[c][2];
+    });
+    return count;
+}
+
+function timelineChooseLevel(from, to) {
+    var levels = timelineIndex.levels;
+    for (var l = 0; l < levels.length; l++) {
+        if (!levels[l].failed && timelineCount(l, from, to) <= timelineMaxEntries) {
+            return l;
+        }
+    }
+    for (var l = levels.length - 1; l >= 0; l--) {
+        if (!levels[l].failed) {
+            return l;
+        }
+    }
+    return -1;
+}
+
+function timelineLoad(level, number) {
+    var key = level + '-' + number;
+    if (timelineLoading[key]) {
+        return;
+    }
+    timelineLoading[key] = true;
+    var script = document.createElement('script');
+    script.src = timelineIndex.path + '/chunk-' + key + '.js';
+    script.onerror = function () {
+        // the chunk files are not available (e.g. only the page was kept), a coarser level is used
+        timelineIndex.levels[level].failed = true;
+        timelineLoading = {};
+        timelineRender();
+    };
+    document.head.appendChild(script);
+}
+
+function timelineDate(time) {
+    return new Date(0, 0, 0, 0, 0, 0, time);
+}
+
+function timelineStatus(text) {
+    document.getElementById('timeline-status').textContent = text;
+}
+
+function timelineRender() {
+    var from = timelineFrom;
+    var to = timelineTo;
+    var level = timelineChooseLevel(from, to);
+    if (level < 0) {
+        timelineStatus('The timeline data is not available.');
+        return;
+    }
+    var missing = timelineChunksOf(level, from, to).filter(function (c) {
+        return !timelineCache[level + '-' + c];
+    });
+    if (missing.length > 0) {
+        timelineStatus('Loading ' + missing.length + ' chunk(s)...');
+        missing.forEach(function (c) {
+            timelineLoad(level, c);
+        });
+        return;
+    }
+
+    var dataTable = new google.visualization.DataTable();
+    dataTable.addColumn({type: 'string', id: 'Row'});
+    dataTable.addColumn({type: 'string', id: 'Label'});
+    dataTable.addColumn({type: 'date', id: 'Start'});
+    dataTable.addColumn({type: 'date', id: 'End'});
+    var rows = [];
+    timelineChunksOf(level, from, to).forEach(function (c) {
+        var chunk = timelineCache[level + '-' + c];
+        for (var i = 0; i < chunk.data.length; i += 4) {
+            var start = chunk.data[i + 2];
+            var stop = start + chunk.data[i + 3];
+            if (stop < from || start > to) {
+                continue;
+            }
+            var label = level === 0 ? chunk.labels[chunk.data[i + 1]] : chunk.data[i + 1] + ' entries';
+            rows.push([timelineIndex.rows[chunk.data[i]], label,
+                timelineDate(Math.max(start, from)), timelineDate(Math.min(stop, to))]);
+        }
+    });
+    var description = from + ' - ' + to + ' (' + rows.length + (level === 0 ? ' entries' : ' spans merged within '
+        + timelineIndex.levels[level].gap + ' ticks') + ')';
+    if (rows.length === 0) {
+        timelineChart.clearChart();
+        timelineStatus(description + ': nothing to display.');
+        return;
+    }
+    dataTable.addRows(rows);
+    timelineChart.draw(dataTable, {hAxis: {minValue: timelineDate(from), maxValue: timelineDate(to)}});
+    timelineStatus(description);
+}
+
+function timelineZoom(factor) {
+    var center = (timelineFrom + timelineTo) / 2;
+    var half = Math.max(1, (timelineTo - timelineFrom) * factor / 2);
+    timelineFrom = Math.max(timelineIndex.first, Math.floor(center - half));
+    timelineTo = Math.min(timelineIndex.last, Math.ceil(center + half));
+    timelineRender();
+}
+
+function timelinePan(ratio) {
+    var width = timelineTo - timelineFrom;
+    var shift = Math.round(width * ratio);
+    shift = Math.max(timelineIndex.first - timelineFrom, Math.min(timelineIndex.last - timelineTo, shift));
+    timelineFrom += shift;
+    timelineTo += shift;
+    timelineRender();
+}
+
+function timelineReset() {
+    timelineFrom = timelineIndex.first;
+    timelineTo = timelineIndex.last;
+    timelineRender();
+}
+
+google.charts.load('current', {packages: ['timeline']});
+google.charts.setOnLoadCallback(function () {
+    timelineChart = new google.visualization.Timeline(document.getElementById('timeline'));
+    timelineReset();
+});
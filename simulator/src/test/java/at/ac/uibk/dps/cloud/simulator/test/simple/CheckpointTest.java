@@ -0,0 +1,236 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.ac.uibk.dps.cloud.simulator.test.simple;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Checkpoint;
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.energy.specialized.IaaSEnergyMeter;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager.VMManagementException;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.SchedulingDependentMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import at.ac.uibk.dps.cloud.simulator.test.IaaSRelatedFoundation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointTest extends IaaSRelatedFoundation {
+
+	/**
+	 * Runs a single compute task in a VM and destroys the VM afterwards, the
+	 * completion times are logged.
+	 */
+	static class Job implements VirtualMachine.StateChange, ResourceConsumption.ConsumptionEvent {
+		final ArrayList<Long> log;
+		final double processing;
+		VirtualMachine vm;
+
+		Job(final ArrayList<Long> log, final double processing) {
+			this.log = log;
+			this.processing = processing;
+		}
+
+		@Override
+		public void stateChanged(final VirtualMachine vm, final VirtualMachine.State oldState,
+				final VirtualMachine.State newState) {
+			if (VirtualMachine.State.RUNNING.equals(newState)) {
+				this.vm = vm;
+				try {
+					vm.newComputeTask(processing, ResourceConsumption.unlimitedProcessing, this);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+
+		@Override
+		public void conComplete() {
+			log.add(Timed.getFireCount());
+			try {
+				vm.destroy(false);
+			} catch (VMManagementException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public void conCancelled(final ResourceConsumption problematic) {
+			log.add(-Timed.getFireCount());
+		}
+	}
+
+	/**
+	 * Requests VMs with random sized jobs at random times.
+	 */
+	static class Arrivals extends Timed {
+		final IaaSService iaas;
+		final ArrayList<Long> log;
+		int remaining = 40;
+
+		Arrivals(final IaaSService iaas, final ArrayList<Long> log) {
+			this.iaas = iaas;
+			this.log = log;
+			subscribe(1);
+		}
+
+		@Override
+		public void tick(final long fires) {
+			final Repository repo = iaas.repositories.get(0);
+			final double processing = 1000 + SeedSyncer.getCentralRnd().nextInt(20000);
+			try {
+				iaas.requestVM((VirtualAppliance) repo.contents().iterator().next(),
+						new ConstantConstraints(1, dummyPMPerCorePP, 512), repo, 1)[0]
+						.subscribeStateChange(new Job(log, processing));
+			} catch (VMManagementException | RuntimeException e) {
+				throw new IllegalStateException(e);
+			}
+			// a deferred event that is still pending at the time of the checkpoint
+			new DeferredEvent(5000) {
+				@Override
+				protected void eventAction() {
+					log.add(0L);
+				}
+			};
+			if (--remaining == 0) {
+				unsubscribe();
+			} else {
+				updateFrequency(1 + SeedSyncer.getCentralRnd().nextInt(3000));
+			}
+		}
+	}
+
+	/**
+	 * The state of the scenario (the IaaS, its energy meter and the log of
+	 * the jobs) that is compared between the original and the restored
+	 * simulations.
+	 */
+	static class Scenario {
+		IaaSService iaas;
+		IaaSEnergyMeter meter;
+		ArrayList<Long> log;
+
+		Checkpoint capture() {
+			return new Checkpoint().put("iaas", iaas).put("meter", meter).put("log", log);
+		}
+
+		static Scenario restore(final Checkpoint cp) {
+			final Scenario s = new Scenario();
+			s.iaas = cp.get("iaas", IaaSService.class);
+			s.meter = cp.get("meter", IaaSEnergyMeter.class);
+			@SuppressWarnings("unchecked")
+			final ArrayList<Long> log = cp.get("log", ArrayList.class);
+			s.log = log;
+			return s;
+		}
+
+		String finish() {
+			// the meter would never let the simulation end on its own
+			Timed.simulateUntil(400 * aSecond);
+			meter.stopMeter();
+			Timed.simulateUntilLastEvent();
+			return Timed.getFireCount() + " " + meter.getTotalConsumption() + " " + log + " "
+					+ iaas.listVMs().size() + " " + iaas.runningMachines.size();
+		}
+	}
+
+	private static Scenario startScenario() throws Exception {
+		final Scenario s = new Scenario();
+		s.iaas = setupIaaS(FirstFitScheduler.class, SchedulingDependentMachines.class, 4, 2);
+		s.meter = new IaaSEnergyMeter(s.iaas);
+		s.meter.startMeter(aSecond, true);
+		s.log = new ArrayList<>();
+		new Arrivals(s.iaas, s.log);
+		return s;
+	}
+
+	@Test
+	@Timeout(value = 10, unit = TimeUnit.SECONDS)
+	public void restoredSimulationContinuesIdentically() throws Exception {
+		final SimulationContext ctx = new SimulationContext(7);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final String original;
+		final long checkpointTime;
+		final String logAtCheckpoint;
+		final SimulationContext prev = SimulationContext.bind(ctx);
+		try {
+			final Scenario s = startScenario();
+			Timed.simulateUntil(40 * aSecond);
+			checkpointTime = Timed.getFireCount();
+			logAtCheckpoint = s.log.toString();
+			assertFalse(s.log.isEmpty(), "Some jobs should complete before the checkpoint");
+			s.capture().write(bytes);
+			original = s.finish();
+		} finally {
+			SimulationContext.bind(prev);
+		}
+
+		final String[] restored = new String[2];
+		for (int i = 0; i < restored.length; i++) {
+			final Checkpoint cp = Checkpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+			assertNotSame(ctx, cp.getContext(), "A new context should be created");
+			assertEquals(checkpointTime, cp.getContext().getFireCount(), "The clock should be restored");
+			final Scenario s = Scenario.restore(cp);
+			assertEquals(logAtCheckpoint, s.log.toString(), "The roots should be restored");
+			final int run = i;
+			cp.getContext().run(() -> restored[run] = s.finish());
+		}
+		assertEquals(original, restored[0], "The restored simulation should continue like the original");
+		assertEquals(original, restored[1], "Every load should produce an independent copy");
+		assertEquals(0, Timed.getFireCount(), "The default context should not be affected");
+	}
+
+	@Test
+	@Timeout(value = 10, unit = TimeUnit.SECONDS)
+	public void checkpointInFile(@TempDir final File dir) throws Exception {
+		final File file = new File(dir, "warm.ckpt");
+		final Scenario s = startScenario();
+		Timed.simulateUntil(20 * aSecond);
+		s.capture().save(file);
+		final Checkpoint cp = Checkpoint.load(file);
+		// the variant gets a new job, while the original does not
+		final String[] variant = new String[1];
+		cp.getContext().run(() -> {
+			final Scenario v = Scenario.restore(cp);
+			new Arrivals(v.iaas, v.log).remaining = 1;
+			variant[0] = v.finish();
+		});
+		assertNotEquals(s.finish(), variant[0], "The variant should be independent from the original");
+	}
+}
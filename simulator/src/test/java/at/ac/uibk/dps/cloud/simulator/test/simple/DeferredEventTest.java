@@ -137,4 +137,44 @@ public class DeferredEventTest extends TestFoundation {
 		Timed.simulateUntilLastEvent();
 		assertTrue( arr[0],"The second event should arrive");
 	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void cancelSimultaneousDuringDispatch() {
+		final DeferredTester[] later = new DeferredTester[1];
+		new DeferredEvent(10) {
+			@Override
+			protected void eventAction() {
+				later[0].cancel();
+			}
+		};
+		later[0] = new DeferredTester(10);
+		final DeferredTester other = new DeferredTester(10);
+		Timed.simulateUntilLastEvent();
+		assertTrue(later[0].isCancelled(), "Event cancelled at its own time instance should be cancelled");
+		assertFalse(later[0].eventFired, "Event cancelled at its own time instance should not arrive");
+		assertTrue(other.eventFired, "Other simultaneous events should still arrive");
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void recycledDispatchers() {
+		final DeferredTester first = new DeferredTester(5);
+		final DeferredTester cancelled = new DeferredTester(7);
+		cancelled.cancel();
+		Timed.simulateUntilLastEvent();
+		assertTrue(first.eventFired, "Event should arrive");
+		final DeferredTester[] sequence = new DeferredTester[100];
+		for (int i = 0; i < sequence.length; i++) {
+			sequence[i] = new DeferredTester(i + 1);
+		}
+		sequence[50].cancel();
+		first.cancel();
+		cancelled.cancel();
+		Timed.simulateUntilLastEvent();
+		for (int i = 0; i < sequence.length; i++) {
+			assertEquals(i != 50, sequence[i].eventFired, "Reused dispatchers should deliver their own events only");
+		}
+		assertFalse(first.isCancelled(), "Cancelling an already received event should have no effect");
+	}
 }
@@ -0,0 +1,130 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.ac.uibk.dps.cloud.simulator.test.simple;
+
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import at.ac.uibk.dps.cloud.simulator.test.TestFoundation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationContextTest extends TestFoundation {
+
+	static class RandomDelays extends Timed {
+		long sum = 0;
+		int remaining = 100;
+
+		RandomDelays() {
+			subscribe(1);
+		}
+
+		@Override
+		public void tick(long fires) {
+			sum += fires;
+			new DeferredEvent(SeedSyncer.getCentralRnd().nextInt(50) + 1) {
+				@Override
+				protected void eventAction() {
+					sum++;
+				}
+			};
+			if (--remaining == 0) {
+				unsubscribe();
+			} else {
+				updateFrequency(SeedSyncer.getCentralRnd().nextInt(20) + 1);
+			}
+		}
+	}
+
+	private static long[] runScenario(final SimulationContext ctx) {
+		final long[] result = new long[2];
+		ctx.run(() -> {
+			final RandomDelays rd = new RandomDelays();
+			Timed.simulateUntilLastEvent();
+			result[0] = rd.sum;
+			result[1] = Timed.getFireCount();
+		});
+		return result;
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void contextIsolation() {
+		final SimulationContext ctx = new SimulationContext(42);
+		final RandomDelays inDefault = new RandomDelays();
+		ctx.run(() -> {
+			assertSame(ctx, SimulationContext.current(), "The thread should be bound to the new context");
+			assertEquals(0, Timed.getFireCount(), "A new context should start at time 0");
+			assertEquals(-1, Timed.getNextFire(), "A new context should not see events of other contexts");
+		});
+		assertSame(SimulationContext.getDefault(), SimulationContext.current(),
+				"The thread should be bound back to the default context");
+		assertSame(SimulationContext.getDefault(), inDefault.getContext(), "Should belong to the default context");
+		final long[] res = runScenario(ctx);
+		assertTrue(res[1] > 0, "The context's time should advance");
+		assertEquals(0, Timed.getFireCount(), "The default context's time should not be affected");
+		assertTrue(inDefault.isSubscribed(), "Events of the default context should stay intact");
+	}
+
+	@Test
+	@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+	public void parallelDeterminism() throws Exception {
+		final long[] reference = runScenario(new SimulationContext(42));
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			@SuppressWarnings("unchecked")
+			final Future<long[]>[] results = new Future[16];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = pool.submit(() -> runScenario(new SimulationContext(42)));
+			}
+			for (Future<long[]> f : results) {
+				assertArrayEquals(reference, f.get(), "Parallel simulations should not interfere");
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void registriesAndReset() {
+		final SimulationContext ctx = new SimulationContext(1);
+		ctx.run(() -> SimulationContext.current().getRegistry(String.class).add("entity"));
+		assertEquals(1, ctx.getRegistry(String.class).size(), "Registry should keep the entity");
+		assertTrue(SimulationContext.getDefault().getRegistry(String.class).isEmpty(),
+				"Default registry should not see the entity");
+		runScenario(ctx);
+		ctx.reset();
+		assertEquals(0, ctx.getFireCount(), "Reset should set back the time");
+		assertTrue(ctx.getRegistry(String.class).isEmpty(), "Reset should clear the registries");
+	}
+}
@@ -28,6 +28,7 @@ package at.ac.uibk.dps.cloud.simulator.test.simple;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 
 import java.util.ArrayList;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import at.ac.uibk.dps.cloud.simulator.test.TestFoundation;
@@ -341,4 +342,60 @@ public class TimedTest extends TestFoundation {
 		Timed.skipEventsTill(10);
 		assertEquals(100, Timed.getFireCount(), "Should not allow negative time jumps");
 	}
+
+	@Test
+	@Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
+	public void massiveRescheduling() {
+		final Random rnd = new Random(1);
+		final long[] lastFire = { -1 };
+		final boolean[] lastBack = { false };
+		class Rescheduled extends Timed {
+			long expected;
+			int fires = 0;
+			final boolean back;
+
+			Rescheduled(boolean back) {
+				this.back = back;
+				setBackPreference(back);
+				expected = updateFrequency(1 + rnd.nextInt(1000));
+			}
+
+			void change() {
+				if (rnd.nextInt(4) == 0) {
+					unsubscribe();
+				} else {
+					expected = updateFrequency(1 + rnd.nextInt(1000));
+				}
+			}
+
+			@Override
+			public void tick(long fires) {
+				assertEquals(expected, fires, "Rescheduled event arrived at the wrong time");
+				assertTrue(lastFire[0] < fires || !lastBack[0] || back,
+						"Back preferred event arrived before a regular one");
+				lastFire[0] = fires;
+				lastBack[0] = back;
+				this.fires++;
+				unsubscribe();
+			}
+		}
+		final Rescheduled[] events = new Rescheduled[5000];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = new Rescheduled(rnd.nextBoolean());
+		}
+		for (int i = 0; i < 20000; i++) {
+			events[rnd.nextInt(events.length)].change();
+		}
+		int expectedFires = 0;
+		for (Rescheduled r : events) {
+			expectedFires += r.isSubscribed() ? 1 : 0;
+		}
+		Timed.simulateUntilLastEvent();
+		int arrived = 0;
+		for (Rescheduled r : events) {
+			assertFalse(r.isSubscribed(), "All events should have arrived");
+			arrived += r.fires;
+		}
+		assertEquals(expectedFires, arrived, "Cancelled events should not arrive");
+	}
 }
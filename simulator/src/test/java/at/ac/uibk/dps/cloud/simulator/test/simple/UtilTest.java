@@ -28,6 +28,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.AlwaysOnMachines;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
 import hu.mta.sztaki.lpds.cloud.simulator.util.CloudLoader;
+import hu.mta.sztaki.lpds.cloud.simulator.util.CloudTemplate;
 
 import java.io.File;
 import java.io.RandomAccessFile;
@@ -87,4 +88,36 @@ public class UtilTest extends TestFoundation {
 		temp.delete();
 	}
 
+	@Test
+	@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+	public void cloudTemplateReuse() throws Exception {
+		File temp = File.createTempFile("dissect-test", "cloudTemplate");
+		RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+		raf.writeBytes(cloudDef);
+		raf.close();
+		CloudTemplate template = CloudLoader.loadTemplate(temp.toString());
+		Assertions.assertSame(template, CloudLoader.loadTemplate(temp.toString()),
+				"An unchanged file should not be parsed again");
+		IaaSService first = CloudLoader.loadNodes(temp.toString());
+		IaaSService second = CloudLoader.loadNodes(temp.toString());
+		Assertions.assertNotSame(first.machines.get(0), second.machines.get(0),
+				"Every IaaS should have its own PMs");
+		Assertions.assertNotSame(first.repositories.get(0).getLatencies(), second.repositories.get(0).getLatencies(),
+				"Every IaaS should have its own latency maps");
+		Assertions.assertEquals(first.machines.get(0).getCapacities().getTotalProcessingPower(),
+				second.machines.get(0).getCapacities().getTotalProcessingPower(),
+				"The PMs should be created from the same specification");
+		Assertions.assertEquals(first.repositories.get(0).getLatencies(), second.repositories.get(0).getLatencies(),
+				"The repositories should be created from the same specification");
+
+		raf = new RandomAccessFile(temp, "rw");
+		raf.writeBytes(cloudDef.replace("</cloud>", "<repository id=\"extra\" capacity=\"1000\" inBW=\"1\" "
+				+ "outBW=\"1\" diskBW=\"1\"></repository></cloud>"));
+		raf.close();
+		CloudTemplate changed = CloudLoader.loadTemplate(temp.toString());
+		Assertions.assertNotSame(template, changed, "A changed file should be parsed again");
+		Assertions.assertEquals(2, changed.getRepositoryCount(), "The new repository should be loaded");
+		Assertions.assertEquals(1, changed.getMachineCount(), "Only one PM should be loaded");
+		temp.delete();
+	}
 }
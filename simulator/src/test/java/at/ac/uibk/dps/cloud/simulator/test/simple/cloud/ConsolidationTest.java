@@ -33,6 +33,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine.ResourceAllocation;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.consolidation.IncrementalConsolidator;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.consolidation.SimpleConsolidator;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
@@ -41,6 +42,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
 
+import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 
 public class ConsolidationTest extends IaaSRelatedFoundation {
@@ -102,4 +104,103 @@ public class ConsolidationTest extends IaaSRelatedFoundation {
 		}
 		Timed.simulateUntilLastEvent();
 	}
+
+	@Test
+	@Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+	public void incrementalConsolidate() throws Exception {
+		IaaSService iaas = new IaaSService(FirstFitScheduler.class, SchedulingDependentMachines.class);
+		Repository r = dummyRepoCreator(true);
+		iaas.registerRepository(r);
+		VirtualAppliance va = (VirtualAppliance) r.contents().iterator().next();
+		PhysicalMachine[] pms = new PhysicalMachine[3];
+		for (int i = 0; i < pms.length; i++) {
+			pms[i] = dummyPMcreator();
+			iaas.registerHost(pms[i]);
+		}
+		ResourceConstraints caps = pms[0].getCapacities();
+		// Two VMs fit on a PM
+		ResourceConstraints half = new ConstantConstraints(caps.getRequiredCPUs() / 2,
+				caps.getRequiredProcessingPower(), 1);
+		VirtualMachine[] vms = iaas.requestVM(va, half, r, 6);
+		Timed.simulateUntilLastEvent();
+		for (PhysicalMachine pm : pms) {
+			assertEquals(2, pm.publicVms.size(), "All PMs should be fully loaded");
+		}
+		// One VM is dropped from the first two PMs
+		for (int i = 0; i < 2; i++) {
+			pms[i].publicVms.iterator().next().destroy(true);
+		}
+		Timed.simulateUntilLastEvent();
+		final long migrationsBefore = IncrementalConsolidator.migrationCount;
+		new IncrementalConsolidator(iaas, 100, 1);
+		Timed.simulateUntil(Timed.getFireCount() + 1000);
+		assertEquals(1, IncrementalConsolidator.migrationCount - migrationsBefore,
+				"A single migration should be enough");
+		int hosting = 0;
+		int hosted = 0;
+		for (PhysicalMachine pm : pms) {
+			hosting += pm.isHostingVMs() ? 1 : 0;
+			hosted += pm.publicVms.size();
+		}
+		assertEquals(2, hosting, "One of the half loaded PMs should be evacuated");
+		assertEquals(4, hosted, "All VMs should be kept");
+		for (VirtualMachine vm : vms) {
+			if (vm.getResourceAllocation() != null) {
+				vm.destroy(true);
+			}
+		}
+		Timed.simulateUntilLastEvent();
+	}
+
+	@Test
+	@Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+	public void incrementalConsolidateWithinBudget() throws Exception {
+		IaaSService iaas = new IaaSService(FirstFitScheduler.class, SchedulingDependentMachines.class);
+		Repository r = dummyRepoCreator(true);
+		iaas.registerRepository(r);
+		VirtualAppliance va = (VirtualAppliance) r.contents().iterator().next();
+		PhysicalMachine[] pms = new PhysicalMachine[3];
+		for (int i = 0; i < pms.length; i++) {
+			pms[i] = dummyPMcreator();
+			iaas.registerHost(pms[i]);
+		}
+		ResourceConstraints caps = pms[0].getCapacities();
+		final double eighth = caps.getRequiredCPUs() / 8;
+		// The kept VMs in eighths of a PM: 5 on the first, 3 on the second, 1+1 on
+		// the third PM, the rest of each PM is filled until all VMs are placed
+		final int[][] layout = { { 5, 3 }, { 3, 5 }, { 1, 1, 6 } };
+		final ArrayList<VirtualMachine> fillers = new ArrayList<>();
+		for (int[] pmLayout : layout) {
+			for (int j = 0; j < pmLayout.length; j++) {
+				VirtualMachine vm = iaas.requestVM(va, new ConstantConstraints(eighth * pmLayout[j],
+						caps.getRequiredProcessingPower(), 1), r, 1)[0];
+				Timed.simulateUntilLastEvent();
+				if (j == pmLayout.length - 1) {
+					fillers.add(vm);
+				}
+			}
+		}
+		for (VirtualMachine vm : fillers) {
+			vm.destroy(true);
+		}
+		Timed.simulateUntilLastEvent();
+		assertEquals(1, pms[1].publicVms.size());
+		assertEquals(2, pms[2].publicVms.size());
+		final long migrationsBefore = IncrementalConsolidator.migrationCount;
+		// The most free PM has more VMs than the budget, the next one can still be
+		// evacuated to the most loaded one
+		new IncrementalConsolidator(iaas, 100, 1);
+		Timed.simulateUntil(Timed.getFireCount() + 1000);
+		assertEquals(1, IncrementalConsolidator.migrationCount - migrationsBefore,
+				"The PM with a single VM should be evacuated");
+		assertFalse(pms[1].isHostingVMs(), "The PM with a single VM should be evacuated");
+		assertEquals(2, pms[0].publicVms.size(), "The most loaded PM should receive the VM");
+		assertEquals(2, pms[2].publicVms.size(), "The PM with too many VMs should not be touched");
+		for (PhysicalMachine pm : pms) {
+			for (VirtualMachine vm : pm.publicVms.toArray(new VirtualMachine[0])) {
+				vm.destroy(true);
+			}
+		}
+		Timed.simulateUntilLastEvent();
+	}
 }
@@ -0,0 +1,158 @@
+/*
+ *  ========================================================================
+ *  DIScrete event baSed Energy Consumption simulaTor
+ *    					             for Clouds and Federations (DISSECT-CF)
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF.
+ *
+ *  DISSECT-CF is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with DISSECT-CF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package at.ac.uibk.dps.cloud.simulator.test.simple.cloud;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import at.ac.uibk.dps.cloud.simulator.test.ConsumptionEventFoundation;
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ArrayMaxMinSolver;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.IterativeMaxMinSolver;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinConsumer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinFairSpreader;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinProvider;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinSolver;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaxMinSolverTest extends ConsumptionEventFoundation {
+	private MaxMinSolver originalSolver;
+
+	@BeforeEach
+	public void saveSolver() {
+		originalSolver = MaxMinFairSpreader.getSolver();
+	}
+
+	@AfterEach
+	public void restoreSolver() {
+		MaxMinFairSpreader.setSolver(originalSolver);
+	}
+
+	/**
+	 * Creates a random, densely connected set of providers and consumers and
+	 * registers consumptions with mixed limits between them.
+	 */
+	private static ArrayList<ResourceConsumption> createScenario(final long seed, final long[] completions) {
+		final Random rnd = new Random(seed);
+		final MaxMinProvider[] provs = new MaxMinProvider[rnd.nextInt(5) + 1];
+		final MaxMinConsumer[] conss = new MaxMinConsumer[rnd.nextInt(8) + 1];
+		for (int i = 0; i < provs.length; i++) {
+			provs[i] = new MaxMinProvider(rnd.nextInt(10) + 1);
+		}
+		for (int i = 0; i < conss.length; i++) {
+			conss[i] = new MaxMinConsumer(rnd.nextInt(5) + 1);
+		}
+		final ArrayList<ResourceConsumption> cons = new ArrayList<>();
+		for (int i = 0; i < completions.length; i++) {
+			final int idx = i;
+			final double limit = rnd.nextInt(3) == 0 ? ResourceConsumption.unlimitedProcessing
+					: rnd.nextDouble() * 3 + 0.1;
+			final ResourceConsumption con = new ResourceConsumption(rnd.nextInt(10000) + 100, limit,
+					conss[rnd.nextInt(conss.length)], provs[rnd.nextInt(provs.length)], new ConsumptionEventAdapter() {
+						@Override
+						public void conComplete() {
+							super.conComplete();
+							completions[idx] = Timed.getFireCount();
+						}
+					});
+			con.registerConsumption();
+			cons.add(con);
+		}
+		return cons;
+	}
+
+	private static double[] initialLimits(final MaxMinSolver solver, final long seed, final int count) {
+		Timed.resetTimed();
+		MaxMinFairSpreader.setSolver(solver);
+		final ArrayList<ResourceConsumption> cons = createScenario(seed, new long[count]);
+		Timed.fire();
+		final double[] limits = new double[count];
+		for (int i = 0; i < count; i++) {
+			limits[i] = cons.get(i).getRealLimit();
+		}
+		return limits;
+	}
+
+	private static long[] completionTimes(final MaxMinSolver solver, final long seed, final int count) {
+		Timed.resetTimed();
+		MaxMinFairSpreader.setSolver(solver);
+		final long[] completions = new long[count];
+		createScenario(seed, completions);
+		Timed.simulateUntilLastEvent();
+		return completions;
+	}
+
+	@Test
+	@Timeout(value = 3000, unit = TimeUnit.MILLISECONDS)
+	public void sameLimitsAsIterative() {
+		for (long seed = 0; seed < 50; seed++) {
+			final double[] expected = initialLimits(new IterativeMaxMinSolver(), seed, 30);
+			final double[] actual = initialLimits(new ArrayMaxMinSolver(), seed, 30);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i], actual[i], expected[i] * 1e-6,
+						"Consumption " + i + " should get the same limit in scenario " + seed);
+			}
+		}
+	}
+
+	@Test
+	@Timeout(value = 3000, unit = TimeUnit.MILLISECONDS)
+	public void sameCompletionsAsIterative() {
+		for (long seed = 0; seed < 20; seed++) {
+			final long[] expected = completionTimes(new IterativeMaxMinSolver(), seed, 30);
+			final long[] actual = completionTimes(new ArrayMaxMinSolver(), seed, 30);
+			for (int i = 0; i < expected.length; i++) {
+				assertTrue(expected[i] > 0, "All consumptions should complete");
+				assertEquals(expected[i], actual[i], 1,
+						"Consumption " + i + " should complete at the same time in scenario " + seed);
+			}
+		}
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void solverIsMandatory() {
+		assertThrows(IllegalArgumentException.class, () -> MaxMinFairSpreader.setSolver(null));
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void solverIsPerSimulation() {
+		final MaxMinSolver iterative = new IterativeMaxMinSolver();
+		final SimulationContext other = new SimulationContext(1);
+		other.run(() -> MaxMinFairSpreader.setSolver(iterative));
+		assertNotSame(iterative, MaxMinFairSpreader.getSolver(), "The solver of another simulation leaked");
+		other.run(() -> assertSame(iterative, MaxMinFairSpreader.getSolver(), "The solver was not kept"));
+		other.reset();
+		other.run(() -> assertSame(iterative, MaxMinFairSpreader.getSolver(), "Reset should keep the solver"));
+	}
+}
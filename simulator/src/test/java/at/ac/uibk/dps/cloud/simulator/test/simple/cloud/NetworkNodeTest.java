@@ -38,6 +38,7 @@ import at.ac.uibk.dps.cloud.simulator.test.ConsumptionEventAssert;
 import at.ac.uibk.dps.cloud.simulator.test.PMRelatedFoundation;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LatencyMap;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 
@@ -239,4 +240,33 @@ public class NetworkNodeTest extends PMRelatedFoundation {
 		assertEquals(dataToBeSent,
 				source.outbws.getTotalProcessed(), 0, "The final outgoing transfer amount is reported incorrectly");
 	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void latencyMapConnectivity() throws NetworkException {
+		final LatencyMap lm = new LatencyMap(setupALatencyMap());
+		final NetworkNode indexed = new NetworkNode("Indexed", inBW, outBW, diskBW, lm, defaultStorageTransitions,
+				defaultNetworkTransitions);
+		assertEquals(targetlat, NetworkNode.checkConnectivity(indexed, target), "Unexpected latency from the map");
+		assertThrows(NetworkException.class, () -> NetworkNode.checkConnectivity(indexed, third));
+		// Connections added or removed later should be visible
+		for (int i = 0; i < 100; i++) {
+			lm.put("Filler" + i, i);
+		}
+		lm.put(thirdName, 7);
+		assertEquals(7, NetworkNode.checkConnectivity(indexed, third), "New connection not found");
+		lm.remove(targetName);
+		assertThrows(NetworkException.class, () -> NetworkNode.checkConnectivity(indexed, target));
+		// Renaming a node should change the connection used
+		target.setName(thirdName);
+		assertEquals(7, NetworkNode.checkConnectivity(indexed, target), "Renamed node uses an outdated name");
+		// The map should behave like any other map
+		final HashMap<String, Integer> copy = new HashMap<>(lm);
+		assertEquals(copy, lm, "The map contents differ from a copy");
+		assertEquals(102, lm.size(), "Unexpected number of connections");
+		lm.entrySet().removeIf(e -> e.getKey().startsWith("Filler"));
+		assertEquals(setupALatencyMap().size(), lm.size(), "Wrong number of connections after removal");
+		assertEquals(Integer.valueOf(sourcelat), lm.get(sourceName), "Remaining connection lost");
+		assertNull(lm.get("Filler5"), "Removed connection still present");
+	}
 }
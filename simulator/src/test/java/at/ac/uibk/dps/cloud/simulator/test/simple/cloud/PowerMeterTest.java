@@ -118,6 +118,75 @@ public class PowerMeterTest extends IaaSRelatedFoundation {
 		Timed.simulateUntilLastEvent();
 	}
 
+	@Test
+	@Timeout(value = 300, unit = TimeUnit.MILLISECONDS)
+	public void eventDrivenVMmeasurementTest() throws VMManagementException, NetworkException {
+		PhysicalMachine pm = dummyPMcreator();
+		Repository repo = dummyRepoCreator(true);
+		repo.setState(NetworkNode.State.RUNNING);
+		pm.turnon();
+		Timed.simulateUntilLastEvent();
+		VirtualMachine vm = pm.requestVM((VirtualAppliance) repo.contents().iterator().next(), pm.getCapacities(), repo,
+				1)[0];
+		Timed.simulateUntilLastEvent();
+		final EnergyMeter meter = new SimpleVMEnergyMeter(vm);
+		meter.startMeter(true);
+		long before = Timed.getFireCount();
+		Timed.simulateUntilLastEvent();
+		assertEquals(before, Timed.getFireCount(), "An event driven meter should not create events");
+		Timed.simulateUntil(Timed.getFireCount() + aSecond);
+		assertEquals(totalIdle * (Timed.getFireCount() - before), meter.getTotalConsumption(), 0.1, "The idle machine is not consuming as much as expected");
+		meter.stopMeter();
+		assertFalse(meter.isMetering());
+		meter.startMeter(true);
+		ResourceConstraints rc = vm.getResourceAllocation().allocated;
+		final long taskleninms = 10 * aSecond;
+		vm.newComputeTask(rc.getTotalProcessingPower() * taskleninms, ResourceConsumption.unlimitedProcessing,
+				new ConsumptionEventAssert(Timed.getFireCount() + taskleninms, true) {
+					@Override
+					public void conComplete() {
+						super.conComplete();
+						meter.stopMeter();
+					}
+				});
+		Timed.simulateUntilLastEvent();
+		assertEquals(taskleninms * (maxpower - idlepower + totalIdle), meter.getTotalConsumption(), 0.1, "The consumption is not properly reported if there is a task processed");
+		meter.startMeter(true);
+		vm.newComputeTask(rc.getTotalProcessingPower() * taskleninms, rc.getRequiredProcessingPower() * 0.5,
+				new ConsumptionEventAssert());
+		Timed.simulateUntil(Timed.getFireCount() + taskleninms);
+		// The reading is exact without stopping the meter
+		assertEquals(taskleninms * (0.5 * (maxpower - idlepower) + totalIdle), meter.getTotalConsumption(), 0.1, "The consumption is not properly reported if there is a task processed");
+		meter.stopMeter();
+		Timed.simulateUntilLastEvent();
+	}
+
+	@Test
+	@Timeout(value = 300, unit = TimeUnit.MILLISECONDS)
+	public void eventDrivenMeterFollowsPolling() throws Exception {
+		final IaaSService iaas = setupIaaS(FirstFitScheduler.class, AlwaysOnMachines.class, 2, 4);
+		Timed.simulateUntilLastEvent();
+		final ArrayList<EnergyMeter> polling = new ArrayList<>();
+		final ArrayList<EnergyMeter> eventDriven = new ArrayList<>();
+		for (PhysicalMachine pm : iaas.machines) {
+			polling.add(new PhysicalMachineEnergyMeter(pm));
+			eventDriven.add(new PhysicalMachineEnergyMeter(pm));
+		}
+		polling.forEach(m -> m.startMeter(aSecond / 10, true));
+		eventDriven.forEach(m -> m.startMeter(true));
+		for (int i = 0; i < 6; i++) {
+			fireVMat(iaas, 100 + i * 3 * aSecond, 5 + i, 1 + i % 3);
+		}
+		Timed.simulateUntil(Timed.getFireCount() + 100 * aSecond);
+		for (int i = 0; i < polling.size(); i++) {
+			polling.get(i).stopMeter();
+			eventDriven.get(i).stopMeter();
+			assertTrue(eventDriven.get(i).getTotalConsumption() > totalIdle * 100 * aSecond, "The machines should do some processing");
+			assertEquals(polling.get(i).getTotalConsumption(), eventDriven.get(i).getTotalConsumption(),
+					polling.get(i).getTotalConsumption() * 0.0001, "The event driven meter should report the same consumption");
+		}
+	}
+
 	@Test
 	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
 	public void PSTest() {
@@ -33,6 +33,10 @@ import at.ac.uibk.dps.cloud.simulator.test.PMRelatedFoundation;
 import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.io.CachePolicy;
+import hu.mta.sztaki.lpds.cloud.simulator.io.GDSFCachePolicy;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LFUCachePolicy;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LRUCachePolicy;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
@@ -326,4 +330,72 @@ public class RepositoryTest extends PMRelatedFoundation {
 		Timed.simulateUntilLastEvent();
 		assertTrue(cae.isCancelled(), "Should receive cancel event");
 	}
+
+	private Repository smallCache(final CachePolicy policy) {
+		final Repository cache = new Repository(3000, "Cache", NetworkNodeTest.inBW, NetworkNodeTest.outBW,
+				NetworkNodeTest.diskBW, NetworkNodeTest.setupALatencyMap(), defaultStorageTransitions,
+				defaultNetworkTransitions);
+		cache.setCachePolicy(policy);
+		return cache;
+	}
+
+	private StorageObject[] fillCache(final Repository cache, final long... sizes) {
+		final StorageObject[] objects = new StorageObject[sizes.length];
+		for (int i = 0; i < sizes.length; i++) {
+			objects[i] = new StorageObject("Cached" + i, sizes[i], false);
+			assertTrue(cache.cacheObject(objects[i]), "Could not cache object " + i);
+		}
+		return objects;
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void cacheEvictionPolicies() {
+		// LRU: the object not used for the longest time goes first
+		Repository cache = smallCache(new LRUCachePolicy());
+		StorageObject[] objs = fillCache(cache, 1000, 1000, 1000);
+		assertNotNull(cache.lookupCached(objs[0].id), "Cached object not found");
+		assertTrue(cache.cacheObject(new StorageObject("New", 1000, false)), "Eviction did not make space");
+		assertNull(cache.lookup(objs[1].id), "LRU evicted the wrong object");
+		assertEquals(1, cache.getCachePolicy().getEvictions(), "Unexpected eviction count");
+		assertNull(cache.lookupCached(objs[1].id), "Evicted object still cached");
+		assertEquals(0.5, cache.getCachePolicy().getHitRatio(), "Unexpected hit ratio");
+
+		// LFU: the least used object goes first
+		cache = smallCache(new LFUCachePolicy());
+		objs = fillCache(cache, 1000, 1000, 1000);
+		cache.lookupCached(objs[0].id);
+		cache.lookupCached(objs[0].id);
+		cache.lookupCached(objs[1].id);
+		assertTrue(cache.cacheObject(new StorageObject("New", 1000, false)), "Eviction did not make space");
+		assertNull(cache.lookup(objs[2].id), "LFU evicted the wrong object");
+		assertNotNull(cache.lookup(objs[0].id), "LFU evicted a frequently used object");
+
+		// GDSF: large objects go first
+		cache = smallCache(new GDSFCachePolicy());
+		objs = fillCache(cache, 500, 2000, 500);
+		assertTrue(cache.cacheObject(new StorageObject("New", 1000, false)), "Eviction did not make space");
+		assertNull(cache.lookup(objs[1].id), "GDSF should evict the large object");
+		assertEquals(2000, cache.getCachePolicy().getEvictedBytes(), "Unexpected evicted size");
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void cachePinningAndRegularContents() {
+		final Repository cache = smallCache(new LRUCachePolicy());
+		final StorageObject regular = new StorageObject("Regular", 1000, false);
+		assertTrue(cache.registerObject(regular), "Could not register a regular object");
+		final StorageObject[] objs = fillCache(cache, 1000, 1000);
+		assertTrue(cache.pinObject(objs[0].id), "Could not pin a cached object");
+		assertFalse(cache.pinObject(regular.id), "Regular contents should not be pinnable");
+		assertTrue(cache.registerObject(new StorageObject("Other", 1000, false)),
+				"Registration should evict the unpinned cached object");
+		assertNotNull(cache.lookup(objs[0].id), "Pinned object was evicted");
+		assertNull(cache.lookup(objs[1].id), "Unpinned object was not evicted");
+		assertFalse(cache.cacheObject(new StorageObject("Big", 1000, false)),
+				"Only pinned and regular contents remain, nothing should be evicted");
+		assertTrue(cache.unpinObject(objs[0].id), "Could not unpin");
+		assertTrue(cache.cacheObject(new StorageObject("Big", 1000, false)), "Unpinned object should be evictable");
+		assertNotNull(cache.lookup(regular.id), "Regular contents should never be evicted");
+	}
 }
@@ -32,11 +32,14 @@ import java.util.concurrent.TimeUnit;
 
 import at.ac.uibk.dps.cloud.simulator.test.ConsumptionEventAssert;
 import at.ac.uibk.dps.cloud.simulator.test.ConsumptionEventFoundation;
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ConsumptionEventAdapter;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinConsumer;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.MaxMinProvider;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ProcessingListener;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceSpreader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -278,4 +281,170 @@ public class ResourceSpreadingTest extends ConsumptionEventFoundation {
 				.registerConsumption();
 		Timed.simulateUntilLastEvent();
 	}
+
+	@Test
+	public void chainedGroupMergeAndSplit() {
+		final int pairs = 2000;
+		final MaxMinProvider[] provs = new MaxMinProvider[pairs];
+		final MaxMinConsumer[] conss = new MaxMinConsumer[pairs];
+		final ConsumptionEventAssert[] pairEvents = new ConsumptionEventAssert[pairs];
+		final ConsumptionEventAssert[] bridgeEvents = new ConsumptionEventAssert[pairs - 1];
+		for (int i = 0; i < pairs; i++) {
+			provs[i] = new MaxMinProvider(1);
+			conss[i] = new MaxMinConsumer(1);
+			pairEvents[i] = new ConsumptionEventAssert();
+			new ResourceConsumption(10000, 1, conss[i], provs[i], pairEvents[i]).registerConsumption();
+		}
+		Timed.fire();
+		assertNotSame(provs[0].getSyncer(), provs[1].getSyncer(), "Independent pairs should form separate groups");
+		for (int i = 0; i < pairs - 1; i++) {
+			bridgeEvents[i] = new ConsumptionEventAssert();
+			new ResourceConsumption(10, 1, conss[i + 1], provs[i], bridgeEvents[i]).registerConsumption();
+		}
+		Timed.fire();
+		for (int i = 1; i < pairs; i++) {
+			assertSame(provs[0].getSyncer(), provs[i].getSyncer(), "The bridges should merge all pairs in a single group");
+			assertSame(provs[0].getSyncer(), conss[i].getSyncer(), "The bridges should merge all pairs in a single group");
+		}
+		Timed.simulateUntil(Timed.getFireCount() + 100);
+		assertEquals(pairs - 1, ConsumptionEventAssert.hits.size(), "Only the bridges should have completed");
+		for (int i = 0; i < pairs; i++) {
+			assertSame(provs[i].getSyncer(), conss[i].getSyncer(), "A pair should stay in the same group");
+			if (i > 0) {
+				assertNotSame(provs[i - 1].getSyncer(), provs[i].getSyncer(), "The group should split after the bridges complete");
+			}
+		}
+		Timed.simulateUntilLastEvent();
+		for (int i = 0; i < pairs; i++) {
+			assertNull(provs[i].getSyncer(), "No group should remain after all consumptions complete");
+		}
+		assertEquals(pairs * 2 - 1, ConsumptionEventAssert.hits.size(), "All consumptions should complete");
+		long lastBridge = 0;
+		for (final ConsumptionEventAssert bridge : bridgeEvents) {
+			assertTrue(bridge.isCompleted(), "All bridges should complete");
+			lastBridge = Math.max(lastBridge, bridge.getArrivedAt());
+		}
+		for (int i = 0; i < pairs; i++) {
+			assertTrue(pairEvents[i].getArrivedAt() > lastBridge, "A pair completed before the bridges");
+			if (i > 0 && i < pairs - 1) {
+				// Inner pairs share their bandwidth with two bridges, thus they are
+				// delayed the same way
+				assertEquals(pairEvents[1].getArrivedAt(), pairEvents[i].getArrivedAt(),
+						"Inner pairs should complete at the same time");
+			}
+		}
+		for (int i = 1; i < ConsumptionEventAssert.hits.size(); i++) {
+			assertTrue(ConsumptionEventAssert.hits.get(i - 1) <= ConsumptionEventAssert.hits.get(i),
+					"Completion events should arrive in time order");
+		}
+	}
+
+	private void assertProcessedOnce(final ResourceSpreader rs, final ResourceConsumption... cons) {
+		assertEquals(cons.length, rs.underProcessing.size(), "Unexpected number of consumptions under processing");
+		for (final ResourceConsumption con : cons) {
+			assertEquals(1, Collections.frequency(rs.underProcessing, con),
+					"A consumption should be under processing exactly once");
+		}
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void resumeBeforeRemovalIsSynchronised() {
+		ResourceConsumption con1 = new ResourceConsumption(ResourceConsumptionTest.processingTasklen,
+				ResourceConsumption.unlimitedProcessing, utilize, offer, new ConsumptionEventAssert());
+		ResourceConsumption con2 = new ResourceConsumption(ResourceConsumptionTest.processingTasklen,
+				ResourceConsumption.unlimitedProcessing, utilize, offer, new ConsumptionEventAssert());
+		con1.registerConsumption();
+		con2.registerConsumption();
+		Timed.fire();
+		Timed.simulateUntil(Timed.getFireCount() + offer.getSyncer().getFrequency() / 2);
+		// the removal and the re-registration arrive together to the syncer
+		assertTrue(con2.suspend());
+		assertTrue(con2.registerConsumption());
+		assertFalse(con2.registerConsumption(), "A registered consumption should not be registered again");
+		Timed.fire();
+		assertProcessedOnce(offer, con1, con2);
+		assertProcessedOnce(utilize, con1, con2);
+		Timed.simulateUntilLastEvent();
+		assertEquals(0, con1.getUnProcessed() + con2.getUnProcessed(), 0, "Consumptions should have been finished");
+		assertEquals(2 * ResourceConsumptionTest.processingTasklen, offer.getTotalProcessed(), 0,
+				"A resumed consumption should not be processed twice");
+		assertEquals(2 * ResourceConsumptionTest.processingTasklen, utilize.getTotalProcessed(), 0,
+				"A resumed consumption should not be processed twice");
+		assertTrue(offer.underProcessing.isEmpty(), "No consumption should remain on the provider");
+		assertTrue(utilize.underProcessing.isEmpty(), "No consumption should remain on the consumer");
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void lastConsumptionReaddedInSameTick() {
+		final long[] readdedAt = new long[1];
+		final ResourceConsumption con2 = new ResourceConsumption(ResourceConsumptionTest.processingTasklen * 2,
+				ResourceConsumption.unlimitedProcessing, utilize, offer, new ConsumptionEventAssert());
+		final ResourceConsumption con1 = new ResourceConsumption(ResourceConsumptionTest.processingTasklen,
+				ResourceConsumption.unlimitedProcessing, utilize, offer, new ConsumptionEventAssert() {
+					@Override
+					public void conComplete() {
+						super.conComplete();
+						// the last consumption was already dropped in this tick
+						assertFalse(offer.underProcessing.contains(con2), "The suspended consumption should be gone");
+						readdedAt[0] = Timed.getFireCount();
+						con2.registerConsumption();
+					}
+				});
+		con1.registerConsumption();
+		con2.registerConsumption();
+		Timed.fire();
+		assertSame(con2, offer.underProcessing.get(1), "The second consumption should be the last one");
+		final long completion = offer.getSyncer().getNextEvent();
+		new DeferredEvent(completion - Timed.getFireCount()) {
+			@Override
+			protected void eventAction() {
+				con2.suspend();
+			}
+		};
+		Timed.simulateUntil(completion);
+		assertEquals(completion, readdedAt[0], "The first consumption should complete when expected");
+		assertProcessedOnce(offer, con2);
+		assertProcessedOnce(utilize, con2);
+		Timed.simulateUntilLastEvent();
+		assertEquals(0, con2.getUnProcessed(), 0, "The re-added consumption should have been finished");
+		assertEquals(ResourceConsumptionTest.processingTasklen * 3, offer.getTotalProcessed(), 0,
+				"Consumptions should be processed exactly once");
+		assertTrue(offer.underProcessing.isEmpty(), "No consumption should remain on the provider");
+		assertTrue(utilize.underProcessing.isEmpty(), "No consumption should remain on the consumer");
+	}
+
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void listenerUnsubscribesWhileNotified() {
+		final int[] onceReports = new int[1];
+		final double[] followed = new double[1];
+		final ProcessingListener once = new ProcessingListener() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void processed(final ResourceSpreader onSpreader, final long from, final long until,
+					final double processed) {
+				onceReports[0]++;
+				onSpreader.unsubscribeProcessingEvents(this);
+			}
+		};
+		// the only listener leaves
+		offer.subscribeProcessingEvents(once);
+		new ResourceConsumption(ResourceConsumptionTest.processingTasklen, ResourceConsumption.unlimitedProcessing,
+				utilize, offer, new ConsumptionEventAssert()).registerConsumption();
+		Timed.simulateUntilLastEvent();
+		assertEquals(1, onceReports[0], "The listener should only get its first report");
+
+		// a listener leaves before the others are notified
+		offer.subscribeProcessingEvents(once);
+		offer.subscribeProcessingEvents((onSpreader, from, until, processed) -> followed[0] += processed);
+		new ResourceConsumption(ResourceConsumptionTest.processingTasklen, ResourceConsumption.unlimitedProcessing,
+				utilize, offer, new ConsumptionEventAssert()).registerConsumption();
+		Timed.simulateUntilLastEvent();
+		assertEquals(2, onceReports[0], "The listener should only get its first report");
+		assertEquals(ResourceConsumptionTest.processingTasklen, followed[0], 0,
+				"The remaining listener should get all reports");
+	}
 }
@@ -45,6 +45,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceCons
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ConstantConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.ResourceConstraints;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.io.LRUCachePolicy;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode.NetworkException;
 import hu.mta.sztaki.lpds.cloud.simulator.io.NetworkNode;
 import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
@@ -733,4 +734,26 @@ public class VMTest extends IaaSRelatedFoundation {
 				PhysicalMachine.migrationAllocLen), true));
 	}
 
+	@Test
+	@Timeout(value = 100, unit = TimeUnit.MILLISECONDS)
+	public void cachedImageDeployment() throws VMManagementException, NetworkException {
+		pm.localDisk.deregisterObject(va);
+		pm.localDisk.setCachePolicy(new LRUCachePolicy());
+		VirtualMachine vm = pm.requestVM(va, new AlterableResourceConstraints(pm.freeCapacities), repo, 1)[0];
+		Timed.simulateUntilLastEvent();
+		assertEquals(VirtualMachine.State.RUNNING, vm.getState(), "The VM should run after fetching its image");
+		assertEquals(1, pm.localDisk.getCachePolicy().getMisses(), "The first deployment should miss the cache");
+		assertNotNull(pm.localDisk.lookup(va.id), "The fetched image should be cached");
+		vm.destroy(false);
+		Timed.simulateUntilLastEvent();
+		final double sentBefore = repo.outbws.getTotalProcessed();
+		vm = pm.requestVM(va, new AlterableResourceConstraints(pm.freeCapacities), repo, 1)[0];
+		Timed.simulateUntilLastEvent();
+		assertEquals(VirtualMachine.State.RUNNING, vm.getState(), "The VM should run from the cached image");
+		assertEquals(1, pm.localDisk.getCachePolicy().getHits(), "The second deployment should hit the cache");
+		assertEquals(sentBefore, repo.outbws.getTotalProcessed(), 0,
+				"The image should not be transferred again");
+		vm.destroy(false);
+		Timed.simulateUntilLastEvent();
+	}
 }
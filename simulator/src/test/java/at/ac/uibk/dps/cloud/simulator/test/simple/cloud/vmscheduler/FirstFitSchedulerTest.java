@@ -92,4 +92,64 @@ public class FirstFitSchedulerTest extends IaaSRelatedFoundation {
 			vm.destroy(false);
 		}
 	}
+
+	@Test
+	@Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+	public void occupiedMachinesAreSkipped() throws Exception {
+		final int pmCount = 20;
+		IaaSService s = setupIaaS(FirstFitScheduler.class, AlwaysOnMachines.class, pmCount, 2);
+		Repository vaStore = s.repositories.get(0);
+		VirtualAppliance va = (VirtualAppliance) vaStore.contents().iterator().next();
+		Timed.simulateUntilLastEvent();
+		ResourceConstraints fitsOnePM = s.machines.get(0).getCapacities();
+		AlterableResourceConstraints half = new AlterableResourceConstraints(fitsOnePM);
+		half.multiply(0.5);
+		VirtualMachine[] fillers = s.requestVM(va, fitsOnePM, vaStore, pmCount - 1);
+		Timed.simulateUntilLastEvent();
+		for (int i = 0; i < pmCount - 1; i++) {
+			assertEquals(1, s.runningMachines.get(i).numofCurrentVMs(), "The first PMs should be occupied");
+		}
+		VirtualMachine last = s.requestVM(va, half, vaStore, 1)[0];
+		Timed.simulateUntilLastEvent();
+		assertTrue(s.runningMachines.get(pmCount - 1).listVMs().contains(last),
+				"The VM should be placed on the only PM with free resources");
+		// Frees up a PM that comes earlier in the list
+		PhysicalMachine freed = s.runningMachines.get(5);
+		freed.listVMs().iterator().next().destroy(false);
+		Timed.simulateUntilLastEvent();
+		VirtualMachine reused = s.requestVM(va, half, vaStore, 1)[0];
+		Timed.simulateUntilLastEvent();
+		assertTrue(freed.listVMs().contains(reused), "The first PM with enough free resources should be used");
+		int running = 0;
+		for (VirtualMachine vm : fillers) {
+			running += VirtualMachine.State.RUNNING.equals(vm.getState()) ? 1 : 0;
+		}
+		assertEquals(pmCount - 2, running, "Only one filler should be destroyed");
+	}
+
+	@Test
+	@Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+	public void blockedRequestIsPlacedOnceResourcesFree() throws Exception {
+		final int pmCount = 20;
+		IaaSService s = setupIaaS(FirstFitScheduler.class, AlwaysOnMachines.class, pmCount, 2);
+		Repository vaStore = s.repositories.get(0);
+		VirtualAppliance va = (VirtualAppliance) vaStore.contents().iterator().next();
+		Timed.simulateUntilLastEvent();
+		ResourceConstraints fitsOnePM = s.machines.get(0).getCapacities();
+		AlterableResourceConstraints half = new AlterableResourceConstraints(fitsOnePM);
+		half.multiply(0.5);
+		s.requestVM(va, half, vaStore, 2 * pmCount - 1);
+		Timed.simulateUntilLastEvent();
+		VirtualMachine blocked = s.requestVM(va, fitsOnePM, vaStore, 1)[0];
+		Timed.simulateUntilLastEvent();
+		assertEquals(1, s.sched.getQueueLength(), "The request should wait for a free PM");
+		PhysicalMachine freed = s.runningMachines.get(3);
+		freed.listVMs().iterator().next().destroy(false);
+		Timed.simulateUntilLastEvent();
+		assertEquals(1, s.sched.getQueueLength(), "Half of a PM should not be enough for the request");
+		freed.listVMs().iterator().next().destroy(false);
+		Timed.simulateUntilLastEvent();
+		assertEquals(0, s.sched.getQueueLength(), "The request should be placed on the freed PM");
+		assertTrue(freed.listVMs().contains(blocked), "The VM should run on the freed PM");
+	}
 }
@@ -0,0 +1,226 @@
+package hu.u_szeged.inf.fog.simulator.test.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import hu.u_szeged.inf.fog.simulator.agent.AgentApplication;
+import hu.u_szeged.inf.fog.simulator.agent.AgentApplication.Resource;
+import hu.u_szeged.inf.fog.simulator.agent.Capacity;
+import hu.u_szeged.inf.fog.simulator.agent.Offer;
+import hu.u_szeged.inf.fog.simulator.agent.OfferGenerator;
+import hu.u_szeged.inf.fog.simulator.agent.ResourceAgent;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class OfferGeneratorTest {
+
+    static final String nodeFile = "src/main/resources/demo/LPDS_original.xml";
+
+    /**
+     * The agents and the resources of a small application, every agent can fulfil
+     * the resources listed for it.
+     */
+    static class Scenario {
+        final List<ResourceAgent> agents = new ArrayList<>();
+        final AgentApplication app = new AgentApplication();
+        final List<Pair<ResourceAgent, Resource>> pairs = new ArrayList<>();
+
+        Scenario(double[] hourlyPrices, String[] cpus) {
+            ComputingAppliance node = new ComputingAppliance(nodeFile, "node", new GeoLocation(47.5, 19), 100);
+            VirtualAppliance va = new VirtualAppliance("agentVa", 1, 0, false, 1024);
+            AlterableResourceConstraints arc = new AlterableResourceConstraints(1, 1, 1024);
+            for (int i = 0; i < hourlyPrices.length; i++) {
+                agents.add(new ResourceAgent("Agent-" + i, hourlyPrices[i], va, arc, null,
+                        new Capacity(node, 100, 1L << 30, 1L << 30)));
+            }
+            app.name = "app";
+            app.resources = new ArrayList<>();
+            for (int i = 0; i < cpus.length; i++) {
+                Resource resource = new Resource();
+                resource.name = "R" + i;
+                resource.cpu = cpus[i];
+                app.resources.add(resource);
+            }
+        }
+
+        Scenario canFulfill(int agent, int... resources) {
+            for (int r : resources) {
+                pairs.add(Pair.of(agents.get(agent), app.resources.get(r)));
+            }
+            return this;
+        }
+
+        List<Offer> generate(OfferGenerator generator) {
+            app.offers.clear();
+            generator.generate(pairs, app);
+            return new ArrayList<>(app.offers);
+        }
+    }
+
+    /**
+     * The offers as they were created by the former exhaustive enumeration of every
+     * permutation of the pairs, deduplicated by their sets of pairs.
+     */
+    static List<Map<ResourceAgent, Set<Resource>>> exhaustive(Scenario s) {
+        Set<Set<Pair<ResourceAgent, Resource>>> unique = new LinkedHashSet<>();
+        permutations(s.pairs, s.app.resources.size(), unique, new LinkedHashSet<>(), new LinkedHashSet<>());
+        List<Map<ResourceAgent, Set<Resource>>> offers = new ArrayList<>();
+        for (Set<Pair<ResourceAgent, Resource>> combination : unique) {
+            Map<ResourceAgent, Set<Resource>> map = new HashMap<>();
+            for (Pair<ResourceAgent, Resource> pair : combination) {
+                map.computeIfAbsent(pair.getLeft(), a -> new LinkedHashSet<>()).add(pair.getRight());
+            }
+            offers.add(map);
+        }
+        return offers;
+    }
+
+    static void permutations(List<Pair<ResourceAgent, Resource>> pairs, int resourceCount,
+            Set<Set<Pair<ResourceAgent, Resource>>> unique, Set<Pair<ResourceAgent, Resource>> current,
+            Set<Resource> included) {
+        if (included.size() == resourceCount) {
+            unique.add(new LinkedHashSet<>(current));
+            return;
+        }
+        for (Pair<ResourceAgent, Resource> pair : pairs) {
+            if (!current.contains(pair) && !included.contains(pair.getRight())) {
+                current.add(pair);
+                included.add(pair.getRight());
+                permutations(pairs, resourceCount, unique, current, included);
+                current.remove(pair);
+                included.remove(pair.getRight());
+            }
+        }
+    }
+
+    static double price(Map<ResourceAgent, Set<Resource>> offer) {
+        double price = 0;
+        for (Map.Entry<ResourceAgent, Set<Resource>> entry : offer.entrySet()) {
+            for (Resource resource : entry.getValue()) {
+                price += OfferGenerator.price(entry.getKey(), resource);
+            }
+        }
+        return price;
+    }
+
+    static void assertOffers(List<Map<ResourceAgent, Set<Resource>>> expected, List<Offer> actual) {
+        assertEquals(expected.size(), actual.size(), "Number of offers");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, actual.get(i).id);
+            assertEquals(expected.get(i), actual.get(i).agentResourcesMap, "Offer " + i);
+        }
+    }
+
+    static void inSimulation(Consumer<Scenario> test) {
+        new SimulationContext(11).run(() -> test.accept(new Scenario(new double[] { 3, 1, 2, 5 },
+                new String[] { "1", "2", "4" })
+                .canFulfill(0, 0, 1, 2)
+                .canFulfill(1, 0, 2)
+                .canFulfill(2, 1, 2)
+                .canFulfill(3, 0, 1)));
+    }
+
+    @Test
+    @Timeout(10)
+    void matchesExhaustiveEnumeration() {
+        inSimulation(s -> {
+            List<Map<ResourceAgent, Set<Resource>>> expected = exhaustive(s);
+            assertEquals(3 * 3 * 3, expected.size());
+            assertOffers(expected, s.generate(new OfferGenerator()));
+
+            // duplicated pairs and pairs of other applications are ignored
+            Resource foreign = new Resource();
+            foreign.name = "foreign";
+            s.pairs.add(s.pairs.get(2));
+            s.pairs.add(Pair.of(s.agents.get(1), foreign));
+            assertOffers(expected, s.generate(new OfferGenerator()));
+        });
+    }
+
+    @Test
+    @Timeout(10)
+    void topKCheapestOffers() {
+        inSimulation(s -> {
+            List<Map<ResourceAgent, Set<Resource>>> byPrice = exhaustive(s);
+            // stable, thus offers with the same price keep their order of discovery
+            byPrice.sort(Comparator.comparingDouble(OfferGeneratorTest::price));
+            for (int k : new int[] { 1, 4, 27, 100 }) {
+                OfferGenerator generator = new OfferGenerator(k, Long.MAX_VALUE);
+                assertOffers(byPrice.subList(0, Math.min(k, byPrice.size())), s.generate(generator));
+                assertTrue(generator.examined <= byPrice.size());
+            }
+        });
+    }
+
+    @Test
+    @Timeout(10)
+    void budgetCutsTheSearch() {
+        inSimulation(s -> {
+            List<Map<ResourceAgent, Set<Resource>>> expected = exhaustive(s);
+            for (long budget : new long[] { 1, 5, 27, 1000 }) {
+                OfferGenerator generator = new OfferGenerator(Integer.MAX_VALUE, budget);
+                int examined = (int) Math.min(budget, expected.size());
+                assertOffers(expected.subList(0, examined), s.generate(generator));
+                assertEquals(examined, generator.examined);
+            }
+        });
+    }
+
+    @Test
+    @Timeout(10)
+    void pruning() {
+        inSimulation(s -> {
+            List<Map<ResourceAgent, Set<Resource>>> all = exhaustive(s);
+            double cheapest = all.stream().mapToDouble(OfferGeneratorTest::price).min().getAsDouble();
+
+            // the price limit is inclusive
+            s.app.maxPrice = cheapest;
+            List<Offer> offers = s.generate(new OfferGenerator());
+            assertEquals(all.stream().filter(o -> price(o) <= cheapest).count(), offers.size());
+            assertEquals(cheapest, price(offers.get(0).agentResourcesMap));
+
+            s.app.maxPrice = Math.nextDown(cheapest);
+            assertEquals(0, s.generate(new OfferGenerator()).size());
+
+            // every offer under a limit between the prices
+            s.app.maxPrice = 20;
+            List<Map<ResourceAgent, Set<Resource>>> expected = new ArrayList<>();
+            for (Map<ResourceAgent, Set<Resource>> offer : all) {
+                if (price(offer) <= 20) {
+                    expected.add(offer);
+                }
+            }
+            assertOffers(expected, s.generate(new OfferGenerator()));
+            s.app.maxPrice = Double.MAX_VALUE;
+
+            // a resource no agent can fulfil
+            s.pairs.removeIf(pair -> pair.getRight() == s.app.resources.get(2));
+            assertEquals(0, s.generate(new OfferGenerator()).size());
+
+            // an application without resources
+            s.app.resources.clear();
+            assertEquals(0, s.generate(new OfferGenerator()).size());
+        });
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new OfferGenerator(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OfferGenerator(1, 0));
+    }
+}
@@ -0,0 +1,81 @@
+package hu.u_szeged.inf.fog.simulator.test.iot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.u_szeged.inf.fog.simulator.application.Application;
+import hu.u_szeged.inf.fog.simulator.iot.Device;
+import hu.u_szeged.inf.fog.simulator.iot.SensorDataCoalescer;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.util.xml.ApplianceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.DeviceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.InstanceXmlModel;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class SensorDataCoalescerTest {
+
+    static final String examples = "src/main/resources/demo/XML_examples/";
+
+    static final long flushWindow = 5 * 60 * 1000;
+
+    /**
+     * Runs the example scenario and returns with the number of readings, the generated data,
+     * the data received by the applications and the number of batches sent.
+     */
+    private static long[] runScenario(boolean coalescing) throws Exception {
+        SimulationContext ctx = new SimulationContext(11);
+        SimulationContext prev = SimulationContext.bind(ctx);
+        try {
+            Map<String, String> iaasLoaders = new HashMap<>();
+            iaasLoaders.put("LPDS_16", examples + "LPDS_16.xml");
+            iaasLoaders.put("LPDS_32", examples + "LPDS_32.xml");
+            DeviceXmlModel.loadDeviceXml(examples + "devices.xml");
+            InstanceXmlModel.loadInstanceXml(examples + "instances.xml");
+            ApplianceXmlModel.loadApplianceXml(examples + "applications.xml", iaasLoaders);
+            if (coalescing) {
+                for (Device d : Device.getAllDevices()) {
+                    d.setCoalescer(new SensorDataCoalescer(flushWindow, Long.MAX_VALUE));
+                }
+            }
+            Timed.simulateUntilLastEvent();
+            long[] result = new long[4];
+            for (Device d : Device.getAllDevices()) {
+                result[0] += d.messageCount;
+                result[1] += d.generatedData;
+                if (d.getCoalescer() != null) {
+                    result[3] += d.getCoalescer().flushes;
+                }
+            }
+            for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
+                for (Application app : ca.applications) {
+                    result[2] += app.receivedData;
+                }
+            }
+            return result;
+        } finally {
+            SimulationContext.bind(prev);
+        }
+    }
+
+    @Test
+    void readingsAreAccountedIndividually() throws Exception {
+        long[] plain = runScenario(false);
+        long[] coalesced = runScenario(true);
+        assertTrue(plain[0] > 0, "The devices should produce readings");
+        assertEquals(plain[0], coalesced[0], "The number of readings should not change");
+        assertEquals(plain[1], coalesced[1], "The amount of generated data should not change");
+        assertEquals(coalesced[1], coalesced[2], "All coalesced data should arrive to the applications");
+        assertTrue(coalesced[3] * 3 < coalesced[0], "The readings should be sent in batches");
+    }
+
+    @Test
+    void invalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new SensorDataCoalescer(-1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SensorDataCoalescer(1000, 0));
+    }
+}
@@ -0,0 +1,122 @@
+package hu.u_szeged.inf.fog.simulator.test.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.node.ComputingApplianceIndex;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class ComputingApplianceIndexTest {
+
+    static final String nodeFile = "src/main/resources/demo/LPDS_original.xml";
+
+    private static GeoLocation randomLocation(Random rnd) {
+        return new GeoLocation(-89 + rnd.nextDouble() * 178, -180 + rnd.nextDouble() * 360);
+    }
+
+    private static HashSet<ComputingAppliance> coveringByScan(GeoLocation location) {
+        return ComputingAppliance.getAllComputingAppliances().stream()
+                .filter(ca -> location.calculateDistance(ca.geoLocation) <= ca.range * 1000)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static void checkQueries(Random rnd) {
+        ComputingApplianceIndex index = ComputingApplianceIndex.current();
+        assertEquals(ComputingAppliance.getAllComputingAppliances().size(), index.size());
+        for (int i = 0; i < 500; i++) {
+            GeoLocation location = randomLocation(rnd);
+            assertEquals(coveringByScan(location), new HashSet<>(index.covering(location)),
+                    "Covering appliances differ at " + location);
+
+            int k = 1 + rnd.nextInt(5);
+            double[] expected = ComputingAppliance.getAllComputingAppliances().stream()
+                    .mapToDouble(ca -> location.calculateDistance(ca.geoLocation)).sorted().limit(k).toArray();
+            double[] actual = index.nearest(location, k).stream()
+                    .mapToDouble(ca -> location.calculateDistance(ca.geoLocation)).toArray();
+            assertEquals(expected.length, actual.length);
+            for (int j = 0; j < k; j++) {
+                assertEquals(expected[j], actual[j], "Nearest appliances differ at " + location);
+            }
+        }
+    }
+
+    @Test
+    void queriesMatchFullScan() {
+        new SimulationContext(7).run(() -> {
+            Random rnd = new Random(7);
+            for (int i = 0; i < 40; i++) {
+                // clusters around a few centres, a few appliances with infinite range
+                GeoLocation centre = new GeoLocation(rnd.nextInt(5) * 30 - 60, rnd.nextInt(5) * 70 - 160);
+                GeoLocation location = new GeoLocation(centre.latitude + rnd.nextGaussian() * 3,
+                        centre.longitude + rnd.nextGaussian() * 3);
+                new ComputingAppliance(nodeFile, "node" + i, location, i % 10 == 0 ? 0 : 50 + rnd.nextInt(3000));
+            }
+            new ComputingAppliance(nodeFile, "north", new GeoLocation(89.9, 10), 500);
+            new ComputingAppliance(nodeFile, "antimeridian", new GeoLocation(0, 179.9), 800);
+            checkQueries(rnd);
+
+            ArrayList<ComputingAppliance> removed = new ArrayList<>(ComputingAppliance.getAllComputingAppliances());
+            for (int i = 0; i < removed.size(); i += 3) {
+                removed.get(i).unregister();
+            }
+            checkQueries(rnd);
+            assertFalse(ComputingApplianceIndex.current().covering(removed.get(0).geoLocation)
+                    .contains(removed.get(0)), "Removed appliance should not be found");
+
+            ComputingAppliance.getAllComputingAppliances().clear();
+            assertEquals(0, ComputingApplianceIndex.current().size(), "Index should follow the cleared list");
+        });
+    }
+
+    @Test
+    void replacedAndMovedAppliances() {
+        new SimulationContext(8).run(() -> {
+            ComputingAppliance first = new ComputingAppliance(nodeFile, "first", new GeoLocation(47.5, 19), 100);
+            new ComputingAppliance(nodeFile, "second", new GeoLocation(-33.9, 151.2), 100);
+            assertEquals(2, ComputingApplianceIndex.current().size());
+
+            // the same number of appliances, but a different one
+            ArrayList<ComputingAppliance> all = ComputingAppliance.getAllComputingAppliances();
+            all.remove(first);
+            GeoLocation replacementLocation = new GeoLocation(40.7, -74);
+            ComputingAppliance replacement = new ComputingAppliance(nodeFile, "replacement", replacementLocation, 100);
+            all.remove(replacement);
+            all.add(0, replacement);
+            assertEquals(List.of(replacement), ComputingApplianceIndex.current().covering(replacementLocation));
+            assertTrue(ComputingApplianceIndex.current().covering(first.geoLocation).isEmpty(),
+                    "Directly removed appliance should not be found");
+
+            all.set(0, first);
+            assertEquals(List.of(first), ComputingApplianceIndex.current().covering(first.geoLocation));
+            assertTrue(ComputingApplianceIndex.current().covering(replacementLocation).isEmpty(),
+                    "Replaced appliance should not be found");
+
+            GeoLocation oldLocation = new GeoLocation(first.geoLocation.latitude, first.geoLocation.longitude);
+            first.setLocation(35.7, 139.7);
+            assertTrue(ComputingApplianceIndex.current().covering(oldLocation).isEmpty(),
+                    "Moved appliance should not be found at its old position");
+            assertEquals(List.of(first), ComputingApplianceIndex.current().covering(new GeoLocation(35.7, 139.7)));
+            assertEquals(List.of(first), ComputingApplianceIndex.current().nearest(new GeoLocation(35, 139), 1));
+
+            first.unregister();
+            assertEquals(1, ComputingApplianceIndex.current().size());
+            assertTrue(ComputingApplianceIndex.current().covering(first.geoLocation).isEmpty(),
+                    "Unregistered appliance should not be found");
+        });
+    }
+
+    @Test
+    void invalidCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ComputingApplianceIndex(0));
+    }
+}
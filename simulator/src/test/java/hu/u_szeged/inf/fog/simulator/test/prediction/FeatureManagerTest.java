@@ -3,10 +3,17 @@ package hu.u_szeged.inf.fog.simulator.test.prediction;
 import hu.u_szeged.inf.fog.simulator.prediction.Feature;
 import hu.u_szeged.inf.fog.simulator.prediction.FeatureManager;
 import hu.u_szeged.inf.fog.simulator.prediction.Utils;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.ExportSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.PredictionSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.PredictorSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import org.json.JSONException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,4 +67,133 @@ class FeatureManagerTest {
         values = Utils.objectArrayToDoubleArray(FeatureManager.getInstance().getFeatureByName(featureName).getWindowValues(windowSize).toArray());
         Assertions.assertArrayEquals(new double[]{ 12, 13, 14, 15 }, values);
     }
-}
\ No newline at end of file
+
+    static Feature counter(String name, int capacity) {
+        return new Feature(name, capacity) {
+            int t = 0;
+
+            @Override
+            public double compute() {
+                return t++;
+            }
+        };
+    }
+
+    @Test
+    void featuresHaveStableIds() {
+        FeatureManager manager = FeatureManager.getInstance();
+        Feature first = counter("idTest::first", 8);
+        Feature second = counter("idTest::second", 8);
+        manager.addFeature(first).addFeature(second).addFeature(counter("idTest::first", 8));
+        assertSame(first, manager.getFeature(first.getId()));
+        assertSame(second, manager.getFeatureByName("idTest::second"));
+        assertArrayEquals(new int[] { first.getId(), second.getId() }, manager.getFeatureIds("idTest::"));
+        assertEquals(-1, counter("idTest::third", 8).getId());
+    }
+
+    @Test
+    void ringBufferKeepsTheLastValues(@TempDir Path history) throws Exception {
+        Feature feature = counter("ringTest", 4);
+        for (int i = 0; i < 3; i++) {
+            feature.computeValue();
+        }
+        feature.spillHistory(history.resolve("ringTest.bin"));
+        for (int i = 0; i < 7; i++) {
+            feature.computeValue();
+        }
+        assertEquals(10, feature.getValueCount());
+        assertArrayEquals(new double[] { 6, 7, 8, 9 }, feature.getWindow(4));
+        assertArrayEquals(new double[] { 8, 9 }, feature.getWindow(2));
+        assertEquals(List.of(6.0, 7.0, 8.0, 9.0), feature.getKeptValues());
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0), feature.getValues());
+
+        List<Double> all = new ArrayList<>();
+        try (Feature.HistoryReader reader = feature.openHistory()) {
+            while (reader.hasNext()) {
+                all.add(reader.next());
+            }
+        }
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0), all);
+        feature.closeHistory();
+        // the values computed after closing the history would be dropped without notice
+        feature.computeValue();
+        assertThrows(IllegalStateException.class, feature::getValues);
+        assertThrows(IllegalStateException.class, feature::toJson);
+        assertEquals(List.of(7.0, 8.0, 9.0, 10.0), feature.getKeptValues());
+        assertThrows(IllegalStateException.class, () -> counterWithDroppedValues().getValues());
+
+        // a larger window extends the buffer, the overwritten values are not available
+        assertArrayEquals(new double[0], feature.getWindow(5));
+        assertEquals(5, feature.getCapacity());
+        assertEquals(List.of(7.0, 8.0, 9.0, 10.0), feature.getKeptValues());
+        feature.computeValue();
+        assertArrayEquals(new double[] { 7, 8, 9, 10, 11 }, feature.getWindow(5));
+        feature.computeValue();
+        assertArrayEquals(new double[] { 8, 9, 10, 11, 12 }, feature.getWindow(5));
+    }
+
+    static Feature counterWithDroppedValues() {
+        Feature feature = counter("dropTest", 2);
+        for (int i = 0; i < 3; i++) {
+            feature.computeValue();
+        }
+        return feature;
+    }
+
+    static double[] range(int from, int to) {
+        double[] values = new double[to - from];
+        for (int i = from; i < to; i++) {
+            values[i - from] = i;
+        }
+        return values;
+    }
+
+    @Test
+    void windowLargerThanDefaultCapacity() throws Exception {
+        final int batchSize = Feature.DEFAULT_CAPACITY * 2;
+        FeatureManager manager = FeatureManager.getInstance();
+        SimulationSettings previous = SimulationSettings.get();
+        try {
+            // the capacity follows the configured batch size
+            SimulationSettings.set(new SimulationSettings(
+                    new ExportSettings(false, "", false, false, false, false),
+                    new PredictionSettings(4, 4, batchSize, new PredictionSettings.SmoothingSettings(4, 2), false, 0),
+                    PredictorSettings.getPredictorSettings(PredictorSettings.PredictorEnum.LINEAR_REGRESSION)));
+            Feature configured = new Feature("largeWindow::configured") {
+                int t = 0;
+
+                @Override
+                public double compute() {
+                    return t++;
+                }
+            };
+            manager.addFeature(configured);
+            assertEquals(batchSize, configured.getCapacity());
+            for (int i = 0; i < batchSize + 100; i++) {
+                configured.computeValue();
+            }
+            assertTrue(manager.getFeaturesWithEnoughData(batchSize).contains(configured));
+            assertArrayEquals(range(100, batchSize + 100), configured.getWindow(batchSize));
+            // the manager is shared with the other tests
+            configured.setHasNewValue(false);
+        } finally {
+            SimulationSettings.set(previous);
+        }
+
+        // a smaller buffer grows when a prediction needs a larger window
+        Feature grown = counter("largeWindow::grown", Feature.DEFAULT_CAPACITY);
+        manager.addFeature(grown);
+        for (int i = 0; i < batchSize; i++) {
+            grown.computeValue();
+        }
+        assertFalse(manager.getFeaturesWithEnoughData(batchSize).contains(grown));
+        assertEquals(batchSize, grown.getCapacity());
+        for (int i = 0; i < Feature.DEFAULT_CAPACITY; i++) {
+            grown.computeValue();
+        }
+        assertTrue(manager.getFeaturesWithEnoughData(batchSize).contains(grown));
+        assertArrayEquals(range(Feature.DEFAULT_CAPACITY, batchSize + Feature.DEFAULT_CAPACITY),
+                grown.getWindow(batchSize));
+        grown.setHasNewValue(false);
+    }
+}
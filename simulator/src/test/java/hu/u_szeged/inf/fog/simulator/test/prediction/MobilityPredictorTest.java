@@ -0,0 +1,83 @@
+package hu.u_szeged.inf.fog.simulator.test.prediction;
+
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.prediction.mobility.Backlog;
+import hu.u_szeged.inf.fog.simulator.prediction.mobility.LimitedQueue;
+import hu.u_szeged.inf.fog.simulator.prediction.mobility.Predictor;
+import hu.u_szeged.inf.fog.simulator.prediction.mobility.ProbabilityMatrix;
+import hu.u_szeged.inf.fog.simulator.prediction.mobility.Utils;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MobilityPredictorTest {
+
+    /**
+     * The direction prediction as it was implemented with the powers of the transition matrix.
+     */
+    static int predictWithMatrixPowers(ProbabilityMatrix matrix, Backlog backlog, LimitedQueue<Integer> directions) {
+        LimitedQueue<Double> weights = backlog.applyWeights();
+        double[][][] cache = new double[directions.size()][][];
+        for (int i = 0; i < directions.size(); i++) {
+            cache[i] = Utils.pow(matrix.getTransitionMatrix(), i + 1);
+        }
+        int predicted = -1;
+        double max = Double.MIN_VALUE;
+        for (int n = 0; n < ProbabilityMatrix.POSSIBLE_DIR; n++) {
+            double product = 1.0;
+            for (int i = 0; i < directions.size(); i++) {
+                product += cache[i][directions.get(i)][n] * weights.get(i);
+            }
+            if (product > max) {
+                max = product;
+                predicted = n;
+            }
+        }
+        return predicted;
+    }
+
+    @Test
+    void emptyHistory() {
+        Predictor predictor = new Predictor(3);
+        Backlog backlog = new Backlog(3);
+        assertEquals(predictWithMatrixPowers(new ProbabilityMatrix(), backlog, new LimitedQueue<>(3)),
+                predictor.predictDirection());
+    }
+
+    @Test
+    @Timeout(60)
+    void matchesMatrixPowers() {
+        final int k = 3;
+        Predictor predictor = new Predictor(k);
+        ProbabilityMatrix matrix = new ProbabilityMatrix();
+        Backlog backlog = new Backlog(k);
+        LimitedQueue<Integer> directions = new LimitedQueue<>(k);
+        int prevAngle = -1;
+
+        Random rnd = new Random(42);
+        GeoLocation location = new GeoLocation(47.5, 19.0);
+        double heading = 90;
+        for (int step = 0; step < 15; step++) {
+            // the first predictions are made with a history shorter than k
+            assertEquals(predictWithMatrixPowers(matrix, backlog, directions), predictor.predictDirection(),
+                    "Predictions differ after " + step + " steps");
+
+            // a straight segment first, then a random walk
+            heading += step < 5 ? 0 : rnd.nextGaussian() * 30;
+            GeoLocation next = location.nextLocation(500, Math.floorMod((int) heading, 360));
+            predictor.updateBacklog(location, next);
+
+            int angle = (int) location.angle(next);
+            backlog.addDirection(angle);
+            directions.add(angle);
+            if (prevAngle != -1) {
+                matrix.updateP(prevAngle, angle);
+            }
+            prevAngle = angle;
+            location = next;
+        }
+        assertEquals(predictWithMatrixPowers(matrix, backlog, directions), predictor.predictDirection());
+    }
+}
@@ -0,0 +1,159 @@
+package hu.u_szeged.inf.fog.simulator.test.prediction;
+
+import hu.u_szeged.inf.fog.simulator.prediction.Feature;
+import hu.u_szeged.inf.fog.simulator.prediction.Prediction;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.BinaryFrame;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.ClientThread;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.LocalPredictor;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.PredictionCodec;
+import hu.u_szeged.inf.fog.simulator.prediction.communication.SocketMessage;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.ExportSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.PredictionSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.PredictorSettings;
+import hu.u_szeged.inf.fog.simulator.prediction.settings.SimulationSettings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionProtocolTest {
+    static final int windowSize = 16;
+
+    @BeforeAll
+    static void setSettings() throws Exception {
+        SimulationSettings.set(new SimulationSettings(
+                new ExportSettings(false, "", false, false, false, false),
+                new PredictionSettings(4, 4, 16, new PredictionSettings.SmoothingSettings(4, 2), false, 0),
+                PredictorSettings.getPredictorSettings(PredictorSettings.PredictorEnum.LINEAR_REGRESSION)));
+    }
+
+    static List<Feature> createFeatures(int count) {
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int slope = i;
+            Feature feature = new Feature("Feature " + i) {
+                int t = 0;
+
+                @Override
+                public double compute() {
+                    t++;
+                    return slope * t + (t % 3);
+                }
+            };
+            for (int j = 0; j < windowSize; j++) {
+                feature.computeValue();
+            }
+            features.add(feature);
+        }
+        return features;
+    }
+
+    static ClientThread connect(ServerSocket server, boolean binaryProtocolAccepted) throws Exception {
+        new LocalPredictor("localhost", server.getLocalPort(), binaryProtocolAccepted).start();
+        ClientThread client = new ClientThread(server.accept());
+        client.start();
+        SocketMessage reply = client.sendAndGet(new SocketMessage("simulation-settings",
+                new JSONObject().put("simulation-settings", SimulationSettings.get().toJson())));
+        assertEquals("simulation-settings-response", reply.getEvent());
+        return client;
+    }
+
+    @Test
+    void frameRoundTrip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        new BinaryFrame(BinaryFrame.TYPE_PREDICT_REQUEST, 42, new byte[]{ 1, 2, 3 }).write(out);
+        new BinaryFrame(BinaryFrame.TYPE_JSON, 43, new byte[0]).write(out);
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        BinaryFrame first = BinaryFrame.read(in);
+        BinaryFrame second = BinaryFrame.read(in);
+        assertEquals(BinaryFrame.TYPE_PREDICT_REQUEST, first.getType());
+        assertEquals(42, first.getCorrelationId());
+        assertArrayEquals(new byte[]{ 1, 2, 3 }, first.getPayload());
+        assertEquals(BinaryFrame.TYPE_JSON, second.getType());
+        assertEquals(43, second.getCorrelationId());
+        assertEquals(0, second.getPayload().length);
+    }
+
+    @Test
+    void requestRoundTrip() throws Exception {
+        List<Feature> features = createFeatures(3);
+        List<PredictionCodec.FeatureWindow> windows =
+                PredictionCodec.decodeRequest(PredictionCodec.encodeRequest(features, windowSize));
+        assertEquals(3, windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            assertEquals(features.get(i).getName(), windows.get(i).name);
+            double[] expected = features.get(i).getWindowValues(windowSize).stream()
+                    .mapToDouble(Double::doubleValue).toArray();
+            assertArrayEquals(expected, windows.get(i).values);
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void binaryAndJsonPredictionsMatch() throws Exception {
+        List<Feature> features = createFeatures(5);
+        try (ServerSocket server = new ServerSocket(0)) {
+            ClientThread binary = connect(server, true);
+            ClientThread json = connect(server, false);
+            assertTrue(binary.isBinary());
+            assertFalse(json.isBinary());
+
+            List<PredictionCodec.Result> results = binary.predict(features, windowSize).get();
+            assertEquals(features.size(), results.size());
+            for (int i = 0; i < features.size(); i++) {
+                SocketMessage reply = json.sendAndGet(new SocketMessage("predict-feature",
+                        new JSONObject().put("feature", features.get(i).toJson(windowSize))));
+                Prediction expected = new Prediction(reply.getData().getJSONObject("prediction"));
+                Prediction actual = results.get(i).prediction;
+
+                assertEquals(features.get(i).getName(), results.get(i).featureName);
+                assertEquals(expected.getFeatureName(), actual.getFeatureName());
+                assertEquals(expected.getPredictionNumber(), actual.getPredictionNumber());
+                assertEquals(expected.getOriginalData().getData(), actual.getOriginalData().getData());
+                assertEquals(expected.getTestDataEnd().getTimestamp(), actual.getTestDataEnd().getTimestamp());
+                assertEquals(expected.getPredictionFuture().getTimestamp(),
+                        actual.getPredictionFuture().getTimestamp());
+                assertEquals(expected.getPredictionFuture().getData(), actual.getPredictionFuture().getData());
+                assertEquals(expected.getPredictionTest().getData(), actual.getPredictionTest().getData());
+                assertEquals(expected.getErrorMetrics().getRmse(), actual.getErrorMetrics().getRmse(), 1e-12);
+            }
+
+            // JSON messages still work over the binary protocol
+            SocketMessage name = binary.sendAndGet(new SocketMessage("get-name", new JSONObject().put("message", "name")));
+            assertEquals(SocketMessage.SocketApplication.APPLICATION_PREDICTOR.value, name.getData().getString("name"));
+
+            for (ClientThread client : List.of(binary, json)) {
+                // the application closes the connection instead of replying
+                assertThrows(IOException.class, () -> client.sendAndGet(
+                        new SocketMessage("stop-connection", new JSONObject().put("message", "stop"))));
+                client.join();
+            }
+
+            // the reader is gone, so requests must fail instead of waiting forever
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> binary.predict(features, windowSize).get());
+            assertInstanceOf(IOException.class, failure.getCause());
+            for (ClientThread client : List.of(binary, json)) {
+                assertThrows(IOException.class, () -> client.sendAndGet(
+                        new SocketMessage("get-name", new JSONObject().put("message", "name"))));
+            }
+            // once the connection is known to be closed, requests fail without touching the socket
+            assertThrows(IOException.class, () -> json.sendAndGet(
+                    new SocketMessage("get-name", new JSONObject().put("message", "name"))));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package hu.u_szeged.inf.fog.simulator.test.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.util.EnergyDataCollector;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EnergyDataCollectorTest {
+
+    static final String nodeFile = "src/main/resources/demo/LPDS_original.xml";
+
+    @TempDir
+    Path resultDirectory;
+
+    @AfterEach
+    void clearCollectors() {
+        EnergyDataCollector.clear();
+    }
+
+    /**
+     * Creates the file content the same way as it was created from the former tree map based store.
+     */
+    private static String expectedFile(List<EnergyDataCollector> collectors) {
+        TreeMap<String, TreeMap<Long, Double>> readings = new TreeMap<>();
+        for (EnergyDataCollector edc : collectors) {
+            for (int i = 0; i < edc.size(); i++) {
+                readings.computeIfAbsent(edc.getName(), k -> new TreeMap<>()).put(edc.getTimestamp(i), edc.getReading(i));
+            }
+        }
+        StringBuilder sb = new StringBuilder("Timestamp");
+        for (String key : readings.keySet()) {
+            sb.append("; ").append(key);
+        }
+        sb.append("\n");
+        TreeSet<Long> allTimestamps = new TreeSet<>();
+        for (TreeMap<Long, Double> treeMap : readings.values()) {
+            allTimestamps.addAll(treeMap.keySet());
+        }
+        for (Long timestamp : allTimestamps) {
+            sb.append(timestamp);
+            for (String key : readings.keySet()) {
+                Double value = readings.get(key).get(timestamp);
+                sb.append(";").append(value != null ? String.format("%.3f", value / 1000 / 3_600_000) : "");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void readingsAreStoredAndWritten() {
+        new SimulationContext(42).run(() -> {
+            ComputingAppliance first = new ComputingAppliance(nodeFile, "first", new GeoLocation(47, 19), 1000);
+            ComputingAppliance second = new ComputingAppliance(nodeFile, "second", new GeoLocation(46, 20), 1000);
+            EnergyDataCollector b = new EnergyDataCollector("b-node", first.iaas, true);
+            EnergyDataCollector a = new EnergyDataCollector("a-node", second.iaas, true);
+            EnergyDataCollector pm = new EnergyDataCollector("pm", second.iaas.machines.get(0), false);
+
+            Timed.simulateUntil(Timed.getFireCount() + 30 * EnergyDataCollector.freq);
+            b.stop();
+            Timed.simulateUntil(Timed.getFireCount() + 30 * EnergyDataCollector.freq);
+            a.stop();
+            pm.stop();
+
+            assertSame(b, EnergyDataCollector.getEnergyCollector(first.iaas));
+            assertSame(a, EnergyDataCollector.getEnergyCollector(second.iaas));
+            assertSame(pm, EnergyDataCollector.getEnergyCollector(second.iaas.machines.get(0)));
+            assertSame(a, EnergyDataCollector.getEnergyCollector(a.id));
+            assertEquals(0, pm.size());
+            assertTrue(a.size() > b.size());
+            assertEquals(a.energyConsumption, a.getReading(a.size() - 1));
+
+            try {
+                EnergyDataCollector.writeToFile(resultDirectory.toString());
+                assertEquals(expectedFile(List.of(a, b)), Files.readString(resultDirectory.resolve("energy.csv")));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    void queriesRunOverTheReadings() {
+        new SimulationContext(42).run(() -> {
+            ComputingAppliance node = new ComputingAppliance(nodeFile, "node", new GeoLocation(47, 19), 1000);
+            EnergyDataCollector edc = new EnergyDataCollector("node", node.iaas, true);
+            Timed.simulateUntil(Timed.getFireCount() + 10 * EnergyDataCollector.freq);
+            edc.stop();
+
+            int size = edc.size();
+            long first = edc.getTimestamp(0);
+            long last = edc.getTimestamp(size - 1);
+            assertEquals(0, edc.indexOf(first));
+            assertEquals(1, edc.indexOf(first + 1));
+            assertEquals(size, edc.indexOf(last + 1));
+
+            double consumed = 0;
+            for (int i = 2; i < size - 1; i++) {
+                consumed += edc.getReading(i) - edc.getReading(i - 1);
+            }
+            assertTrue(consumed > 0);
+            assertEquals(consumed, edc.consumption(edc.getTimestamp(1), last), 1e-6);
+            assertEquals(edc.getReading(size - 1) - edc.getReading(0), edc.consumption(first, Long.MAX_VALUE));
+            assertEquals(0, edc.consumption(first, first + 1));
+            assertEquals(0, edc.consumption(last, first));
+            assertEquals(size - 2, edc.range(edc.getTimestamp(1), last).length);
+            assertEquals(0, edc.range(last, first).length);
+
+            assertTrue(Double.isNaN(edc.valueAt(first - 1)));
+            assertEquals(edc.getReading(0), edc.valueAt(first));
+            assertEquals(edc.getReading(0), edc.valueAt(first + 1));
+            assertEquals(edc.getReading(size - 1), edc.valueAt(Long.MAX_VALUE));
+
+            long step = EnergyDataCollector.freq / 2;
+            double[] resampled = edc.resample(first - step, step, 4);
+            assertArrayEquals(new double[] {Double.NaN, edc.getReading(0), edc.getReading(0), edc.getReading(1)},
+                    resampled);
+        });
+    }
+}
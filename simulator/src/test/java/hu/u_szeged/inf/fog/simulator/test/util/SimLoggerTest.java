@@ -0,0 +1,131 @@
+package hu.u_szeged.inf.fog.simulator.test.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.u_szeged.inf.fog.simulator.util.SimLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SimLoggerTest {
+
+    static class CollectingHandler extends Handler {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    CollectingHandler handler;
+
+    Level originalLevel;
+
+    boolean originalUseParentHandlers;
+
+    @BeforeEach
+    void captureLog() {
+        originalLevel = SimLogger.simLogger.getLevel();
+        originalUseParentHandlers = SimLogger.simLogger.getUseParentHandlers();
+        handler = new CollectingHandler();
+        SimLogger.simLogger.addHandler(handler);
+        SimLogger.simLogger.setUseParentHandlers(false);
+        SimLogger.simLogger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void restoreLog() {
+        SimLogger.setSynchronous();
+        SimLogger.setLevel(SimLogger.AGENT, null);
+        SimLogger.simLogger.removeHandler(handler);
+        SimLogger.simLogger.setUseParentHandlers(originalUseParentHandlers);
+        SimLogger.simLogger.setLevel(originalLevel);
+    }
+
+    @Test
+    void disabledMessagesAreNotBuilt() {
+        boolean[] built = new boolean[2];
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                built[0] = true;
+                return "argument";
+            }
+        };
+
+        SimLogger.simLogger.setLevel(Level.WARNING);
+        SimLogger.logRun(SimLogger.APPLICATION, "value: %s", argument);
+        SimLogger.logRun(SimLogger.APPLICATION, () -> {
+            built[1] = true;
+            return "supplied";
+        });
+        assertArrayEquals(new boolean[] {false, false}, built);
+        assertTrue(handler.messages.isEmpty());
+
+        SimLogger.simLogger.setLevel(Level.INFO);
+        SimLogger.logRun(SimLogger.APPLICATION, "value: %s", argument);
+        SimLogger.logRun(SimLogger.APPLICATION, () -> "supplied");
+        assertEquals(List.of("value: argument", "supplied"), handler.messages);
+    }
+
+    @Test
+    void categoriesHaveTheirOwnLevels() {
+        SimLogger.setLevel(SimLogger.AGENT, Level.WARNING);
+        assertFalse(SimLogger.isRunEnabled(SimLogger.AGENT));
+        assertTrue(SimLogger.isRunEnabled(SimLogger.WORKFLOW));
+
+        SimLogger.logRun(SimLogger.AGENT, "agent %d", 1);
+        SimLogger.logRun(SimLogger.WORKFLOW, "workflow %d", 2);
+        SimLogger.logRes("result %d", 3);
+        assertEquals(List.of("workflow 2", "result 3"), handler.messages);
+
+        SimLogger.setLevel(SimLogger.AGENT, null);
+        SimLogger.simLogger.setLevel(Level.OFF);
+        assertFalse(SimLogger.isRunEnabled(SimLogger.WORKFLOW));
+
+        // a category of the same name keeps the level even if the first one is not referenced
+        SimLogger.simLogger.setLevel(Level.INFO);
+        SimLogger.setLevel(SimLogger.category("transient"), Level.WARNING);
+        System.gc();
+        assertSame(SimLogger.category("transient"), SimLogger.category("transient"));
+        assertFalse(SimLogger.isRunEnabled(SimLogger.category("transient")));
+        SimLogger.setLevel(SimLogger.category("transient"), null);
+        SimLogger.simLogger.setLevel(Level.OFF);
+    }
+
+    @Test
+    void asynchronousLoggingKeepsTheOrder() {
+        SimLogger.setAsynchronous(4);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SimLogger.logRun(SimLogger.NODE, "message %d", i);
+            expected.add("message " + i);
+        }
+        SimLogger.flush();
+        synchronized (handler) {
+            assertEquals(expected, handler.messages);
+        }
+
+        SimLogger.setSynchronous();
+        SimLogger.logRun("after");
+        assertEquals("after", handler.messages.get(handler.messages.size() - 1));
+    }
+}
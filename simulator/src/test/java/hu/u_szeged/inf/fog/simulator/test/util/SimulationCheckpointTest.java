@@ -0,0 +1,258 @@
+package hu.u_szeged.inf.fog.simulator.test.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.constraints.AlterableResourceConstraints;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.io.VirtualAppliance;
+import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
+import hu.u_szeged.inf.fog.simulator.agent.AgentApplication;
+import hu.u_szeged.inf.fog.simulator.agent.Capacity;
+import hu.u_szeged.inf.fog.simulator.agent.Deployment;
+import hu.u_szeged.inf.fog.simulator.agent.ResourceAgent;
+import hu.u_szeged.inf.fog.simulator.agent.Submission;
+import hu.u_szeged.inf.fog.simulator.agent.strategy.FirstFitAgentStrategy;
+import hu.u_szeged.inf.fog.simulator.application.Application;
+import hu.u_szeged.inf.fog.simulator.iot.Device;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.MobilityEvent;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.provider.Instance;
+import hu.u_szeged.inf.fog.simulator.util.EnergyDataCollector;
+import hu.u_szeged.inf.fog.simulator.util.SimulationCheckpoint;
+import hu.u_szeged.inf.fog.simulator.util.agent.AgentApplicationReader;
+import hu.u_szeged.inf.fog.simulator.util.xml.ApplianceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.DeviceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.InstanceXmlModel;
+import hu.u_szeged.inf.fog.simulator.util.xml.WorkflowJobModel;
+import hu.u_szeged.inf.fog.simulator.workflow.WorkflowExecutor;
+import hu.u_szeged.inf.fog.simulator.workflow.WorkflowJob;
+import hu.u_szeged.inf.fog.simulator.workflow.scheduler.MaxMinScheduler;
+import hu.u_szeged.inf.fog.simulator.workflow.scheduler.WorkflowScheduler;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimulationCheckpointTest {
+
+    static final String examples = "src/main/resources/demo/XML_examples/";
+
+    static final String demo = "src/main/resources/demo/";
+
+    interface Scenario {
+        void load() throws Exception;
+    }
+
+    @TempDir
+    Path tempDirectory;
+
+    @AfterEach
+    void cleanUp() {
+        EnergyDataCollector.clear();
+        ResourceAgent.resourceAgents = new ArrayList<>();
+        AgentApplication.agentApplications = new ArrayList<>();
+        Deployment.registryService = null;
+        Deployment.taskNum = 0;
+        WorkflowJob.workflowJobs = new ArrayList<>();
+        WorkflowScheduler.schedulers = new ArrayList<>();
+        WorkflowExecutor.getIstance();
+        WorkflowExecutor.workflowSchedulers = new ArrayList<>();
+    }
+
+    /**
+     * Runs a scenario till the time of the checkpoint and saves it, then finishes both the
+     * original and the restored simulation.
+     *
+     * @return the results of the original and the restored simulation
+     */
+    private String[] runAndRestore(Scenario scenario, long checkpointAt, Runnable atCheckpoint,
+            Supplier<String> finish) throws Exception {
+        File file = tempDirectory.resolve("warm.ckpt").toFile();
+        SimulationContext ctx = new SimulationContext(11);
+        String original;
+        long checkpointTime;
+        SimulationContext prev = SimulationContext.bind(ctx);
+        try {
+            cleanUp();
+            scenario.load();
+            Timed.simulateUntil(checkpointAt);
+            atCheckpoint.run();
+            checkpointTime = Timed.getFireCount();
+            SimulationCheckpoint.save(file);
+            original = finish.get();
+        } finally {
+            SimulationContext.bind(prev);
+        }
+
+        SimulationContext restored = SimulationCheckpoint.load(file);
+        assertNotSame(ctx, restored);
+        assertEquals(checkpointTime, restored.getFireCount());
+        assertNotSame(restored.getRegistry(Device.class), Device.allDevices,
+                "Restoring should leave the lists of the default context alone");
+        assertNotSame(restored.getRegistry(ComputingAppliance.class), ComputingAppliance.allComputingAppliances,
+                "Restoring should leave the lists of the default context alone");
+        String[] continued = new String[1];
+        restored.run(() -> {
+            assertSame(restored.getRegistry(Device.class), Device.getAllDevices());
+            assertSame(restored.getRegistry(ComputingAppliance.class), ComputingAppliance.getAllComputingAppliances());
+            continued[0] = finish.get();
+        });
+        return new String[] { original, continued[0] };
+    }
+
+    private static void loadScenario() throws Exception {
+        Map<String, String> iaasLoaders = new HashMap<>();
+        iaasLoaders.put("LPDS_16", examples + "LPDS_16.xml");
+        iaasLoaders.put("LPDS_32", examples + "LPDS_32.xml");
+        DeviceXmlModel.loadDeviceXml(examples + "devices.xml");
+        InstanceXmlModel.loadInstanceXml(examples + "instances.xml");
+        ApplianceXmlModel.loadApplianceXml(examples + "applications.xml", iaasLoaders);
+        for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
+            new EnergyDataCollector(ca.name, ca.iaas, true);
+        }
+    }
+
+    private static String finish() {
+        Timed.simulateUntilLastEvent();
+        StringBuilder sb = new StringBuilder();
+        sb.append(Timed.getFireCount()).append(' ').append(Application.totalBytesOnNetwork).append(' ')
+            .append(Application.totalProcessedSize).append(' ').append(Application.lastAction).append(' ')
+            .append(Device.totalGeneratedSize).append(' ').append(Device.lastAction).append(' ')
+            .append(MobilityEvent.changePositionEventCounter).append(' ')
+            .append(MobilityEvent.changeNodeEventCounter);
+        for (Device d : Device.getAllDevices()) {
+            sb.append(' ').append(d.messageCount).append('/').append(d.generatedData);
+        }
+        for (EnergyDataCollector edc : EnergyDataCollector.energyCollectors) {
+            sb.append(' ').append(edc.getName()).append('=').append(edc.energyConsumption).append('/')
+                .append(edc.size());
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void restoredScenarioContinuesIdentically() throws Exception {
+        String[] results = runAndRestore(SimulationCheckpointTest::loadScenario, 10 * 60 * 1000,
+            () -> assertTrue(Device.totalGeneratedSize > 0, "The devices should work before the checkpoint"),
+            SimulationCheckpointTest::finish);
+        assertEquals(results[0], results[1]);
+    }
+
+    private static void loadAgents() throws Exception {
+        ComputingAppliance node1 = new ComputingAppliance(demo + "LPDS_original.xml", "node1",
+                new GeoLocation(47.5, 19.08), 100);
+        ComputingAppliance node2 = new ComputingAppliance(demo + "LPDS_original.xml", "node2",
+                new GeoLocation(48.86, 2.35), 100);
+        node1.addNeighbor(node2, 50);
+
+        VirtualAppliance va = new VirtualAppliance("resourceAgentVa", 1_000, 0, false, 536_870_912L);
+        AlterableResourceConstraints arc = new AlterableResourceConstraints(1, 0.001, 536_870_912L);
+        // the capacities can store, but cannot run the components, thus the reservations are released
+        new ResourceAgent("Agent-1", 0.00002778, va, arc, new FirstFitAgentStrategy(false),
+                new Capacity(node1, 2, 2 * 1_073_741_824L, 200 * 1_073_741_824L));
+        new ResourceAgent("Agent-2", 0.00000278, va, arc, new FirstFitAgentStrategy(true),
+                new Capacity(node2, 2, 2 * 1_073_741_824L, 200 * 1_073_741_824L));
+
+        final EnumMap<PowerTransitionGenerator.PowerStateKind, Map<String, PowerState>> transitions =
+                PowerTransitionGenerator.generateTransitions(1, 1, 1, 1, 1);
+        Deployment.setImageRegistry(new Repository(Long.MAX_VALUE, "Image_Service", 125_000, 125_000, 125_000,
+                new HashMap<>(), transitions.get(PowerTransitionGenerator.PowerStateKind.storage),
+                transitions.get(PowerTransitionGenerator.PowerStateKind.network)));
+
+        new Submission(AgentApplicationReader.readAgentApplications(
+                demo + "AGENT_examples/app_input.json.example"), 2048, 60_000);
+    }
+
+    private static String finishAgents() {
+        Timed.simulateUntilLastEvent();
+        StringBuilder sb = new StringBuilder();
+        sb.append(Timed.getFireCount()).append(' ').append(Deployment.taskNum).append(' ')
+            .append(Deployment.registryService.contents().size());
+        for (AgentApplication app : AgentApplication.agentApplications) {
+            sb.append(' ').append(app.name).append('=').append(app.deploymentTime).append('/')
+                .append(app.offers.size());
+        }
+        for (ResourceAgent agent : ResourceAgent.resourceAgents) {
+            sb.append(' ').append(agent.name);
+            for (Capacity capacity : agent.capacities) {
+                sb.append(' ').append(capacity).append('/').append(capacity.utilisations.size());
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void restoredAgentsContinueIdentically() throws Exception {
+        String[] results = runAndRestore(SimulationCheckpointTest::loadAgents, 1_153_350, () -> {
+            // the application was picked up, but the agents are still negotiating
+            assertEquals(1, AgentApplication.agentApplications.size());
+            assertTrue(AgentApplication.agentApplications.get(0).deploymentTime > 0,
+                    "The broadcast should be started before the checkpoint");
+        }, SimulationCheckpointTest::finishAgents);
+        assertEquals(results[0], results[1]);
+        assertTrue(results[1].contains("App-1=-1.0/0"), results[1]);
+    }
+
+    private static void loadWorkflow() throws Exception {
+        ArrayList<WorkflowComputingAppliance> nodes = new ArrayList<>();
+        nodes.add(new WorkflowComputingAppliance(demo + "ELKH_original.xml", "node0",
+                new GeoLocation(48.8566, 2.3522), 0));
+        nodes.add(new WorkflowComputingAppliance(demo + "ELKH_original.xml", "node1",
+                new GeoLocation(51.5074, -0.1278), 0));
+        WorkflowComputingAppliance.setDistanceBasedLatency();
+        for (WorkflowComputingAppliance ca : nodes) {
+            new EnergyDataCollector(ca.name, ca.iaas, true);
+        }
+
+        VirtualAppliance va = new VirtualAppliance("va", 100, 0, false, 1073741824L);
+        AlterableResourceConstraints arc = new AlterableResourceConstraints(4, 0.001, 4294967296L);
+        Instance instance = new Instance("instance", va, arc, 0.102 / 60 / 60 / 1000, 1);
+        WorkflowExecutor.getIstance().submitJobs(new MaxMinScheduler(nodes, instance, null,
+                WorkflowJobModel.loadWorkflowXml(demo + "WORKFLOW_examples/IoT_CyberShake_100.xml", "-0")));
+    }
+
+    private static String finishWorkflow() {
+        Timed.simulateUntilLastEvent();
+        StringBuilder sb = new StringBuilder();
+        sb.append(Timed.getFireCount());
+        for (WorkflowScheduler scheduler : WorkflowExecutor.workflowSchedulers) {
+            sb.append(' ').append(scheduler.startTime).append('-').append(scheduler.stopTime).append(' ')
+                .append(scheduler.vmTaskLogger);
+        }
+        for (WorkflowJob job : WorkflowJob.workflowJobs) {
+            sb.append(' ').append(job.id).append('=').append(job.state);
+        }
+        for (ComputingAppliance ca : ComputingAppliance.getAllComputingAppliances()) {
+            sb.append(' ').append(ca.name).append('=').append(((WorkflowComputingAppliance) ca).vmTime);
+        }
+        for (EnergyDataCollector edc : EnergyDataCollector.energyCollectors) {
+            sb.append(' ').append(edc.getName()).append('=').append(edc.energyConsumption);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void restoredWorkflowContinuesIdentically() throws Exception {
+        String[] results = runAndRestore(SimulationCheckpointTest::loadWorkflow, 10 * 60 * 1000, () -> {
+            long completed = WorkflowJob.workflowJobs.stream()
+                    .filter(job -> job.state == WorkflowJob.State.COMPLETED).count();
+            assertTrue(completed > 0 && completed < WorkflowJob.workflowJobs.size(),
+                    "The workflow should be running at the checkpoint, completed jobs: " + completed);
+        }, SimulationCheckpointTest::finishWorkflow);
+        assertEquals(results[0], results[1]);
+    }
+}
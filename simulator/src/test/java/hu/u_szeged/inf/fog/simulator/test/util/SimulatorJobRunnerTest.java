@@ -0,0 +1,41 @@
+package hu.u_szeged.inf.fog.simulator.test.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hu.u_szeged.inf.fog.simulator.util.result.SimulatorJobRunner;
+import java.io.File;
+import org.junit.jupiter.api.Test;
+
+public class SimulatorJobRunnerTest {
+
+    @Test
+    void announcementRoundTrip() {
+        File file = new File("results dir", "timeline file.html");
+        String line = SimulatorJobRunner.announcement("TIMELINE", file);
+        assertArrayEquals(new String[] {"TIMELINE", file.getAbsolutePath()},
+                SimulatorJobRunner.parseAnnouncement(line));
+
+        File summary = new File("result.ser");
+        line = SimulatorJobRunner.announcement(SimulatorJobRunner.SUMMARY, summary);
+        assertArrayEquals(new String[] {SimulatorJobRunner.SUMMARY, summary.getAbsolutePath()},
+                SimulatorJobRunner.parseAnnouncement(line));
+    }
+
+    @Test
+    void malformedAnnouncements() {
+        // ordinary output of the simulation
+        assertNull(SimulatorJobRunner.parseAnnouncement(""));
+        assertNull(SimulatorJobRunner.parseAnnouncement("Simulation finished"));
+        assertNull(SimulatorJobRunner.parseAnnouncement("dissect-cf-result"));
+        // announcements without a type or a path
+        assertNull(SimulatorJobRunner.parseAnnouncement(SimulatorJobRunner.RESULT_PREFIX));
+        assertNull(SimulatorJobRunner.parseAnnouncement(SimulatorJobRunner.RESULT_PREFIX + "TIMELINE"));
+        assertNull(SimulatorJobRunner.parseAnnouncement(SimulatorJobRunner.RESULT_PREFIX + "TIMELINE "));
+        assertNull(SimulatorJobRunner.parseAnnouncement(SimulatorJobRunner.RESULT_PREFIX + " /tmp/file"));
+
+        assertThrows(IllegalArgumentException.class, () -> SimulatorJobRunner.announcement("", new File("x")));
+        assertThrows(IllegalArgumentException.class, () -> SimulatorJobRunner.announcement("A B", new File("x")));
+    }
+}
@@ -0,0 +1,166 @@
+package hu.u_szeged.inf.fog.simulator.test.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.u_szeged.inf.fog.simulator.application.Application;
+import hu.u_szeged.inf.fog.simulator.application.strategy.RandomApplicationStrategy;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.node.ComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.util.TimelineStore;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser;
+import hu.u_szeged.inf.fog.simulator.util.TimelineVisualiser.TimelineEntry;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TimelineVisualiserTest {
+
+    static final String nodeFile = "src/main/resources/demo/LPDS_original.xml";
+
+    @TempDir
+    Path resultDirectory;
+
+    int originalChunkSize;
+
+    @BeforeEach
+    void useSmallChunks() {
+        originalChunkSize = TimelineStore.chunkSize;
+        TimelineStore.chunkSize = 4;
+    }
+
+    @AfterEach
+    void restoreChunks() {
+        TimelineStore.chunkSize = originalChunkSize;
+    }
+
+    private String read(String first, String... more) throws Exception {
+        return Files.readString(resultDirectory.resolve(Path.of(first, more)));
+    }
+
+    @Test
+    void recordedEntriesAreStreamedInChunks() throws Exception {
+        List<TimelineEntry> entries = new ArrayList<>();
+        TimelineVisualiser.startRecording(resultDirectory.toString());
+        assertTrue(TimelineVisualiser.isRecording());
+        for (int i = 0; i < 10; i++) {
+            TimelineVisualiser.addEntry(entries, i % 2 == 0 ? "even" : "odd", i * 100, i * 100 + 50, "task-" + i);
+        }
+        TimelineVisualiser.addEntry(entries, "even", 1_000_000, 1_000_010, "late");
+        assertTrue(entries.isEmpty());
+
+        // full chunks are written while recording
+        assertTrue(Files.exists(resultDirectory.resolve(Path.of("timeline", "chunk-0-1.js"))));
+        assertFalse(Files.exists(resultDirectory.resolve(Path.of("timeline", "chunk-0-2.js"))));
+
+        File html = TimelineVisualiser.generateTimeline(resultDirectory.toString());
+        assertFalse(TimelineVisualiser.isRecording());
+        assertEquals(resultDirectory.resolve("timeline.html").toFile(), html);
+
+        assertEquals("timelineChunk(0,0,[\"task-0\",\"task-1\",\"task-2\",\"task-3\"],"
+                + "[0,0,0,50,1,1,100,50,0,2,200,50,1,3,300,50]);\n", read("timeline", "chunk-0-0.js"));
+        assertEquals("timelineChunk(0,2,[\"task-8\",\"task-9\",\"late\"],"
+                + "[0,0,800,50,1,1,900,50,0,2,1000000,10]);\n", read("timeline", "chunk-0-2.js"));
+
+        // on the 1 second level the close entries of a row are merged, the late one is not
+        assertEquals("timelineChunk(1,0,[],[0,5,0,850,0,1,1000000,10,1,5,100,850]);\n",
+                read("timeline", "chunk-1-0.js"));
+
+        String page = read("timeline.html");
+        assertTrue(page.contains("var timelineIndex = {\"path\":\"timeline\",\"first\":0,\"last\":1000010,"
+                + "\"rows\":[\"even\",\"odd\"],\"levels\":[{\"gap\":0,\"embedded\":true,"
+                + "\"chunks\":[[0,350,4],[400,750,4],[800,1000010,3]]},"));
+        assertTrue(page.contains("<script>timelineChunk(1,0,"));
+        assertTrue(page.contains("function timelineRender()"));
+    }
+
+    @Test
+    void collectedEntriesAreKeptUntilGeneration() throws Exception {
+        List<TimelineEntry> entries = new ArrayList<>();
+        TimelineVisualiser.addEntry(entries, "row", 10, 20, "text");
+        assertEquals(1, entries.size());
+        assertEquals("text", entries.get(0).text);
+        assertEquals(20, entries.get(0).stop);
+    }
+
+    /**
+     * Creates an appliance with and one without an application, adds the same entries
+     * to them and generates the timeline into the given subdirectory.
+     */
+    private void applianceTimeline(String directory, boolean recording) throws Exception {
+        String target = resultDirectory.resolve(directory).toString();
+        new SimulationContext(1).run(() -> {
+            try {
+                if (recording) {
+                    TimelineVisualiser.startRecording(target);
+                }
+                ComputingAppliance idle = new ComputingAppliance(nodeFile, "idle", new GeoLocation(47, 19), 1000);
+                ComputingAppliance busy = new ComputingAppliance(nodeFile, "busy", new GeoLocation(46, 20), 1000);
+                Application app = new Application("app", 1000, 10, 100, false,
+                        new RandomApplicationStrategy(0.5, 2), null);
+                busy.applications.add(app);
+                TimelineVisualiser.addEntry(idle, 0, 10, "idle-vm");
+                TimelineVisualiser.addEntry(busy, 5, 15, "busy-vm");
+                TimelineVisualiser.addEntry(app.timelineEntries, app.name, 10, 20, "task");
+                TimelineVisualiser.addEntry(idle, 20, 30, "idle-vm-2");
+                TimelineVisualiser.generateTimeline(target);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Lists the entries of the first chunk of a timeline as row, text, start and duration.
+     */
+    private Set<String> entries(String directory) throws Exception {
+        Matcher rows = Pattern.compile("\"rows\":\\[\"(.*?)\"\\]").matcher(read(directory, "timeline.html"));
+        assertTrue(rows.find());
+        String[] rowNames = rows.group(1).split("\",\"");
+        Matcher chunk = Pattern.compile("\\[\"(.*)\"\\],\\[(.*)\\]")
+                .matcher(read(directory, "timeline", "chunk-0-0.js"));
+        assertTrue(chunk.find());
+        String[] texts = chunk.group(1).split("\",\"");
+        String[] numbers = chunk.group(2).split(",");
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < numbers.length; i += 4) {
+            result.add(rowNames[Integer.parseInt(numbers[i])] + " " + texts[Integer.parseInt(numbers[i + 1])]
+                    + " " + numbers[i + 2] + " " + numbers[i + 3]);
+        }
+        return result;
+    }
+
+    @Test
+    void applianceEntriesMatchInBothModes() throws Exception {
+        applianceTimeline("memory", false);
+        applianceTimeline("recorded", true);
+        // the appliance with an application is represented by the row of its application
+        Set<String> expected = Set.of("idle idle-vm 0 10", "app task 10 10", "idle idle-vm-2 20 10");
+        assertEquals(expected, entries("memory"));
+        assertEquals(expected, entries("recorded"));
+    }
+
+    @Test
+    void namesAreEscaped() throws Exception {
+        TimelineVisualiser.startRecording(resultDirectory.toString());
+        TimelineVisualiser.addEntry(new ArrayList<>(), "a'b\"c</script>", 0, 1, "x\\y\n");
+        TimelineVisualiser.generateTimeline(resultDirectory.toString());
+
+        assertEquals("timelineChunk(0,0,[\"x\\\\y\\n\"],[0,0,0,1]);\n", read("timeline", "chunk-0-0.js"));
+        String page = read("timeline.html");
+        assertTrue(page.contains("\"rows\":[\"a'b\\\"c\\u003c/script>\"]"));
+        assertFalse(page.contains("c</script>"));
+    }
+}
@@ -0,0 +1,107 @@
+package hu.u_szeged.inf.fog.simulator.test.workflow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hu.mta.sztaki.lpds.cloud.simulator.SimulationContext;
+import hu.u_szeged.inf.fog.simulator.iot.mobility.GeoLocation;
+import hu.u_szeged.inf.fog.simulator.node.WorkflowComputingAppliance;
+import hu.u_szeged.inf.fog.simulator.workflow.aco.CentralisedAntOptimiser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class CentralisedAntOptimiserTest {
+
+    static final String nodeFile = "src/main/resources/demo/LPDS_original.xml";
+
+    /**
+     * Runs the optimiser in a fresh simulation and collects the best fitness of every
+     * iteration and the pheromone matrices after the iterations.
+     */
+    private static HashMap<String, ArrayList<String>> cluster(int threads, List<Double> bestFitness,
+            List<double[][]> pheromones) {
+        HashMap<String, ArrayList<String>> clusters = new HashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        new SimulationContext(42).run(() -> {
+            try {
+                Random rnd = new Random(42);
+                ArrayList<WorkflowComputingAppliance> centerNodes = new ArrayList<>();
+                ArrayList<WorkflowComputingAppliance> nodesToBeClustered = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    GeoLocation location = new GeoLocation(45 + rnd.nextDouble() * 5, 15 + rnd.nextDouble() * 10);
+                    WorkflowComputingAppliance node = new WorkflowComputingAppliance(nodeFile, "node" + i, location, 1000);
+                    (i < 4 ? centerNodes : nodesToBeClustered).add(node);
+                }
+                CentralisedAntOptimiser.runOptimiser(centerNodes, nodesToBeClustered, 16, 10, 0.75, 0.75, 0.25, 0.15,
+                        pool, (iteration, ants, pheromoneMatrix) -> {
+                            bestFitness.add(ants[0].getFitness());
+                            pheromones.add(Arrays.stream(pheromoneMatrix).map(double[]::clone).toArray(double[][]::new));
+                        }).forEach((center, nodes) -> {
+                            ArrayList<String> names = new ArrayList<>();
+                            nodes.forEach(node -> names.add(node.name));
+                            clusters.put(center.name, names);
+                        });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        pool.shutdown();
+        return clusters;
+    }
+
+    @Test
+    @Timeout(30)
+    void resultsDoNotDependOnThreadCount() {
+        List<Double> sequentialFitness = new ArrayList<>();
+        List<double[][]> sequentialPheromones = new ArrayList<>();
+        HashMap<String, ArrayList<String>> sequential = cluster(1, sequentialFitness, sequentialPheromones);
+
+        List<Double> parallelFitness = new ArrayList<>();
+        List<double[][]> parallelPheromones = new ArrayList<>();
+        HashMap<String, ArrayList<String>> parallel = cluster(4, parallelFitness, parallelPheromones);
+
+        assertEquals(10, sequentialFitness.size());
+        assertEquals(sequentialFitness, parallelFitness);
+        for (int it = 0; it < sequentialPheromones.size(); it++) {
+            double[][] expected = sequentialPheromones.get(it);
+            double[][] actual = parallelPheromones.get(it);
+            for (int i = 0; i < expected.length; i++) {
+                assertArrayEquals(expected[i], actual[i]);
+            }
+        }
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    @Timeout(30)
+    void concurrentSimulationsDoNotInterfere() throws Exception {
+        List<Double> expectedFitness = new ArrayList<>();
+        HashMap<String, ArrayList<String>> expected = cluster(2, expectedFitness, new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<List<Double>> fitness = new ArrayList<>();
+            List<Future<HashMap<String, ArrayList<String>>>> clusters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                List<Double> bestFitness = new ArrayList<>();
+                fitness.add(bestFitness);
+                clusters.add(executor.submit(() -> cluster(2, bestFitness, new ArrayList<>())));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected, clusters.get(i).get());
+                assertEquals(expectedFitness, fitness.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}